@@ -0,0 +1,503 @@
+package sootup.analysis.interprocedural.icfg;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Kadiray Karakaya and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.UnmodifiableIterator;
+import heros.InterproceduralCFG;
+import heros.ThreadSafe;
+import java.util.*;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.callgraph.CallEdge;
+import sootup.callgraph.CallGraph;
+import sootup.callgraph.CallGraphEdgeType;
+import sootup.core.graph.StmtGraph;
+import sootup.core.jimple.basic.Value;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootClass;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.views.View;
+
+/**
+ * An {@link InterproceduralCFG} that is computed once from a {@link CallGraph} and is immutable
+ * afterwards. The Stmts and the methods of the ICFG are numbered densely and every query is
+ * answered by a lookup of the index of its argument and an array access: queries neither allocate
+ * nor lock and the ICFG can be shared by any number of threads.
+ *
+ * <p>Contains the same Stmts, edges and callers as a {@link JimpleBasedInterproceduralCFG} of the
+ * same {@link CallGraph}, but precomputes everything the {@link JimpleBasedInterproceduralCFG}
+ * computes on demand.
+ *
+ * <p>The Stmts are indexed by identity, so the bodies of the methods must not be rebuilt while the
+ * ICFG is in use, i.e. the view must not evict them from a bounded or soft {@link
+ * sootup.core.cache.BodyCache}.
+ */
+@ThreadSafe
+public class ImmutableJimpleBasedICFG implements BiDiInterproceduralCFG<Stmt, SootMethod> {
+
+  private static final byte CALL = 1;
+  private static final byte EXIT = 1 << 1;
+  private static final byte START = 1 << 2;
+  private static final byte RETURN_SITE = 1 << 3;
+
+  // indexed by the Stmt index
+  @Nonnull private final Stmt[] stmts;
+  @Nonnull private final StmtIndexMap stmtToIndex;
+  @Nonnull private final int[] stmtToMethod;
+  @Nonnull private final byte[] stmtKinds;
+  @Nonnull private final List<Stmt>[] successors;
+  @Nonnull private final List<Stmt>[] predecessors;
+  @Nonnull private final Collection<SootMethod>[] callees;
+
+  // indexed by the method index
+  @Nonnull private final SootMethod[] methods;
+  @Nonnull private final Map<MethodSignature, Integer> methodToIndex;
+  @Nonnull private final StmtGraph<?>[] stmtGraphs;
+  @Nonnull private final Collection<Stmt>[] startPoints;
+  @Nonnull private final Collection<Stmt>[] endPoints;
+  @Nonnull private final Collection<Stmt>[] callers;
+  @Nonnull private final Set<Stmt>[] callsFromWithin;
+  // an element is null if the body of its method lacks a parameter local
+  @Nonnull private final List<Value>[] parameterRefs;
+
+  @Nonnull private final Set<Stmt> nonCallStartNodes;
+  @Nonnull private final Set<Stmt> nonCallEndNodes;
+
+  /**
+   * Builds the ICFG of all methods of the {@link CallGraph} that have a body.
+   *
+   * @param includeReflectiveCalls whether reflective call sites are reported as callers of their
+   *     targets; explicit, fake and static initializer call sites always are.
+   */
+  @SuppressWarnings("unchecked")
+  public ImmutableJimpleBasedICFG(
+      @Nonnull View<? extends SootClass<?>> view,
+      @Nonnull CallGraph cg,
+      boolean includeReflectiveCalls) {
+    final List<SootMethod> methodList = new ArrayList<>();
+    int stmtCount = 0;
+    for (MethodSignature methodSignature : cg.getMethodSignatures()) {
+      final Optional<? extends SootMethod> methodOpt = view.getMethod(methodSignature);
+      if (methodOpt.isPresent() && methodOpt.get().hasBody()) {
+        methodList.add(methodOpt.get());
+        stmtCount += methodOpt.get().getBody().getStmtGraph().nodes().size();
+      }
+    }
+
+    final int methodCount = methodList.size();
+    methods = methodList.toArray(new SootMethod[0]);
+    methodToIndex = new HashMap<>(methodCount * 4 / 3 + 1);
+    stmtGraphs = new StmtGraph<?>[methodCount];
+    startPoints = new Collection[methodCount];
+    endPoints = new Collection[methodCount];
+    callers = new Collection[methodCount];
+    callsFromWithin = new Set[methodCount];
+    parameterRefs = new List[methodCount];
+
+    stmts = new Stmt[stmtCount];
+    stmtToMethod = new int[stmtCount];
+    stmtKinds = new byte[stmtCount];
+    successors = new List[stmtCount];
+    predecessors = new List[stmtCount];
+    callees = new Collection[stmtCount];
+
+    final int[] methodStarts = new int[methodCount + 1];
+    int i = 0;
+    for (int m = 0; m < methodCount; m++) {
+      methodToIndex.put(methods[m].getSignature(), m);
+      final StmtGraph<?> graph = methods[m].getBody().getStmtGraph();
+      stmtGraphs[m] = graph;
+      methodStarts[m] = i;
+      for (Stmt stmt : graph.nodes()) {
+        stmts[i] = stmt;
+        stmtToMethod[i] = m;
+        i++;
+      }
+    }
+    methodStarts[methodCount] = i;
+    stmtToIndex = new StmtIndexMap(stmts);
+
+    for (int m = 0; m < methodCount; m++) {
+      final StmtGraph<?> graph = stmtGraphs[m];
+      final ImmutableSet.Builder<Stmt> calls = ImmutableSet.builder();
+      for (int s = methodStarts[m]; s < methodStarts[m + 1]; s++) {
+        final Stmt stmt = stmts[s];
+        successors[s] = ImmutableList.copyOf(graph.successors(stmt));
+        predecessors[s] = ImmutableList.copyOf(graph.predecessors(stmt));
+        if (stmt.containsInvokeExpr()) {
+          stmtKinds[s] |= CALL;
+          calls.add(stmt);
+        }
+      }
+      callsFromWithin[m] = calls.build();
+
+      final Set<Stmt> entrypoints = new LinkedHashSet<>(graph.getEntrypoints());
+      entrypoints.remove(null);
+      startPoints[m] = ImmutableList.copyOf(entrypoints);
+      for (Stmt startPoint : startPoints[m]) {
+        stmtKinds[stmtToIndex.get(startPoint)] |= START;
+      }
+      endPoints[m] = ImmutableList.copyOf(graph.getTails());
+      for (Stmt endPoint : endPoints[m]) {
+        stmtKinds[stmtToIndex.get(endPoint)] |= EXIT;
+      }
+
+      try {
+        parameterRefs[m] =
+            Collections.unmodifiableList(
+                new ArrayList<>(methods[m].getBody().getParameterLocals()));
+      } catch (IllegalStateException e) {
+        // only a query of the parameters of this method fails, as in the cache-based ICFG
+        parameterRefs[m] = null;
+      }
+    }
+
+    for (int s = 0; s < stmtCount; s++) {
+      callees[s] =
+          (stmtKinds[s] & CALL) != 0 ? resolveCallees(cg, stmts[s]) : Collections.emptyList();
+      for (Stmt pred : predecessors[s]) {
+        final int predIndex = stmtToIndex.get(pred);
+        if (predIndex >= 0 && (stmtKinds[predIndex] & CALL) != 0) {
+          stmtKinds[s] |= RETURN_SITE;
+          break;
+        }
+      }
+    }
+    nonCallStartNodes = new StmtsWithoutKind((byte) (CALL | START));
+    nonCallEndNodes = new StmtsWithoutKind((byte) (CALL | EXIT));
+
+    for (int m = 0; m < methodCount; m++) {
+      // a call site may call the method by several edges of different kinds
+      final Set<Stmt> callSites = new LinkedHashSet<>();
+      for (CallEdge callEdge : cg.callSitesTo(methods[m].getSignature())) {
+        if (isAcceptedEdge(callEdge.getKind(), includeReflectiveCalls)) {
+          callSites.add(callEdge.getCallSite());
+        }
+      }
+      callers[m] = ImmutableList.copyOf(callSites);
+    }
+  }
+
+  @Nonnull
+  private Collection<SootMethod> resolveCallees(@Nonnull CallGraph cg, @Nonnull Stmt callSite) {
+    final Set<MethodSignature> targets = cg.calleesOf(callSite);
+    if (targets.isEmpty()) {
+      return Collections.emptyList();
+    }
+    final ImmutableList.Builder<SootMethod> res = ImmutableList.builder();
+    for (MethodSignature target : targets) {
+      // abstract methods and methods without a body are not part of the ICFG
+      final Integer m = methodToIndex.get(target);
+      if (m != null) {
+        res.add(methods[m]);
+      }
+    }
+    return res.build();
+  }
+
+  /** only retain callers that are explicit call sites or Thread.start() */
+  private static boolean isAcceptedEdge(
+      @Nonnull CallGraphEdgeType edgeType, boolean includeReflectiveCalls) {
+    return edgeType.isExplicit()
+        || edgeType.isFake()
+        || edgeType.isClinit()
+        || (includeReflectiveCalls && edgeType.isReflection());
+  }
+
+  /** Returns the dense index of the given Stmt in [0, {@link #getStmtCount()}) or -1. */
+  public int getStmtIndex(@Nonnull Stmt stmt) {
+    return stmtToIndex.get(stmt);
+  }
+
+  @Nonnull
+  public Stmt getStmt(int index) {
+    return stmts[index];
+  }
+
+  public int getStmtCount() {
+    return stmts.length;
+  }
+
+  /** Returns the dense index of the given method in [0, {@link #getMethodCount()}) or -1. */
+  public int getMethodIndex(@Nonnull SootMethod method) {
+    final Integer index = methodToIndex.get(method.getSignature());
+    return index == null ? -1 : index;
+  }
+
+  @Nonnull
+  public SootMethod getMethod(int index) {
+    return methods[index];
+  }
+
+  public int getMethodCount() {
+    return methods.length;
+  }
+
+  /** Returns the index of the method that contains the Stmt with the given index. */
+  public int getMethodIndexOf(int stmtIndex) {
+    return stmtToMethod[stmtIndex];
+  }
+
+  private boolean hasKind(@Nonnull Stmt stmt, byte kind) {
+    final int index = stmtToIndex.get(stmt);
+    return index >= 0 && (stmtKinds[index] & kind) != 0;
+  }
+
+  @Nullable
+  @Override
+  public SootMethod getMethodOf(@Nonnull Stmt stmt) {
+    final int index = stmtToIndex.get(stmt);
+    return index < 0 ? null : methods[stmtToMethod[index]];
+  }
+
+  @Nonnull
+  @Override
+  public List<Stmt> getSuccsOf(@Nonnull Stmt stmt) {
+    final int index = stmtToIndex.get(stmt);
+    return index < 0 ? Collections.emptyList() : successors[index];
+  }
+
+  @Nonnull
+  @Override
+  public List<Stmt> getPredsOf(@Nonnull Stmt stmt) {
+    final int index = stmtToIndex.get(stmt);
+    return index < 0 ? Collections.emptyList() : predecessors[index];
+  }
+
+  @Nonnull
+  @Override
+  public Collection<SootMethod> getCalleesOfCallAt(@Nonnull Stmt stmt) {
+    final int index = stmtToIndex.get(stmt);
+    return index < 0 ? Collections.emptyList() : callees[index];
+  }
+
+  @Nonnull
+  @Override
+  public Collection<Stmt> getCallersOf(@Nonnull SootMethod method) {
+    final Integer index = methodToIndex.get(method.getSignature());
+    return index == null ? Collections.emptyList() : callers[index];
+  }
+
+  @Nonnull
+  @Override
+  public Set<Stmt> getCallsFromWithin(@Nonnull SootMethod method) {
+    final Integer index = methodToIndex.get(method.getSignature());
+    return index == null ? Collections.emptySet() : callsFromWithin[index];
+  }
+
+  @Nonnull
+  @Override
+  public Collection<Stmt> getStartPointsOf(@Nonnull SootMethod method) {
+    final Integer index = methodToIndex.get(method.getSignature());
+    return index == null ? Collections.emptySet() : startPoints[index];
+  }
+
+  @Nonnull
+  @Override
+  public Collection<Stmt> getEndPointsOf(@Nonnull SootMethod method) {
+    final Integer index = methodToIndex.get(method.getSignature());
+    return index == null ? Collections.emptySet() : endPoints[index];
+  }
+
+  @Nonnull
+  @Override
+  public Collection<Stmt> getReturnSitesOfCallAt(@Nonnull Stmt stmt) {
+    return getSuccsOf(stmt);
+  }
+
+  @Nonnull
+  @Override
+  public List<Stmt> getPredsOfCallAt(@Nonnull Stmt stmt) {
+    return getPredsOf(stmt);
+  }
+
+  @Override
+  public boolean isCallStmt(@Nonnull Stmt stmt) {
+    return hasKind(stmt, CALL);
+  }
+
+  @Override
+  public boolean isExitStmt(@Nonnull Stmt stmt) {
+    return hasKind(stmt, EXIT);
+  }
+
+  @Override
+  public boolean isStartPoint(@Nonnull Stmt stmt) {
+    return hasKind(stmt, START);
+  }
+
+  @Override
+  public boolean isReturnSite(@Nonnull Stmt stmt) {
+    return hasKind(stmt, RETURN_SITE);
+  }
+
+  @Override
+  public boolean isReachable(@Nonnull Stmt stmt) {
+    return stmtToIndex.get(stmt) >= 0;
+  }
+
+  @Nonnull
+  @Override
+  public Set<Stmt> allNonCallStartNodes() {
+    return nonCallStartNodes;
+  }
+
+  @Nonnull
+  @Override
+  public Set<Stmt> allNonCallEndNodes() {
+    return nonCallEndNodes;
+  }
+
+  @Override
+  public boolean isFallThroughSuccessor(@Nonnull Stmt stmt, @Nonnull Stmt successorCandidate) {
+    assert getSuccsOf(stmt).contains(successorCandidate);
+    return stmt.fallsThrough() && getSuccsOf(stmt).get(0) == successorCandidate;
+  }
+
+  @Override
+  public boolean isBranchTarget(@Nonnull Stmt stmt, @Nonnull Stmt successor) {
+    assert getSuccsOf(stmt).contains(successor);
+    return stmt.branches();
+  }
+
+  @Nonnull
+  @Override
+  public StmtGraph<?> getOrCreateStmtGraph(@Nonnull SootMethod method) {
+    final Integer index = methodToIndex.get(method.getSignature());
+    return index == null ? method.getBody().getStmtGraph() : stmtGraphs[index];
+  }
+
+  @Nonnull
+  @Override
+  public List<Value> getParameterRefs(@Nonnull SootMethod method) {
+    final Integer index = methodToIndex.get(method.getSignature());
+    final List<Value> refs = index == null ? null : parameterRefs[index];
+    // throws the IllegalStateException again if the body lacks a parameter local
+    return refs == null ? new ArrayList<>(method.getBody().getParameterLocals()) : refs;
+  }
+
+  /**
+   * An open addressing hash map from the Stmts, which are compared by identity, to their index. In
+   * contrast to a Map&lt;Stmt, Integer&gt; it needs neither entry objects nor boxed indices.
+   */
+  private static final class StmtIndexMap {
+    @Nonnull private final Stmt[] keys;
+    @Nonnull private final int[] values;
+    private final int mask;
+
+    StmtIndexMap(@Nonnull Stmt[] stmts) {
+      // the table is at most half full
+      final int capacity = Integer.highestOneBit(Math.max(1, stmts.length) * 2 - 1) << 1;
+      keys = new Stmt[capacity];
+      values = new int[capacity];
+      mask = capacity - 1;
+      for (int i = 0; i < stmts.length; i++) {
+        int slot = slotOf(stmts[i]);
+        while (keys[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = stmts[i];
+        values[slot] = i;
+      }
+    }
+
+    private int slotOf(@Nonnull Stmt stmt) {
+      final int hash = System.identityHashCode(stmt);
+      return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    /** Returns the index of the given Stmt or -1. */
+    int get(@Nonnull Stmt stmt) {
+      for (int slot = slotOf(stmt); keys[slot] != null; slot = (slot + 1) & mask) {
+        if (keys[slot] == stmt) {
+          return values[slot];
+        }
+      }
+      return -1;
+    }
+  }
+
+  /** A view on the Stmts that have none of the given kinds. */
+  private final class StmtsWithoutKind extends AbstractSet<Stmt> {
+    private final byte kinds;
+    private final int size;
+
+    StmtsWithoutKind(byte kinds) {
+      this.kinds = kinds;
+      int count = 0;
+      for (byte stmtKind : stmtKinds) {
+        if ((stmtKind & kinds) == 0) {
+          count++;
+        }
+      }
+      this.size = count;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      if (!(o instanceof Stmt)) {
+        return false;
+      }
+      final int index = stmtToIndex.get((Stmt) o);
+      return index >= 0 && (stmtKinds[index] & kinds) == 0;
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Nonnull
+    @Override
+    public Iterator<Stmt> iterator() {
+      return new UnmodifiableIterator<Stmt>() {
+        private int next = advance(0);
+
+        private int advance(int index) {
+          while (index < stmts.length && (stmtKinds[index] & kinds) != 0) {
+            index++;
+          }
+          return index;
+        }
+
+        @Override
+        public boolean hasNext() {
+          return next < stmts.length;
+        }
+
+        @Override
+        public Stmt next() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          final Stmt stmt = stmts[next];
+          next = advance(next + 1);
+          return stmt;
+        }
+      };
+    }
+  }
+}
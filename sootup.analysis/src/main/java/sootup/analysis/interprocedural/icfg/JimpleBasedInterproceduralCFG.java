@@ -31,13 +31,14 @@ import heros.ThreadSafe;
 import heros.solver.IDESolver;
 import java.util.*;
 import javax.annotation.Nonnull;
-import javax.annotation.Nullable;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import sootup.callgraph.CallEdge;
 import sootup.callgraph.CallGraph;
 import sootup.callgraph.CallGraphAlgorithm;
+import sootup.callgraph.CallGraphEdgeType;
 import sootup.callgraph.ClassHierarchyAnalysisAlgorithm;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.SootClass;
@@ -72,15 +73,16 @@ public class JimpleBasedInterproceduralCFG extends AbstractJimpleBasedICFG {
         @Override
         public Collection<SootMethod> load(Stmt stmt) {
           ArrayList<SootMethod> res = new ArrayList<>();
-          MethodSignature methodSignature = stmt.getInvokeExpr().getMethodSignature();
-          Optional<? extends SootMethod> smOpt = view.getMethod(methodSignature);
-          if (smOpt.isPresent()) {
-            SootMethod sm = smOpt.get();
-            if (sm.hasBody()) {
-              res.add(sm);
-            } else {
-              logger.error(
-                  "Method {} is referenced but has no body!", sm.getSignature(), new Exception());
+          for (MethodSignature methodSignature : cg.calleesOf(stmt)) {
+            Optional<? extends SootMethod> smOpt = view.getMethod(methodSignature);
+            if (smOpt.isPresent()) {
+              SootMethod sm = smOpt.get();
+              if (sm.hasBody()) {
+                res.add(sm);
+              } else if (!sm.isAbstract()) {
+                logger.error(
+                    "Method {} is referenced but has no body!", sm.getSignature(), new Exception());
+              }
             }
           }
           res.trimToSize();
@@ -96,42 +98,26 @@ public class JimpleBasedInterproceduralCFG extends AbstractJimpleBasedICFG {
       new CacheLoader<SootMethod, Collection<Stmt>>() {
         @Override
         public Collection<Stmt> load(SootMethod method) throws Exception {
-          ArrayList<Stmt> res = new ArrayList<>();
-          // only retain callers that are explicit call sites or
-          // Thread.start()
-          Set<MethodSignature> callsToMethod = cg.callsTo(method.getSignature());
-          for (MethodSignature methodSignature : callsToMethod) {
-            Stmt stmt = filterEdgeAndGetCallerStmt(methodSignature);
-            if (stmt != null) {
-              res.add(stmt);
+          // a call site may call the method by several edges of different kinds
+          Set<Stmt> res = new LinkedHashSet<>();
+          for (CallEdge callEdge : cg.callSitesTo(method.getSignature())) {
+            if (isAcceptedEdge(callEdge.getKind())) {
+              res.add(callEdge.getCallSite());
             }
           }
-          res.trimToSize();
-          return res;
+          return new ArrayList<>(res);
         }
 
         /**
-         * returns SootMethod if accepted, null otherwise
+         * only retain callers that are explicit call sites or Thread.start()
          *
-         * @param methodSignature
+         * @param edgeType the kind of the call edge
          */
-        @Nullable
-        private Stmt filterEdgeAndGetCallerStmt(@Nonnull MethodSignature methodSignature) {
-          Set<Pair<MethodSignature, CalleeMethodSignature>> callEdges =
-              CGEdgeUtil.getCallEdges(view, cg);
-          for (Pair<MethodSignature, CalleeMethodSignature> callEdge : callEdges) {
-            CalleeMethodSignature callee = callEdge.getValue();
-            if (callee.getMethodSignature().equals(methodSignature)) {
-              CGEdgeUtil.CallGraphEdgeType edgeType = callee.getEdgeType();
-              if (edgeType.isExplicit()
-                  || edgeType.isFake()
-                  || edgeType.isClinit()
-                  || (includeReflectiveCalls && edgeType.isReflection())) {
-                return callee.getSourceStmt();
-              }
-            }
-          }
-          return null;
+        private boolean isAcceptedEdge(@Nonnull CallGraphEdgeType edgeType) {
+          return edgeType.isExplicit()
+              || edgeType.isFake()
+              || edgeType.isClinit()
+              || (includeReflectiveCalls && edgeType.isReflection());
         }
       };
 
@@ -144,20 +130,37 @@ public class JimpleBasedInterproceduralCFG extends AbstractJimpleBasedICFG {
       MethodSignature mainMethodSignature,
       boolean enableExceptions,
       boolean includeReflectiveCalls) {
+    this(
+        view,
+        initCallGraph(view, mainMethodSignature),
+        enableExceptions,
+        includeReflectiveCalls);
+    this.mainMethodSignature = mainMethodSignature;
+  }
+
+  /** Creates the ICFG of the methods of an already computed call graph. */
+  public JimpleBasedInterproceduralCFG(
+      View<? extends SootClass<?>> view,
+      CallGraph cg,
+      boolean enableExceptions,
+      boolean includeReflectiveCalls) {
     super(enableExceptions);
     this.includeReflectiveCalls = includeReflectiveCalls;
     this.view = view;
-    this.mainMethodSignature = mainMethodSignature;
-    cg = initCallGraph();
+    this.cg = cg;
     initializeStmtToOwner();
   }
 
-  private CallGraph initCallGraph() {
+  private static CallGraph initCallGraph(JavaView view, MethodSignature mainMethodSignature) {
     final ViewTypeHierarchy typeHierarchy = new ViewTypeHierarchy(view);
     CallGraphAlgorithm cga = new ClassHierarchyAnalysisAlgorithm(view, typeHierarchy);
     return cga.initialize(Collections.singletonList(mainMethodSignature));
   }
 
+  public CallGraph getCallGraph() {
+    return cg;
+  }
+
   protected void initializeStmtToOwner() {
     for (MethodSignature methodSignature : cg.getMethodSignatures()) {
       final Optional<? extends SootMethod> methodOpt = view.getMethod(methodSignature);
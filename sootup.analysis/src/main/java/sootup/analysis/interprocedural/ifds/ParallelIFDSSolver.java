@@ -0,0 +1,458 @@
+package sootup.analysis.interprocedural.ifds;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Kadiray Karakaya and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import heros.FlowFunction;
+import heros.FlowFunctions;
+import heros.IFDSTabulationProblem;
+import heros.InterproceduralCFG;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A multi-threaded solver for IFDS problems. It implements the same tabulation algorithm as heros'
+ * {@link heros.solver.IFDSSolver}, i.e. the algorithm of Reps, Horwitz and Sagiv with the
+ * extensions of Naeem, Lhoták and Rodriguez, but without the detour over IDE and without global
+ * locks:
+ *
+ * <ul>
+ *   <li>the path edges are kept in concurrent maps indexed by their target node and fact, so
+ *       adding a path edge only locks one bin of the maps.
+ *   <li>the incoming calls and the end summaries are kept per start point and fact of a callee,
+ *       each guarded by its own lock.
+ * </ul>
+ *
+ * <p>Every path edge is processed as a task of the {@link Executor}. The problem, its flow
+ * functions and the {@link InterproceduralCFG} have to be thread-safe, as in heros; an ICFG that
+ * is precomputed and not modified while solving is best, as it needs no locks at all.
+ *
+ * @param <N> the nodes of the ICFG, e.g. {@link sootup.core.jimple.common.stmt.Stmt}
+ * @param <D> the data-flow facts
+ * @param <M> the methods of the ICFG, e.g. {@link sootup.core.model.SootMethod}
+ * @param <I> the type of the ICFG
+ */
+public class ParallelIFDSSolver<N, D, M, I extends InterproceduralCFG<N, M>> {
+
+  @Nonnull private final IFDSTabulationProblem<N, D, M, I> problem;
+  @Nonnull private final I icfg;
+  @Nonnull private final FlowFunctions<N, D, M> flowFunctions;
+  @Nonnull private final D zeroValue;
+  private final boolean autoAddZero;
+  private final boolean followReturnsPastSeeds;
+
+  /** the executor given by the client or null to create one with the threads of the problem */
+  @Nullable private final Executor executor;
+
+  /** the path edges (d1, n, d2) indexed by n and d2, the values are the facts d1 */
+  @Nonnull
+  private final ConcurrentHashMap<N, ConcurrentHashMap<D, Set<D>>> pathEdges =
+      new ConcurrentHashMap<>();
+
+  /** the incoming calls and end summaries indexed by the start point and the fact at it */
+  @Nonnull
+  private final ConcurrentHashMap<N, ConcurrentHashMap<D, Summary<N, D>>> summaries =
+      new ConcurrentHashMap<>();
+
+  /** the work list of the sequential mode, null in the parallel mode */
+  @Nullable private Deque<PathEdge<N, D>> workList;
+
+  /** the work list of the parallel mode, null in the sequential mode */
+  @Nullable private volatile ParallelWorkList parallelWorkList;
+
+  /**
+   * Creates a solver that uses as many threads as {@link IFDSTabulationProblem#numThreads()}
+   * returns. A problem that returns one thread is solved sequentially on the calling thread.
+   */
+  public ParallelIFDSSolver(@Nonnull IFDSTabulationProblem<N, D, M, I> problem) {
+    this(problem, null);
+  }
+
+  /**
+   * Creates a solver that processes the path edges concurrently on the given {@link Executor},
+   * e.g. a {@link ForkJoinPool}.
+   *
+   * @param executor the executor or null to use the threads of the problem
+   */
+  public ParallelIFDSSolver(
+      @Nonnull IFDSTabulationProblem<N, D, M, I> problem, @Nullable Executor executor) {
+    this.problem = problem;
+    this.icfg = problem.interproceduralCFG();
+    this.flowFunctions = problem.flowFunctions();
+    this.zeroValue = problem.zeroValue();
+    this.autoAddZero = problem.autoAddZero();
+    this.followReturnsPastSeeds = problem.followReturnsPastSeeds();
+    this.executor = executor;
+  }
+
+  /** Computes the facts that hold at the nodes reachable from the initial seeds. */
+  public void solve() {
+    if (executor != null) {
+      solveInParallel(executor);
+    } else if (problem.numThreads() > 1) {
+      ForkJoinPool pool = new ForkJoinPool(problem.numThreads());
+      try {
+        solveInParallel(pool);
+      } finally {
+        pool.shutdown();
+      }
+    } else {
+      workList = new ArrayDeque<>();
+      submitInitialSeeds();
+      PathEdge<N, D> edge;
+      while ((edge = workList.poll()) != null) {
+        process(edge);
+      }
+      workList = null;
+    }
+  }
+
+  private void solveInParallel(@Nonnull Executor executor) {
+    ParallelWorkList parallelWorkList = new ParallelWorkList(executor);
+    this.parallelWorkList = parallelWorkList;
+    try {
+      parallelWorkList.processAll(this::submitInitialSeeds);
+    } finally {
+      this.parallelWorkList = null;
+    }
+  }
+
+  /**
+   * Returns the facts that hold before the given node, without the zero value.
+   *
+   * @param node a node of the ICFG
+   * @return the facts or an empty set if the node is not reachable
+   */
+  @Nonnull
+  public Set<D> ifdsResultsAt(@Nonnull N node) {
+    Map<D, Set<D>> facts = pathEdges.get(node);
+    if (facts == null) {
+      return Collections.emptySet();
+    }
+    Set<D> result = new HashSet<>(facts.keySet());
+    result.remove(zeroValue);
+    return result;
+  }
+
+  /** @return the number of path edges computed by {@link #solve()} */
+  public long getPathEdgeCount() {
+    long count = 0;
+    for (Map<D, Set<D>> facts : pathEdges.values()) {
+      for (Set<D> sources : facts.values()) {
+        count += sources.size();
+      }
+    }
+    return count;
+  }
+
+  private void submitInitialSeeds() {
+    for (Map.Entry<N, Set<D>> seed : problem.initialSeeds().entrySet()) {
+      N startPoint = seed.getKey();
+      for (D fact : seed.getValue()) {
+        propagate(zeroValue, startPoint, fact);
+      }
+      propagate(zeroValue, startPoint, zeroValue);
+    }
+  }
+
+  /** Adds the path edge (d1, n, d2) and schedules it to be processed if it is new. */
+  private void propagate(@Nonnull D d1, @Nonnull N n, @Nonnull D d2) {
+    Set<D> sources =
+        pathEdges
+            .computeIfAbsent(n, k -> new ConcurrentHashMap<>())
+            .computeIfAbsent(d2, k -> ConcurrentHashMap.newKeySet());
+    if (!sources.add(d1)) {
+      return;
+    }
+    PathEdge<N, D> edge = new PathEdge<>(d1, n, d2);
+    if (workList != null) {
+      workList.add(edge);
+    } else {
+      parallelWorkList.submit(edge);
+    }
+  }
+
+  /** @return the facts d1 of the path edges (d1, n, d2) */
+  @Nonnull
+  private Set<D> sourcesOf(@Nonnull N n, @Nonnull D d2) {
+    Map<D, Set<D>> facts = pathEdges.get(n);
+    if (facts == null) {
+      return Collections.emptySet();
+    }
+    Set<D> sources = facts.get(d2);
+    return sources == null ? Collections.emptySet() : sources;
+  }
+
+  @Nonnull
+  private Summary<N, D> summaryOf(@Nonnull N startPoint, @Nonnull D fact) {
+    return summaries
+        .computeIfAbsent(startPoint, k -> new ConcurrentHashMap<>())
+        .computeIfAbsent(fact, k -> new Summary<>());
+  }
+
+  @Nonnull
+  private Set<D> computeTargets(@Nonnull FlowFunction<D> flowFunction, @Nonnull D source) {
+    Set<D> targets = flowFunction.computeTargets(source);
+    if (autoAddZero && source == zeroValue && !targets.contains(zeroValue)) {
+      targets = new HashSet<>(targets);
+      targets.add(zeroValue);
+    }
+    return targets;
+  }
+
+  private void process(@Nonnull PathEdge<N, D> edge) {
+    if (icfg.isCallStmt(edge.target)) {
+      processCall(edge);
+    } else {
+      if (icfg.isExitStmt(edge.target)) {
+        processExit(edge);
+      }
+      if (!icfg.getSuccsOf(edge.target).isEmpty()) {
+        processNormalFlow(edge);
+      }
+    }
+  }
+
+  /**
+   * Propagates the facts into the callees and, by their end summaries and the call-to-return flow
+   * function, to the return sites.
+   */
+  private void processCall(@Nonnull PathEdge<N, D> edge) {
+    N n = edge.target;
+    Collection<N> returnSites = icfg.getReturnSitesOfCallAt(n);
+    for (M callee : icfg.getCalleesOfCallAt(n)) {
+      Set<D> calleeFacts = computeTargets(flowFunctions.getCallFlowFunction(n, callee), edge.d2);
+      for (N startPoint : icfg.getStartPointsOf(callee)) {
+        for (D d3 : calleeFacts) {
+          propagate(d3, startPoint, d3);
+
+          Summary<N, D> summary = summaryOf(startPoint, d3);
+          Map<N, List<D>> endSummary;
+          synchronized (summary) {
+            summary.incoming.computeIfAbsent(n, k -> new HashSet<>()).add(edge.d2);
+            endSummary = Summary.copy(summary.endSummary);
+          }
+
+          // the callee was already analyzed in this context, apply its summary
+          for (Map.Entry<N, List<D>> exit : endSummary.entrySet()) {
+            for (N returnSite : returnSites) {
+              FlowFunction<D> returnFunction =
+                  flowFunctions.getReturnFlowFunction(n, callee, exit.getKey(), returnSite);
+              for (D d4 : exit.getValue()) {
+                for (D d5 : computeTargets(returnFunction, d4)) {
+                  propagate(edge.d1, returnSite, d5);
+                }
+              }
+            }
+          }
+        }
+      }
+    }
+
+    for (N returnSite : returnSites) {
+      FlowFunction<D> callToReturnFunction =
+          flowFunctions.getCallToReturnFlowFunction(n, returnSite);
+      for (D d3 : computeTargets(callToReturnFunction, edge.d2)) {
+        propagate(edge.d1, returnSite, d3);
+      }
+    }
+  }
+
+  /** Records the end summary and propagates the facts to the return sites of the callers. */
+  private void processExit(@Nonnull PathEdge<N, D> edge) {
+    N n = edge.target;
+    M method = icfg.getMethodOf(n);
+    boolean hasIncoming = false;
+    for (N startPoint : icfg.getStartPointsOf(method)) {
+      Summary<N, D> summary = summaryOf(startPoint, edge.d1);
+      Map<N, List<D>> incoming;
+      synchronized (summary) {
+        summary.endSummary.computeIfAbsent(n, k -> new HashSet<>()).add(edge.d2);
+        incoming = Summary.copy(summary.incoming);
+      }
+      hasIncoming |= !incoming.isEmpty();
+
+      for (Map.Entry<N, List<D>> call : incoming.entrySet()) {
+        N callSite = call.getKey();
+        for (N returnSite : icfg.getReturnSitesOfCallAt(callSite)) {
+          FlowFunction<D> returnFunction =
+              flowFunctions.getReturnFlowFunction(callSite, method, n, returnSite);
+          Set<D> targets = computeTargets(returnFunction, edge.d2);
+          for (D d4 : call.getValue()) {
+            for (D d3 : sourcesOf(callSite, d4)) {
+              for (D d5 : targets) {
+                propagate(d3, returnSite, d5);
+              }
+            }
+          }
+        }
+      }
+    }
+
+    // return from a method that was not called in this context, e.g. from a seed
+    if (followReturnsPastSeeds && !hasIncoming && edge.d1 == zeroValue) {
+      Collection<N> callers = icfg.getCallersOf(method);
+      for (N callSite : callers) {
+        for (N returnSite : icfg.getReturnSitesOfCallAt(callSite)) {
+          FlowFunction<D> returnFunction =
+              flowFunctions.getReturnFlowFunction(callSite, method, n, returnSite);
+          for (D d5 : computeTargets(returnFunction, edge.d2)) {
+            propagate(zeroValue, returnSite, d5);
+          }
+        }
+      }
+      if (callers.isEmpty()) {
+        // the return flow function is still applied for its side effects, as in heros
+        flowFunctions.getReturnFlowFunction(null, method, n, null).computeTargets(edge.d2);
+      }
+    }
+  }
+
+  private void processNormalFlow(@Nonnull PathEdge<N, D> edge) {
+    for (N successor : icfg.getSuccsOf(edge.target)) {
+      FlowFunction<D> flowFunction = flowFunctions.getNormalFlowFunction(edge.target, successor);
+      for (D d3 : computeTargets(flowFunction, edge.d2)) {
+        propagate(edge.d1, successor, d3);
+      }
+    }
+  }
+
+  /** A path edge (d1, target, d2): d2 holds at target if d1 holds at the start of its method. */
+  private static final class PathEdge<N, D> {
+    @Nonnull final D d1;
+    @Nonnull final N target;
+    @Nonnull final D d2;
+
+    private PathEdge(@Nonnull D d1, @Nonnull N target, @Nonnull D d2) {
+      this.d1 = d1;
+      this.target = target;
+      this.d2 = d2;
+    }
+  }
+
+  /**
+   * The calls and exits of a callee for one start point and fact at it. The fields are guarded by
+   * the lock of the summary, so a call and an exit of the same context see each other.
+   */
+  private static final class Summary<N, D> {
+    /** the facts at the call sites that lead to this context */
+    @Nonnull final Map<N, Set<D>> incoming = new HashMap<>();
+    /** the facts at the exits of the callee in this context */
+    @Nonnull final Map<N, Set<D>> endSummary = new HashMap<>();
+
+    /** Copies the map, so it can be read while the summary is modified concurrently. */
+    @Nonnull
+    static <N, D> Map<N, List<D>> copy(@Nonnull Map<N, Set<D>> map) {
+      if (map.isEmpty()) {
+        return Collections.emptyMap();
+      }
+      Map<N, List<D>> copy = new HashMap<>(map.size() * 2);
+      map.forEach((node, facts) -> copy.put(node, new ArrayList<>(facts)));
+      return copy;
+    }
+  }
+
+  /** Processes the path edges concurrently until no new path edges are found. */
+  private final class ParallelWorkList {
+    @Nonnull private final Executor executor;
+
+    /** the number of submitted path edges that have not been processed yet */
+    @Nonnull private final AtomicInteger pending = new AtomicInteger();
+
+    @Nonnull private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+    private ParallelWorkList(@Nonnull Executor executor) {
+      this.executor = executor;
+    }
+
+    void processAll(@Nonnull Runnable submitInitialEdges) {
+      // the edges are submitted while pending is incremented so that it does not reach zero
+      pending.incrementAndGet();
+      try {
+        submitInitialEdges.run();
+      } finally {
+        finishTask();
+      }
+
+      try {
+        done.join();
+      } catch (CompletionException e) {
+        final Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw e;
+      }
+    }
+
+    void submit(@Nonnull PathEdge<N, D> edge) {
+      if (done.isDone()) {
+        return;
+      }
+      pending.incrementAndGet();
+      try {
+        executor.execute(() -> run(edge));
+      } catch (RejectedExecutionException e) {
+        done.completeExceptionally(e);
+        finishTask();
+      }
+    }
+
+    private void run(@Nonnull PathEdge<N, D> edge) {
+      try {
+        if (!done.isDone()) {
+          process(edge);
+        }
+      } catch (Throwable e) {
+        done.completeExceptionally(e);
+      } finally {
+        finishTask();
+      }
+    }
+
+    private void finishTask() {
+      if (pending.decrementAndGet() == 0) {
+        done.complete(null);
+      }
+    }
+  }
+}
@@ -0,0 +1,119 @@
+package sootup.analysis.interprocedural.icfg;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Kadiray Karakaya and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import categories.Java8Test;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.callgraph.CallGraph;
+import sootup.callgraph.ClassHierarchyAnalysisAlgorithm;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootClass;
+import sootup.core.model.SootMethod;
+import sootup.core.typehierarchy.ViewTypeHierarchy;
+import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.JavaProject;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.JavaView;
+
+/**
+ * Compares the {@link ImmutableJimpleBasedICFG} with the cache-based {@link
+ * JimpleBasedInterproceduralCFG} of the same call graph.
+ */
+@Category(Java8Test.class)
+public class ImmutableJimpleBasedICFGTest {
+
+  private JavaView view;
+  private CallGraph cg;
+
+  @Before
+  public void setUp() {
+    JavaProject javaProject =
+        JavaProject.builder(new JavaLanguage(8))
+            .addInputLocation(
+                new JavaClassPathAnalysisInputLocation(
+                    System.getProperty("java.home") + "/lib/rt.jar"))
+            .addInputLocation(
+                new JavaClassPathAnalysisInputLocation("src/test/resources/taint/binary"))
+            .build();
+    view = javaProject.createOnDemandView();
+
+    SootClass<?> sc =
+        view.getClass(JavaIdentifierFactory.getInstance().getClassType("FunctionTaint")).get();
+    SootMethod entryMethod =
+        sc.getMethods().stream().filter(e -> e.getName().equals("entryPoint")).findFirst().get();
+    cg =
+        new ClassHierarchyAnalysisAlgorithm(view, new ViewTypeHierarchy(view))
+            .initialize(Collections.singletonList(entryMethod.getSignature()));
+  }
+
+  private static <T> HashSet<T> asSet(Collection<T> collection) {
+    return new HashSet<>(collection);
+  }
+
+  @Test
+  public void sameAsJimpleBasedInterproceduralCFG() {
+    JimpleBasedInterproceduralCFG expected =
+        new JimpleBasedInterproceduralCFG(view, cg, false, false);
+    ImmutableJimpleBasedICFG icfg = new ImmutableJimpleBasedICFG(view, cg, false);
+
+    assertEquals(expected.allNonCallStartNodes(), icfg.allNonCallStartNodes());
+    assertEquals(expected.allNonCallEndNodes(), icfg.allNonCallEndNodes());
+
+    for (int m = 0; m < icfg.getMethodCount(); m++) {
+      SootMethod method = icfg.getMethod(m);
+      assertEquals(m, icfg.getMethodIndex(method));
+      // the start points of the cache-based ICFG contain a shared traphandler several times
+      assertEquals(asSet(expected.getStartPointsOf(method)), asSet(icfg.getStartPointsOf(method)));
+      assertEquals(asSet(expected.getEndPointsOf(method)), asSet(icfg.getEndPointsOf(method)));
+      assertEquals(asSet(expected.getCallersOf(method)), asSet(icfg.getCallersOf(method)));
+      assertEquals(expected.getCallsFromWithin(method), icfg.getCallsFromWithin(method));
+      assertEquals(expected.getParameterRefs(method), icfg.getParameterRefs(method));
+    }
+
+    for (int s = 0; s < icfg.getStmtCount(); s++) {
+      Stmt stmt = icfg.getStmt(s);
+      assertEquals(s, icfg.getStmtIndex(stmt));
+      assertEquals(icfg.getMethod(icfg.getMethodIndexOf(s)), icfg.getMethodOf(stmt));
+      assertEquals(expected.getMethodOf(stmt), icfg.getMethodOf(stmt));
+      assertEquals(expected.getSuccsOf(stmt), icfg.getSuccsOf(stmt));
+      assertEquals(expected.getPredsOf(stmt), icfg.getPredsOf(stmt));
+      assertEquals(expected.isCallStmt(stmt), icfg.isCallStmt(stmt));
+      assertEquals(expected.isExitStmt(stmt), icfg.isExitStmt(stmt));
+      assertEquals(expected.isStartPoint(stmt), icfg.isStartPoint(stmt));
+      assertEquals(expected.isReturnSite(stmt), icfg.isReturnSite(stmt));
+      assertEquals(expected.isReachable(stmt), icfg.isReachable(stmt));
+      if (icfg.isCallStmt(stmt)) {
+        assertEquals(
+            asSet(expected.getCalleesOfCallAt(stmt)), asSet(icfg.getCalleesOfCallAt(stmt)));
+      }
+    }
+  }
+}
@@ -26,12 +26,15 @@ import static org.junit.Assert.*;
 
 import categories.Java8Test;
 import heros.InterproceduralCFG;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.Value;
 import sootup.core.jimple.common.ref.JInstanceFieldRef;
 import sootup.core.jimple.common.ref.JStaticFieldRef;
 import sootup.core.jimple.common.stmt.Stmt;
@@ -112,4 +115,29 @@ public class IFDSTaintAnalysisTest extends IFDSTaintTestSetUp {
     assertTrue(result.contains("l1"));
     assertFalse(result.contains("l2"));
   }
+
+  @Test
+  public void parallelSolverEqualsHerosSolver() {
+    for (String className :
+        Arrays.asList(
+            "SimpleTaint",
+            "SimpleTaintSanitized",
+            "FunctionTaint",
+            "FunctionTaintPropagated",
+            "FunctionTaintSanitized")) {
+      JimpleIFDSSolver<?, InterproceduralCFG<Stmt, SootMethod>> analysis =
+          executeStaticAnalysis(className);
+      ForkJoinPool pool = new ForkJoinPool(4);
+      try {
+        ParallelIFDSSolver<Stmt, Value, SootMethod, InterproceduralCFG<Stmt, SootMethod>>
+            parallel = new ParallelIFDSSolver<>(problem, pool);
+        parallel.solve();
+        for (Stmt stmt : getEntryPointMethod().getBody().getStmts()) {
+          assertEquals(analysis.ifdsResultsAt(stmt), parallel.ifdsResultsAt(stmt));
+        }
+      } finally {
+        pool.shutdown();
+      }
+    }
+  }
 }
@@ -42,6 +42,7 @@ public class IFDSTaintTestSetUp {
   protected JavaView view;
   protected MethodSignature entryMethodSignature;
   protected SootMethod entryMethod;
+  protected IFDSTaintAnalysisProblem problem;
 
   private static JimpleIFDSSolver<?, InterproceduralCFG<Stmt, SootMethod>> solved = null;
 
@@ -59,7 +60,7 @@ public class IFDSTaintTestSetUp {
 
     JimpleBasedInterproceduralCFG icfg =
         new JimpleBasedInterproceduralCFG(view, entryMethodSignature, false, false);
-    IFDSTaintAnalysisProblem problem = new IFDSTaintAnalysisProblem(icfg, entryMethod);
+    problem = new IFDSTaintAnalysisProblem(icfg, entryMethod);
     JimpleIFDSSolver<?, InterproceduralCFG<Stmt, SootMethod>> solver =
         new JimpleIFDSSolver(problem);
     solver.solve(entryMethod.getDeclaringClassType().getClassName());
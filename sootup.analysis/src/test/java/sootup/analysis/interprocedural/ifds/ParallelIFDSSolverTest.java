@@ -0,0 +1,325 @@
+package sootup.analysis.interprocedural.ifds;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Kadiray Karakaya and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import categories.Java8Test;
+import heros.FlowFunction;
+import heros.FlowFunctions;
+import heros.InterproceduralCFG;
+import heros.template.DefaultIFDSTabulationProblem;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Compares the sequential and the parallel mode of the {@link ParallelIFDSSolver} on synthetic
+ * ICFGs, whose nodes and methods are ints.
+ */
+@Category(Java8Test.class)
+public class ParallelIFDSSolverTest {
+
+  /**
+   * An ICFG in which every method is a chain of nodes: the first node is the start point and the
+   * last node the exit of the method. The node after a call is its return site.
+   */
+  private static final class ChainICFG implements InterproceduralCFG<Integer, Integer> {
+    private final int methodLength;
+    private final int nodeCount;
+    private final Map<Integer, List<Integer>> callees;
+    private final Map<Integer, List<Integer>> callers = new HashMap<>();
+
+    private ChainICFG(int methodCount, int methodLength, Map<Integer, List<Integer>> callees) {
+      this.methodLength = methodLength;
+      this.nodeCount = methodCount * methodLength;
+      this.callees = callees;
+      callees.forEach(
+          (callSite, methods) ->
+              methods.forEach(
+                  method -> callers.computeIfAbsent(method, k -> new ArrayList<>()).add(callSite)));
+    }
+
+    /** Creates methods whose every fourth node calls one or two random methods. */
+    static ChainICFG random(int methodCount, int methodLength, long seed) {
+      Random random = new Random(seed);
+      Map<Integer, List<Integer>> callees = new HashMap<>();
+      for (int node = 0; node < methodCount * methodLength; node++) {
+        if (node % methodLength % 4 == 2 && node % methodLength < methodLength - 1) {
+          List<Integer> methods = new ArrayList<>();
+          for (int i = random.nextInt(2); i >= 0; i--) {
+            methods.add(random.nextInt(methodCount));
+          }
+          callees.put(node, methods);
+        }
+      }
+      return new ChainICFG(methodCount, methodLength, callees);
+    }
+
+    Collection<Integer> nodes() {
+      List<Integer> nodes = new ArrayList<>(nodeCount);
+      for (int node = 0; node < nodeCount; node++) {
+        nodes.add(node);
+      }
+      return nodes;
+    }
+
+    @Override
+    public Integer getMethodOf(Integer node) {
+      return node / methodLength;
+    }
+
+    @Override
+    public List<Integer> getPredsOf(Integer node) {
+      return isStartPoint(node) ? Collections.emptyList() : Collections.singletonList(node - 1);
+    }
+
+    @Override
+    public List<Integer> getSuccsOf(Integer node) {
+      return isExitStmt(node) ? Collections.emptyList() : Collections.singletonList(node + 1);
+    }
+
+    @Override
+    public Collection<Integer> getCalleesOfCallAt(Integer node) {
+      return callees.getOrDefault(node, Collections.emptyList());
+    }
+
+    @Override
+    public Collection<Integer> getCallersOf(Integer method) {
+      return callers.getOrDefault(method, Collections.emptyList());
+    }
+
+    @Override
+    public Set<Integer> getCallsFromWithin(Integer method) {
+      Set<Integer> calls = new HashSet<>();
+      for (int node = method * methodLength; node < (method + 1) * methodLength; node++) {
+        if (isCallStmt(node)) {
+          calls.add(node);
+        }
+      }
+      return calls;
+    }
+
+    @Override
+    public Collection<Integer> getStartPointsOf(Integer method) {
+      return Collections.singletonList(method * methodLength);
+    }
+
+    @Override
+    public Collection<Integer> getReturnSitesOfCallAt(Integer node) {
+      return getSuccsOf(node);
+    }
+
+    @Override
+    public boolean isCallStmt(Integer node) {
+      return callees.containsKey(node);
+    }
+
+    @Override
+    public boolean isExitStmt(Integer node) {
+      return node % methodLength == methodLength - 1;
+    }
+
+    @Override
+    public boolean isStartPoint(Integer node) {
+      return node % methodLength == 0;
+    }
+
+    @Override
+    public Set<Integer> allNonCallStartNodes() {
+      Set<Integer> nodes = new HashSet<>(nodes());
+      nodes.removeIf(node -> isStartPoint(node) || isCallStmt(node));
+      return nodes;
+    }
+
+    @Override
+    public boolean isFallThroughSuccessor(Integer node, Integer successor) {
+      return successor == node + 1;
+    }
+
+    @Override
+    public boolean isBranchTarget(Integer node, Integer successor) {
+      return false;
+    }
+  }
+
+  /**
+   * A problem on a {@link ChainICFG} whose facts are ints. The facts are passed to the callees and
+   * back unchanged, the call-to-return flow kills all facts but the zero value.
+   */
+  private static final class ChainProblem
+      extends DefaultIFDSTabulationProblem<
+          Integer, Integer, Integer, InterproceduralCFG<Integer, Integer>> {
+
+    private static final Integer ZERO = -1;
+
+    /** computes the targets of the normal flow of a node for a fact */
+    private final BiFunction<Integer, Integer, Set<Integer>> normalFlow;
+
+    private final int numThreads;
+
+    private ChainProblem(
+        ChainICFG icfg, BiFunction<Integer, Integer, Set<Integer>> normalFlow, int numThreads) {
+      super(icfg);
+      this.normalFlow = normalFlow;
+      this.numThreads = numThreads;
+    }
+
+    @Override
+    public int numThreads() {
+      return numThreads;
+    }
+
+    @Override
+    public Map<Integer, Set<Integer>> initialSeeds() {
+      return Collections.singletonMap(0, Collections.singleton(zeroValue()));
+    }
+
+    @Override
+    protected Integer createZeroValue() {
+      return ZERO;
+    }
+
+    @Override
+    protected FlowFunctions<Integer, Integer, Integer> createFlowFunctionsFactory() {
+      final FlowFunction<Integer> identity = Collections::singleton;
+      return new FlowFunctions<Integer, Integer, Integer>() {
+        @Override
+        public FlowFunction<Integer> getNormalFlowFunction(Integer curr, Integer succ) {
+          return fact -> normalFlow.apply(curr, fact);
+        }
+
+        @Override
+        public FlowFunction<Integer> getCallFlowFunction(Integer callStmt, Integer method) {
+          return identity;
+        }
+
+        @Override
+        public FlowFunction<Integer> getReturnFlowFunction(
+            Integer callSite, Integer calleeMethod, Integer exitStmt, Integer returnSite) {
+          return identity;
+        }
+
+        @Override
+        public FlowFunction<Integer> getCallToReturnFlowFunction(
+            Integer callSite, Integer returnSite) {
+          return fact -> fact.equals(ZERO) ? Collections.singleton(fact) : Collections.emptySet();
+        }
+      };
+    }
+  }
+
+  /**
+   * A gen/kill problem with many facts: the zero value generates a fact at every third node, every
+   * fifth node derives another fact from each fact and some facts are killed at every node.
+   */
+  private static Set<Integer> genKill(int node, int fact, int factCount) {
+    if (fact == -1) {
+      return node % 3 == 0 ? Collections.singleton(node % factCount) : Collections.emptySet();
+    }
+    if ((fact + node) % 7 == 0) {
+      return Collections.emptySet();
+    }
+    if (node % 5 == 0) {
+      return new HashSet<>(Arrays.asList(fact, (fact * 3 + 1) % factCount));
+    }
+    return Collections.singleton(fact);
+  }
+
+  private static void assertSameResults(
+      ChainICFG icfg,
+      ParallelIFDSSolver<Integer, Integer, Integer, ?> expected,
+      ParallelIFDSSolver<Integer, Integer, Integer, ?> actual) {
+    assertEquals(expected.getPathEdgeCount(), actual.getPathEdgeCount());
+    for (Integer node : icfg.nodes()) {
+      assertEquals(expected.ifdsResultsAt(node), actual.ifdsResultsAt(node));
+    }
+  }
+
+  @Test
+  public void summariesAreContextSensitive() {
+    // method 0: 0 start, 1 gens 1, 2 calls method 1, 3 kills 1 and gens 2, 4 calls method 1, 5 exit
+    // method 1: 6 start, 7 to 10 do nothing, 11 exit
+    Map<Integer, List<Integer>> callees = new HashMap<>();
+    callees.put(2, Collections.singletonList(1));
+    callees.put(4, Collections.singletonList(1));
+    ChainICFG icfg = new ChainICFG(2, 6, callees);
+    BiFunction<Integer, Integer, Set<Integer>> normalFlow =
+        (node, fact) -> {
+          if (node == 1 && fact == -1) {
+            return Collections.singleton(1);
+          }
+          if (node == 3) {
+            return fact == -1 ? Collections.singleton(2) : Collections.emptySet();
+          }
+          return Collections.singleton(fact);
+        };
+
+    for (int threads : new int[] {1, 4}) {
+      ParallelIFDSSolver<Integer, Integer, Integer, ?> solver =
+          new ParallelIFDSSolver<>(new ChainProblem(icfg, normalFlow, threads));
+      solver.solve();
+
+      assertEquals(Collections.singleton(1), solver.ifdsResultsAt(2));
+      assertEquals(Collections.singleton(1), solver.ifdsResultsAt(3));
+      // a context-insensitive solver would return the fact 1 from the second call as well
+      assertEquals(Collections.singleton(2), solver.ifdsResultsAt(5));
+      assertEquals(new HashSet<>(Arrays.asList(1, 2)), solver.ifdsResultsAt(6));
+      assertEquals(new HashSet<>(Arrays.asList(1, 2)), solver.ifdsResultsAt(11));
+    }
+  }
+
+  @Test
+  public void parallelEqualsSequential() {
+    ChainICFG icfg = ChainICFG.random(300, 20, 1);
+    ChainProblem problem = new ChainProblem(icfg, (node, fact) -> genKill(node, fact, 16), 1);
+
+    ParallelIFDSSolver<Integer, Integer, Integer, ?> sequential = new ParallelIFDSSolver<>(problem);
+    sequential.solve();
+    assertTrue(sequential.getPathEdgeCount() > 300 * 20);
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      for (int run = 0; run < 3; run++) {
+        ParallelIFDSSolver<Integer, Integer, Integer, ?> parallel =
+            new ParallelIFDSSolver<>(problem, pool);
+        parallel.solve();
+        assertSameResults(icfg, sequential, parallel);
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+}
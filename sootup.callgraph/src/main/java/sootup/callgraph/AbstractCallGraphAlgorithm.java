@@ -23,12 +23,19 @@ package sootup.callgraph;
  */
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import sootup.core.jimple.common.expr.AbstractInvokeExpr;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.Method;
 import sootup.core.model.SootClass;
@@ -54,12 +61,62 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
   @Nonnull protected final View<? extends SootClass<?>> view;
   @Nonnull protected final TypeHierarchy typeHierarchy;
 
+  /** if set, the work list is processed in parallel on it */
+  @Nullable private volatile Executor workListExecutor = null;
+
+  /** creates the call graph that is filled by the algorithm */
+  @Nonnull private volatile Supplier<MutableCallGraph> callGraphFactory = GraphBasedCallGraph::new;
+
   protected AbstractCallGraphAlgorithm(
       @Nonnull View<? extends SootClass<?>> view, @Nonnull TypeHierarchy typeHierarchy) {
     this.view = view;
     this.typeHierarchy = typeHierarchy;
   }
 
+  /**
+   * Enables the parallel processing of the work list: the methods in the work list are processed
+   * concurrently on the given {@link Executor} (e.g. a {@link java.util.concurrent.ForkJoinPool}).
+   * The bodies of the methods are always loaded concurrently; the calls are only resolved
+   * concurrently if the algorithm supports it (see {@link #isResolutionThreadSafe()}). The
+   * resulting call graph is the same as in the sequential mode.
+   *
+   * @param executor the executor or null to process the work list sequentially
+   */
+  public void setWorkListExecutor(@Nullable Executor executor) {
+    this.workListExecutor = executor;
+  }
+
+  @Nullable
+  public Executor getWorkListExecutor() {
+    return workListExecutor;
+  }
+
+  /**
+   * Sets the implementation of the call graph that is constructed, e.g. {@link
+   * CompactCallGraph#CompactCallGraph()} for large call graphs. The default is {@link
+   * GraphBasedCallGraph}.
+   *
+   * @param callGraphFactory creates an empty call graph
+   */
+  public void setCallGraphFactory(@Nonnull Supplier<MutableCallGraph> callGraphFactory) {
+    this.callGraphFactory = callGraphFactory;
+  }
+
+  @Nonnull
+  public Supplier<MutableCallGraph> getCallGraphFactory() {
+    return callGraphFactory;
+  }
+
+  /**
+   * Returns whether {@link #resolveCall(SootMethod, Stmt)} can be called for different methods
+   * concurrently, i.e. whether it does not depend on state that is modified while the work list is
+   * processed. Otherwise, the calls are resolved while the call graph is locked in the parallel
+   * mode.
+   */
+  protected boolean isResolutionThreadSafe() {
+    return false;
+  }
+
   /**
    * This method starts the construction of the call graph algorithm. It initializes the needed
    * objects for the call graph generation and calls processWorkList method.
@@ -72,7 +129,7 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
   @Nonnull
   final CallGraph constructCompleteCallGraph(
       View<? extends SootClass<?>> view, List<MethodSignature> entryPoints) {
-    MutableCallGraph cg = new GraphBasedCallGraph();
+    MutableCallGraph cg = callGraphFactory.get();
 
     Deque<MethodSignature> workList = new ArrayDeque<>(entryPoints);
     Set<MethodSignature> processed = new HashSet<>();
@@ -98,29 +155,173 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
       Deque<MethodSignature> workList,
       Set<MethodSignature> processed,
       MutableCallGraph cg) {
+    final Executor executor = workListExecutor;
+    if (executor != null) {
+      processWorkListInParallel(view, workList, processed, cg, executor);
+      return;
+    }
+
     while (!workList.isEmpty()) {
       MethodSignature currentMethodSignature = workList.pop();
       if (processed.contains(currentMethodSignature)) continue;
 
       if (!cg.containsMethod(currentMethodSignature)) cg.addMethod(currentMethodSignature);
 
-      Stream<MethodSignature> invocationTargets =
-          resolveAllCallsFromSourceMethod(view, currentMethodSignature);
-
-      invocationTargets.forEach(
-          t -> {
-            if (!cg.containsMethod(t)) cg.addMethod(t);
-            if (!cg.containsCall(currentMethodSignature, t)) {
-              cg.addCall(currentMethodSignature, t);
-              workList.push(t);
-            }
-          });
+      Stream<CallEdge> invocations = resolveAllCallsFromSourceMethod(view, currentMethodSignature);
+
+      invocations.forEach(call -> addCall(cg, call, workList));
       processed.add(currentMethodSignature);
 
       postProcessingMethod(view, currentMethodSignature, workList, cg);
     }
   }
 
+  /**
+   * Processes the <code>workList</code> like {@link #processWorkList(View, Deque, Set,
+   * MutableCallGraph)} but processes the methods concurrently. Every access to <code>cg</code> and
+   * the post processing of a method happen while <code>cg</code> is locked.
+   */
+  private void processWorkListInParallel(
+      View<? extends SootClass<?>> view,
+      Deque<MethodSignature> workList,
+      Set<MethodSignature> processed,
+      MutableCallGraph cg,
+      Executor executor) {
+    // the type hierarchy of the view is created on demand which is not thread-safe
+    view.getTypeHierarchy();
+
+    final Set<MethodSignature> claimed = ConcurrentHashMap.newKeySet();
+    claimed.addAll(processed);
+    final ParallelWorkList parallelWorkList = new ParallelWorkList(view, claimed, cg, executor);
+    parallelWorkList.processAll(workList);
+    workList.clear();
+    processed.addAll(claimed);
+  }
+
+  /** Processes the methods of a work list concurrently until no new methods are found. */
+  private final class ParallelWorkList {
+    @Nonnull private final View<? extends SootClass<?>> view;
+    @Nonnull private final Set<MethodSignature> claimed;
+    @Nonnull private final MutableCallGraph cg;
+    @Nonnull private final Executor executor;
+
+    /** the number of submitted methods that have not been processed yet */
+    @Nonnull private final AtomicInteger pending = new AtomicInteger();
+
+    @Nonnull private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+    private ParallelWorkList(
+        @Nonnull View<? extends SootClass<?>> view,
+        @Nonnull Set<MethodSignature> claimed,
+        @Nonnull MutableCallGraph cg,
+        @Nonnull Executor executor) {
+      this.view = view;
+      this.claimed = claimed;
+      this.cg = cg;
+      this.executor = executor;
+    }
+
+    void processAll(@Nonnull Collection<MethodSignature> methods) {
+      // the methods are submitted while pending is incremented so that it does not reach zero
+      pending.incrementAndGet();
+      methods.forEach(this::submit);
+      finishTask();
+
+      try {
+        done.join();
+      } catch (CompletionException e) {
+        final Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw e;
+      }
+    }
+
+    private void submit(@Nonnull MethodSignature method) {
+      if (claimed.contains(method)) {
+        return;
+      }
+      pending.incrementAndGet();
+      try {
+        executor.execute(() -> run(method));
+      } catch (RejectedExecutionException e) {
+        done.completeExceptionally(e);
+        finishTask();
+      }
+    }
+
+    private void run(@Nonnull MethodSignature method) {
+      try {
+        if (!done.isDone() && claimed.add(method)) {
+          process(method);
+        }
+      } catch (Throwable e) {
+        done.completeExceptionally(e);
+      } finally {
+        finishTask();
+      }
+    }
+
+    private void finishTask() {
+      if (pending.decrementAndGet() == 0) {
+        done.complete(null);
+      }
+    }
+
+    private void process(@Nonnull MethodSignature currentMethodSignature) {
+      // loading the body is the expensive part, so it is done before the call graph is locked
+      view.getClass(currentMethodSignature.getDeclClassType())
+          .flatMap(c -> c.getMethod(currentMethodSignature.getSubSignature()))
+          .filter(SootMethod::hasBody)
+          .ifPresent(SootMethod::getBody);
+
+      List<CallEdge> invocations = null;
+      if (isResolutionThreadSafe()) {
+        invocations =
+            resolveAllCallsFromSourceMethod(view, currentMethodSignature)
+                .collect(Collectors.toList());
+      }
+
+      final Deque<MethodSignature> newMethods = new ArrayDeque<>();
+      synchronized (cg) {
+        if (invocations == null) {
+          invocations =
+              resolveAllCallsFromSourceMethod(view, currentMethodSignature)
+                  .collect(Collectors.toList());
+        }
+
+        if (!cg.containsMethod(currentMethodSignature)) cg.addMethod(currentMethodSignature);
+        for (CallEdge call : invocations) {
+          addCall(cg, call, newMethods);
+        }
+
+        postProcessingMethod(view, currentMethodSignature, newMethods, cg);
+      }
+      newMethods.forEach(this::submit);
+    }
+  }
+
+  /**
+   * Adds a resolved call with its call site to the call graph. The target is pushed to the <code>
+   * workList</code> if the call graph did not contain the call from the source to the target yet.
+   */
+  private static void addCall(
+      @Nonnull MutableCallGraph cg,
+      @Nonnull CallEdge call,
+      @Nonnull Deque<MethodSignature> workList) {
+    MethodSignature target = call.getTargetMethod();
+    if (!cg.containsMethod(target)) cg.addMethod(target);
+    boolean isNewCall = !cg.containsCall(call.getSourceMethod(), target);
+    cg.addCall(call.getSourceMethod(), target, call.getCallSite(), call.getKind());
+    if (isNewCall) {
+      workList.push(target);
+    }
+  }
+
   /**
    * This method resolves all calls from a given source method. resolveCall is called for each
    * invoke statement in the body of the source method that is implemented in the corresponding call
@@ -129,10 +330,11 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
    * @param view it contains all classes.
    * @param sourceMethod this signature is used to access the statements contained method body of
    *     the specified method
-   * @return a stream containing all resolved callable method signatures by the given source method
+   * @return a stream containing the resolved calls of the given source method, annotated with
+   *     their call site
    */
   @Nonnull
-  Stream<MethodSignature> resolveAllCallsFromSourceMethod(
+  Stream<CallEdge> resolveAllCallsFromSourceMethod(
       View<? extends SootClass<?>> view, MethodSignature sourceMethod) {
     SootMethod currentMethodCandidate =
         view.getClass(sourceMethod.getDeclClassType())
@@ -143,7 +345,12 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
     if (currentMethodCandidate.hasBody()) {
       return currentMethodCandidate.getBody().getStmtGraph().nodes().stream()
           .filter(Stmt::containsInvokeExpr)
-          .flatMap(s -> resolveCall(currentMethodCandidate, s.getInvokeExpr()));
+          .flatMap(
+              s -> {
+                CallGraphEdgeType kind = CallGraphEdgeType.of(s.getInvokeExpr());
+                return resolveCall(currentMethodCandidate, s)
+                    .map(target -> new CallEdge(sourceMethod, target, s, kind));
+              });
     } else {
       return Stream.empty();
     }
@@ -247,6 +454,13 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
               MethodSignature overridingMethodSig =
                   clazz.getMethod(overriddenMethodSig.getSubSignature()).get().getSignature();
 
+              for (CallEdge call : updated.callSitesTo(overriddenMethodSig)) {
+                updated.addCall(
+                    call.getSourceMethod(),
+                    overridingMethodSig,
+                    call.getCallSite(),
+                    call.getKind());
+              }
               for (MethodSignature callingMethodSig : updated.callsTo(overriddenMethodSig)) {
                 updated.addCall(callingMethodSig, overridingMethodSig);
               }
@@ -309,10 +523,10 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
    * dependable of the applied call graph algorithm. therefore, it is abstract.
    *
    * @param method the method object that contains the given invoke expression in the body.
-   * @param invokeExpr it contains the call which is resolved.
+   * @param callSite the statement that contains the call which is resolved.
    * @return a stream of all reachable method signatures defined by the applied call graph
    *     algorithm.
    */
   @Nonnull
-  abstract Stream<MethodSignature> resolveCall(SootMethod method, AbstractInvokeExpr invokeExpr);
+  abstract Stream<MethodSignature> resolveCall(SootMethod method, Stmt callSite);
 }
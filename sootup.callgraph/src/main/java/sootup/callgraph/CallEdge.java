@@ -0,0 +1,99 @@
+package sootup.callgraph;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.signatures.MethodSignature;
+
+/**
+ * An edge of a call graph that is annotated with its call site: the statement in the source method
+ * that calls the target method and the kind of the call. A call site may have several edges, e.g. a
+ * virtual call to all overriding methods, and several call sites may belong to the same edge
+ * between two methods.
+ */
+public final class CallEdge {
+
+  @Nonnull private final MethodSignature sourceMethod;
+  @Nonnull private final MethodSignature targetMethod;
+  @Nonnull private final Stmt callSite;
+  @Nonnull private final CallGraphEdgeType kind;
+
+  public CallEdge(
+      @Nonnull MethodSignature sourceMethod,
+      @Nonnull MethodSignature targetMethod,
+      @Nonnull Stmt callSite,
+      @Nonnull CallGraphEdgeType kind) {
+    this.sourceMethod = sourceMethod;
+    this.targetMethod = targetMethod;
+    this.callSite = callSite;
+    this.kind = kind;
+  }
+
+  @Nonnull
+  public MethodSignature getSourceMethod() {
+    return sourceMethod;
+  }
+
+  @Nonnull
+  public MethodSignature getTargetMethod() {
+    return targetMethod;
+  }
+
+  /** @return the statement in the source method that calls the target method */
+  @Nonnull
+  public Stmt getCallSite() {
+    return callSite;
+  }
+
+  @Nonnull
+  public CallGraphEdgeType getKind() {
+    return kind;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof CallEdge)) {
+      return false;
+    }
+    CallEdge callEdge = (CallEdge) o;
+    return callSite == callEdge.callSite
+        && kind == callEdge.kind
+        && sourceMethod.equals(callEdge.sourceMethod)
+        && targetMethod.equals(callEdge.targetMethod);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(sourceMethod, targetMethod, System.identityHashCode(callSite), kind);
+  }
+
+  @Override
+  public String toString() {
+    return sourceMethod + " -" + kind + "-> " + targetMethod + " at " + callSite;
+  }
+}
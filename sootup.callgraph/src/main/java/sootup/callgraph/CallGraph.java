@@ -24,6 +24,7 @@ package sootup.callgraph;
 
 import java.util.Set;
 import javax.annotation.Nonnull;
+import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.signatures.MethodSignature;
 
 /** The interface of all implemented call graph data structures */
@@ -59,6 +60,31 @@ public interface CallGraph {
   @Nonnull
   Set<MethodSignature> callsTo(@Nonnull MethodSignature targetMethod);
 
+  /**
+   * This method returns the call sites that call a given method signature, i.e. the incoming edges
+   * of the node that were added with their call site. The call sites are indexed by their target,
+   * so the time needed is linear in the number of returned edges.
+   *
+   * @param targetMethod the method signature of the requested node in the call graph
+   * @return the edges of all call sites that call the targetMethod, or an empty set if the method
+   *     is not contained in the call graph
+   */
+  @Nonnull
+  Set<CallEdge> callSitesTo(@Nonnull MethodSignature targetMethod);
+
+  /**
+   * This method returns the methods that are called by a given call site. The call sites are
+   * indexed by their statement, so the time needed is linear in the number of returned methods.
+   * Statements are compared by identity, i.e. the statements of a body that was evicted from a
+   * {@link sootup.core.cache.BodyCache} and rebuilt are not found.
+   *
+   * @param callSite the statement that contains the call
+   * @return the targets of all edges that were added with the callSite, or an empty set if there
+   *     are none
+   */
+  @Nonnull
+  Set<MethodSignature> calleesOf(@Nonnull Stmt callSite);
+
   /**
    * This method checks if a given method signature is a node in the call graph.
    *
@@ -28,6 +28,7 @@ import javax.annotation.Nonnull;
 import sootup.core.jimple.common.expr.AbstractInvokeExpr;
 import sootup.core.jimple.common.expr.JDynamicInvokeExpr;
 import sootup.core.jimple.common.expr.JSpecialInvokeExpr;
+import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.Modifier;
 import sootup.core.model.SootClass;
 import sootup.core.model.SootMethod;
@@ -66,19 +67,26 @@ public class ClassHierarchyAnalysisAlgorithm extends AbstractCallGraphAlgorithm
     return constructCompleteCallGraph(view, entryPoints);
   }
 
+  /** CHA resolves calls only by using the view, which does not change while it is processed. */
+  @Override
+  protected boolean isResolutionThreadSafe() {
+    return true;
+  }
+
   /**
    * In the CHA algorithm, every virtual call is resolved by only using the hierarchy. Every
    * subclass of the class is considered as target if it contains an implementation of the methods
    * called in the invoke expression.
    *
    * @param method the method object that contains the given invoke expression in the body.
-   * @param invokeExpr it contains the call which is resolved.
+   * @param callSite the statement that contains the call which is resolved.
    * @return a stream containing all reachable method signatures after applying the CHA call graph
    *     algorithm
    */
   @Override
   @Nonnull
-  protected Stream<MethodSignature> resolveCall(SootMethod method, AbstractInvokeExpr invokeExpr) {
+  protected Stream<MethodSignature> resolveCall(SootMethod method, Stmt callSite) {
+    AbstractInvokeExpr invokeExpr = callSite.getInvokeExpr();
     MethodSignature targetMethodSignature = invokeExpr.getMethodSignature();
     if ((invokeExpr instanceof JDynamicInvokeExpr)) {
       return Stream.empty();
@@ -0,0 +1,513 @@
+package sootup.callgraph;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import com.google.common.base.Preconditions;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.signatures.SootClassMemberSignature;
+
+/**
+ * This class implements a mutable call graph with a compact memory layout. Every method signature
+ * is mapped to an int id and the calls are stored as int adjacency lists of these ids, so no
+ * objects are allocated per call. After {@link #freeze()}, the adjacency lists are compacted into
+ * one sorted array per direction (compressed sparse rows).
+ *
+ * <p>The call sites of {@link #addCall(MethodSignature, MethodSignature, Stmt, CallGraphEdgeType)}
+ * are kept in one array and indexed by the ids of their target and of their statement in the same
+ * kind of adjacency lists.
+ *
+ * <p>{@link #copy()} does not copy anything: the copy shares the arrays with this call graph and
+ * the first modification of either call graph copies the index arrays, while the adjacency list
+ * of a method is only copied when a call is added to it.
+ *
+ * <p>Like {@link GraphBasedCallGraph}, this class is thread-safe: all methods lock the call graph.
+ */
+public final class CompactCallGraph implements MutableCallGraph {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private static final Comparator<MethodSignature> SIGNATURE_ORDER =
+      Comparator.comparing((MethodSignature o) -> o.getDeclClassType().toString())
+          .thenComparing(SootClassMemberSignature::getName)
+          .thenComparing(o -> o.getParameterTypes().toString());
+
+  /** the method signatures indexed by their id */
+  @Nonnull private MethodSignature[] signatures;
+
+  @Nonnull private Map<MethodSignature, Integer> signatureToId;
+  private int methodCount;
+  private int callCount;
+
+  /** the callees of each method */
+  @Nonnull private Adjacency successors;
+  /** the callers of each method */
+  @Nonnull private Adjacency predecessors;
+
+  /** the call sites indexed by their position in this array */
+  @Nonnull private CallEdge[] callSites;
+
+  private int callSiteCount;
+  /** the ids of the statements of the call sites */
+  @Nonnull private Map<Stmt, Integer> stmtToId;
+
+  private int stmtCount;
+  private int stmtCapacity;
+  /** the call sites that call each method */
+  @Nonnull private Adjacency callSitesByTarget;
+  /** the call sites of each statement */
+  @Nonnull private Adjacency callSitesByStmt;
+
+  /** true if the arrays are shared with a copy of this call graph */
+  private boolean shared;
+
+  public CompactCallGraph() {
+    signatures = new MethodSignature[INITIAL_CAPACITY];
+    signatureToId = new HashMap<>();
+    successors = new Adjacency(INITIAL_CAPACITY);
+    predecessors = new Adjacency(INITIAL_CAPACITY);
+    callSites = new CallEdge[INITIAL_CAPACITY];
+    stmtToId = new HashMap<>();
+    stmtCapacity = INITIAL_CAPACITY;
+    callSitesByTarget = new Adjacency(INITIAL_CAPACITY);
+    callSitesByStmt = new Adjacency(INITIAL_CAPACITY);
+  }
+
+  private CompactCallGraph(@Nonnull CompactCallGraph original) {
+    signatures = original.signatures;
+    signatureToId = original.signatureToId;
+    methodCount = original.methodCount;
+    callCount = original.callCount;
+    successors = original.successors;
+    predecessors = original.predecessors;
+    callSites = original.callSites;
+    callSiteCount = original.callSiteCount;
+    stmtToId = original.stmtToId;
+    stmtCount = original.stmtCount;
+    stmtCapacity = original.stmtCapacity;
+    callSitesByTarget = original.callSitesByTarget;
+    callSitesByStmt = original.callSitesByStmt;
+    shared = true;
+  }
+
+  @Override
+  public synchronized void addMethod(@Nonnull MethodSignature calledMethod) {
+    if (signatureToId.containsKey(calledMethod)) {
+      return;
+    }
+    ensureMutable();
+    int id = methodCount++;
+    if (id == signatures.length) {
+      signatures = Arrays.copyOf(signatures, id * 2);
+      successors.grow(id * 2);
+      predecessors.grow(id * 2);
+      callSitesByTarget.grow(id * 2);
+    }
+    signatures[id] = calledMethod;
+    signatureToId.put(calledMethod, id);
+  }
+
+  @Override
+  public synchronized void addCall(
+      @Nonnull MethodSignature sourceMethod, @Nonnull MethodSignature targetMethod) {
+    int source = idOf(sourceMethod);
+    int target = idOf(targetMethod);
+    if (containsCall(source, target)) {
+      return;
+    }
+    ensureMutable();
+    successors.add(source, target);
+    predecessors.add(target, source);
+    callCount++;
+  }
+
+  @Override
+  public synchronized void addCall(
+      @Nonnull MethodSignature sourceMethod,
+      @Nonnull MethodSignature targetMethod,
+      @Nonnull Stmt callSite,
+      @Nonnull CallGraphEdgeType kind) {
+    int source = idOf(sourceMethod);
+    int target = idOf(targetMethod);
+    Integer stmtId = stmtToId.get(callSite);
+    if (stmtId != null && containsCallSite(stmtId, target, kind)) {
+      return;
+    }
+    ensureMutable();
+    if (!containsCall(source, target)) {
+      successors.add(source, target);
+      predecessors.add(target, source);
+      callCount++;
+    }
+    if (stmtId == null) {
+      stmtId = stmtCount++;
+      if (stmtId == stmtCapacity) {
+        stmtCapacity *= 2;
+        callSitesByStmt.grow(stmtCapacity);
+      }
+      stmtToId.put(callSite, stmtId);
+    }
+    int index = callSiteCount++;
+    if (index == callSites.length) {
+      callSites = Arrays.copyOf(callSites, index * 2);
+    }
+    callSites[index] = new CallEdge(sourceMethod, targetMethod, callSite, kind);
+    callSitesByTarget.add(target, index);
+    callSitesByStmt.add(stmtId, index);
+  }
+
+  private boolean containsCallSite(int stmtId, int target, @Nonnull CallGraphEdgeType kind) {
+    for (int i = 0, n = callSitesByStmt.degree(stmtId); i < n; i++) {
+      CallEdge callSite = callSites[callSitesByStmt.get(stmtId, i)];
+      if (callSite.getKind() == kind && callSite.getTargetMethod().equals(signatures[target])) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Compacts the adjacency lists into sorted arrays, which need less memory and answer {@link
+   * #containsCall(MethodSignature, MethodSignature)} by a binary search. The call graph can still
+   * be modified afterwards, but the first modification expands the arrays again.
+   */
+  public synchronized void freeze() {
+    if (!successors.isFrozen()) {
+      // the adjacency lists may be shared with a copy, so they are replaced rather than modified
+      successors = successors.frozenCopy(methodCount);
+      predecessors = predecessors.frozenCopy(methodCount);
+      callSitesByTarget = callSitesByTarget.frozenCopy(methodCount);
+      callSitesByStmt = callSitesByStmt.frozenCopy(stmtCount);
+    }
+  }
+
+  public synchronized boolean isFrozen() {
+    return successors.isFrozen();
+  }
+
+  @Nonnull
+  @Override
+  public synchronized Set<MethodSignature> getMethodSignatures() {
+    return new HashSet<>(signatureToId.keySet());
+  }
+
+  @Nonnull
+  @Override
+  public synchronized Set<MethodSignature> callsFrom(@Nonnull MethodSignature sourceMethod) {
+    return signaturesOf(successors, idOf(sourceMethod));
+  }
+
+  @Nonnull
+  @Override
+  public synchronized Set<MethodSignature> callsTo(@Nonnull MethodSignature targetMethod) {
+    return signaturesOf(predecessors, idOf(targetMethod));
+  }
+
+  @Nonnull
+  @Override
+  public synchronized Set<CallEdge> callSitesTo(@Nonnull MethodSignature targetMethod) {
+    Integer target = signatureToId.get(targetMethod);
+    if (target == null) {
+      return Collections.emptySet();
+    }
+    int degree = callSitesByTarget.degree(target);
+    Set<CallEdge> result = new LinkedHashSet<>(Math.max(INITIAL_CAPACITY, degree * 2));
+    for (int i = 0; i < degree; i++) {
+      result.add(callSites[callSitesByTarget.get(target, i)]);
+    }
+    return result;
+  }
+
+  @Nonnull
+  @Override
+  public synchronized Set<MethodSignature> calleesOf(@Nonnull Stmt callSite) {
+    Integer stmtId = stmtToId.get(callSite);
+    if (stmtId == null) {
+      return Collections.emptySet();
+    }
+    int degree = callSitesByStmt.degree(stmtId);
+    Set<MethodSignature> result = new LinkedHashSet<>(Math.max(INITIAL_CAPACITY, degree * 2));
+    for (int i = 0; i < degree; i++) {
+      result.add(callSites[callSitesByStmt.get(stmtId, i)].getTargetMethod());
+    }
+    return result;
+  }
+
+  @Override
+  public synchronized boolean containsMethod(@Nonnull MethodSignature method) {
+    return signatureToId.containsKey(method);
+  }
+
+  @Override
+  public synchronized boolean containsCall(
+      @Nonnull MethodSignature sourceMethod, @Nonnull MethodSignature targetMethod) {
+    Integer source = signatureToId.get(sourceMethod);
+    Integer target = signatureToId.get(targetMethod);
+    if (source == null || target == null) {
+      return false;
+    }
+    return containsCall(source, target);
+  }
+
+  private boolean containsCall(int source, int target) {
+    // search the shorter list, call graphs usually contain methods with thousands of callers
+    if (successors.degree(source) <= predecessors.degree(target)) {
+      return successors.contains(source, target);
+    }
+    return predecessors.contains(target, source);
+  }
+
+  @Override
+  public synchronized int callCount() {
+    return callCount;
+  }
+
+  @Nonnull
+  @Override
+  public synchronized MutableCallGraph copy() {
+    shared = true;
+    return new CompactCallGraph(this);
+  }
+
+  /** Copies the arrays that are shared with a copy and expands frozen adjacency lists. */
+  private void ensureMutable() {
+    if (shared) {
+      signatures = signatures.clone();
+      signatureToId = new HashMap<>(signatureToId);
+      successors = successors.mutableCopy(signatures.length);
+      predecessors = predecessors.mutableCopy(signatures.length);
+      callSites = callSites.clone();
+      stmtToId = new HashMap<>(stmtToId);
+      callSitesByTarget = callSitesByTarget.mutableCopy(signatures.length);
+      callSitesByStmt = callSitesByStmt.mutableCopy(stmtCapacity);
+      shared = false;
+    } else if (successors.isFrozen()) {
+      successors = successors.mutableCopy(signatures.length);
+      predecessors = predecessors.mutableCopy(signatures.length);
+      callSitesByTarget = callSitesByTarget.mutableCopy(signatures.length);
+      callSitesByStmt = callSitesByStmt.mutableCopy(stmtCapacity);
+    }
+  }
+
+  private int idOf(@Nonnull MethodSignature method) {
+    Integer id = signatureToId.get(method);
+    Preconditions.checkNotNull(id, "Node for " + method + " has not been added yet");
+    return id;
+  }
+
+  @Nonnull
+  private Set<MethodSignature> signaturesOf(@Nonnull Adjacency adjacency, int id) {
+    int degree = adjacency.degree(id);
+    Set<MethodSignature> result = new HashSet<>(Math.max(INITIAL_CAPACITY, degree * 2));
+    for (int i = 0; i < degree; i++) {
+      result.add(signatures[adjacency.get(id, i)]);
+    }
+    return result;
+  }
+
+  @Override
+  public synchronized String toString() {
+    StringBuilder sb = new StringBuilder("CompactCallGraph(" + callCount() + ")");
+    if (methodCount == 0) {
+      sb.append(" is empty");
+    } else {
+      sb.append(":\n");
+      for (int id = 0; id < methodCount; id++) {
+        MethodSignature method = signatures[id];
+        sb.append(method.toString()).append(":\n");
+        callsFrom(method).forEach(m -> sb.append("\tto ").append(m).append("\n"));
+        callsTo(method).forEach(m -> sb.append("\tfrom   ").append(m).append("\n"));
+        sb.append("\n");
+      }
+    }
+    return sb.toString();
+  }
+
+  @Override
+  public synchronized String toStringSorted() {
+    StringBuilder stringBuilder = new StringBuilder("CompactCallGraph(" + callCount() + ")");
+    if (methodCount == 0) {
+      stringBuilder.append(" is empty");
+    } else {
+      stringBuilder.append(":\n");
+      signatureToId.keySet().stream()
+          .sorted(SIGNATURE_ORDER)
+          .forEach(
+              method -> {
+                stringBuilder.append(method).append(":\n");
+                callsFrom(method).stream()
+                    .sorted(SIGNATURE_ORDER)
+                    .forEach(m -> stringBuilder.append("\tto ").append(m).append("\n"));
+                callsTo(method).stream()
+                    .sorted(SIGNATURE_ORDER)
+                    .forEach(m -> stringBuilder.append("\tfrom ").append(m).append("\n"));
+                stringBuilder.append("\n");
+              });
+    }
+    return stringBuilder.toString();
+  }
+
+  /**
+   * The adjacency lists of one direction of the call graph or of one index of the call sites. They
+   * are either growable (one array per id) or frozen (all lists sorted in one array, the list of an
+   * id starts at its offset). Frozen adjacency lists are never modified, so they can be shared
+   * between copies.
+   */
+  private static final class Adjacency {
+
+    private static final int[] EMPTY = new int[0];
+
+    // growable form
+    @Nullable private int[][] rows;
+    @Nullable private int[] degrees;
+    /** the rows that may be modified in place, null if all rows are owned */
+    @Nullable private BitSet ownedRows;
+
+    // frozen form
+    @Nullable private int[] offsets;
+    @Nullable private int[] ids;
+
+    private Adjacency(int capacity) {
+      rows = new int[capacity][];
+      degrees = new int[capacity];
+    }
+
+    private Adjacency(@Nonnull int[] offsets, @Nonnull int[] ids) {
+      this.offsets = offsets;
+      this.ids = ids;
+    }
+
+    private Adjacency(@Nonnull int[][] rows, @Nonnull int[] degrees, @Nullable BitSet ownedRows) {
+      this.rows = rows;
+      this.degrees = degrees;
+      this.ownedRows = ownedRows;
+    }
+
+    boolean isFrozen() {
+      return rows == null;
+    }
+
+    int degree(int id) {
+      if (rows == null) {
+        return id + 1 < offsets.length ? offsets[id + 1] - offsets[id] : 0;
+      }
+      return degrees[id];
+    }
+
+    int get(int id, int index) {
+      if (rows == null) {
+        return ids[offsets[id] + index];
+      }
+      return rows[id][index];
+    }
+
+    boolean contains(int id, int other) {
+      if (rows == null) {
+        if (id + 1 >= offsets.length) {
+          return false;
+        }
+        return Arrays.binarySearch(ids, offsets[id], offsets[id + 1], other) >= 0;
+      }
+      int[] row = rows[id];
+      for (int i = 0, n = degrees[id]; i < n; i++) {
+        if (row[i] == other) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    void add(int id, int other) {
+      int[] row = rows[id];
+      int degree = degrees[id];
+      boolean owned = ownedRows == null || ownedRows.get(id);
+      if (row == null) {
+        row = new int[4];
+      } else if (degree == row.length) {
+        row = Arrays.copyOf(row, degree * 2);
+      } else if (!owned) {
+        row = row.clone();
+      }
+      if (!owned) {
+        ownedRows.set(id);
+      }
+      row[degree] = other;
+      rows[id] = row;
+      degrees[id] = degree + 1;
+    }
+
+    void grow(int capacity) {
+      rows = Arrays.copyOf(rows, capacity);
+      degrees = Arrays.copyOf(degrees, capacity);
+    }
+
+    /** Returns growable adjacency lists with the same content that may be modified. */
+    @Nonnull
+    Adjacency mutableCopy(int capacity) {
+      if (rows != null) {
+        // the rows themselves are copied on their first modification
+        return new Adjacency(
+            Arrays.copyOf(rows, capacity), Arrays.copyOf(degrees, capacity), new BitSet());
+      }
+      Adjacency copy = new Adjacency(capacity);
+      for (int id = 0; id + 1 < offsets.length; id++) {
+        int degree = offsets[id + 1] - offsets[id];
+        if (degree > 0) {
+          copy.rows[id] = Arrays.copyOfRange(ids, offsets[id], offsets[id + 1]);
+          copy.degrees[id] = degree;
+        }
+      }
+      return copy;
+    }
+
+    /** Returns frozen adjacency lists with the same content for the ids below methodCount. */
+    @Nonnull
+    Adjacency frozenCopy(int methodCount) {
+      int[] frozenOffsets = new int[methodCount + 1];
+      for (int id = 0; id < methodCount; id++) {
+        frozenOffsets[id + 1] = frozenOffsets[id] + degrees[id];
+      }
+      int callCount = frozenOffsets[methodCount];
+      int[] frozenIds = callCount == 0 ? EMPTY : new int[callCount];
+      for (int id = 0; id < methodCount; id++) {
+        if (degrees[id] > 0) {
+          System.arraycopy(rows[id], 0, frozenIds, frozenOffsets[id], degrees[id]);
+          Arrays.sort(frozenIds, frozenOffsets[id], frozenOffsets[id + 1]);
+        }
+      }
+      return new Adjacency(frozenOffsets, frozenIds);
+    }
+  }
+}
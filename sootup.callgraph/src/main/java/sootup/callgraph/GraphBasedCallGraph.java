@@ -23,18 +23,26 @@ package sootup.callgraph;
  */
 
 import com.google.common.base.Preconditions;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import org.jgrapht.graph.DefaultDirectedGraph;
+import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.signatures.MethodSignature;
 import sootup.core.signatures.SootClassMemberSignature;
 import sootup.java.core.types.JavaClassType;
 
-/** This class implements a mutable call graph as a graph. */
+/**
+ * This class implements a mutable call graph as a graph. It is thread-safe: all methods lock the
+ * call graph, so compound actions (e.g. adding a method if it is not contained yet) can be made
+ * atomic by synchronizing on it as well.
+ */
 public final class GraphBasedCallGraph implements MutableCallGraph {
 
   /**
@@ -56,45 +64,67 @@ public final class GraphBasedCallGraph implements MutableCallGraph {
   @Nonnull private final Map<MethodSignature, Vertex> signatureToVertex;
   // TODO: [ms] typeToVertices is not used in a useful way, yet?
   @Nonnull private final Map<JavaClassType, Set<Vertex>> typeToVertices;
+  /** the call sites indexed by their target method */
+  @Nonnull private final Map<MethodSignature, Set<CallEdge>> callSitesByTarget;
+  /** the call sites indexed by their statement */
+  @Nonnull private final Map<Stmt, Set<CallEdge>> callSitesByStmt;
 
   /** The constructor of the graph based call graph. it initializes the call graph object. */
   GraphBasedCallGraph() {
     graph = new DefaultDirectedGraph<>(null, null, false);
     signatureToVertex = new HashMap<>();
     typeToVertices = new HashMap<>();
+    callSitesByTarget = new HashMap<>();
+    callSitesByStmt = new HashMap<>();
   }
 
   private GraphBasedCallGraph(
       @Nonnull DefaultDirectedGraph<Vertex, Edge> graph,
       @Nonnull Map<MethodSignature, Vertex> signatureToVertex,
-      @Nonnull Map<JavaClassType, Set<Vertex>> typeToVertices) {
+      @Nonnull Map<JavaClassType, Set<Vertex>> typeToVertices,
+      @Nonnull Map<MethodSignature, Set<CallEdge>> callSitesByTarget,
+      @Nonnull Map<Stmt, Set<CallEdge>> callSitesByStmt) {
     this.graph = graph;
     this.signatureToVertex = signatureToVertex;
     this.typeToVertices = typeToVertices;
+    this.callSitesByTarget = callSitesByTarget;
+    this.callSitesByStmt = callSitesByStmt;
   }
 
   @Override
-  public void addMethod(@Nonnull MethodSignature calledMethod) {
+  public synchronized void addMethod(@Nonnull MethodSignature calledMethod) {
     Vertex v = new Vertex(calledMethod);
     graph.addVertex(v);
     signatureToVertex.put(calledMethod, v);
   }
 
   @Override
-  public void addCall(
+  public synchronized void addCall(
       @Nonnull MethodSignature sourceMethod, @Nonnull MethodSignature targetMethod) {
     graph.addEdge(vertexOf(sourceMethod), vertexOf(targetMethod), new Edge());
   }
 
+  @Override
+  public synchronized void addCall(
+      @Nonnull MethodSignature sourceMethod,
+      @Nonnull MethodSignature targetMethod,
+      @Nonnull Stmt callSite,
+      @Nonnull CallGraphEdgeType kind) {
+    addCall(sourceMethod, targetMethod);
+    CallEdge edge = new CallEdge(sourceMethod, targetMethod, callSite, kind);
+    callSitesByTarget.computeIfAbsent(targetMethod, k -> new LinkedHashSet<>()).add(edge);
+    callSitesByStmt.computeIfAbsent(callSite, k -> new LinkedHashSet<>()).add(edge);
+  }
+
   @Nonnull
   @Override
-  public Set<MethodSignature> getMethodSignatures() {
-    return signatureToVertex.keySet();
+  public synchronized Set<MethodSignature> getMethodSignatures() {
+    return new HashSet<>(signatureToVertex.keySet());
   }
 
   @Nonnull
   @Override
-  public Set<MethodSignature> callsFrom(@Nonnull MethodSignature sourceMethod) {
+  public synchronized Set<MethodSignature> callsFrom(@Nonnull MethodSignature sourceMethod) {
     return graph.outgoingEdgesOf(vertexOf(sourceMethod)).stream()
         .map(graph::getEdgeTarget)
         .map(targetVertex -> targetVertex.methodSignature)
@@ -103,20 +133,39 @@ public final class GraphBasedCallGraph implements MutableCallGraph {
 
   @Nonnull
   @Override
-  public Set<MethodSignature> callsTo(@Nonnull MethodSignature targetMethod) {
+  public synchronized Set<MethodSignature> callsTo(@Nonnull MethodSignature targetMethod) {
     return graph.incomingEdgesOf(vertexOf(targetMethod)).stream()
         .map(graph::getEdgeSource)
         .map(targetVertex -> targetVertex.methodSignature)
         .collect(Collectors.toSet());
   }
 
+  @Nonnull
+  @Override
+  public synchronized Set<CallEdge> callSitesTo(@Nonnull MethodSignature targetMethod) {
+    Set<CallEdge> edges = callSitesByTarget.get(targetMethod);
+    return edges == null ? Collections.emptySet() : new LinkedHashSet<>(edges);
+  }
+
+  @Nonnull
+  @Override
+  public synchronized Set<MethodSignature> calleesOf(@Nonnull Stmt callSite) {
+    Set<CallEdge> edges = callSitesByStmt.get(callSite);
+    if (edges == null) {
+      return Collections.emptySet();
+    }
+    Set<MethodSignature> callees = new LinkedHashSet<>();
+    edges.forEach(edge -> callees.add(edge.getTargetMethod()));
+    return callees;
+  }
+
   @Override
-  public boolean containsMethod(@Nonnull MethodSignature method) {
+  public synchronized boolean containsMethod(@Nonnull MethodSignature method) {
     return signatureToVertex.containsKey(method);
   }
 
   @Override
-  public boolean containsCall(
+  public synchronized boolean containsCall(
       @Nonnull MethodSignature sourceMethod, @Nonnull MethodSignature targetMethod) {
     if (!containsMethod(sourceMethod) || !containsMethod(targetMethod)) {
       return false;
@@ -125,18 +174,27 @@ public final class GraphBasedCallGraph implements MutableCallGraph {
   }
 
   @Override
-  public int callCount() {
+  public synchronized int callCount() {
     return graph.edgeSet().size();
   }
 
   @SuppressWarnings("unchecked") // (graph.clone() preserves generic properties)
   @Nonnull
   @Override
-  public MutableCallGraph copy() {
+  public synchronized MutableCallGraph copy() {
     return new GraphBasedCallGraph(
         (DefaultDirectedGraph<Vertex, Edge>) graph.clone(),
         new HashMap<>(signatureToVertex),
-        new HashMap<>(typeToVertices));
+        new HashMap<>(typeToVertices),
+        copyIndex(callSitesByTarget),
+        copyIndex(callSitesByStmt));
+  }
+
+  @Nonnull
+  private static <K> Map<K, Set<CallEdge>> copyIndex(@Nonnull Map<K, Set<CallEdge>> index) {
+    Map<K, Set<CallEdge>> copy = new HashMap<>(index);
+    copy.replaceAll((key, edges) -> new LinkedHashSet<>(edges));
+    return copy;
   }
 
   /**
@@ -153,7 +211,7 @@ public final class GraphBasedCallGraph implements MutableCallGraph {
   }
 
   @Override
-  public String toString() {
+  public synchronized String toString() {
     StringBuilder sb = new StringBuilder("GraphBasedCallGraph(" + callCount() + ")");
     if (signatureToVertex.keySet().isEmpty()) {
       sb.append(" is empty");
@@ -178,7 +236,7 @@ public final class GraphBasedCallGraph implements MutableCallGraph {
   }
 
   @Override
-  public String toStringSorted() {
+  public synchronized String toStringSorted() {
     StringBuilder stringBuilder = new StringBuilder("GraphBasedCallGraph(" + callCount() + ")");
     if (signatureToVertex.keySet().isEmpty()) {
       stringBuilder.append(" is empty");
@@ -23,6 +23,7 @@ package sootup.callgraph;
  */
 
 import javax.annotation.Nonnull;
+import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.signatures.MethodSignature;
 
 /**
@@ -45,4 +46,20 @@ public interface MutableCallGraph extends CallGraph {
    * @param targetMethod this paramter defines the target node of the edge in the call graph.
    */
   void addCall(@Nonnull MethodSignature sourceMethod, @Nonnull MethodSignature targetMethod);
+
+  /**
+   * This method enables to add calls together with their call site. It adds the edge between the
+   * source and the target node if it is not contained yet and records the call site, so it can be
+   * queried by {@link #callSitesTo(MethodSignature)} and {@link #calleesOf(Stmt)}.
+   *
+   * @param sourceMethod this parameter defines the source node of the edge in the call graph.
+   * @param targetMethod this parameter defines the target node of the edge in the call graph.
+   * @param callSite the statement in the source method that calls the target method.
+   * @param kind the kind of the call.
+   */
+  void addCall(
+      @Nonnull MethodSignature sourceMethod,
+      @Nonnull MethodSignature targetMethod,
+      @Nonnull Stmt callSite,
+      @Nonnull CallGraphEdgeType kind);
 }
@@ -29,6 +29,7 @@ import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import sootup.core.jimple.common.expr.AbstractInvokeExpr;
 import sootup.core.jimple.common.expr.JSpecialInvokeExpr;
+import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.Modifier;
 import sootup.core.model.SootClass;
 import sootup.core.model.SootMethod;
@@ -48,23 +49,13 @@ import sootup.core.views.View;
  */
 public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
 
+  @Nonnull private Set<ClassType> instantiatedClasses = new HashSet<>();
+
   /**
-   * This private class is used to save reachable calls. Because every method is only processed
-   * once, ignored calls are saved to include them at a later time if their class is instantiated at
-   * a later time.
+   * Because every method is only processed once, ignored calls are saved to include them at a later
+   * time if their class is instantiated at a later time.
    */
-  private static class Call {
-    @Nonnull final MethodSignature source;
-    @Nonnull final MethodSignature target;
-
-    private Call(@Nonnull MethodSignature source, MethodSignature target) {
-      this.source = source;
-      this.target = target;
-    }
-  }
-
-  @Nonnull private Set<ClassType> instantiatedClasses = new HashSet<>();
-  @Nonnull private HashMap<ClassType, List<Call>> ignoredCalls = new HashMap<>();
+  @Nonnull private HashMap<ClassType, List<CallEdge>> ignoredCalls = new HashMap<>();
   @Nonnull private CallGraph chaGraph;
 
   /**
@@ -81,6 +72,8 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
   @Override
   public CallGraph initialize() {
     ClassHierarchyAnalysisAlgorithm cha = new ClassHierarchyAnalysisAlgorithm(view, typeHierarchy);
+    cha.setWorkListExecutor(getWorkListExecutor());
+    cha.setCallGraphFactory(getCallGraphFactory());
     List<MethodSignature> entryPoints = Collections.singletonList(findMainMethod());
     chaGraph = cha.initialize(entryPoints);
     return constructCompleteCallGraph(view, entryPoints);
@@ -90,6 +83,8 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
   @Override
   public CallGraph initialize(@Nonnull List<MethodSignature> entryPoints) {
     ClassHierarchyAnalysisAlgorithm cha = new ClassHierarchyAnalysisAlgorithm(view, typeHierarchy);
+    cha.setWorkListExecutor(getWorkListExecutor());
+    cha.setCallGraphFactory(getCallGraphFactory());
     chaGraph = cha.initialize(entryPoints);
     return constructCompleteCallGraph(view, entryPoints);
   }
@@ -126,13 +121,14 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
    * expression.
    *
    * @param method the method object that contains the given invoke expression in the body.
-   * @param invokeExpr it contains the call which is resolved.
+   * @param callSite the statement that contains the call which is resolved.
    * @return a stream containing all reachable method signatures after applying the RTA call graph
    *     algorithm
    */
   @Override
   @Nonnull
-  protected Stream<MethodSignature> resolveCall(SootMethod method, AbstractInvokeExpr invokeExpr) {
+  protected Stream<MethodSignature> resolveCall(SootMethod method, Stmt callSite) {
+    AbstractInvokeExpr invokeExpr = callSite.getInvokeExpr();
     MethodSignature targetMethodSignature = invokeExpr.getMethodSignature();
     Stream<MethodSignature> result = Stream.of(targetMethodSignature);
 
@@ -156,17 +152,14 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
           MethodDispatchResolver.resolveAbstractDispatchInClasses(
               view, targetMethodSignature, instantiatedClasses, notInstantiatedCallTargets);
 
+      CallGraphEdgeType kind = CallGraphEdgeType.of(invokeExpr);
       notInstantiatedCallTargets.forEach(
-          ignoredMethodSignature -> {
-            List<Call> calls = ignoredCalls.get(ignoredMethodSignature.getDeclClassType());
-            if (calls == null) {
-              calls = new ArrayList<>();
-              calls.add(new Call(method.getSignature(), ignoredMethodSignature));
-              ignoredCalls.put(ignoredMethodSignature.getDeclClassType(), calls);
-            } else {
-              calls.add(new Call(method.getSignature(), ignoredMethodSignature));
-            }
-          });
+          ignoredMethodSignature ->
+              ignoredCalls
+                  .computeIfAbsent(
+                      ignoredMethodSignature.getDeclClassType(), k -> new ArrayList<>())
+                  .add(
+                      new CallEdge(method.getSignature(), ignoredMethodSignature, callSite, kind)));
 
       return Stream.concat(result, implAndOverrides.stream());
     }
@@ -191,19 +184,18 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
       @Nonnull MutableCallGraph cg) {
     instantiatedClasses.forEach(
         instantiatedClassType -> {
-          List<Call> newEdges = ignoredCalls.get(instantiatedClassType);
+          List<CallEdge> newEdges = ignoredCalls.get(instantiatedClassType);
           if (newEdges != null) {
             newEdges.forEach(
                 call -> {
-                  if (cg.containsMethod(call.target)) {
-                    // method is already analyzed or is in the work list, simply add the call
-                    cg.addCall(call.source, call.target);
-                  } else {
+                  MethodSignature target = call.getTargetMethod();
+                  if (!cg.containsMethod(target)) {
                     // new target method found that has to be analyzed
-                    cg.addMethod(call.target);
-                    cg.addCall(call.source, call.target);
-                    workList.push(call.target);
+                    cg.addMethod(target);
+                    workList.push(target);
                   }
+                  // otherwise the method is already analyzed or is in the work list
+                  cg.addCall(call.getSourceMethod(), target, call.getCallSite(), call.getKind());
                 });
             // can be removed because the instantiated class will be considered in future resolves
             ignoredCalls.remove(instantiatedClassType);
@@ -4,6 +4,7 @@ import static junit.framework.TestCase.*;
 
 import java.util.Collections;
 import java.util.Optional;
+import java.util.Set;
 import junit.framework.TestCase;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -203,6 +204,22 @@ public abstract class CallGraphTestBase<T extends AbstractCallGraphAlgorithm> {
     assertTrue(cg.containsCall(mainMethodSignature, targetMethod));
   }
 
+  @Test
+  public void testCallSites() {
+    CallGraph cg = loadCallGraph("VirtualCall", "vc1.Class");
+
+    MethodSignature targetMethod =
+        identifierFactory.getMethodSignature(
+            mainClassSignature, "target", "void", Collections.emptyList());
+    Set<CallEdge> callSites = cg.callSitesTo(targetMethod);
+    assertEquals(1, callSites.size());
+    CallEdge callSite = callSites.iterator().next();
+    assertEquals(mainMethodSignature, callSite.getSourceMethod());
+    assertEquals(CallGraphEdgeType.VIRTUAL, callSite.getKind());
+    assertEquals(targetMethod, callSite.getCallSite().getInvokeExpr().getMethodSignature());
+    assertEquals(Collections.singleton(targetMethod), cg.calleesOf(callSite.getCallSite()));
+  }
+
   @Test
   public void testVirtualCall2() {
     CallGraph cg = loadCallGraph("VirtualCall", "vc2.Class");
@@ -0,0 +1,218 @@
+package sootup.callgraph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import categories.Java8Test;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.common.stmt.JNopStmt;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.signatures.MethodSignature;
+import sootup.java.core.JavaIdentifierFactory;
+
+/** Compares the {@link CompactCallGraph} with the {@link GraphBasedCallGraph}. */
+@Category(Java8Test.class)
+public class CompactCallGraphTest {
+
+  private static List<MethodSignature> createMethods(int count) {
+    JavaIdentifierFactory identifierFactory = JavaIdentifierFactory.getInstance();
+    List<MethodSignature> methods = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      methods.add(
+          identifierFactory.getMethodSignature(
+              "method" + i, "pkg.Class" + (i / 20), "void", Collections.emptyList()));
+    }
+    return methods;
+  }
+
+  /** Adds the methods and calls to random targets, some of them to a few popular methods. */
+  private static void fill(
+      MutableCallGraph cg, List<MethodSignature> methods, int callsPerMethod, long seed) {
+    Random random = new Random(seed);
+    for (MethodSignature method : methods) {
+      if (!cg.containsMethod(method)) {
+        cg.addMethod(method);
+      }
+    }
+    for (MethodSignature method : methods) {
+      for (int i = 0; i < callsPerMethod; i++) {
+        int target = random.nextInt(4) == 0 ? random.nextInt(10) : random.nextInt(methods.size());
+        cg.addCall(method, methods.get(target));
+      }
+    }
+  }
+
+  /** Adds calls at the call sites of each method, some call sites have several targets. */
+  private static void fillCallSites(
+      MutableCallGraph cg, List<MethodSignature> methods, List<List<Stmt>> callSites, long seed) {
+    Random random = new Random(seed);
+    for (int m = 0; m < methods.size(); m++) {
+      for (Stmt callSite : callSites.get(m)) {
+        CallGraphEdgeType kind =
+            random.nextBoolean() ? CallGraphEdgeType.STATIC : CallGraphEdgeType.VIRTUAL;
+        for (int i = random.nextInt(3); i >= 0; i--) {
+          MethodSignature target = methods.get(random.nextInt(methods.size()));
+          cg.addCall(methods.get(m), target, callSite, kind);
+        }
+      }
+    }
+  }
+
+  private static List<List<Stmt>> createCallSites(int methodCount, int callSitesPerMethod) {
+    List<List<Stmt>> callSites = new ArrayList<>(methodCount);
+    for (int m = 0; m < methodCount; m++) {
+      List<Stmt> stmts = new ArrayList<>(callSitesPerMethod);
+      for (int i = 0; i < callSitesPerMethod; i++) {
+        stmts.add(new JNopStmt(StmtPositionInfo.createNoStmtPositionInfo()));
+      }
+      callSites.add(stmts);
+    }
+    return callSites;
+  }
+
+  private static void assertSameCallSites(
+      CallGraph expected, CallGraph actual, List<List<Stmt>> callSites) {
+    for (MethodSignature method : expected.getMethodSignatures()) {
+      assertEquals(expected.callSitesTo(method), actual.callSitesTo(method));
+    }
+    for (List<Stmt> stmts : callSites) {
+      for (Stmt callSite : stmts) {
+        assertEquals(expected.calleesOf(callSite), actual.calleesOf(callSite));
+      }
+    }
+  }
+
+  private static void assertSameCallGraph(CallGraph expected, CallGraph actual) {
+    assertEquals(expected.getMethodSignatures(), actual.getMethodSignatures());
+    assertEquals(expected.callCount(), actual.callCount());
+    for (MethodSignature method : expected.getMethodSignatures()) {
+      assertEquals(expected.callsFrom(method), actual.callsFrom(method));
+      assertEquals(expected.callsTo(method), actual.callsTo(method));
+    }
+  }
+
+  @Test
+  public void sameCallGraphAsGraphBasedCallGraph() {
+    List<MethodSignature> methods = createMethods(500);
+    GraphBasedCallGraph expected = new GraphBasedCallGraph();
+    CompactCallGraph actual = new CompactCallGraph();
+    fill(expected, methods, 5, 42);
+    fill(actual, methods, 5, 42);
+
+    assertSameCallGraph(expected, actual);
+    // the string representations only differ in the name of the class
+    String expectedString = expected.toStringSorted();
+    String actualString = actual.toStringSorted();
+    assertEquals(
+        expectedString.substring(expectedString.indexOf('(')),
+        actualString.substring(actualString.indexOf('(')));
+
+    actual.freeze();
+    assertTrue(actual.isFrozen());
+    assertSameCallGraph(expected, actual);
+    for (MethodSignature source : methods.subList(0, 50)) {
+      for (MethodSignature target : methods) {
+        assertEquals(expected.containsCall(source, target), actual.containsCall(source, target));
+      }
+    }
+
+    // modifying a frozen call graph expands it again
+    fill(expected, methods, 2, 7);
+    fill(actual, methods, 2, 7);
+    assertFalse(actual.isFrozen());
+    assertSameCallGraph(expected, actual);
+  }
+
+  @Test
+  public void copyOnWrite() {
+    List<MethodSignature> methods = createMethods(200);
+    CompactCallGraph original = new CompactCallGraph();
+    fill(original, methods.subList(0, 100), 3, 1);
+    GraphBasedCallGraph expectedOriginal = new GraphBasedCallGraph();
+    fill(expectedOriginal, methods.subList(0, 100), 3, 1);
+
+    MutableCallGraph copy = original.copy();
+    MutableCallGraph expectedCopy = expectedOriginal.copy();
+    assertSameCallGraph(expectedOriginal, copy);
+
+    // modifications of the copy are not visible in the original and vice versa
+    fill(copy, methods.subList(50, 200), 3, 2);
+    fill(expectedCopy, methods.subList(50, 200), 3, 2);
+    assertSameCallGraph(expectedOriginal, original);
+    assertSameCallGraph(expectedCopy, copy);
+
+    fill(original, methods.subList(0, 150), 2, 3);
+    fill(expectedOriginal, methods.subList(0, 150), 2, 3);
+    assertSameCallGraph(expectedOriginal, original);
+    assertSameCallGraph(expectedCopy, copy);
+
+    // a copy of a frozen call graph shares the frozen arrays
+    original.freeze();
+    MutableCallGraph frozenCopy = original.copy();
+    frozenCopy.addCall(methods.get(0), methods.get(149));
+    assertEquals(
+        expectedOriginal.containsCall(methods.get(0), methods.get(149)),
+        original.containsCall(methods.get(0), methods.get(149)));
+    assertTrue(frozenCopy.containsCall(methods.get(0), methods.get(149)));
+  }
+
+  @Test
+  public void callSites() {
+    List<MethodSignature> methods = createMethods(300);
+    List<List<Stmt>> callSites = createCallSites(300, 4);
+    GraphBasedCallGraph expected = new GraphBasedCallGraph();
+    CompactCallGraph actual = new CompactCallGraph();
+    for (MutableCallGraph cg : new MutableCallGraph[] {expected, actual}) {
+      fill(cg, methods, 1, 5);
+      fillCallSites(cg, methods, callSites, 6);
+      // adding a call site twice does not change the call graph
+      fillCallSites(cg, methods, callSites, 6);
+    }
+    assertSameCallGraph(expected, actual);
+    assertSameCallSites(expected, actual, callSites);
+
+    // the indices are consistent with each other and with the calls between the methods
+    int callSiteCount = 0;
+    for (MethodSignature method : methods) {
+      for (CallEdge edge : actual.callSitesTo(method)) {
+        assertEquals(method, edge.getTargetMethod());
+        assertTrue(actual.calleesOf(edge.getCallSite()).contains(method));
+        assertTrue(actual.containsCall(edge.getSourceMethod(), method));
+        callSiteCount++;
+      }
+    }
+    Set<MethodSignature> callees = new HashSet<>();
+    for (List<Stmt> stmts : callSites) {
+      for (Stmt callSite : stmts) {
+        callees.addAll(actual.calleesOf(callSite));
+      }
+    }
+    assertTrue(callSiteCount >= 300 * 4);
+    assertFalse(callees.isEmpty());
+    assertTrue(
+        actual.calleesOf(new JNopStmt(StmtPositionInfo.createNoStmtPositionInfo())).isEmpty());
+
+    // frozen call graphs and copies answer the same queries
+    actual.freeze();
+    assertSameCallSites(expected, actual, callSites);
+    MutableCallGraph copy = actual.copy();
+    MutableCallGraph expectedCopy = expected.copy();
+    List<List<Stmt>> moreCallSites = createCallSites(300, 1);
+    fillCallSites(copy, methods, moreCallSites, 7);
+    fillCallSites(expectedCopy, methods, moreCallSites, 7);
+    assertSameCallSites(expected, actual, callSites);
+    assertSameCallSites(expected, actual, moreCallSites);
+    assertSameCallSites(expectedCopy, copy, callSites);
+    assertSameCallSites(expectedCopy, copy, moreCallSites);
+    assertSameCallGraph(expectedCopy, copy);
+  }
+}
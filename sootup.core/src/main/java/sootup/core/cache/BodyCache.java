@@ -0,0 +1,176 @@
+package sootup.core.cache;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import sootup.core.model.Body;
+import sootup.core.signatures.MethodSignature;
+
+/**
+ * Decides how long the {@link Body bodies} of the methods of a {@link sootup.core.views.View} are
+ * retained. The bodies are keyed by the signature of their method. A body that was evicted from
+ * the cache is rebuilt from the {@link sootup.core.frontend.BodySource} of its method the next time
+ * it is requested.
+ *
+ * <p>A rebuilt body consists of new {@link sootup.core.jimple.common.stmt.Stmt} instances, and
+ * Stmts are compared by identity. Structures that refer to the Stmts of bodies, e.g. the call sites
+ * of a call graph or an interprocedural CFG, do not find the Stmts of a rebuilt body. Use {@link
+ * #strong()} while such structures are in use.
+ *
+ * <p>The cache records its hits, misses and evictions, see {@link #getStats()}.
+ *
+ * @see sootup.core.views.AbstractView#setBodyCache(BodyCache)
+ */
+public class BodyCache {
+
+  /** the retention policies that are provided by the factory methods of {@link BodyCache} */
+  public enum RetentionPolicy {
+    /** bodies are kept until the view is no longer used */
+    STRONG,
+    /** bodies are kept until the garbage collector needs their memory */
+    SOFT,
+    /** bodies are evicted in least-recently-used order once a maximum weight is exceeded */
+    BOUNDED
+  }
+
+  /** the default weight of a body: the number of its statements */
+  @Nonnull
+  public static final Weigher<MethodSignature, Body> STMT_COUNT_WEIGHER =
+      (signature, body) -> Math.max(1, body.getStmtGraph().nodes().size());
+
+  @Nonnull private final RetentionPolicy policy;
+  @Nonnull private final Cache<MethodSignature, Body> cache;
+
+  protected BodyCache(
+      @Nonnull RetentionPolicy policy, @Nonnull Cache<MethodSignature, Body> cache) {
+    this.policy = policy;
+    this.cache = cache;
+  }
+
+  /** Keeps every body once it has been built. */
+  @Nonnull
+  public static BodyCache strong() {
+    return new BodyCache(RetentionPolicy.STRONG, CacheBuilder.newBuilder().recordStats().build());
+  }
+
+  /** Keeps the bodies softly reachable, i.e. they are released when the heap runs low. */
+  @Nonnull
+  public static BodyCache soft() {
+    return new BodyCache(
+        RetentionPolicy.SOFT, CacheBuilder.newBuilder().softValues().recordStats().build());
+  }
+
+  /**
+   * Keeps at most <code>maximumBodies</code> bodies and evicts the least recently used body when
+   * the limit is exceeded.
+   */
+  @Nonnull
+  public static BodyCache bounded(long maximumBodies) {
+    return new BodyCache(
+        RetentionPolicy.BOUNDED,
+        CacheBuilder.newBuilder().maximumSize(maximumBodies).recordStats().build());
+  }
+
+  /**
+   * Keeps bodies up to a total weight of <code>maximumWeight</code> and evicts the least recently
+   * used bodies when the limit is exceeded.
+   *
+   * @param weigher computes the weight of a body, e.g. {@link #STMT_COUNT_WEIGHER}.
+   */
+  @Nonnull
+  public static BodyCache bounded(
+      long maximumWeight, @Nonnull Weigher<MethodSignature, Body> weigher) {
+    return new BodyCache(
+        RetentionPolicy.BOUNDED,
+        CacheBuilder.newBuilder()
+            .maximumWeight(maximumWeight)
+            .weigher(weigher)
+            .recordStats()
+            .build());
+  }
+
+  @Nonnull
+  public RetentionPolicy getRetentionPolicy() {
+    return policy;
+  }
+
+  /**
+   * Returns the cached body of the method with the given signature or builds it with <code>
+   * bodyLoader</code> if it is not (or no longer) cached. Concurrent requests for the same method
+   * wait for a single build.
+   */
+  @Nonnull
+  public Body getBody(@Nonnull MethodSignature signature, @Nonnull Supplier<Body> bodyLoader) {
+    try {
+      return cache.get(signature, bodyLoader::get);
+    } catch (UncheckedExecutionException e) {
+      // rethrow the ResolveExceptions of the body source as they are
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    } catch (ExecutionError e) {
+      throw (Error) e.getCause();
+    } catch (ExecutionException e) {
+      // the loader can not throw checked exceptions
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  /** Removes the body of the method with the given signature, if cached. */
+  public void invalidate(@Nonnull MethodSignature signature) {
+    cache.invalidate(signature);
+  }
+
+  /** Removes all cached bodies. */
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  /** Returns the approximate number of bodies that are currently cached. */
+  public long size() {
+    return cache.size();
+  }
+
+  /**
+   * Returns the hit, miss, load and eviction counts of this cache. Bodies of a {@link
+   * RetentionPolicy#SOFT} cache that were reclaimed by the garbage collector count as evictions.
+   */
+  @Nonnull
+  public CacheStats getStats() {
+    return cache.stats();
+  }
+
+  @Override
+  public String toString() {
+    return "BodyCache{" + policy + ", size=" + size() + ", " + getStats() + "}";
+  }
+}
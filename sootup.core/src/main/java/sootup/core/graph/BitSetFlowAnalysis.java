@@ -0,0 +1,357 @@
+package sootup.core.graph;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.BitSet;
+import java.util.List;
+import javax.annotation.Nonnull;
+import sootup.core.jimple.common.stmt.Stmt;
+
+/**
+ * A forward or backward dataflow analysis over the basic blocks of a {@link StmtGraph} whose facts
+ * are dense {@link BitSet}s, e.g. of numbered locals or definitions.
+ *
+ * <p>The fixpoint is computed on block level: a worklist of pending blocks is processed in reverse
+ * postorder of the analysis direction, so acyclic parts converge in a single pass. The flow of the
+ * single stmts is only derived on request. The lattice is given by {@link #merge(BitSet, BitSet)}
+ * (union by default, i.e. a may-analysis) together with {@link #newInitialFlow()} and {@link
+ * #entryInitialFlow()}; must-analyses override them with intersection and the full set.
+ *
+ * <p>Exceptional control flow is modeled on stmt level: a stmt that throws has not taken effect, so
+ * the flow into a handler is the merged flow before each stmt of the trapped block (forward) and
+ * the flow at the beginning of the handler is merged into the flow before each stmt of the trapped
+ * block (backward).
+ *
+ * <p>Subclasses initialize their own state and call {@link #execute()} at the end of their
+ * constructor.
+ */
+public abstract class BitSetFlowAnalysis {
+
+  public enum Direction {
+    FORWARD,
+    BACKWARD
+  }
+
+  @Nonnull protected final BlockGraphIndex index;
+  @Nonnull private final Direction direction;
+
+  // the flow before the head and after the tail of each block, in execution order
+  private BitSet[] blockBefore;
+  private BitSet[] blockAfter;
+  // the flow that is passed along the exceptional edges of each block
+  private BitSet[] exceptionalFlow;
+  // the flow of the stmts, derived lazily per block
+  private BitSet[][] stmtBefore;
+  private BitSet[][] stmtAfter;
+
+  private int blockVisits = 0;
+
+  protected BitSetFlowAnalysis(@Nonnull StmtGraph<?> graph, @Nonnull Direction direction) {
+    this(new BlockGraphIndex(graph), direction);
+  }
+
+  /** Allows several analyses of the same graph to share the block numbering. */
+  protected BitSetFlowAnalysis(@Nonnull BlockGraphIndex index, @Nonnull Direction direction) {
+    this.index = index;
+    this.direction = direction;
+  }
+
+  /**
+   * Transforms the given flow in place from before to after the stmt in the direction of the
+   * analysis, i.e. from the flow after to the flow before the stmt for a backward analysis.
+   */
+  protected abstract void flowThrough(@Nonnull Stmt stmt, @Nonnull BitSet flow);
+
+  /** Returns the initial flow of all blocks, i.e. the neutral element of {@link #merge}. */
+  @Nonnull
+  protected BitSet newInitialFlow() {
+    return new BitSet();
+  }
+
+  /**
+   * Returns the flow at the starting stmt (forward) or after the stmts without normal successors
+   * (backward).
+   */
+  @Nonnull
+  protected BitSet entryInitialFlow() {
+    return newInitialFlow();
+  }
+
+  /** Merges other into flow. */
+  protected void merge(@Nonnull BitSet flow, @Nonnull BitSet other) {
+    flow.or(other);
+  }
+
+  /** The hook for subclasses that can look up the stmt's transfer function by its position. */
+  void flowThrough(int block, int position, @Nonnull Stmt stmt, @Nonnull BitSet flow) {
+    flowThrough(stmt, flow);
+  }
+
+  /**
+   * Transforms the flow through a whole block that has no exceptional successors in the direction
+   * of the analysis; subclasses may replace this by a precomputed summary of the block.
+   */
+  void flowThroughBlock(int block, @Nonnull BitSet flow) {
+    final List<Stmt> stmts = index.getStmts(block);
+    if (direction == Direction.FORWARD) {
+      for (int i = 0; i < stmts.size(); i++) {
+        flowThrough(block, i, stmts.get(i), flow);
+      }
+    } else {
+      for (int i = stmts.size() - 1; i >= 0; i--) {
+        flowThrough(block, i, stmts.get(i), flow);
+      }
+    }
+  }
+
+  /** Computes the fixpoint. */
+  protected void execute() {
+    final int blockCount = index.getBlockCount();
+    final boolean forward = direction == Direction.FORWARD;
+    blockBefore = new BitSet[blockCount];
+    blockAfter = new BitSet[blockCount];
+    exceptionalFlow = new BitSet[blockCount];
+    stmtBefore = new BitSet[blockCount][];
+    stmtAfter = new BitSet[blockCount][];
+    for (int b = 0; b < blockCount; b++) {
+      blockBefore[b] = newInitialFlow();
+      blockAfter[b] = newInitialFlow();
+      if (index.getExceptionalSuccessors(b).length > 0) {
+        exceptionalFlow[b] = newInitialFlow();
+      }
+    }
+
+    final int[] order = forward ? index.getReversePostorder() : index.getPostorder();
+    final int[] position = new int[blockCount];
+    for (int i = 0; i < blockCount; i++) {
+      position[order[i]] = i;
+    }
+    final BitSet pending = new BitSet(blockCount);
+    pending.set(0, blockCount);
+    // sweep over the pending blocks in order and wrap around, i.e. a back edge does not interrupt
+    // the current pass and the number of passes is bounded by the loop connectedness of the graph
+    int pos = 0;
+    while ((pos = nextPending(pending, pos)) >= 0) {
+      pending.clear(pos);
+      final int b = order[pos];
+      blockVisits++;
+      final boolean changed = forward ? flowForward(b) : flowBackward(b);
+      if (changed) {
+        final int[] dependents = forward ? index.getSuccessors(b) : index.getPredecessors(b);
+        final int[] exceptionalDependents =
+            forward ? index.getExceptionalSuccessors(b) : index.getExceptionalPredecessors(b);
+        for (int dependent : dependents) {
+          pending.set(position[dependent]);
+        }
+        for (int dependent : exceptionalDependents) {
+          pending.set(position[dependent]);
+        }
+      }
+    }
+  }
+
+  private static int nextPending(@Nonnull BitSet pending, int from) {
+    final int next = pending.nextSetBit(from);
+    return next >= 0 ? next : pending.nextSetBit(0);
+  }
+
+  /** Returns whether the flow leaving the block has changed. */
+  private boolean flowForward(int b) {
+    BitSet flow = b == index.getStartingBlock() ? entryInitialFlow() : null;
+    for (int pred : index.getPredecessors(b)) {
+      flow = mergeInto(flow, blockAfter[pred]);
+    }
+    for (int pred : index.getExceptionalPredecessors(b)) {
+      flow = mergeInto(flow, exceptionalFlow[pred]);
+    }
+    if (flow == null) {
+      flow = newInitialFlow();
+    }
+    blockBefore[b] = (BitSet) flow.clone();
+
+    boolean changed = false;
+    if (exceptionalFlow[b] == null) {
+      flowThroughBlock(b, flow);
+    } else {
+      final List<Stmt> stmts = index.getStmts(b);
+      BitSet exceptional = null;
+      for (int i = 0; i < stmts.size(); i++) {
+        exceptional = mergeInto(exceptional, flow);
+        flowThrough(b, i, stmts.get(i), flow);
+      }
+      if (!exceptional.equals(exceptionalFlow[b])) {
+        exceptionalFlow[b] = exceptional;
+        changed = true;
+      }
+    }
+    if (!flow.equals(blockAfter[b])) {
+      blockAfter[b] = flow;
+      changed = true;
+    }
+    return changed;
+  }
+
+  /** Returns whether the flow at the beginning of the block has changed. */
+  private boolean flowBackward(int b) {
+    final int[] successors = index.getSuccessors(b);
+    BitSet flow = successors.length == 0 ? entryInitialFlow() : null;
+    for (int succ : successors) {
+      flow = mergeInto(flow, blockBefore[succ]);
+    }
+
+    if (exceptionalFlow[b] == null) {
+      blockAfter[b] = (BitSet) flow.clone();
+      flowThroughBlock(b, flow);
+    } else {
+      BitSet exceptional = null;
+      for (int handler : index.getExceptionalSuccessors(b)) {
+        exceptional = mergeInto(exceptional, blockBefore[handler]);
+      }
+      exceptionalFlow[b] = exceptional;
+      blockAfter[b] = (BitSet) flow.clone();
+      final List<Stmt> stmts = index.getStmts(b);
+      for (int i = stmts.size() - 1; i >= 0; i--) {
+        flowThrough(b, i, stmts.get(i), flow);
+        merge(flow, exceptional);
+      }
+    }
+    if (!flow.equals(blockBefore[b])) {
+      blockBefore[b] = flow;
+      return true;
+    }
+    return false;
+  }
+
+  @Nonnull
+  private BitSet mergeInto(BitSet flow, @Nonnull BitSet other) {
+    if (flow == null) {
+      return (BitSet) other.clone();
+    }
+    merge(flow, other);
+    return flow;
+  }
+
+  /** Derives the flow before and after each stmt of the given block. */
+  private void computeStmtFlows(int b) {
+    final List<Stmt> stmts = index.getStmts(b);
+    final int size = stmts.size();
+    final BitSet[] before = new BitSet[size];
+    final BitSet[] after = new BitSet[size];
+    if (direction == Direction.FORWARD) {
+      BitSet flow = blockBefore[b];
+      for (int i = 0; i < size; i++) {
+        before[i] = flow;
+        flow = (BitSet) flow.clone();
+        flowThrough(b, i, stmts.get(i), flow);
+        after[i] = flow;
+      }
+    } else {
+      final BitSet exceptional = exceptionalFlow[b];
+      BitSet flow = blockAfter[b];
+      for (int i = size - 1; i >= 0; i--) {
+        after[i] = flow;
+        flow = (BitSet) flow.clone();
+        flowThrough(b, i, stmts.get(i), flow);
+        if (exceptional != null) {
+          merge(flow, exceptional);
+        }
+        before[i] = flow;
+      }
+    }
+    stmtBefore[b] = before;
+    stmtAfter[b] = after;
+  }
+
+  private int stmtPosition(int b, @Nonnull Stmt stmt) {
+    if (stmtBefore[b] == null) {
+      computeStmtFlows(b);
+    }
+    final List<Stmt> stmts = index.getStmts(b);
+    // most lookups are for the heads and tails of the blocks
+    if (stmts.get(0) == stmt) {
+      return 0;
+    }
+    final int position = stmts.lastIndexOf(stmt);
+    if (position < 0) {
+      throw new IllegalArgumentException("Stmt: " + stmt + " is not in StmtGraph!");
+    }
+    return position;
+  }
+
+  private int blockOf(@Nonnull Stmt stmt) {
+    final int b = index.getBlockIndex(stmt);
+    if (b < 0) {
+      throw new IllegalArgumentException("Stmt: " + stmt + " is not in StmtGraph!");
+    }
+    return b;
+  }
+
+  /**
+   * Returns the flow before the given stmt in execution order. The returned bitset is shared with
+   * the analysis and must not be modified.
+   */
+  @Nonnull
+  public BitSet getFlowBefore(@Nonnull Stmt stmt) {
+    final int b = blockOf(stmt);
+    final int position = stmtPosition(b, stmt);
+    return stmtBefore[b][position];
+  }
+
+  /**
+   * Returns the flow after the given stmt in execution order. The returned bitset is shared with
+   * the analysis and must not be modified.
+   */
+  @Nonnull
+  public BitSet getFlowAfter(@Nonnull Stmt stmt) {
+    final int b = blockOf(stmt);
+    final int position = stmtPosition(b, stmt);
+    return stmtAfter[b][position];
+  }
+
+  /** Returns the flow before the head of the given block; it must not be modified. */
+  @Nonnull
+  public BitSet getBlockFlowBefore(int block) {
+    return blockBefore[block];
+  }
+
+  /** Returns the flow after the tail of the given block; it must not be modified. */
+  @Nonnull
+  public BitSet getBlockFlowAfter(int block) {
+    return blockAfter[block];
+  }
+
+  @Nonnull
+  public BlockGraphIndex getBlockGraphIndex() {
+    return index;
+  }
+
+  @Nonnull
+  public Direction getDirection() {
+    return direction;
+  }
+
+  /** Returns how often blocks were processed until the fixpoint was reached. */
+  public int getBlockVisitCount() {
+    return blockVisits;
+  }
+}
@@ -0,0 +1,235 @@
+package sootup.core.graph;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.*;
+import javax.annotation.Nonnull;
+import sootup.core.jimple.common.stmt.Stmt;
+
+/**
+ * A dense numbering of the basic blocks of a {@link StmtGraph} for algorithms that keep their
+ * per-block state in arrays or bitsets.
+ *
+ * <p>The blocks are identified via their stmts, so the index can be built once and is independent
+ * of the (possibly freshly created) block objects returned by {@link StmtGraph#getBlocks()}. The
+ * index is a snapshot: it does not reflect later modifications of the graph.
+ */
+public class BlockGraphIndex {
+
+  private static final int[] NO_BLOCKS = new int[0];
+
+  @Nonnull private final List<List<Stmt>> blockStmts = new ArrayList<>();
+  @Nonnull private final Map<Stmt, Integer> stmtToBlock = new HashMap<>();
+
+  @Nonnull private final int[][] successors;
+  @Nonnull private final int[][] exceptionalSuccessors;
+  @Nonnull private final int[][] predecessors;
+  @Nonnull private final int[][] exceptionalPredecessors;
+
+  private final int startingBlock;
+  @Nonnull private final int[] postorder;
+
+  public BlockGraphIndex(@Nonnull StmtGraph<?> graph) {
+    for (BasicBlock<?> block : graph.getBlocks()) {
+      final List<Stmt> stmts = block.getStmts();
+      for (Stmt stmt : stmts) {
+        stmtToBlock.put(stmt, blockStmts.size());
+      }
+      blockStmts.add(stmts);
+    }
+
+    final int blockCount = blockStmts.size();
+    successors = new int[blockCount][];
+    exceptionalSuccessors = new int[blockCount][];
+    final int[] predecessorCount = new int[blockCount];
+    final int[] exceptionalPredecessorCount = new int[blockCount];
+    for (int b = 0; b < blockCount; b++) {
+      final List<Stmt> stmts = blockStmts.get(b);
+      // the exceptional successors of a block are the same for all of its stmts
+      successors[b] = blockIndices(graph.successors(stmts.get(stmts.size() - 1)));
+      exceptionalSuccessors[b] = blockIndices(graph.exceptionalSuccessors(stmts.get(0)).values());
+      for (int succ : successors[b]) {
+        predecessorCount[succ]++;
+      }
+      for (int succ : exceptionalSuccessors[b]) {
+        exceptionalPredecessorCount[succ]++;
+      }
+    }
+
+    predecessors = new int[blockCount][];
+    exceptionalPredecessors = new int[blockCount][];
+    for (int b = 0; b < blockCount; b++) {
+      predecessors[b] = predecessorCount[b] == 0 ? NO_BLOCKS : new int[predecessorCount[b]];
+      exceptionalPredecessors[b] =
+          exceptionalPredecessorCount[b] == 0
+              ? NO_BLOCKS
+              : new int[exceptionalPredecessorCount[b]];
+    }
+    for (int b = 0; b < blockCount; b++) {
+      for (int succ : successors[b]) {
+        predecessors[succ][--predecessorCount[succ]] = b;
+      }
+      for (int succ : exceptionalSuccessors[b]) {
+        exceptionalPredecessors[succ][--exceptionalPredecessorCount[succ]] = b;
+      }
+    }
+
+    final Stmt startingStmt = graph.getStartingStmt();
+    final Integer start = startingStmt == null ? null : stmtToBlock.get(startingStmt);
+    startingBlock = start == null ? -1 : start;
+    postorder = computePostorder();
+  }
+
+  @Nonnull
+  private int[] blockIndices(@Nonnull Collection<Stmt> heads) {
+    if (heads.isEmpty()) {
+      return NO_BLOCKS;
+    }
+    final int[] indices = new int[heads.size()];
+    int i = 0;
+    for (Stmt head : heads) {
+      indices[i++] = stmtToBlock.get(head);
+    }
+    return indices;
+  }
+
+  /**
+   * Computes the postorder of a depth-first traversal (over normal and exceptional edges) from the
+   * starting block; blocks that are not reachable from it are traversed afterwards.
+   */
+  @Nonnull
+  private int[] computePostorder() {
+    final int blockCount = getBlockCount();
+    final int[] order = new int[blockCount];
+    int orderSize = 0;
+    final boolean[] visited = new boolean[blockCount];
+    // stack entries: {block, index of the next successor to visit}
+    final Deque<int[]> stack = new ArrayDeque<>();
+    for (int i = -1; i < blockCount; i++) {
+      final int root = i < 0 ? startingBlock : i;
+      if (root < 0 || visited[root]) {
+        continue;
+      }
+      visited[root] = true;
+      stack.push(new int[] {root, 0});
+      while (!stack.isEmpty()) {
+        final int[] top = stack.peek();
+        final int b = top[0];
+        final int normalCount = successors[b].length;
+        if (top[1] < normalCount + exceptionalSuccessors[b].length) {
+          final int next =
+              top[1] < normalCount
+                  ? successors[b][top[1]]
+                  : exceptionalSuccessors[b][top[1] - normalCount];
+          top[1]++;
+          if (!visited[next]) {
+            visited[next] = true;
+            stack.push(new int[] {next, 0});
+          }
+        } else {
+          stack.pop();
+          order[orderSize++] = b;
+        }
+      }
+    }
+    return order;
+  }
+
+  public int getBlockCount() {
+    return blockStmts.size();
+  }
+
+  /** Returns the index of the block containing the given stmt or -1 if it is not in the graph. */
+  public int getBlockIndex(@Nonnull Stmt stmt) {
+    final Integer index = stmtToBlock.get(stmt);
+    return index == null ? -1 : index;
+  }
+
+  /** Returns the index of the block with the starting stmt or -1 if the graph has none. */
+  public int getStartingBlock() {
+    return startingBlock;
+  }
+
+  @Nonnull
+  public List<Stmt> getStmts(int block) {
+    return blockStmts.get(block);
+  }
+
+  @Nonnull
+  public Stmt getHead(int block) {
+    return blockStmts.get(block).get(0);
+  }
+
+  @Nonnull
+  public Stmt getTail(int block) {
+    final List<Stmt> stmts = blockStmts.get(block);
+    return stmts.get(stmts.size() - 1);
+  }
+
+  /**
+   * Returns the indices of the normal successors of the given block. Like the other edge accessors
+   * this returns the internal array, which must not be modified.
+   */
+  @Nonnull
+  public int[] getSuccessors(int block) {
+    return successors[block];
+  }
+
+  @Nonnull
+  public int[] getExceptionalSuccessors(int block) {
+    return exceptionalSuccessors[block];
+  }
+
+  @Nonnull
+  public int[] getPredecessors(int block) {
+    return predecessors[block];
+  }
+
+  @Nonnull
+  public int[] getExceptionalPredecessors(int block) {
+    return exceptionalPredecessors[block];
+  }
+
+  /**
+   * Returns the blocks in postorder, i.e. every block comes after the blocks it reaches unless they
+   * are connected by a back edge. This is the preferred iteration order of backward analyses.
+   */
+  @Nonnull
+  public int[] getPostorder() {
+    return postorder;
+  }
+
+  /**
+   * Returns the blocks in reverse postorder, i.e. every block comes before the blocks it reaches
+   * unless they are connected by a back edge. This is the preferred iteration order of forward
+   * analyses.
+   */
+  @Nonnull
+  public int[] getReversePostorder() {
+    final int[] order = new int[postorder.length];
+    for (int i = 0; i < postorder.length; i++) {
+      order[i] = postorder[postorder.length - 1 - i];
+    }
+    return order;
+  }
+}
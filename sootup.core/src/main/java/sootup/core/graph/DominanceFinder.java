@@ -26,126 +26,331 @@ import java.util.*;
 import javax.annotation.Nonnull;
 
 /**
+ * Computes the immediate dominators and the dominance frontiers of the blocks of a {@link
+ * StmtGraph}, following normal and exceptional edges.
+ *
+ * <p>The blocks are numbered in reverse postorder of a depth-first traversal from the starting
+ * block, so the starting block has the index 0 and every block has a larger index than its
+ * immediate dominator. With this numbering the iterative algorithm of Cooper, Harvey and Kennedy
+ * works on int arrays only and usually converges after two passes. Blocks that are not reachable
+ * get the largest indices and no dominator (-1).
+ *
  * @author Zun Wang
  * @see <a
  *     href="https://www.cs.rice.edu/~keith/EMBED/dom.pdf">https://www.cs.rice.edu/~keith/EMBED/dom.pdf</a>
+ * @see PostDominanceFinder
  */
 public class DominanceFinder {
 
+  private static final int[] NO_BLOCKS = new int[0];
+
   private List<BasicBlock<?>> blocks;
   private Map<BasicBlock<?>, Integer> blockToIdx = new HashMap<>();
   private int[] doms;
-  private ArrayList<Integer>[] domFrontiers;
-
-  public DominanceFinder(StmtGraph<?> blockGraph) {
-
-    // assign each block a integer id, startBlock's id must be 0
-    blocks = new ArrayList<>(blockGraph.getBlocks());
-    final BasicBlock<?> startingStmtBlock = blockGraph.getStartingStmtBlock();
-    {
-      int i = 1;
-      for (BasicBlock<?> block : blocks) {
-        if (startingStmtBlock == block) {
-          blockToIdx.put(block, 0);
+  private int[][] domFrontiers;
+  private final boolean postDominance;
+
+  public DominanceFinder(@Nonnull StmtGraph<?> blockGraph) {
+    this(blockGraph, false);
+  }
+
+  /**
+   * @param postDominance whether the dominators are computed on the reversed graph, i.e. from a
+   *     virtual exit that is the successor of every block without successors.
+   */
+  protected DominanceFinder(@Nonnull StmtGraph<?> blockGraph, boolean postDominance) {
+    this.postDominance = postDominance;
+    final BlockGraphIndex index = new BlockGraphIndex(blockGraph);
+    final int blockCount = index.getBlockCount();
+
+    // the edges in the direction of the dominance; a post dominance graph gets a virtual exit
+    // node with the index blockCount
+    final int nodeCount = postDominance ? blockCount + 1 : blockCount;
+    final int[][] succs = new int[nodeCount][];
+    final int[][] preds = new int[nodeCount][];
+    int root = index.getStartingBlock();
+    if (!postDominance) {
+      for (int b = 0; b < blockCount; b++) {
+        succs[b] = concat(index.getSuccessors(b), index.getExceptionalSuccessors(b));
+        preds[b] = concat(index.getPredecessors(b), index.getExceptionalPredecessors(b));
+      }
+    } else {
+      root = blockCount;
+      final List<Integer> exits = new ArrayList<>();
+      for (int b = 0; b < blockCount; b++) {
+        final int[] cfgSuccs = concat(index.getSuccessors(b), index.getExceptionalSuccessors(b));
+        succs[b] = concat(index.getPredecessors(b), index.getExceptionalPredecessors(b));
+        if (cfgSuccs.length == 0) {
+          exits.add(b);
+          preds[b] = new int[] {root};
         } else {
-          blockToIdx.put(block, i);
-          i++;
+          preds[b] = cfgSuccs;
         }
       }
+      succs[root] = exits.stream().mapToInt(Integer::intValue).toArray();
+      preds[root] = NO_BLOCKS;
     }
 
-    // initialize doms
-    doms = new int[blocks.size()];
-    doms[0] = 0;
-    for (int i = 1; i < doms.length; i++) {
-      doms[i] = -1;
+    // number the nodes in reverse postorder, the unreachable ones at the end
+    final int[] order = reversePostorder(root, succs);
+    final int[] number = new int[nodeCount];
+    Arrays.fill(number, -1);
+    for (int i = 0; i < order.length; i++) {
+      number[order[i]] = i;
     }
+    final int reachableCount = order.length;
 
-    // calculate immediate dominator for each block
+    // calculate the immediate dominator of each node in terms of the numbers
+    final int[] idoms = new int[reachableCount];
+    Arrays.fill(idoms, -1);
+    if (reachableCount > 0) {
+      idoms[0] = 0;
+    }
+    final int[][] numberedPreds = new int[reachableCount][];
+    for (int i = 0; i < reachableCount; i++) {
+      numberedPreds[i] = renumber(preds[order[i]], number);
+    }
     boolean isChanged = true;
     while (isChanged) {
       isChanged = false;
-      for (BasicBlock<?> block : blocks) {
-        if (block == startingStmtBlock) {
-          continue;
-        }
-        int blockIdx = blockToIdx.get(block);
-        List<BasicBlock<?>> preds = new ArrayList<>(block.getPredecessors());
-        // ms: should not be necessary preds.addAll(block.getExceptionalPredecessors());
-        int newIdom = getFirstDefinedBlockPredIdx(preds);
-        if (!preds.isEmpty() && newIdom != -1) {
-          preds.remove(blocks.get(newIdom));
-          for (BasicBlock<?> pred : preds) {
-            int predIdx = blockToIdx.get(pred);
-            if (this.doms[predIdx] != -1) {
-              newIdom = isIntersecting(newIdom, predIdx);
-            }
-          }
-          if (doms[blockIdx] != newIdom) {
-            doms[blockIdx] = newIdom;
-            isChanged = true;
+      for (int i = 1; i < reachableCount; i++) {
+        int newIdom = -1;
+        for (int pred : numberedPreds[i]) {
+          if (idoms[pred] != -1) {
+            newIdom = newIdom == -1 ? pred : intersect(idoms, newIdom, pred);
           }
         }
+        if (idoms[i] != newIdom) {
+          idoms[i] = newIdom;
+          isChanged = true;
+        }
       }
     }
 
-    // initialize domFrontiers
-    domFrontiers = new ArrayList[blockGraph.getBlocks().size()];
-    for (int i = 0; i < domFrontiers.length; i++) {
-      domFrontiers[i] = new ArrayList<>();
+    // calculate the dominance frontiers: every predecessor of a join node up to (excluding) its
+    // immediate dominator has the join node in its frontier. The root is entered from outside, so
+    // a single back edge makes it a join node whose walk ends above the root.
+    final int[][] frontiers = new int[reachableCount][];
+    final int[] frontierSizes = new int[reachableCount];
+    final int[] lastAdded = new int[reachableCount];
+    Arrays.fill(lastAdded, -1);
+    for (int i = 0; i < reachableCount; i++) {
+      if (numberedPreds[i].length < (i == 0 ? 1 : 2)) {
+        continue;
+      }
+      final int stop = i == 0 ? -1 : idoms[i];
+      for (int pred : numberedPreds[i]) {
+        int runner = pred;
+        while (runner != stop && lastAdded[runner] != i) {
+          lastAdded[runner] = i;
+          frontiers[runner] = append(frontiers[runner], frontierSizes[runner]++, i);
+          runner = runner == 0 ? stop : idoms[runner];
+        }
+      }
     }
 
-    // calculate dominance frontiers for each block
-    for (BasicBlock<?> block : blocks) {
-      List<BasicBlock<?>> preds = new ArrayList<>(block.getPredecessors());
-      // ms: should not be necessary  preds.addAll(block.getExceptionalPredecessors());
-      if (preds.size() > 1) {
-        int blockId = blockToIdx.get(block);
-        for (BasicBlock<?> pred : preds) {
-          int predId = blockToIdx.get(pred);
-          while (predId != doms[blockId]) {
-            domFrontiers[predId].add(blockId);
-            predId = doms[predId];
-          }
+    // the indices of the blocks: their number, without the virtual exit of a post dominance graph
+    final int offset = postDominance ? 1 : 0;
+    final int[] blockOrder = new int[blockCount];
+    int blockOrderSize = 0;
+    for (int i = offset; i < reachableCount; i++) {
+      blockOrder[blockOrderSize++] = order[i];
+    }
+    for (int b = 0; b < blockCount; b++) {
+      if (number[b] == -1) {
+        blockOrder[blockOrderSize++] = b;
+      }
+    }
+
+    doms = new int[blockCount];
+    domFrontiers = new int[blockCount][];
+    for (int idx = 0; idx < blockCount; idx++) {
+      final int i = idx + offset;
+      if (i >= reachableCount) {
+        doms[idx] = -1;
+        domFrontiers[idx] = NO_BLOCKS;
+        continue;
+      }
+      // blocks that are immediately post dominated by the virtual exit are roots
+      doms[idx] = postDominance && idoms[i] == 0 ? idx : idoms[i] - offset;
+      domFrontiers[idx] =
+          frontiers[i] == null ? NO_BLOCKS : shift(frontiers[i], frontierSizes[i], offset);
+    }
+
+    final BasicBlock<?>[] blockArray = new BasicBlock<?>[blockCount];
+    final int[] blockToNumber = new int[blockCount];
+    for (int idx = 0; idx < blockCount; idx++) {
+      blockToNumber[blockOrder[idx]] = idx;
+    }
+    for (BasicBlock<?> block : blockGraph.getBlocks()) {
+      final int idx = blockToNumber[index.getBlockIndex(block.getHead())];
+      blockArray[idx] = block;
+      blockToIdx.put(block, idx);
+    }
+    blocks = new ArrayList<>(Arrays.asList(blockArray));
+  }
+
+  @Nonnull
+  private static int[] concat(@Nonnull int[] first, @Nonnull int[] second) {
+    if (second.length == 0) {
+      return first;
+    }
+    if (first.length == 0) {
+      return second;
+    }
+    final int[] result = Arrays.copyOf(first, first.length + second.length);
+    System.arraycopy(second, 0, result, first.length, second.length);
+    return result;
+  }
+
+  @Nonnull
+  private static int[] renumber(@Nonnull int[] nodes, @Nonnull int[] number) {
+    int count = 0;
+    for (int node : nodes) {
+      if (number[node] != -1) {
+        count++;
+      }
+    }
+    final int[] result = new int[count];
+    count = 0;
+    for (int node : nodes) {
+      if (number[node] != -1) {
+        result[count++] = number[node];
+      }
+    }
+    return result;
+  }
+
+  @Nonnull
+  private static int[] append(int[] array, int size, int value) {
+    if (array == null) {
+      array = new int[2];
+    } else if (size == array.length) {
+      array = Arrays.copyOf(array, size * 2);
+    }
+    array[size] = value;
+    return array;
+  }
+
+  @Nonnull
+  private static int[] shift(@Nonnull int[] array, int size, int offset) {
+    final int[] result = new int[size];
+    for (int i = 0; i < size; i++) {
+      result[i] = array[i] - offset;
+    }
+    return result;
+  }
+
+  /** Returns the nodes that are reachable from the root in reverse postorder. */
+  @Nonnull
+  private static int[] reversePostorder(int root, @Nonnull int[][] succs) {
+    if (root < 0) {
+      return NO_BLOCKS;
+    }
+    final int[] postorder = new int[succs.length];
+    int size = 0;
+    final boolean[] visited = new boolean[succs.length];
+    // stack entries: {node, index of the next successor to visit}
+    final Deque<int[]> stack = new ArrayDeque<>();
+    visited[root] = true;
+    stack.push(new int[] {root, 0});
+    while (!stack.isEmpty()) {
+      final int[] top = stack.peek();
+      final int[] nodeSuccs = succs[top[0]];
+      if (top[1] < nodeSuccs.length) {
+        final int next = nodeSuccs[top[1]++];
+        if (!visited[next]) {
+          visited[next] = true;
+          stack.push(new int[] {next, 0});
         }
+      } else {
+        stack.pop();
+        postorder[size++] = top[0];
       }
     }
+    final int[] order = new int[size];
+    for (int i = 0; i < size; i++) {
+      order[i] = postorder[size - 1 - i];
+    }
+    return order;
   }
 
-  public void replaceBlock(@Nonnull BasicBlock<?> newBlock, BasicBlock<?> oldBlock) {
-    if (!blockToIdx.containsKey(oldBlock)) {
-      throw new RuntimeException("The given block: " + oldBlock + " is not in BlockGraph!");
+  /** Walks up from both nodes to their nearest common dominator; dominators have lower numbers. */
+  private static int intersect(@Nonnull int[] idoms, int a, int b) {
+    while (a != b) {
+      while (a > b) {
+        a = idoms[a];
+      }
+      while (b > a) {
+        b = idoms[b];
+      }
     }
-    final Integer idx = blockToIdx.get(oldBlock);
+    return a;
+  }
+
+  public void replaceBlock(@Nonnull BasicBlock<?> newBlock, BasicBlock<?> oldBlock) {
+    final int idx = getBlockIndex(oldBlock);
     blockToIdx.put(newBlock, idx);
     blockToIdx.remove(oldBlock);
     blocks.set(idx, newBlock);
   }
 
+  /**
+   * Returns the immediate dominator of the given block. The starting block (and, for post
+   * dominance, every block that is only post dominated by the exit) is its own immediate
+   * dominator.
+   */
   @Nonnull
   public BasicBlock<?> getImmediateDominator(@Nonnull BasicBlock<?> block) {
-    if (!blockToIdx.containsKey(block)) {
-      throw new RuntimeException("The given block: " + block + " is not in BlockGraph!");
+    final int idomIdx = this.doms[getBlockIndex(block)];
+    if (idomIdx == -1) {
+      throw new RuntimeException("The given block: " + block + " is not reachable!");
     }
-    int idx = blockToIdx.get(block);
-    int idomIdx = this.doms[idx];
     return blocks.get(idomIdx);
   }
 
   @Nonnull
   public Set<BasicBlock<?>> getDominanceFrontiers(@Nonnull BasicBlock<?> block) {
-    if (!blockToIdx.containsKey(block)) {
-      throw new RuntimeException("The given block: " + block + " is not in BlockGraph!");
-    }
-    int idx = blockToIdx.get(block);
-    Set<BasicBlock<?>> dFs = new HashSet<>();
-    ArrayList<Integer> dFs_idx = this.domFrontiers[idx];
-    for (Integer i : dFs_idx) {
+    final int[] dfIdx = this.domFrontiers[getBlockIndex(block)];
+    final Set<BasicBlock<?>> dFs = new HashSet<>(dfIdx.length * 2);
+    for (int i : dfIdx) {
       dFs.add(blocks.get(i));
     }
     return dFs;
   }
 
+  public int getBlockCount() {
+    return blocks.size();
+  }
+
+  @Nonnull
+  public BasicBlock<?> getBlock(int idx) {
+    return blocks.get(idx);
+  }
+
+  public int getBlockIndex(@Nonnull BasicBlock<?> block) {
+    final Integer idx = blockToIdx.get(block);
+    if (idx == null) {
+      throw new RuntimeException("The given block: " + block + " is not in BlockGraph!");
+    }
+    return idx;
+  }
+
+  /** Returns the index of the immediate dominator or -1 if the block is not reachable. */
+  public int getImmediateDominator(int idx) {
+    return doms[idx];
+  }
+
+  /** Returns the indices of the dominance frontier; the array must not be modified. */
+  @Nonnull
+  public int[] getDominanceFrontier(int idx) {
+    return domFrontiers[idx];
+  }
+
+  public boolean isPostDominance() {
+    return postDominance;
+  }
+
   @Nonnull
   public List<BasicBlock<?>> getIdxToBlock() {
     return blocks;
@@ -156,29 +361,9 @@ public class DominanceFinder {
     return blockToIdx;
   }
 
+  /** Returns the indices of the immediate dominators; the array must not be modified. */
   @Nonnull
   public int[] getImmediateDominators() {
     return this.doms;
   }
-
-  private int getFirstDefinedBlockPredIdx(List<BasicBlock<?>> preds) {
-    for (BasicBlock<?> block : preds) {
-      int idx = blockToIdx.get(block);
-      if (doms[idx] != -1) {
-        return idx;
-      }
-    }
-    return -1;
-  }
-
-  private int isIntersecting(int a, int b) {
-    while (a != b) {
-      if (a > b) {
-        a = doms[a];
-      } else {
-        b = doms[b];
-      }
-    }
-    return a;
-  }
 }
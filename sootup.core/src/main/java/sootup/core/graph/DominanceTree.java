@@ -26,39 +26,98 @@ import java.util.*;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
-/*@author Zun Wang*/
+/**
+ * The dominator tree (a forest for post dominance) of a {@link DominanceFinder}. Besides the
+ * queries on blocks, it offers queries on the block indices of the finder that work on primitive
+ * arrays; in particular {@link #dominates(int, int)} takes constant time via the preorder
+ * intervals of the tree.
+ *
+ * @author Zun Wang
+ */
 public class DominanceTree {
 
+  private static final int[] NO_CHILDREN = new int[0];
+
   private List<BasicBlock<?>> blocks;
   private Map<BasicBlock<?>, Integer> blockToIdx;
-  private List<Integer>[] children;
+  private int[][] children;
   private int[] parents;
+  private int[] roots;
+  // the preorder of the blocks in the tree, and for each block its position in the preorder and
+  // the last position of its subtree
+  private int[] preorder;
+  private int[] preorderNumber;
+  private int[] subtreeEnd;
 
   public DominanceTree(@Nonnull DominanceFinder dominanceFinder) {
     this.blocks = dominanceFinder.getIdxToBlock();
     this.blockToIdx = dominanceFinder.getBlockToIdx();
     int[] iDoms = dominanceFinder.getImmediateDominators();
     int treeSize = iDoms.length;
-    children = new ArrayList[treeSize];
     parents = new int[treeSize];
+    final int[] childCount = new int[treeSize];
+    int rootCount = 0;
     for (int i = 0; i < treeSize; i++) {
-      children[i] = new ArrayList<>();
-      parents[i] = -1;
+      if (iDoms[i] == i) {
+        rootCount++;
+      } else if (iDoms[i] != -1) {
+        childCount[iDoms[i]]++;
+      }
     }
 
+    children = new int[treeSize][];
     for (int i = 0; i < treeSize; i++) {
-      if (iDoms[i] != i) {
+      children[i] = childCount[i] == 0 ? NO_CHILDREN : new int[childCount[i]];
+      childCount[i] = 0;
+    }
+    roots = new int[rootCount];
+    rootCount = 0;
+    for (int i = 0; i < treeSize; i++) {
+      // unreachable blocks have neither a parent nor children
+      if (iDoms[i] == i) {
+        roots[rootCount++] = i;
+        parents[i] = -1;
+      } else if (iDoms[i] == -1) {
+        parents[i] = -1;
+      } else {
         parents[i] = iDoms[i];
-        children[iDoms[i]].add(i);
+        children[iDoms[i]][childCount[iDoms[i]]++] = i;
       }
     }
+
+    preorder = new int[treeSize];
+    preorderNumber = new int[treeSize];
+    subtreeEnd = new int[treeSize];
+    Arrays.fill(preorderNumber, -1);
+    int size = 0;
+    // stack entries: {block, index of the next child to visit}
+    final Deque<int[]> stack = new ArrayDeque<>();
+    for (int root : roots) {
+      preorderNumber[root] = size;
+      preorder[size++] = root;
+      stack.push(new int[] {root, 0});
+      while (!stack.isEmpty()) {
+        final int[] top = stack.peek();
+        final int[] nodeChildren = children[top[0]];
+        if (top[1] < nodeChildren.length) {
+          final int child = nodeChildren[top[1]++];
+          preorderNumber[child] = size;
+          preorder[size++] = child;
+          stack.push(new int[] {child, 0});
+        } else {
+          stack.pop();
+          subtreeEnd[top[0]] = size - 1;
+        }
+      }
+    }
+    preorder = Arrays.copyOf(preorder, size);
   }
 
   @Nonnull
   public List<BasicBlock<?>> getChildren(@Nonnull BasicBlock<?> block) {
-    List<BasicBlock<?>> childList = new ArrayList<>();
-    int idx = blockToIdx.get(block);
-    for (int i : children[idx]) {
+    final int[] childIdxs = children[getIndex(block)];
+    List<BasicBlock<?>> childList = new ArrayList<>(childIdxs.length);
+    for (int i : childIdxs) {
       childList.add(blocks.get(i));
     }
     return childList;
@@ -66,7 +125,7 @@ public class DominanceTree {
 
   @Nullable
   public BasicBlock<?> getParent(@Nonnull BasicBlock<?> block) {
-    int idx = blockToIdx.get(block);
+    int idx = getIndex(block);
     if (parents[idx] == -1) {
       return null;
     }
@@ -78,6 +137,49 @@ public class DominanceTree {
     return this.blocks.get(0);
   }
 
+  /** Returns whether the first block dominates the second one; every block dominates itself. */
+  public boolean dominates(@Nonnull BasicBlock<?> dominator, @Nonnull BasicBlock<?> block) {
+    return dominates(getIndex(dominator), getIndex(block));
+  }
+
+  /** Returns the indices of the children; the array must not be modified. */
+  @Nonnull
+  public int[] getChildren(int idx) {
+    return children[idx];
+  }
+
+  /** Returns the index of the parent or -1 for roots and unreachable blocks. */
+  public int getParent(int idx) {
+    return parents[idx];
+  }
+
+  /**
+   * Returns the indices of the roots: the starting block of a dominator tree or the blocks that
+   * are immediately post dominated by the exit; the array must not be modified.
+   */
+  @Nonnull
+  public int[] getRoots() {
+    return roots;
+  }
+
+  /**
+   * Returns the indices of the blocks of the tree in depth-first preorder, which excludes the
+   * unreachable blocks; the array must not be modified.
+   */
+  @Nonnull
+  public int[] getPreorder() {
+    return preorder;
+  }
+
+  /** Returns whether the first block dominates the second one; every block dominates itself. */
+  public boolean dominates(int dominatorIdx, int idx) {
+    final int number = preorderNumber[idx];
+    return number >= 0
+        && preorderNumber[dominatorIdx] >= 0
+        && preorderNumber[dominatorIdx] <= number
+        && number <= subtreeEnd[dominatorIdx];
+  }
+
   public void replaceNode(@Nonnull BasicBlock<?> oldBlock, @Nonnull BasicBlock<?> newBlock) {
     if (!this.blockToIdx.containsKey(oldBlock)) {
       throw new RuntimeException(
@@ -91,19 +193,18 @@ public class DominanceTree {
 
   @Nonnull
   public List<BasicBlock<?>> getAllNodesDFS() {
-    List<BasicBlock<?>> blocks = new ArrayList<>();
-    Deque<BasicBlock<?>> queue = new ArrayDeque<>();
-    queue.add(getRoot());
-    while (!queue.isEmpty()) {
-      BasicBlock<?> fb = queue.removeFirst();
-      blocks.add(fb);
-      if (!getChildren(fb).isEmpty()) {
-        List<BasicBlock<?>> children = getChildren(fb);
-        for (int i = children.size() - 1; i >= 0; i--) {
-          queue.addFirst(children.get(i));
-        }
-      }
+    List<BasicBlock<?>> blocks = new ArrayList<>(preorder.length);
+    for (int idx : preorder) {
+      blocks.add(this.blocks.get(idx));
     }
     return blocks;
   }
+
+  private int getIndex(@Nonnull BasicBlock<?> block) {
+    final Integer idx = blockToIdx.get(block);
+    if (idx == null) {
+      throw new RuntimeException("The given block " + block + " is not in the DominanceTree");
+    }
+    return idx;
+  }
 }
@@ -0,0 +1,129 @@
+package sootup.core.graph;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.BitSet;
+import java.util.List;
+import javax.annotation.Nonnull;
+import sootup.core.jimple.common.stmt.Stmt;
+
+/**
+ * A {@link BitSetFlowAnalysis} whose transfer functions have the form {@code out = gen | (in &
+ * ~kill)}. The gen and kill sets are requested once per stmt, and the stmts of a block are
+ * composed into a single gen/kill pair, so a block without exceptional successors is processed
+ * with two bitset operations per visit.
+ */
+public abstract class GenKillBitSetFlowAnalysis extends BitSetFlowAnalysis {
+
+  private static final BitSet EMPTY = new BitSet();
+
+  // per block and stmt position, computed on the first visit of a block
+  private final BitSet[][] gens;
+  private final BitSet[][] kills;
+  private final BitSet[] blockGens;
+  private final BitSet[] blockKills;
+
+  protected GenKillBitSetFlowAnalysis(@Nonnull StmtGraph<?> graph, @Nonnull Direction direction) {
+    this(new BlockGraphIndex(graph), direction);
+  }
+
+  protected GenKillBitSetFlowAnalysis(
+      @Nonnull BlockGraphIndex index, @Nonnull Direction direction) {
+    super(index, direction);
+    final int blockCount = index.getBlockCount();
+    gens = new BitSet[blockCount][];
+    kills = new BitSet[blockCount][];
+    blockGens = new BitSet[blockCount];
+    blockKills = new BitSet[blockCount];
+  }
+
+  /** Returns the facts generated by the stmt; the result is retained and must not be changed. */
+  @Nonnull
+  protected abstract BitSet gen(@Nonnull Stmt stmt);
+
+  /** Returns the facts killed by the stmt; the result is retained and must not be changed. */
+  @Nonnull
+  protected abstract BitSet kill(@Nonnull Stmt stmt);
+
+  @Override
+  protected final void flowThrough(@Nonnull Stmt stmt, @Nonnull BitSet flow) {
+    flow.andNot(kill(stmt));
+    flow.or(gen(stmt));
+  }
+
+  @Override
+  void flowThrough(int block, int position, @Nonnull Stmt stmt, @Nonnull BitSet flow) {
+    if (gens[block] == null) {
+      computeTransferFunctions(block);
+    }
+    flow.andNot(kills[block][position]);
+    flow.or(gens[block][position]);
+  }
+
+  @Override
+  void flowThroughBlock(int block, @Nonnull BitSet flow) {
+    if (blockGens[block] == null) {
+      if (gens[block] == null) {
+        computeTransferFunctions(block);
+      }
+      computeBlockSummary(block);
+    }
+    flow.andNot(blockKills[block]);
+    flow.or(blockGens[block]);
+  }
+
+  private void computeTransferFunctions(int block) {
+    final List<Stmt> stmts = index.getStmts(block);
+    final BitSet[] blockGen = new BitSet[stmts.size()];
+    final BitSet[] blockKill = new BitSet[stmts.size()];
+    for (int i = 0; i < stmts.size(); i++) {
+      final Stmt stmt = stmts.get(i);
+      final BitSet gen = gen(stmt);
+      final BitSet kill = kill(stmt);
+      blockGen[i] = gen.isEmpty() ? EMPTY : gen;
+      blockKill[i] = kill.isEmpty() ? EMPTY : kill;
+    }
+    gens[block] = blockGen;
+    kills[block] = blockKill;
+  }
+
+  /**
+   * Composes the transfer functions of the stmts in the direction of the analysis: applying (g1,
+   * k1) and then (g2, k2) equals applying (g2 | (g1 & ~k2), k1 | k2).
+   */
+  private void computeBlockSummary(int block) {
+    final BitSet[] stmtGens = gens[block];
+    final BitSet[] stmtKills = kills[block];
+    final BitSet gen = new BitSet();
+    final BitSet kill = new BitSet();
+    final boolean forward = getDirection() == Direction.FORWARD;
+    for (int j = 0; j < stmtGens.length; j++) {
+      final int i = forward ? j : stmtGens.length - 1 - j;
+      gen.andNot(stmtKills[i]);
+      gen.or(stmtGens[i]);
+      kill.or(stmtKills[i]);
+    }
+    blockGens[block] = gen;
+    blockKills[block] = kill;
+  }
+}
@@ -1,6 +1,5 @@
 package sootup.core.graph;
 
-import com.google.common.collect.Lists;
 import java.util.*;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -8,207 +7,464 @@ import sootup.core.jimple.basic.Trap;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.types.ClassType;
 
-// FIXME: implement!
+/**
+ * A frozen, array-backed copy of a {@link StmtGraph}.
+ *
+ * <p>The Stmts are numbered densely so that the Stmts of each block form a contiguous range of
+ * indices. The block boundaries and the (exceptional) edges between the blocks are stored as int
+ * arrays, so that navigating from a Stmt to its block, its predecessors or its successors is a
+ * single lookup instead of a search through the Stmts of its block. The linearized order of the
+ * Stmts and the Traps are computed once on first use.
+ */
 public class ImmutableBlockStmtGraph
     extends StmtGraph<ImmutableBlockStmtGraph.ImmutableBasicBlock> {
 
-  private final List<ImmutableBasicBlock> blocks;
-  private final Map<Stmt, ImmutableBasicBlock> stmtToBlock = new HashMap<>();
+  private static final int[] NO_BLOCKS = new int[0];
+  private static final ClassType[] NO_EXCEPTIONS = new ClassType[0];
 
-  public ImmutableBlockStmtGraph(@Nonnull MutableStmtGraph graph) {
+  @Nullable private final Stmt startingStmt;
 
-    final List<? extends BasicBlock<?>> mblocks = graph.getBlocksSorted();
-    blocks = Lists.newArrayListWithExpectedSize(mblocks.size());
-    for (BasicBlock<?> block : mblocks) {
-      /* TODO: link predecessors/successors as well..
-      // final ImmutableBasicBlock ib = new ImmutableBasicBlock();
-      block.getStmts().forEach(stmt -> stmtToBlock.put(stmt, ib));
+  /** the Stmts ordered by their index, i.e. grouped by their blocks */
+  @Nonnull private final Stmt[] stmts;
 
-      blocks.add(ib);*/
+  @Nonnull private final Map<Stmt, Integer> stmtToIndex;
+  @Nonnull private final int[] stmtToBlock;
+
+  /** the Stmts of block b have the indices blockStarts[b] to blockStarts[b+1]-1 */
+  @Nonnull private final int[] blockStarts;
+
+  @Nonnull private final int[][] successors;
+  @Nonnull private final int[][] predecessors;
+  @Nonnull private final ClassType[][] exceptionTypes;
+  @Nonnull private final int[][] exceptionalSuccessors;
+  @Nonnull private final int[][] exceptionalPredecessors;
+
+  @Nonnull private final ImmutableBasicBlock[] blocks;
+  @Nonnull private final List<ImmutableBasicBlock> blockList;
+
+  @Nullable private volatile List<Stmt> linearizedStmts;
+  @Nullable private volatile List<Trap> traps;
+
+  public ImmutableBlockStmtGraph(@Nonnull StmtGraph<?> graph) {
+    final List<? extends BasicBlock<?>> sourceBlocks = graph.getBlocksSorted();
+    final int blockCount = sourceBlocks.size();
+    int stmtCount = 0;
+    for (BasicBlock<?> block : sourceBlocks) {
+      stmtCount += block.getStmtCount();
+    }
+
+    stmts = new Stmt[stmtCount];
+    stmtToIndex = new HashMap<>(stmtCount * 4 / 3 + 1);
+    stmtToBlock = new int[stmtCount];
+    blockStarts = new int[blockCount + 1];
+    int i = 0;
+    for (int b = 0; b < blockCount; b++) {
+      blockStarts[b] = i;
+      for (Stmt stmt : sourceBlocks.get(b).getStmts()) {
+        stmts[i] = stmt;
+        stmtToIndex.put(stmt, i);
+        stmtToBlock[i] = b;
+        i++;
+      }
+    }
+    blockStarts[blockCount] = i;
+
+    successors = new int[blockCount][];
+    exceptionTypes = new ClassType[blockCount][];
+    exceptionalSuccessors = new int[blockCount][];
+    final int[] predecessorCount = new int[blockCount];
+    final int[] exceptionalPredecessorCount = new int[blockCount];
+    for (int b = 0; b < blockCount; b++) {
+      final BasicBlock<?> block = sourceBlocks.get(b);
+      successors[b] = blockIndices(block.getSuccessors());
+      for (int succ : successors[b]) {
+        predecessorCount[succ]++;
+      }
+
+      final Map<? extends ClassType, ? extends BasicBlock<?>> handlers =
+          block.getExceptionalSuccessors();
+      if (handlers.isEmpty()) {
+        exceptionTypes[b] = NO_EXCEPTIONS;
+        exceptionalSuccessors[b] = NO_BLOCKS;
+      } else {
+        exceptionTypes[b] = new ClassType[handlers.size()];
+        exceptionalSuccessors[b] = new int[handlers.size()];
+        int h = 0;
+        for (Map.Entry<? extends ClassType, ? extends BasicBlock<?>> entry :
+            handlers.entrySet()) {
+          final int handler = blockIndex(entry.getValue());
+          exceptionTypes[b][h] = entry.getKey();
+          exceptionalSuccessors[b][h] = handler;
+          predecessorCount[handler]++;
+          exceptionalPredecessorCount[handler]++;
+          h++;
+        }
+      }
+    }
+
+    // the predecessors are derived from the successors: like in the MutableBlockStmtGraph the
+    // predecessors of a traphandler block include the blocks that flow exceptionally into it
+    predecessors = new int[blockCount][];
+    exceptionalPredecessors = new int[blockCount][];
+    for (int b = 0; b < blockCount; b++) {
+      predecessors[b] = predecessorCount[b] == 0 ? NO_BLOCKS : new int[predecessorCount[b]];
+      exceptionalPredecessors[b] =
+          exceptionalPredecessorCount[b] == 0
+              ? NO_BLOCKS
+              : new int[exceptionalPredecessorCount[b]];
+    }
+    for (int b = blockCount - 1; b >= 0; b--) {
+      for (int handler : exceptionalSuccessors[b]) {
+        predecessors[handler][--predecessorCount[handler]] = b;
+        exceptionalPredecessors[handler][--exceptionalPredecessorCount[handler]] = b;
+      }
+      for (int succ : successors[b]) {
+        predecessors[succ][--predecessorCount[succ]] = b;
+      }
+    }
+
+    blocks = new ImmutableBasicBlock[blockCount];
+    for (int b = 0; b < blockCount; b++) {
+      blocks[b] = new ImmutableBasicBlock(b);
+    }
+    blockList = Collections.unmodifiableList(Arrays.asList(blocks));
+
+    final Stmt start = graph.getStartingStmt();
+    startingStmt = start != null && stmtToIndex.containsKey(start) ? start : null;
+  }
+
+  private int blockIndex(@Nonnull BasicBlock<?> block) {
+    final Integer head = stmtToIndex.get(block.getHead());
+    if (head == null) {
+      throw new IllegalArgumentException(
+          "The Block of '" + block.getHead() + "' is not contained in the StmtGraph.");
+    }
+    return stmtToBlock[head];
+  }
+
+  @Nonnull
+  private int[] blockIndices(@Nonnull List<? extends BasicBlock<?>> blockList) {
+    if (blockList.isEmpty()) {
+      return NO_BLOCKS;
+    }
+    final int[] indices = new int[blockList.size()];
+    for (int i = 0; i < indices.length; i++) {
+      indices[i] = blockIndex(blockList.get(i));
+    }
+    return indices;
+  }
+
+  /**
+   * Returns the dense index of the given Stmt in [0, {@link #getStmtCount()}) or -1 if it is not
+   * contained in this graph.
+   */
+  public int getStmtIndex(@Nonnull Stmt stmt) {
+    final Integer index = stmtToIndex.get(stmt);
+    return index == null ? -1 : index;
+  }
+
+  @Nonnull
+  public Stmt getStmt(int index) {
+    return stmts[index];
+  }
+
+  public int getStmtCount() {
+    return stmts.length;
+  }
+
+  private int indexOf(@Nonnull Stmt stmt) {
+    final Integer index = stmtToIndex.get(stmt);
+    if (index == null) {
+      throw new IllegalArgumentException(
+          "Stmt '" + stmt + "' is not contained in the BlockStmtGraph");
     }
+    return index;
+  }
+
+  private boolean isHead(int index) {
+    return blockStarts[stmtToBlock[index]] == index;
+  }
+
+  private boolean isTail(int index) {
+    return blockStarts[stmtToBlock[index] + 1] - 1 == index;
   }
 
   @Nullable
   @Override
   public Stmt getStartingStmt() {
-    return blocks.isEmpty() ? null : blocks.get(0).getHead();
+    return startingStmt;
   }
 
+  @Nullable
   @Override
-  public BasicBlock<?> getStartingStmtBlock() {
-    throw new UnsupportedOperationException("Not implemented yet!");
+  public ImmutableBasicBlock getStartingStmtBlock() {
+    return startingStmt == null ? null : getBlockOf(startingStmt);
   }
 
+  @Nullable
   @Override
-  public BasicBlock<ImmutableBasicBlock> getBlockOf(@Nonnull Stmt stmt) {
-    throw new UnsupportedOperationException("Not implemented yet!");
+  public ImmutableBasicBlock getBlockOf(@Nonnull Stmt stmt) {
+    final Integer index = stmtToIndex.get(stmt);
+    return index == null ? null : blocks[stmtToBlock[index]];
   }
 
+  /** returns the Stmts in a non-deterministic order */
   @Nonnull
   @Override
-  public List<Stmt> nodes() {
-    int size = 0;
-    for (ImmutableBasicBlock block : blocks) {
-      size += block.getStmtCount();
-    }
-    final ArrayList<Stmt> stmts = new ArrayList<>(size);
-    for (ImmutableBasicBlock block : blocks) {
-      stmts.addAll(block.getStmts());
-    }
-    return stmts;
+  public Set<Stmt> nodes() {
+    return Collections.unmodifiableSet(stmtToIndex.keySet());
+  }
+
+  @Override
+  public List<Stmt> getStmts() {
+    return new ArrayList<>(getLinearizedStmts());
   }
 
   @Nonnull
   @Override
-  public Collection<ImmutableBasicBlock> getBlocks() {
-    return blocks;
+  public List<ImmutableBasicBlock> getBlocks() {
+    return blockList;
   }
 
   @Nonnull
   @Override
-  public List<? extends BasicBlock<?>> getBlocksSorted() {
-    return blocks;
+  public List<ImmutableBasicBlock> getBlocksSorted() {
+    return blockList;
   }
 
   @Override
   public boolean containsNode(@Nonnull Stmt node) {
-    throw new UnsupportedOperationException("Not implemented yet!");
+    return stmtToIndex.containsKey(node);
   }
 
   @Nonnull
   @Override
   public List<Stmt> predecessors(@Nonnull Stmt node) {
-    throw new UnsupportedOperationException("Not implemented yet!");
+    final int index = indexOf(node);
+    if (!isHead(index)) {
+      return Collections.singletonList(stmts[index - 1]);
+    }
+    final int[] predecessorBlocks = predecessors[stmtToBlock[index]];
+    final List<Stmt> preds = new ArrayList<>(predecessorBlocks.length);
+    for (int b : predecessorBlocks) {
+      preds.add(stmts[blockStarts[b + 1] - 1]);
+    }
+    return preds;
   }
 
   @Nonnull
   @Override
   public List<Stmt> exceptionalPredecessors(@Nonnull Stmt node) {
-    throw new UnsupportedOperationException("not implemented");
+    final int index = indexOf(node);
+    if (!isHead(index)) {
+      // only the head of a traphandler block can have exceptional predecessors
+      return Collections.emptyList();
+    }
+    final int[] predecessorBlocks = exceptionalPredecessors[stmtToBlock[index]];
+    if (predecessorBlocks.length == 0) {
+      return Collections.emptyList();
+    }
+    final List<Stmt> preds = new ArrayList<>();
+    for (int b : predecessorBlocks) {
+      preds.addAll(blocks[b].getStmts());
+    }
+    return preds;
   }
 
   @Nonnull
   @Override
   public List<Stmt> successors(@Nonnull Stmt node) {
-    throw new UnsupportedOperationException("Not implemented yet!");
+    final int index = indexOf(node);
+    if (!isTail(index)) {
+      return Collections.singletonList(stmts[index + 1]);
+    }
+    final int[] successorBlocks = successors[stmtToBlock[index]];
+    final List<Stmt> succs = new ArrayList<>(successorBlocks.length);
+    for (int b : successorBlocks) {
+      succs.add(stmts[blockStarts[b]]);
+    }
+    return succs;
   }
 
   @Nonnull
   @Override
   public Map<ClassType, Stmt> exceptionalSuccessors(@Nonnull Stmt node) {
-    // FIXME! implement
-    throw new RuntimeException("not implemented");
+    final int block = stmtToBlock[indexOf(node)];
+    final ClassType[] types = exceptionTypes[block];
+    final Map<ClassType, Stmt> map = new HashMap<>();
+    for (int h = 0; h < types.length; h++) {
+      map.put(types[h], stmts[blockStarts[exceptionalSuccessors[block][h]]]);
+    }
+    return map;
   }
 
   @Override
   public int inDegree(@Nonnull Stmt node) {
-    throw new UnsupportedOperationException("Not implemented yet!");
+    final int index = indexOf(node);
+    return isHead(index) ? predecessors[stmtToBlock[index]].length : 1;
   }
 
   @Override
   public int outDegree(@Nonnull Stmt node) {
-    throw new UnsupportedOperationException("Not implemented yet!");
+    final int index = indexOf(node);
+    return isTail(index) ? successors[stmtToBlock[index]].length : 1;
   }
 
   @Override
   public boolean hasEdgeConnecting(@Nonnull Stmt source, @Nonnull Stmt target) {
-    throw new UnsupportedOperationException("Not implemented yet!");
+    final int index = indexOf(source);
+    if (!isTail(index)) {
+      return stmts[index + 1] == target;
+    }
+    for (int b : successors[stmtToBlock[index]]) {
+      if (stmts[blockStarts[b]] == target) {
+        return true;
+      }
+    }
+    return false;
   }
 
+  /** returns the Traps of this graph; they are aggregated once on the first call. */
   @Nonnull
   @Override
   public List<Trap> getTraps() {
-    throw new UnsupportedOperationException("Not implemented yet!");
+    List<Trap> result = traps;
+    if (result == null) {
+      linearize();
+      result = traps;
+    }
+    return result;
   }
 
   @Nonnull
   @Override
   public Iterator<Stmt> iterator() {
-    return new Iterator<Stmt>() {
-      final Iterator<ImmutableBasicBlock> blockIt = blocks.iterator();
-      Iterator<Stmt> stmtIt = blockIt.next().getStmts().iterator();
-
-      @Override
-      public boolean hasNext() {
-        // hint: there are no empty blocks!
-        return stmtIt.hasNext() || blockIt.hasNext();
-      }
+    return getLinearizedStmts().iterator();
+  }
 
-      @Override
-      public Stmt next() {
-        if (stmtIt.hasNext()) {
-          return stmtIt.next();
-        }
-        stmtIt = blockIt.next().getStmts().iterator();
-        return stmtIt.next();
-      }
-    };
+  @Nonnull
+  private List<Stmt> getLinearizedStmts() {
+    List<Stmt> result = linearizedStmts;
+    if (result == null) {
+      linearize();
+      result = linearizedStmts;
+    }
+    return result;
+  }
+
+  /**
+   * iterates the blocks in the jimple output order once to collect the linearized Stmts and the
+   * Traps. Concurrent callers may compute them twice, which yields the same (immutable) results.
+   */
+  private void linearize() {
+    final BlockGraphIteratorAndTrapAggregator it =
+        new BlockGraphIteratorAndTrapAggregator(new ImmutableBasicBlock(-1));
+    final List<Stmt> linearized = new ArrayList<>(stmts.length);
+    final HashMap<Stmt, Integer> stmtsBlockIdx = new HashMap<>();
+    int i = 0;
+    while (it.hasNext()) {
+      final BasicBlock<?> block = it.next();
+      stmtsBlockIdx.put(block.getHead(), i);
+      stmtsBlockIdx.put(block.getTail(), i);
+      linearized.addAll(block.getStmts());
+      i++;
+    }
+    final List<Trap> collectedTraps = it.getTraps();
+    collectedTraps.sort(getTrapComparator(stmtsBlockIdx));
+
+    traps = Collections.unmodifiableList(collectedTraps);
+    linearizedStmts = Collections.unmodifiableList(linearized);
   }
 
+  /** A block of the enclosing graph, i.e. a view on a range of its Stmt indices. */
   public class ImmutableBasicBlock implements BasicBlock<ImmutableBasicBlock> {
-    private final MutableBasicBlock graph;
-    private final int startIdx;
-    private final int endIdx;
-    private final List<ImmutableBasicBlock> successors;
-    private final List<ImmutableBasicBlock> predecessors;
-
-    private ImmutableBasicBlock(
-        MutableBasicBlock graph,
-        int startIdx,
-        int endIdx,
-        List<ImmutableBasicBlock> successors,
-        List<ImmutableBasicBlock> predecessors) {
-      this.graph = graph;
-      this.startIdx = startIdx;
-      this.endIdx = endIdx;
-      this.successors = successors;
-      this.predecessors = predecessors;
+
+    /** the index of this block or -1 for the empty dummy block used by the trap aggregation */
+    private final int index;
+
+    private ImmutableBasicBlock(int index) {
+      this.index = index;
+    }
+
+    @Nonnull
+    private List<ImmutableBasicBlock> toBlocks(@Nonnull int[] indices) {
+      if (indices.length == 0) {
+        return Collections.emptyList();
+      }
+      final List<ImmutableBasicBlock> list = new ArrayList<>(indices.length);
+      for (int b : indices) {
+        list.add(blocks[b]);
+      }
+      return list;
     }
 
     @Nonnull
     @Override
     public List<ImmutableBasicBlock> getPredecessors() {
-      return predecessors;
+      return index < 0 ? Collections.emptyList() : toBlocks(predecessors[index]);
     }
 
     @Nonnull
     @Override
     public List<ImmutableBasicBlock> getSuccessors() {
-      return successors;
+      return index < 0 ? Collections.emptyList() : toBlocks(successors[index]);
     }
 
     @Override
     public List<ImmutableBasicBlock> getExceptionalPredecessors() {
-      return null;
+      return index < 0 ? Collections.emptyList() : toBlocks(exceptionalPredecessors[index]);
     }
 
     @Nonnull
     @Override
-    public Map<? extends ClassType, ImmutableBasicBlock> getExceptionalSuccessors() {
-      throw new UnsupportedOperationException("not implemented yet");
+    public Map<ClassType, ImmutableBasicBlock> getExceptionalSuccessors() {
+      if (index < 0 || exceptionTypes[index].length == 0) {
+        return Collections.emptyMap();
+      }
+      final ClassType[] types = exceptionTypes[index];
+      final Map<ClassType, ImmutableBasicBlock> map = new HashMap<>();
+      for (int h = 0; h < types.length; h++) {
+        map.put(types[h], blocks[exceptionalSuccessors[index][h]]);
+      }
+      return map;
     }
 
     @Nonnull
     @Override
     public List<Stmt> getStmts() {
-      throw new UnsupportedOperationException();
+      if (index < 0) {
+        return Collections.emptyList();
+      }
+      return Collections.unmodifiableList(
+          Arrays.asList(stmts).subList(blockStarts[index], blockStarts[index + 1]));
     }
 
     @Override
     public int getStmtCount() {
-      return endIdx - startIdx + 1;
+      return index < 0 ? 0 : blockStarts[index + 1] - blockStarts[index];
     }
 
     @Nonnull
     @Override
     public Stmt getHead() {
-      throw new UnsupportedOperationException();
+      if (index < 0) {
+        throw new IndexOutOfBoundsException("Cant get the head - this Block has no Stmts.");
+      }
+      return stmts[blockStarts[index]];
     }
 
     @Nonnull
     @Override
     public Stmt getTail() {
-      throw new UnsupportedOperationException();
+      if (index < 0) {
+        throw new IndexOutOfBoundsException("Cant get the tail - this Block has no Stmts.");
+      }
+      return stmts[blockStarts[index + 1] - 1];
+    }
+
+    @Override
+    public String toString() {
+      return getStmts().toString();
     }
   }
 }
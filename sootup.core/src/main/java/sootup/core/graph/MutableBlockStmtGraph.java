@@ -1,6 +1,5 @@
 package sootup.core.graph;
 
-import com.google.common.collect.ComparisonChain;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -1270,17 +1269,6 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
     }
   }
 
-  /** Comparator which sorts the trap output in getTraps() */
-  public Comparator<Trap> getTrapComparator(@Nonnull HashMap<Stmt, Integer> stmtsBlockIdx) {
-    return (a, b) ->
-        ComparisonChain.start()
-            .compare(stmtsBlockIdx.get(a.getBeginStmt()), stmtsBlockIdx.get(b.getBeginStmt()))
-            .compare(stmtsBlockIdx.get(a.getEndStmt()), stmtsBlockIdx.get(b.getEndStmt()))
-            // [ms] would be nice to have the traps ordered by exception hierarchy as well
-            .compare(a.getExceptionType().toString(), b.getExceptionType().toString())
-            .result();
-  }
-
   /** hint: little expensive getter - its more of a build/create */
   @Override
   public List<Trap> getTraps() {
@@ -0,0 +1,39 @@
+package sootup.core.graph;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import javax.annotation.Nonnull;
+
+/**
+ * Computes the immediate post dominators and the post dominance frontiers (i.e. the control
+ * dependences) of the blocks of a {@link StmtGraph}. The blocks without successors are connected
+ * to a virtual exit, which is not part of the result: blocks that are immediately post dominated
+ * by it are their own immediate post dominator, and blocks from which no exit can be reached (e.g.
+ * in an infinite loop) have none.
+ */
+public class PostDominanceFinder extends DominanceFinder {
+
+  public PostDominanceFinder(@Nonnull StmtGraph<?> blockGraph) {
+    super(blockGraph, true);
+  }
+}
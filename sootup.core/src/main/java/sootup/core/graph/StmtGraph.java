@@ -20,6 +20,7 @@ package sootup.core.graph;
  * <http://www.gnu.org/licenses/lgpl-2.1.html>.
  * #L%
  */
+import com.google.common.collect.ComparisonChain;
 import com.google.common.collect.Iterators;
 import java.io.PrintWriter;
 import java.io.StringWriter;
@@ -143,6 +144,17 @@ public abstract class StmtGraph<V extends BasicBlock<V>> implements Iterable<Stm
    */
   public abstract boolean hasEdgeConnecting(@Nonnull Stmt source, @Nonnull Stmt target);
 
+  /** Comparator which sorts the trap output in getTraps() */
+  public Comparator<Trap> getTrapComparator(@Nonnull HashMap<Stmt, Integer> stmtsBlockIdx) {
+    return (a, b) ->
+        ComparisonChain.start()
+            .compare(stmtsBlockIdx.get(a.getBeginStmt()), stmtsBlockIdx.get(b.getBeginStmt()))
+            .compare(stmtsBlockIdx.get(a.getEndStmt()), stmtsBlockIdx.get(b.getEndStmt()))
+            // [ms] would be nice to have the traps ordered by exception hierarchy as well
+            .compare(a.getExceptionType().toString(), b.getExceptionType().toString())
+            .result();
+  }
+
   /** returns a list of associated traps */
   @Deprecated
   public abstract List<Trap> getTraps();
@@ -123,6 +123,11 @@ public class MethodHandle implements Constant {
     return methodSignature;
   }
 
+  /** @return the referenced field if this handle does not reference a method */
+  public JFieldRef getFieldRef() {
+    return fieldRef;
+  }
+
   @Override
   public void accept(@Nonnull ConstantVisitor v) {
     v.caseMethodHandle(this);
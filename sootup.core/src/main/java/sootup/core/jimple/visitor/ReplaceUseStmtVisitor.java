@@ -75,6 +75,8 @@ public class ReplaceUseStmtVisitor extends AbstractStmtVisitor<Stmt> {
     if (rValue instanceof Immediate) {
       if (rValue == oldUse) {
         setResult(stmt.withRValue(newUse));
+      } else {
+        errorHandler(stmt);
       }
 
     } else if (rValue instanceof Ref) {
@@ -85,6 +87,8 @@ public class ReplaceUseStmtVisitor extends AbstractStmtVisitor<Stmt> {
         ((Ref) rValue).accept(refVisitor);
         if (refVisitor.getResult() != rValue) {
           setResult(stmt.withRValue(refVisitor.getResult()));
+        } else {
+          errorHandler(stmt);
         }
       }
 
@@ -94,6 +98,8 @@ public class ReplaceUseStmtVisitor extends AbstractStmtVisitor<Stmt> {
       ((Expr) rValue).accept(exprVisitor);
       if (exprVisitor.getResult() != rValue) {
         setResult(stmt.withRValue(exprVisitor.getResult()));
+      } else {
+        errorHandler(stmt);
       }
     } else {
       errorHandler(stmt);
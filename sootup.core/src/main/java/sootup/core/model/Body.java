@@ -51,7 +51,7 @@ public class Body implements Copyable {
   /** The locals for this Body. */
   private final Set<Local> locals;
 
-  @Nonnull private final StmtGraph<?> graph;
+  @Nonnull private final ImmutableBlockStmtGraph graph;
 
   /** The Position Information in the Source for this Body. */
   @Nonnull private final Position position;
@@ -85,8 +85,10 @@ public class Body implements Copyable {
       @Nonnull Position position) {
     this.methodSignature = methodSignature;
     this.locals = Collections.unmodifiableSet(locals);
-    this.graph = /* FIXME: [ms] make immutable when availabe */
-        new MutableBlockStmtGraph(stmtGraph).unmodifiableStmtGraph();
+    this.graph =
+        stmtGraph instanceof ImmutableBlockStmtGraph
+            ? (ImmutableBlockStmtGraph) stmtGraph
+            : new ImmutableBlockStmtGraph(stmtGraph);
     this.position = position;
     // FIXME: [JMP] Virtual method call in constructor
     checkInit();
@@ -209,11 +211,12 @@ public class Body implements Copyable {
    *
    * @return a list of size as per <code>getMethod().getParameterCount()</code> with all elements
    *     ordered as per the parameter index.
-   * @throws RuntimeException if a JParameterRef is missing
+   * @throws IllegalStateException if a JParameterRef is missing
    */
   @Nonnull
   public Collection<Local> getParameterLocals() {
-    final List<Local> retVal = new ArrayList<>();
+    // nodes() has no particular order: place each Local at the index of its parameter
+    final Local[] retVal = new Local[getMethodSignature().getParameterTypes().size()];
     // TODO: [ms] performance: don't iterate over all stmt -> lazy vs freedom/error tolerance -> use
     // fixed index positions at the beginning?
     for (Stmt u : graph.nodes()) {
@@ -221,7 +224,7 @@ public class Body implements Copyable {
         JIdentityStmt<?> idStmt = (JIdentityStmt<?>) u;
         if (idStmt.getRightOp() instanceof JParameterRef) {
           JParameterRef pr = (JParameterRef) idStmt.getRightOp();
-          retVal.add(pr.getIndex(), idStmt.getLeftOp());
+          retVal[pr.getIndex()] = idStmt.getLeftOp();
         }
       }
       /*  if we restrict/define that IdentityStmts MUST be at the beginnging.
@@ -231,7 +234,16 @@ public class Body implements Copyable {
       * */
 
     }
-    return Collections.unmodifiableCollection(retVal);
+    for (int i = 0; i < retVal.length; i++) {
+      if (retVal[i] == null) {
+        throw new IllegalStateException(
+            "There is no parameter local for parameter number "
+                + i
+                + " in "
+                + getMethodSignature());
+      }
+    }
+    return Collections.unmodifiableList(Arrays.asList(retVal));
   }
 
   /**
@@ -241,15 +253,10 @@ public class Body implements Copyable {
    */
   @Nonnull
   public List<Stmt> getStmts() {
-    final ArrayList<Stmt> stmts = new ArrayList<>(graph.nodes().size());
-    for (Stmt stmt : graph) {
-      stmts.add(stmt);
-    }
-    return stmts;
+    return graph.getStmts();
   }
 
   @Nonnull
-  // TODO: [ms] should be an ImmutableStmtGraph!
   public StmtGraph<?> getStmtGraph() {
     return graph;
   }
@@ -374,7 +381,16 @@ public class Body implements Copyable {
     @Nonnull private Set<Modifier> modifiers = Collections.emptySet();
 
     @Nullable private Position position = null;
-    @Nonnull private final MutableStmtGraph graph;
+
+    /**
+     * the graph that is modified by this builder. It is created lazily when the builder is based on
+     * a Body, so that an unmodified Body can be rebuilt without copying its graph.
+     */
+    @Nullable private MutableStmtGraph graph;
+
+    /** the graph of the Body this builder is based on, as long as it is not modified */
+    @Nullable private ImmutableBlockStmtGraph frozenGraph = null;
+
     @Nullable private MethodSignature methodSig = null;
 
     @Nullable private List<Stmt> cachedLinearizedStmts = null;
@@ -392,17 +408,26 @@ public class Body implements Copyable {
       setMethodSignature(body.getMethodSignature());
       setLocals(body.getLocals());
       setPosition(body.getPosition());
-      graph = new MutableBlockStmtGraph(body.getStmtGraph());
+      frozenGraph = body.graph;
     }
 
+    /**
+     * Returns the modifiable graph of this builder. If the builder is based on a Body, its graph is
+     * copied on the first call; prefer {@link #getStmts()} for read-only access.
+     */
     @Nonnull
     public MutableStmtGraph getStmtGraph() {
+      if (graph == null) {
+        graph = new MutableBlockStmtGraph(frozenGraph);
+        frozenGraph = null;
+      }
       return graph;
     }
 
     @Nonnull
     public List<Stmt> getStmts() {
-      cachedLinearizedStmts = Lists.newArrayList(graph);
+      cachedLinearizedStmts =
+          graph == null ? frozenGraph.getStmts() : Lists.newArrayList(graph);
       return cachedLinearizedStmts;
     }
 
@@ -413,7 +438,7 @@ public class Body implements Copyable {
 
     @Nonnull
     public BodyBuilder setStartingStmt(@Nonnull Stmt startingStmt) {
-      graph.setStartingStmt(startingStmt);
+      getStmtGraph().setStartingStmt(startingStmt);
       return this;
     }
 
@@ -438,40 +463,40 @@ public class Body implements Copyable {
     /** replace the oldStmt with newStmt in stmtGraph and branches */
     @Nonnull
     public BodyBuilder replaceStmt(@Nonnull Stmt oldStmt, @Nonnull Stmt newStmt) {
-      graph.replaceNode(oldStmt, newStmt);
+      getStmtGraph().replaceNode(oldStmt, newStmt);
       return this;
     }
 
     /** remove the a stmt from the graph and stmt */
     @Nonnull
     public BodyBuilder removeStmt(@Nonnull Stmt stmt) {
-      graph.removeNode(stmt);
+      getStmtGraph().removeNode(stmt);
       cachedLinearizedStmts = null;
       return this;
     }
 
     @Nonnull
     public BodyBuilder clearExceptionEdgesOf(@Nonnull Stmt stmt) {
-      graph.clearExceptionalEdges(stmt);
+      getStmtGraph().clearExceptionalEdges(stmt);
       return this;
     }
 
     @Nonnull
     @Deprecated
     public List<Trap> getTraps() {
-      return graph.getTraps();
+      return graph == null ? frozenGraph.getTraps() : graph.getTraps();
     }
 
     @Nonnull
     public BodyBuilder addFlow(@Nonnull Stmt fromStmt, @Nonnull Stmt toStmt) {
-      graph.putEdge(fromStmt, toStmt);
+      getStmtGraph().putEdge(fromStmt, toStmt);
       cachedLinearizedStmts = null;
       return this;
     }
 
     @Nonnull
     public BodyBuilder removeFlow(@Nonnull Stmt fromStmt, @Nonnull Stmt toStmt) {
-      graph.removeEdge(fromStmt, toStmt);
+      getStmtGraph().removeEdge(fromStmt, toStmt);
       cachedLinearizedStmts = null;
       return this;
     }
@@ -492,9 +517,28 @@ public class Body implements Copyable {
       return this;
     }
 
+    @Nullable
+    public MethodSignature getMethodSignature() {
+      return methodSig;
+    }
+
+    /** Validates the StmtGraph and builds the Body. */
     @Nonnull
     public Body build() {
+      return build(true);
+    }
 
+    /**
+     * Builds the Body without validating the StmtGraph, e.g. for graphs that are valid by
+     * construction. An invalid graph is not detected here but by the analyses using the Body.
+     */
+    @Nonnull
+    public Body buildTrusted() {
+      return build(false);
+    }
+
+    @Nonnull
+    private Body build(boolean validate) {
       if (methodSig == null) {
         throw new RuntimeException("There is no MethodSignature set.");
       }
@@ -503,6 +547,15 @@ public class Body implements Copyable {
         setPosition(NoPositionInformation.getInstance());
       }
 
+      if (graph == null) {
+        // the graph of the Body this builder is based on is unmodified: share it
+        return new Body(methodSig, locals, frozenGraph, position);
+      }
+
+      if (!validate) {
+        return new Body(methodSig, locals, graph, position);
+      }
+
       final Stmt startingStmt = graph.getStartingStmt();
       final Collection<Stmt> nodes = graph.nodes();
       if (nodes.size() > 0 && !nodes.contains(startingStmt)) {
@@ -25,6 +25,8 @@ import javax.annotation.Nonnull;
 import sootup.core.graph.StmtGraph;
 import sootup.core.jimple.basic.Local;
 import sootup.core.jimple.basic.Value;
+import sootup.core.jimple.common.ref.JArrayRef;
+import sootup.core.jimple.common.ref.JInstanceFieldRef;
 import sootup.core.jimple.common.stmt.AbstractDefinitionStmt;
 import sootup.core.jimple.common.stmt.JAssignStmt;
 import sootup.core.jimple.common.stmt.JIdentityStmt;
@@ -147,6 +149,42 @@ public class BodyUtils {
     return visitor.getResult();
   }
 
+  /**
+   * Use newUse to replace the Local oldUse in oldStmt, including its occurrences as base or index
+   * on the left side of an assignment, which {@link #withNewUse(Stmt, Value, Value)} does not
+   * cover.
+   *
+   * @param oldStmt a Stmt that uses oldUse.
+   * @param oldUse a Local that is used in oldStmt.
+   * @param newUse a Local to replace oldUse
+   * @return a new Stmt with newUse
+   */
+  @Nonnull
+  public static Stmt withNewLocalUse(
+      @Nonnull Stmt oldStmt, @Nonnull Local oldUse, @Nonnull Local newUse) {
+    Stmt newStmt = withNewUse(oldStmt, oldUse, newUse);
+    if (newStmt instanceof JAssignStmt) {
+      final JAssignStmt<?, ?> assign = (JAssignStmt<?, ?>) newStmt;
+      final Value leftOp = assign.getLeftOp();
+      if (leftOp instanceof JArrayRef) {
+        JArrayRef arrayRef = (JArrayRef) leftOp;
+        if (arrayRef.getBase() == oldUse) {
+          arrayRef = arrayRef.withBase(newUse);
+        }
+        if (arrayRef.getIndex() == oldUse) {
+          arrayRef = arrayRef.withIndex(newUse);
+        }
+        if (arrayRef != leftOp) {
+          newStmt = assign.withVariable(arrayRef);
+        }
+      } else if (leftOp instanceof JInstanceFieldRef
+          && ((JInstanceFieldRef) leftOp).getBase() == oldUse) {
+        newStmt = assign.withVariable(((JInstanceFieldRef) leftOp).withBase(newUse));
+      }
+    }
+    return newStmt;
+  }
+
   /**
    * Use newDef to replace the definition in oldStmt.
    *
@@ -23,15 +23,29 @@ package sootup.core.model;
  */
 
 import com.google.common.base.Suppliers;
+import com.google.common.collect.Iterables;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.cache.BodyCache;
 import sootup.core.frontend.ResolveException;
 import sootup.core.frontend.SootClassSource;
+import sootup.core.signatures.FieldSubSignature;
+import sootup.core.signatures.MethodSubSignature;
+import sootup.core.signatures.SootClassMemberSignature;
+import sootup.core.signatures.SootClassMemberSubSignature;
 import sootup.core.types.ClassType;
+import sootup.core.types.Type;
 import sootup.core.util.ImmutableUtils;
 import sootup.core.util.printer.JimplePrinter;
 
@@ -82,9 +96,31 @@ public class SootClass<S extends SootClassSource<? extends SootClass<S>>> extend
       throw new IllegalStateException(e);
     }
 
+    // this runs under the lock of the memoizing supplier, so no other lock is taken: a concurrent
+    // setBodyCache either sees methodsResolved and waits for the methods, or its cache is read here
+    methodsResolved = true;
+    final BodyCache currentBodyCache = bodyCache;
+    methods.forEach(method -> method.setBodyCache(currentBodyCache));
     return methods;
   }
 
+  @Nullable private volatile BodyCache bodyCache;
+
+  private volatile boolean methodsResolved = false;
+
+  /**
+   * Lets the methods of this class retain their bodies in the given cache instead of keeping them
+   * forever. This is set by the view that builds this class, before the class is handed out.
+   *
+   * @param bodyCache the cache or <code>null</code> to let each method keep its body
+   */
+  public void setBodyCache(@Nullable BodyCache bodyCache) {
+    this.bodyCache = bodyCache;
+    if (methodsResolved) {
+      getMethods().forEach(method -> method.setBodyCache(bodyCache));
+    }
+  }
+
   @Nonnull
   private final Supplier<Set<? extends SootMethod>> _lazyMethods =
       Suppliers.memoize(this::lazyMethodInitializer);
@@ -106,6 +142,105 @@ public class SootClass<S extends SootClassSource<? extends SootClass<S>>> extend
     return this._lazyFields.get();
   }
 
+  @Nonnull
+  private final Supplier<MemberIndex<MethodSubSignature, SootMethod>> _lazyMethodIndex =
+      Suppliers.memoize(() -> new MemberIndex<>(getMethods(), m -> m.getSignature()));
+
+  @Nonnull
+  private final Supplier<MemberIndex<FieldSubSignature, SootField>> _lazyFieldIndex =
+      Suppliers.memoize(() -> new MemberIndex<>(getFields(), f -> f.getSignature()));
+
+  /**
+   * Retrieves the method with the given subSignature via a lazily built hash index, i.e. in
+   * constant time instead of a linear scan over {@link #getMethods()}.
+   */
+  @Override
+  @Nonnull
+  public Optional<? extends SootMethod> getMethod(@Nonnull MethodSubSignature subSignature) {
+    return Optional.ofNullable(_lazyMethodIndex.get().bySubSignature.get(subSignature));
+  }
+
+  /**
+   * Retrieves the field with the given subSignature via a lazily built hash index, i.e. in constant
+   * time instead of a linear scan over {@link #getFields()}.
+   */
+  @Override
+  @Nonnull
+  public Optional<? extends SootField> getField(@Nonnull FieldSubSignature subSignature) {
+    return Optional.ofNullable(_lazyFieldIndex.get().bySubSignature.get(subSignature));
+  }
+
+  @Override
+  @Nonnull
+  public Optional<? extends SootField> getField(@Nonnull String name) {
+    List<SootField> candidates = getFieldsByName(name);
+    if (candidates.size() > 1) {
+      throw new ResolveException(
+          "ambiguous field: " + name + " in " + getClassSource().getClassType(),
+          getClassSource().getSourcePath());
+    }
+    return candidates.stream().findFirst();
+  }
+
+  @Override
+  @Nonnull
+  public Optional<? extends SootMethod> getMethod(
+      @Nonnull String name, @Nonnull Iterable<? extends Type> parameterTypes) {
+    SootMethod found = null;
+    for (SootMethod method : getMethodsByName(name)) {
+      if (Iterables.elementsEqual(parameterTypes, method.getParameterTypes())) {
+        if (found != null) {
+          throw new ResolveException(
+              "ambiguous method: " + name + " in " + getClassSource().getClassType(),
+              getClassSource().getSourcePath());
+        }
+        found = method;
+      }
+    }
+    return Optional.ofNullable(found);
+  }
+
+  /**
+   * Returns all methods of this class with the given name (i.e. all overloads) in declaration
+   * order. The lookup is backed by a lazily built index.
+   */
+  @Nonnull
+  public List<SootMethod> getMethodsByName(@Nonnull String name) {
+    return _lazyMethodIndex.get().byName.getOrDefault(name, Collections.emptyList());
+  }
+
+  /**
+   * Returns all fields of this class with the given name in declaration order. The lookup is backed
+   * by a lazily built index.
+   */
+  @Nonnull
+  public List<SootField> getFieldsByName(@Nonnull String name) {
+    return _lazyFieldIndex.get().byName.getOrDefault(name, Collections.emptyList());
+  }
+
+  /** Immutable subSignature and name lookup tables over the members of a class. */
+  private static final class MemberIndex<
+      T extends SootClassMemberSubSignature, M extends SootClassMember<?>> {
+    @Nonnull final Map<T, M> bySubSignature;
+    @Nonnull final Map<String, List<M>> byName;
+
+    MemberIndex(
+        @Nonnull Set<? extends M> members,
+        @Nonnull Function<M, ? extends SootClassMemberSignature<T>> signatureOf) {
+      Map<T, M> subSignatures = new HashMap<>(members.size() * 2);
+      Map<String, List<M>> names = new HashMap<>();
+      for (M member : members) {
+        SootClassMemberSignature<T> signature = signatureOf.apply(member);
+        // keep the first member in declaration order, like the former linear lookup did
+        subSignatures.putIfAbsent(signature.getSubSignature(), member);
+        names.computeIfAbsent(signature.getName(), k -> new ArrayList<>(1)).add(member);
+      }
+      names.replaceAll((k, v) -> Collections.unmodifiableList(v));
+      this.bySubSignature = subSignatures;
+      this.byName = names;
+    }
+  }
+
   private final Supplier<Set<Modifier>> lazyModifiers =
       Suppliers.memoize(classSource::resolveModifiers);
 
@@ -34,6 +34,7 @@ import java.util.function.Function;
 import java.util.function.Supplier;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import sootup.core.cache.BodyCache;
 import sootup.core.frontend.BodySource;
 import sootup.core.frontend.OverridingBodySource;
 import sootup.core.frontend.ResolveException;
@@ -128,9 +129,24 @@ public class SootMethod extends SootClassMember<MethodSignature> implements Meth
 
   @Nonnull private final Supplier<Body> _lazyBody = Suppliers.memoize(this::lazyBodyInitializer);
 
-  /** Retrieves the active body for this method. */
+  /** if set, the body is retained by this cache of the view instead of by this method */
+  @Nullable private volatile BodyCache bodyCache;
+
+  void setBodyCache(@Nullable BodyCache bodyCache) {
+    this.bodyCache = bodyCache;
+  }
+
+  /**
+   * Retrieves the active body for this method. If the view of this method uses a {@link
+   * BodyCache}, the body may have been evicted in the meantime and is rebuilt from the {@link
+   * BodySource}, i.e. the returned instance may differ between calls.
+   */
   @Nonnull
   public Body getBody() {
+    final BodyCache cache = this.bodyCache;
+    if (cache != null) {
+      return cache.getBody(getSignature(), this::lazyBodyInitializer);
+    }
     return this._lazyBody.get();
   }
 
@@ -89,8 +89,8 @@ public class MethodSubSignature extends SootClassMemberSubSignature
   }
 
   @Override
-  public int hashCode() {
-    return Objects.hashCode(super.hashCode(), getParameterTypes());
+  protected int computeHashCode() {
+    return Objects.hashCode(super.computeHashCode(), getParameterTypes());
   }
 
   @Override
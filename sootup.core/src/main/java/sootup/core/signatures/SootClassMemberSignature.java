@@ -42,9 +42,12 @@ public abstract class SootClassMemberSignature<V extends SootClassMemberSubSigna
 
   @Nonnull private final V subSignature;
 
+  private final int hashCode;
+
   public SootClassMemberSignature(@Nonnull ClassType klass, @Nonnull V subSignature) {
     this.declClassSignature = klass;
     this.subSignature = subSignature;
+    this.hashCode = Objects.hashCode(klass, subSignature);
   }
 
   @Nonnull
@@ -78,13 +81,14 @@ public abstract class SootClassMemberSignature<V extends SootClassMemberSubSigna
     }
 
     SootClassMemberSignature<V> that = (SootClassMemberSignature<V>) o;
-    return Objects.equal(declClassSignature, that.declClassSignature)
+    return hashCode == that.hashCode
+        && Objects.equal(declClassSignature, that.declClassSignature)
         && Objects.equal(subSignature, that.subSignature);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hashCode(declClassSignature, subSignature);
+    return hashCode;
   }
 
   @Override
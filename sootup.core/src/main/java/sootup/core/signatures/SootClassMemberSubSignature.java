@@ -43,6 +43,9 @@ public abstract class SootClassMemberSubSignature {
   @Nonnull private final String name;
   @Nonnull private final Type type;
 
+  /** the cached hash code, 0 if it is not computed yet */
+  private int hashCode = 0;
+
   /** Creates a new instance of the {@link SootClassMemberSubSignature} class. */
   protected SootClassMemberSubSignature(@Nonnull String name, @Nonnull Type type) {
     this.name = name;
@@ -85,6 +88,16 @@ public abstract class SootClassMemberSubSignature {
 
   @Override
   public int hashCode() {
+    int h = hashCode;
+    if (h == 0) {
+      h = computeHashCode();
+      hashCode = h;
+    }
+    return h;
+  }
+
+  /** Computes the hash code, it is cached by {@link #hashCode()}. */
+  protected int computeHashCode() {
     return Objects.hashCode(getName(), getType());
   }
 
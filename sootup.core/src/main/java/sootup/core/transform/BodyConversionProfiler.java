@@ -0,0 +1,129 @@
+package sootup.core.transform;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import javax.annotation.Nonnull;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.types.ClassType;
+
+/**
+ * Gets notified about the phases of the conversion of a method body by a frontend, i.e. the
+ * frontend specific conversion steps and every applied {@link BodyInterceptor}. Frontends call it
+ * from the thread that builds the body, so implementations have to be thread-safe if bodies are
+ * built concurrently.
+ *
+ * @see BodyConversionStatistics
+ */
+public interface BodyConversionProfiler {
+
+  /**
+   * @param method the method whose body is converted
+   * @param phase the name of the phase, e.g. the simple class name of a {@link BodyInterceptor}
+   * @param wallTimeNanos the wall time of the phase in nanoseconds
+   * @param allocatedBytes the bytes that were allocated by the converting thread during the phase
+   *     or -1 if the JVM does not support measuring allocations
+   * @param stmtsBefore the number of statements of the body before the phase
+   * @param stmtsAfter the number of statements of the body after the phase
+   */
+  void phaseCompleted(
+      @Nonnull MethodSignature method,
+      @Nonnull String phase,
+      long wallTimeNanos,
+      long allocatedBytes,
+      int stmtsBefore,
+      int stmtsAfter);
+
+  /**
+   * Called when a frontend has decoded a class, i.e. before any of its method bodies are converted.
+   *
+   * @param wallTimeNanos the wall time of the decoding in nanoseconds
+   * @param allocatedBytes the bytes that were allocated by the decoding thread or -1 if the JVM
+   *     does not support measuring allocations
+   */
+  default void classDecoded(@Nonnull ClassType type, long wallTimeNanos, long allocatedBytes) {}
+
+  /** Measures a single phase for a {@link BodyConversionProfiler}. */
+  final class PhaseMeasurement {
+
+    private static final com.sun.management.ThreadMXBean threadMXBean = allocationMXBean();
+
+    private final long startTime;
+    private final long startAllocation;
+    private final int stmtsBefore;
+
+    private PhaseMeasurement(int stmtsBefore) {
+      this.stmtsBefore = stmtsBefore;
+      this.startAllocation = currentThreadAllocatedBytes();
+      this.startTime = System.nanoTime();
+    }
+
+    /** Starts measuring a phase of a body that has <code>stmtsBefore</code> statements. */
+    @Nonnull
+    public static PhaseMeasurement start(int stmtsBefore) {
+      return new PhaseMeasurement(stmtsBefore);
+    }
+
+    /** Returns the wall time since the start of the measurement. */
+    public long getElapsedNanos() {
+      return System.nanoTime() - startTime;
+    }
+
+    /** Returns the bytes allocated by the current thread since the start or -1 if unsupported. */
+    public long getAllocatedBytes() {
+      return startAllocation < 0 ? -1 : currentThreadAllocatedBytes() - startAllocation;
+    }
+
+    /** Stops measuring and reports the phase of the body of <code>method</code> to the profiler. */
+    public void finish(
+        @Nonnull BodyConversionProfiler profiler,
+        @Nonnull MethodSignature method,
+        @Nonnull String phase,
+        int stmtsAfter) {
+      final long wallTime = getElapsedNanos();
+      profiler.phaseCompleted(
+          method, phase, wallTime, getAllocatedBytes(), stmtsBefore, stmtsAfter);
+    }
+
+    private static com.sun.management.ThreadMXBean allocationMXBean() {
+      final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+      if (bean instanceof com.sun.management.ThreadMXBean) {
+        final com.sun.management.ThreadMXBean allocationBean =
+            (com.sun.management.ThreadMXBean) bean;
+        if (allocationBean.isThreadAllocatedMemorySupported()
+            && allocationBean.isThreadAllocatedMemoryEnabled()) {
+          return allocationBean;
+        }
+      }
+      return null;
+    }
+
+    private static long currentThreadAllocatedBytes() {
+      if (threadMXBean == null) {
+        return -1;
+      }
+      return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+  }
+}
@@ -0,0 +1,288 @@
+package sootup.core.transform;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.AbstractMap;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.signatures.Signature;
+import sootup.core.types.ClassType;
+
+/**
+ * A thread-safe {@link BodyConversionProfiler} that aggregates the measurements per phase: totals,
+ * a histogram of the wall times and the slowest method, as well as the total conversion time per
+ * method to find the methods that dominate the conversion time. {@link #report(int)} renders the
+ * aggregate as a table.
+ */
+public class BodyConversionStatistics implements BodyConversionProfiler {
+
+  /** the phase that aggregates {@link #classDecoded}, its count is the number of classes */
+  public static final String CLASS_DECODING_PHASE = "class decoding";
+
+  @Nonnull private final Map<String, PhaseStatistics> phases = new ConcurrentHashMap<>();
+
+  /** the phase names in the order of their first occurrence, i.e. usually in pipeline order */
+  @Nonnull private final List<String> phaseOrder = new CopyOnWriteArrayList<>();
+
+  @Nonnull private final Map<MethodSignature, LongAdder> methodTimes = new ConcurrentHashMap<>();
+
+  @Override
+  public void phaseCompleted(
+      @Nonnull MethodSignature method,
+      @Nonnull String phase,
+      long wallTimeNanos,
+      long allocatedBytes,
+      int stmtsBefore,
+      int stmtsAfter) {
+    PhaseStatistics statistics = phases.get(phase);
+    if (statistics == null) {
+      statistics = createPhase(phase);
+    }
+    statistics.record(method, wallTimeNanos, allocatedBytes, stmtsAfter - stmtsBefore);
+    methodTimes.computeIfAbsent(method, m -> new LongAdder()).add(wallTimeNanos);
+  }
+
+  /** Records the decoding of classes as phase {@value #CLASS_DECODING_PHASE}. */
+  @Override
+  public void classDecoded(@Nonnull ClassType type, long wallTimeNanos, long allocatedBytes) {
+    PhaseStatistics statistics = phases.get(CLASS_DECODING_PHASE);
+    if (statistics == null) {
+      statistics = createPhase(CLASS_DECODING_PHASE);
+    }
+    statistics.record(type, wallTimeNanos, allocatedBytes, 0);
+  }
+
+  @Nonnull
+  private synchronized PhaseStatistics createPhase(@Nonnull String phase) {
+    PhaseStatistics statistics = phases.get(phase);
+    if (statistics == null) {
+      statistics = new PhaseStatistics(phase);
+      phases.put(phase, statistics);
+      phaseOrder.add(phase);
+    }
+    return statistics;
+  }
+
+  /** Returns the statistics of all phases in the order in which they were first recorded. */
+  @Nonnull
+  public List<PhaseStatistics> getPhases() {
+    return phaseOrder.stream().map(phases::get).collect(Collectors.toList());
+  }
+
+  /** Returns the statistics of the given phase or null if it has not been recorded. */
+  @Nullable
+  public PhaseStatistics getPhase(@Nonnull String phase) {
+    return phases.get(phase);
+  }
+
+  /** Returns the number of methods whose conversion has been recorded. */
+  public int getMethodCount() {
+    return methodTimes.size();
+  }
+
+  /**
+   * Returns the <code>limit</code> methods with the highest total conversion time in nanoseconds
+   * over all phases, slowest first.
+   */
+  @Nonnull
+  public List<Map.Entry<MethodSignature, Long>> getSlowestMethods(int limit) {
+    return methodTimes.entrySet().stream()
+        .map(e -> new AbstractMap.SimpleImmutableEntry<>(e.getKey(), e.getValue().sum()))
+        .sorted(Map.Entry.<MethodSignature, Long>comparingByValue(Comparator.reverseOrder()))
+        .limit(limit)
+        .collect(Collectors.toList());
+  }
+
+  /** Discards all recorded measurements. */
+  public synchronized void reset() {
+    phases.clear();
+    phaseOrder.clear();
+    methodTimes.clear();
+  }
+
+  /**
+   * Renders the statistics of every phase and the <code>slowestMethods</code> methods with the
+   * highest conversion time as a plain text table.
+   */
+  @Nonnull
+  public String report(int slowestMethods) {
+    StringBuilder sb = new StringBuilder();
+    sb.append(
+        String.format(
+            "%-28s %9s %11s %9s %9s %9s %11s %12s %10s%n",
+            "phase",
+            "methods",
+            "total [ms]",
+            "p50 [us]",
+            "p90 [us]",
+            "p99 [us]",
+            "max [us]",
+            "alloc [MB]",
+            "stmts +/-"));
+    for (PhaseStatistics phase : getPhases()) {
+      long allocated = phase.getAllocatedBytes();
+      sb.append(
+          String.format(
+              "%-28s %9d %11.1f %9d %9d %9d %11d %12s %10d%n",
+              phase.getName(),
+              phase.getCount(),
+              phase.getTotalNanos() / 1e6,
+              phase.getPercentileNanos(0.5) / 1000,
+              phase.getPercentileNanos(0.9) / 1000,
+              phase.getPercentileNanos(0.99) / 1000,
+              phase.getMaxNanos() / 1000,
+              allocated < 0 ? "n/a" : String.format("%.1f", allocated / (1024.0 * 1024.0)),
+              phase.getStmtDelta()));
+    }
+    List<Map.Entry<MethodSignature, Long>> slowest = getSlowestMethods(slowestMethods);
+    if (!slowest.isEmpty()) {
+      sb.append(String.format("%nslowest methods of %d:%n", getMethodCount()));
+      for (Map.Entry<MethodSignature, Long> entry : slowest) {
+        sb.append(String.format("%11.1f ms  %s%n", entry.getValue() / 1e6, entry.getKey()));
+      }
+    }
+    return sb.toString();
+  }
+
+  @Override
+  public String toString() {
+    return report(10);
+  }
+
+  /** The aggregated measurements of one phase. */
+  public static final class PhaseStatistics {
+
+    /** bucket i counts the measurements in [2^i, 2^(i+1)) nanoseconds */
+    private static final int BUCKETS = 64;
+
+    @Nonnull private final String name;
+    @Nonnull private final LongAdder count = new LongAdder();
+    @Nonnull private final LongAdder totalNanos = new LongAdder();
+    @Nonnull private final LongAdder allocatedBytes = new LongAdder();
+    @Nonnull private final LongAdder stmtDelta = new LongAdder();
+    @Nonnull private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+    private volatile boolean allocationsUnsupported = false;
+    private long maxNanos = 0;
+    @Nullable private Signature slowest = null;
+
+    PhaseStatistics(@Nonnull String name) {
+      this.name = name;
+    }
+
+    void record(@Nonnull Signature subject, long nanos, long allocated, int stmtDiff) {
+      count.increment();
+      totalNanos.add(nanos);
+      stmtDelta.add(stmtDiff);
+      if (allocated < 0) {
+        allocationsUnsupported = true;
+      } else {
+        allocatedBytes.add(allocated);
+      }
+      histogram.incrementAndGet(bucketOf(nanos));
+      synchronized (this) {
+        if (nanos > maxNanos) {
+          maxNanos = nanos;
+          slowest = subject;
+        }
+      }
+    }
+
+    private static int bucketOf(long nanos) {
+      return nanos <= 0 ? 0 : BUCKETS - 1 - Long.numberOfLeadingZeros(nanos);
+    }
+
+    @Nonnull
+    public String getName() {
+      return name;
+    }
+
+    public long getCount() {
+      return count.sum();
+    }
+
+    public long getTotalNanos() {
+      return totalNanos.sum();
+    }
+
+    /** Returns the allocated bytes of all measurements or -1 if the JVM does not support it. */
+    public long getAllocatedBytes() {
+      return allocationsUnsupported ? -1 : allocatedBytes.sum();
+    }
+
+    /** Returns the sum of the statement count changes, e.g. negative for removed statements. */
+    public long getStmtDelta() {
+      return stmtDelta.sum();
+    }
+
+    public synchronized long getMaxNanos() {
+      return maxNanos;
+    }
+
+    /** Returns the method (or class) with the longest wall time in this phase. */
+    @Nullable
+    public synchronized Signature getSlowest() {
+      return slowest;
+    }
+
+    /** Returns the number of measurements per histogram bucket, see {@link #BUCKETS}. */
+    @Nonnull
+    public long[] getHistogram() {
+      long[] buckets = new long[BUCKETS];
+      for (int i = 0; i < BUCKETS; i++) {
+        buckets[i] = histogram.get(i);
+      }
+      return buckets;
+    }
+
+    /**
+     * Returns an upper bound of the given percentile (between 0 and 1) of the wall times, i.e. the
+     * upper bound of the histogram bucket that contains it, capped at the maximum.
+     */
+    public long getPercentileNanos(double percentile) {
+      long[] buckets = getHistogram();
+      long total = 0;
+      for (long bucket : buckets) {
+        total += bucket;
+      }
+      long rank = (long) Math.ceil(percentile * total);
+      long seen = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+        seen += buckets[i];
+        if (seen >= rank && buckets[i] > 0) {
+          long upperBound = i >= BUCKETS - 2 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+          return Math.min(upperBound, getMaxNanos());
+        }
+      }
+      return 0;
+    }
+  }
+}
@@ -22,6 +22,7 @@ package sootup.core.transform;
  * #L%
  */
 
+import java.util.Optional;
 import javax.annotation.Nonnull;
 import sootup.core.model.Body;
 
@@ -38,4 +39,17 @@ public interface BodyInterceptor {
    * @param builder
    */
   void interceptBody(@Nonnull Body.BodyBuilder builder);
+
+  /**
+   * Identifies the transformation of this interceptor including its settings, e.g. to key a
+   * persistent cache of intercepted bodies: interceptors with equal fingerprints have to transform
+   * every body in the same way.
+   *
+   * @return the fingerprint or empty if the interceptor can not be identified, which disables such
+   *     caches
+   */
+  @Nonnull
+  default Optional<String> getFingerprint() {
+    return Optional.empty();
+  }
 }
@@ -24,6 +24,7 @@ package sootup.core.typehierarchy;
 import com.google.common.collect.Sets;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import sootup.core.frontend.ResolveException;
 import sootup.core.jimple.common.expr.JSpecialInvokeExpr;
@@ -54,8 +55,7 @@ public final class MethodDispatchResolver {
                         () ->
                             new ResolveException(
                                 "Could not resolve " + subtype + ", but found it in hierarchy.")))
-        .flatMap(abstractClass -> abstractClass.getMethods().stream())
-        .filter(potentialTarget -> canDispatch(m, potentialTarget.getSignature(), hierarchy))
+        .flatMap(abstractClass -> dispatchCandidates(abstractClass, m, hierarchy))
         .filter(method -> !method.isAbstract())
         .map(Method::getSignature)
         .collect(Collectors.toSet());
@@ -79,8 +79,7 @@ public final class MethodDispatchResolver {
                             new ResolveException(
                                 "Could not resolve " + subtype + ", but found it in hierarchy.")))
         .filter(c -> classes.contains(c.getType()))
-        .flatMap(abstractClass -> abstractClass.getMethods().stream())
-        .filter(potentialTarget -> canDispatch(m, potentialTarget.getSignature(), hierarchy))
+        .flatMap(abstractClass -> dispatchCandidates(abstractClass, m, hierarchy))
         .filter(method -> !method.isAbstract())
         .map(Method::getSignature)
         .collect(Collectors.toSet());
@@ -132,6 +131,20 @@ public final class MethodDispatchResolver {
             || hierarchy.isSubtype(called.getType(), potentialTarget.getType()));
   }
 
+  /**
+   * Returns the methods of <code>sootClass</code> that <code>called</code> can dispatch to, in
+   * declaration order. Only the overloads with a matching name are inspected, which are looked up
+   * via the name index of {@link SootClass#getMethodsByName(String)}.
+   */
+  @Nonnull
+  private static Stream<? extends SootMethod> dispatchCandidates(
+      @Nonnull SootClass<?> sootClass,
+      @Nonnull MethodSignature called,
+      @Nonnull TypeHierarchy hierarchy) {
+    return sootClass.getMethodsByName(called.getName()).stream()
+        .filter(potentialTarget -> canDispatch(called, potentialTarget.getSignature(), hierarchy));
+  }
+
   /**
    * Searches for the signature of the method that is the concrete implementation of <code>m</code>.
    * This is done by checking each superclass and the class itself for whether it contains the
@@ -153,10 +166,7 @@ public final class MethodDispatchResolver {
                           "Did not find class " + finalSuperClassType + " in View"));
 
       SootMethod concreteMethod =
-          superClass.getMethods().stream()
-              .filter(potentialTarget -> canDispatch(m, potentialTarget.getSignature(), hierarchy))
-              .findAny()
-              .orElse(null);
+          dispatchCandidates(superClass, m, hierarchy).findFirst().orElse(null);
       if (concreteMethod != null && !concreteMethod.isAbstract()) {
         return concreteMethod.getSignature();
       }
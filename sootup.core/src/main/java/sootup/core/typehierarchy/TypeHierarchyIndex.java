@@ -0,0 +1,392 @@
+package sootup.core.typehierarchy;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.jgrapht.Graph;
+import sootup.core.typehierarchy.ViewTypeHierarchy.ScanResult;
+import sootup.core.typehierarchy.ViewTypeHierarchy.ScanResult.Edge;
+import sootup.core.typehierarchy.ViewTypeHierarchy.ScanResult.EdgeType;
+import sootup.core.typehierarchy.ViewTypeHierarchy.ScanResult.Vertex;
+import sootup.core.typehierarchy.ViewTypeHierarchy.ScanResult.VertexType;
+import sootup.core.types.ClassType;
+
+/**
+ * A precomputed, immutable index of a type hierarchy that is used by a frozen {@link
+ * ViewTypeHierarchy}.
+ *
+ * <p>The classes are numbered in the pre-order of a depth-first traversal of the class tree, so
+ * the subclasses of a class are exactly the classes numbered in the interval after it, whose
+ * length is the size of its subtree. Every type stores the interfaces it implements (transitively)
+ * as a bitset over the interfaces. Hence subtype checks are O(1) and the sets that are returned
+ * are immutable views of precomputed arrays.
+ */
+final class TypeHierarchyIndex {
+
+  private static final BitSet NO_INTERFACES = new BitSet();
+
+  @Nonnull private final Map<ClassType, Integer> typeToId;
+  @Nonnull private final ClassType[] types;
+
+  /** the position of each class in {@link #classesInPreOrder}, -1 for interfaces */
+  @Nonnull private final int[] preOrder;
+  /** the number of classes in the subtree of each class, including the class itself */
+  @Nonnull private final int[] subtreeSize;
+
+  @Nonnull private final ClassType[] classesInPreOrder;
+
+  /** the index of each interface in {@link #interfaces}, -1 for classes */
+  @Nonnull private final int[] interfaceIndex;
+
+  @Nonnull private final ClassType[] interfaces;
+  /** all interfaces implemented or extended by each type; types may share the same bitset */
+  @Nonnull private final BitSet[] implementedInterfaces;
+  /** all subtypes of each interface, indexed like {@link #interfaces} */
+  @Nonnull private final ClassType[][] interfaceSubtypes;
+
+  /** the id of java.lang.Object or -1 */
+  private final int objectId;
+
+  // the returned sets are cached, they are immutable
+  @Nonnull private final Set<?>[] subtypeSets;
+  @Nonnull private final Set<?>[] implementedInterfaceSets;
+
+  TypeHierarchyIndex(@Nonnull ScanResult scanResult) {
+    Graph<Vertex, Edge> graph = scanResult.graph;
+    int typeCount = scanResult.typeToVertex.size();
+
+    typeToId = new HashMap<>(typeCount * 4 / 3 + 1);
+    types = new ClassType[typeCount];
+    Vertex[] vertices = new Vertex[typeCount];
+    interfaceIndex = new int[typeCount];
+    int interfaceCount = 0;
+    for (Vertex vertex : scanResult.typeToVertex.values()) {
+      int id = typeToId.size();
+      typeToId.put(vertex.javaClassType, id);
+      types[id] = vertex.javaClassType;
+      vertices[id] = vertex;
+      interfaceIndex[id] = vertex.type == VertexType.Interface ? interfaceCount++ : -1;
+    }
+
+    interfaces = new ClassType[interfaceCount];
+    for (int id = 0; id < typeCount; id++) {
+      if (interfaceIndex[id] >= 0) {
+        interfaces[interfaceIndex[id]] = types[id];
+      }
+    }
+
+    // link the subclasses of each class
+    int[] firstSubclass = new int[typeCount];
+    int[] nextSibling = new int[typeCount];
+    boolean[] hasSuperclass = new boolean[typeCount];
+    Arrays.fill(firstSubclass, -1);
+    for (int id = 0; id < typeCount; id++) {
+      if (interfaceIndex[id] >= 0) {
+        continue;
+      }
+      for (Edge edge : graph.outgoingEdgesOf(vertices[id])) {
+        if (edge.type == EdgeType.ClassDirectlyExtends) {
+          int superclass = typeToId.get(graph.getEdgeTarget(edge).javaClassType);
+          nextSibling[id] = firstSubclass[superclass];
+          firstSubclass[superclass] = id;
+          hasSuperclass[id] = true;
+          break;
+        }
+      }
+    }
+
+    // number the classes in pre-order, starting from the classes without a superclass
+    preOrder = new int[typeCount];
+    Arrays.fill(preOrder, -1);
+    int[] treeParent = new int[typeCount];
+    int classCount = typeCount - interfaceCount;
+    int[] preOrderIds = new int[classCount];
+    int position = 0;
+    Deque<Integer> stack = new ArrayDeque<>();
+    for (int pass = 0; pass < 2; pass++) {
+      for (int root = 0; root < typeCount; root++) {
+        // the second pass only visits classes on a cycle of superclasses
+        if (interfaceIndex[root] >= 0
+            || preOrder[root] >= 0
+            || (pass == 0 && hasSuperclass[root])) {
+          continue;
+        }
+        treeParent[root] = -1;
+        stack.push(root);
+        while (!stack.isEmpty()) {
+          int id = stack.pop();
+          preOrder[id] = position;
+          preOrderIds[position++] = id;
+          for (int sub = firstSubclass[id]; sub >= 0; sub = nextSibling[sub]) {
+            if (preOrder[sub] < 0) {
+              treeParent[sub] = id;
+              stack.push(sub);
+            }
+          }
+        }
+      }
+    }
+
+    classesInPreOrder = new ClassType[classCount];
+    subtreeSize = new int[typeCount];
+    for (int i = classCount - 1; i >= 0; i--) {
+      int id = preOrderIds[i];
+      classesInPreOrder[i] = types[id];
+      subtreeSize[id]++;
+      if (treeParent[id] >= 0) {
+        subtreeSize[treeParent[id]] += subtreeSize[id];
+      }
+    }
+
+    // the interfaces of the superclass are inherited, so classes are visited in pre-order
+    implementedInterfaces = new BitSet[typeCount];
+    for (int id = 0; id < typeCount; id++) {
+      if (interfaceIndex[id] >= 0) {
+        computeImplementedInterfaces(graph, vertices, id);
+      }
+    }
+    for (int i = 0; i < classCount; i++) {
+      int id = preOrderIds[i];
+      BitSet inherited =
+          treeParent[id] >= 0 ? implementedInterfaces[treeParent[id]] : NO_INTERFACES;
+      implementedInterfaces[id] =
+          mergeImplementedInterfaces(
+              graph, vertices, id, EdgeType.ClassDirectlyImplements, inherited);
+    }
+
+    int[] subtypeCounts = new int[interfaceCount];
+    for (BitSet bits : implementedInterfaces) {
+      for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+        subtypeCounts[i]++;
+      }
+    }
+    interfaceSubtypes = new ClassType[interfaceCount][];
+    for (int i = 0; i < interfaceCount; i++) {
+      interfaceSubtypes[i] = new ClassType[subtypeCounts[i]];
+      subtypeCounts[i] = 0;
+    }
+    for (int id = 0; id < typeCount; id++) {
+      BitSet bits = implementedInterfaces[id];
+      for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+        interfaceSubtypes[i][subtypeCounts[i]++] = types[id];
+      }
+    }
+
+    int object = -1;
+    for (int id = 0; id < typeCount; id++) {
+      if (interfaceIndex[id] < 0
+          && !hasSuperclass[id]
+          && types[id].getFullyQualifiedName().equals("java.lang.Object")) {
+        object = id;
+        break;
+      }
+    }
+    objectId = object;
+
+    subtypeSets = new Set<?>[typeCount];
+    implementedInterfaceSets = new Set<?>[typeCount];
+  }
+
+  /** Computes the interfaces an interface extends transitively, memoized. */
+  @Nonnull
+  private BitSet computeImplementedInterfaces(
+      @Nonnull Graph<Vertex, Edge> graph, @Nonnull Vertex[] vertices, int id) {
+    BitSet bits = implementedInterfaces[id];
+    if (bits == null) {
+      // guards against cyclic interfaces
+      implementedInterfaces[id] = NO_INTERFACES;
+      bits =
+          mergeImplementedInterfaces(
+              graph, vertices, id, EdgeType.InterfaceDirectlyExtends, NO_INTERFACES);
+      implementedInterfaces[id] = bits;
+    }
+    return bits;
+  }
+
+  /**
+   * Adds the interfaces that are directly implemented or extended by the type (and
+   * their superinterfaces) to the <code>inherited</code> interfaces. The bitset is only copied if
+   * it changes.
+   */
+  @Nonnull
+  private BitSet mergeImplementedInterfaces(
+      @Nonnull Graph<Vertex, Edge> graph,
+      @Nonnull Vertex[] vertices,
+      int id,
+      @Nonnull EdgeType edgeType,
+      @Nonnull BitSet inherited) {
+    BitSet merged = inherited;
+    for (Edge edge : graph.outgoingEdgesOf(vertices[id])) {
+      if (edge.type != edgeType) {
+        continue;
+      }
+      int superinterface = typeToId.get(graph.getEdgeTarget(edge).javaClassType);
+      BitSet superinterfaceBits = computeImplementedInterfaces(graph, vertices, superinterface);
+      if (merged == inherited) {
+        merged = (BitSet) inherited.clone();
+      }
+      merged.set(interfaceIndex[superinterface]);
+      merged.or(superinterfaceBits);
+    }
+    return merged;
+  }
+
+  /** Returns the id of the type or -1 if it is not part of the hierarchy. */
+  int idOf(@Nonnull ClassType type) {
+    Integer id = typeToId.get(type);
+    return id == null ? -1 : id;
+  }
+
+  boolean isInterface(int id) {
+    return interfaceIndex[id] >= 0;
+  }
+
+  /** Returns whether <code>subtype</code> is a (transitive) subtype of <code>supertype</code>. */
+  boolean isSubtype(int supertype, int subtype) {
+    if (supertype == subtype) {
+      return false;
+    }
+    if (supertype == objectId) {
+      return true;
+    }
+    if (interfaceIndex[supertype] >= 0) {
+      return implementedInterfaces[subtype].get(interfaceIndex[supertype]);
+    }
+    if (interfaceIndex[subtype] >= 0) {
+      return false;
+    }
+    int subtypePosition = preOrder[subtype];
+    return preOrder[supertype] < subtypePosition
+        && subtypePosition < preOrder[supertype] + subtreeSize[supertype];
+  }
+
+  /** Returns the transitive subtypes of the type, i.e. its subclasses or implementers. */
+  @SuppressWarnings("unchecked")
+  @Nonnull
+  Set<ClassType> subtypesOf(int id) {
+    Set<ClassType> subtypes = (Set<ClassType>) subtypeSets[id];
+    if (subtypes == null) {
+      int interfaceId = interfaceIndex[id];
+      if (interfaceId >= 0) {
+        ClassType[] elements = interfaceSubtypes[interfaceId];
+        IntPredicate isImplementer = other -> implementedInterfaces[other].get(interfaceId);
+        subtypes = new TypeSet(elements, 0, elements.length, isImplementer);
+      } else {
+        int from = preOrder[id] + 1;
+        int to = preOrder[id] + subtreeSize[id];
+        IntPredicate isSubclass = other -> from <= preOrder[other] && preOrder[other] < to;
+        subtypes = new TypeSet(classesInPreOrder, from, to, isSubclass);
+      }
+      subtypeSets[id] = subtypes;
+    }
+    return subtypes;
+  }
+
+  /** Returns all interfaces that are implemented or extended by the type, transitively. */
+  @SuppressWarnings("unchecked")
+  @Nonnull
+  Set<ClassType> implementedInterfacesOf(int id) {
+    Set<ClassType> result = (Set<ClassType>) implementedInterfaceSets[id];
+    if (result == null) {
+      BitSet bits = implementedInterfaces[id];
+      ClassType[] elements = new ClassType[bits.cardinality()];
+      int count = 0;
+      for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+        elements[count++] = interfaces[i];
+      }
+      result =
+          new TypeSet(
+              elements,
+              0,
+              count,
+              other -> interfaceIndex[other] >= 0 && bits.get(interfaceIndex[other]));
+      implementedInterfaceSets[id] = result;
+    }
+    return result;
+  }
+
+  /** An immutable set of types backed by a range of an array. */
+  private final class TypeSet extends AbstractSet<ClassType> {
+    @Nonnull private final ClassType[] elements;
+    private final int from;
+    private final int to;
+    /** decides whether the type with the given id is an element in O(1) */
+    @Nonnull private final IntPredicate containsId;
+
+    private TypeSet(
+        @Nonnull ClassType[] elements, int from, int to, @Nonnull IntPredicate containsId) {
+      this.elements = elements;
+      this.from = from;
+      this.to = to;
+      this.containsId = containsId;
+    }
+
+    @Override
+    public int size() {
+      return to - from;
+    }
+
+    @Override
+    public boolean contains(@Nullable Object o) {
+      if (!(o instanceof ClassType)) {
+        return false;
+      }
+      Integer id = typeToId.get(o);
+      return id != null && containsId.test(id);
+    }
+
+    @Nonnull
+    @Override
+    public Iterator<ClassType> iterator() {
+      return new Iterator<ClassType>() {
+        private int next = from;
+
+        @Override
+        public boolean hasNext() {
+          return next < to;
+        }
+
+        @Override
+        public ClassType next() {
+          if (next >= to) {
+            throw new NoSuchElementException();
+          }
+          return elements[next++];
+        }
+      };
+    }
+  }
+}
@@ -45,6 +45,7 @@ import sootup.core.typehierarchy.ViewTypeHierarchy.ScanResult.EdgeType;
 import sootup.core.typehierarchy.ViewTypeHierarchy.ScanResult.Vertex;
 import sootup.core.typehierarchy.ViewTypeHierarchy.ScanResult.VertexType;
 import sootup.core.types.ClassType;
+import sootup.core.types.Type;
 import sootup.core.views.View;
 
 /**
@@ -61,11 +62,54 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
 
   @Nonnull private final View<? extends SootClass> view;
 
+  /** if true, the queries are answered by the precomputed {@link #frozenIndex} */
+  private volatile boolean frozen = false;
+
+  /** built lazily in the frozen mode and dropped by {@link #addType(SootClass)} */
+  @Nullable private volatile TypeHierarchyIndex frozenIndex = null;
+
   /** to allow caching use Typehierarchy.fromView() to get/create the Typehierarchy. */
   public ViewTypeHierarchy(@Nonnull View<? extends SootClass> view) {
     this.view = view;
   }
 
+  /**
+   * Switches to the frozen mode: the hierarchy is precomputed once (pre-order intervals of the
+   * class tree and bitsets of the implemented interfaces), so {@link #isSubtype(Type, Type)} takes
+   * constant time for class types, and {@link #subtypesOf(ClassType)}, {@link
+   * #subclassesOf(ClassType)}, {@link #implementersOf(ClassType)} and {@link
+   * #implementedInterfacesOf(ClassType)} return cached, unmodifiable sets instead of computing a
+   * new set per call. The index is not updated incrementally: {@link #addType(SootClass)} discards
+   * it and the next query rebuilds it for the whole hierarchy, so types should be added before the
+   * hierarchy is queried rather than in between queries.
+   */
+  public void freeze() {
+    frozen = true;
+  }
+
+  public boolean isFrozen() {
+    return frozen;
+  }
+
+  /** Returns the precomputed index in the frozen mode, null otherwise. */
+  @Nullable
+  private TypeHierarchyIndex frozenIndex() {
+    if (!frozen) {
+      return null;
+    }
+    TypeHierarchyIndex index = frozenIndex;
+    if (index == null) {
+      synchronized (this) {
+        index = frozenIndex;
+        if (index == null) {
+          index = new TypeHierarchyIndex(lazyScanResult.get());
+          frozenIndex = index;
+        }
+      }
+    }
+    return index;
+  }
+
   @Nonnull
   @Override
   public Set<ClassType> implementersOf(@Nonnull ClassType interfaceType) {
@@ -95,6 +139,15 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
   @Nonnull
   @Override
   public Set<ClassType> subtypesOf(@Nonnull ClassType type) {
+    TypeHierarchyIndex index = frozenIndex();
+    if (index != null) {
+      int id = index.idOf(type);
+      if (id < 0) {
+        throw new ResolveException("Could not find " + type + " in hierarchy.");
+      }
+      return index.subtypesOf(id);
+    }
+
     ScanResult scanResult = lazyScanResult.get();
     Vertex vertex = scanResult.typeToVertex.get(type);
     if (vertex == null) {
@@ -188,6 +241,15 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
   @Nonnull
   @Override
   public Set<ClassType> implementedInterfacesOf(@Nonnull ClassType type) {
+    TypeHierarchyIndex index = frozenIndex();
+    if (index != null) {
+      int id = index.idOf(type);
+      if (id < 0) {
+        throw new ResolveException("Could not find " + type + " in hierarchy for view " + view);
+      }
+      return index.implementedInterfacesOf(id);
+    }
+
     ScanResult scanResult = lazyScanResult.get();
     Vertex vertex = scanResult.typeToVertex.get(type);
 
@@ -233,6 +295,19 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
         extendedInterfaces.flatMap(this::selfAndImplementedInterfaces));
   }
 
+  @Override
+  public boolean isSubtype(@Nonnull Type supertype, @Nonnull Type potentialSubtype) {
+    TypeHierarchyIndex index = frozenIndex();
+    if (index != null && supertype instanceof ClassType && potentialSubtype instanceof ClassType) {
+      int supertypeId = index.idOf((ClassType) supertype);
+      int subtypeId = index.idOf((ClassType) potentialSubtype);
+      if (supertypeId >= 0 && subtypeId >= 0) {
+        return index.isSubtype(supertypeId, subtypeId);
+      }
+    }
+    return MutableTypeHierarchy.super.isSubtype(supertype, potentialSubtype);
+  }
+
   @Nullable
   @Override
   public ClassType superClassOf(@Nonnull ClassType classType) {
@@ -347,10 +422,17 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
     return view.getClassOrThrow(classType);
   }
 
+  /**
+   * Adds the type to the hierarchy. In the {@link #freeze() frozen mode} this discards the
+   * precomputed index, i.e. each call costs a full rebuild of the index on the next query.
+   */
   @Override
   public void addType(SootClass sootClass) {
     ScanResult scanResult = lazyScanResult.get();
-    addSootClassToGraph(sootClass, scanResult.typeToVertex, scanResult.graph);
+    synchronized (this) {
+      addSootClassToGraph(sootClass, scanResult.typeToVertex, scanResult.graph);
+      frozenIndex = null;
+    }
   }
 
   /** Holds a vertex for each {@link ClassType} encountered during the scan. */
@@ -37,9 +37,12 @@ public class ArrayType extends ReferenceType {
 
   private final int dimension;
 
+  private final int hashCode;
+
   public ArrayType(Type baseType, int dimension) {
     this.baseType = baseType;
     this.dimension = dimension;
+    this.hashCode = Objects.hashCode(baseType, dimension);
   }
 
   @Override
@@ -68,12 +71,14 @@ public class ArrayType extends ReferenceType {
       return false;
     }
     ArrayType that = (ArrayType) o;
-    return dimension == that.dimension && Objects.equal(baseType, that.baseType);
+    return hashCode == that.hashCode
+        && dimension == that.dimension
+        && Objects.equal(baseType, that.baseType);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hashCode(baseType, dimension);
+    return hashCode;
   }
 
   public Type getBaseType() {
@@ -30,11 +30,13 @@ import javax.annotation.Nullable;
 import sootup.core.IdentifierFactory;
 import sootup.core.Project;
 import sootup.core.Scope;
+import sootup.core.cache.BodyCache;
 import sootup.core.model.SootClass;
 import sootup.core.model.SootField;
 import sootup.core.model.SootMethod;
 import sootup.core.signatures.FieldSignature;
 import sootup.core.signatures.MethodSignature;
+import sootup.core.transform.BodyConversionProfiler;
 import sootup.core.typehierarchy.TypeHierarchy;
 import sootup.core.typehierarchy.ViewTypeHierarchy;
 
@@ -51,6 +53,10 @@ public abstract class AbstractView<T extends SootClass<?>> implements View<T> {
 
   @Nullable private TypeHierarchy typeHierarchy;
 
+  @Nullable private volatile BodyCache bodyCache;
+
+  @Nullable private volatile BodyConversionProfiler bodyConversionProfiler;
+
   @Override
   @Nonnull
   public TypeHierarchy getTypeHierarchy() {
@@ -105,6 +111,41 @@ public abstract class AbstractView<T extends SootClass<?>> implements View<T> {
     return aClass.get().getField(signature.getSubSignature());
   }
 
+  /**
+   * Sets the retention policy for the bodies of the methods of the classes that are built by this
+   * view from now on, e.g. {@link BodyCache#bounded(long)} to limit the number of bodies that are
+   * kept on the heap. Evicted bodies are rebuilt on demand.
+   *
+   * @param bodyCache the cache or <code>null</code> to let every method keep its body as long as
+   *     the method is reachable (default).
+   */
+  public void setBodyCache(@Nullable BodyCache bodyCache) {
+    this.bodyCache = bodyCache;
+  }
+
+  /** Returns the cache that retains the bodies of this view, if one is set. */
+  @Nullable
+  public BodyCache getBodyCache() {
+    return bodyCache;
+  }
+
+  /**
+   * Sets a profiler that records the phases of the conversion of the method bodies of the classes
+   * that are loaded by this view from now on, e.g. a {@link
+   * sootup.core.transform.BodyConversionStatistics}.
+   *
+   * @param profiler the profiler or <code>null</code> to disable profiling (default).
+   */
+  public void setBodyConversionProfiler(@Nullable BodyConversionProfiler profiler) {
+    this.bodyConversionProfiler = profiler;
+  }
+
+  @Override
+  @Nullable
+  public BodyConversionProfiler getBodyConversionProfiler() {
+    return bodyConversionProfiler;
+  }
+
   @SuppressWarnings("unchecked") // Safe because we only put T in putModuleData
   @Override
   @Nullable
@@ -39,6 +39,7 @@ import sootup.core.model.SootField;
 import sootup.core.model.SootMethod;
 import sootup.core.signatures.FieldSignature;
 import sootup.core.signatures.MethodSignature;
+import sootup.core.transform.BodyConversionProfiler;
 import sootup.core.transform.BodyInterceptor;
 import sootup.core.typehierarchy.TypeHierarchy;
 import sootup.core.types.ClassType;
@@ -59,6 +60,15 @@ public interface View<T extends SootClass> {
   @Nonnull
   List<BodyInterceptor> getBodyInterceptors();
 
+  /**
+   * Returns the profiler that the frontends notify about the conversion of the method bodies of
+   * this view or null if the conversion is not profiled.
+   */
+  @Nullable
+  default BodyConversionProfiler getBodyConversionProfiler() {
+    return null;
+  }
+
   /** Return all classes in the view. */
   @Nonnull
   Collection<T> getClasses();
@@ -0,0 +1,371 @@
+package sootup.core.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import categories.Java8Test;
+import java.util.*;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.jimple.Jimple;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.basic.Value;
+import sootup.core.jimple.common.constant.IntConstant;
+import sootup.core.jimple.common.ref.JCaughtExceptionRef;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.signatures.PackageName;
+import sootup.core.types.ClassType;
+import sootup.core.types.PrimitiveType;
+
+/**
+ * Checks a forward may-analysis (reaching definitions) and a forward must-analysis (definitely
+ * assigned locals) on top of {@link GenKillBitSetFlowAnalysis} against stmt-level fixpoints on
+ * hash sets, as they are written ad hoc in the body interceptors.
+ */
+@Category(Java8Test.class)
+public class BitSetFlowAnalysisTest {
+
+  private final StmtPositionInfo noPosition = StmtPositionInfo.createNoStmtPositionInfo();
+
+  private final ClassType exceptionType =
+      new ClassType() {
+        @Override
+        public boolean isBuiltInClass() {
+          return true;
+        }
+
+        @Override
+        public String getFullyQualifiedName() {
+          return "java.lang.Exception";
+        }
+
+        @Override
+        public String getClassName() {
+          return "Exception";
+        }
+
+        @Override
+        public PackageName getPackageName() {
+          return new PackageName("java.lang");
+        }
+      };
+
+  /** Generates a method body with loops, a trap and the given number of stmts and locals. */
+  private StmtGraph<?> generateGraph(int stmtCount, int localCount, long seed) {
+    final Random random = new Random(seed);
+    final List<Local> locals = new ArrayList<>();
+    for (int i = 0; i < localCount; i++) {
+      locals.add(Jimple.newLocal("l" + i, PrimitiveType.getInt()));
+    }
+
+    final List<Stmt> stmts = new ArrayList<>();
+    final List<Integer> branchTargets = new ArrayList<>();
+    for (int i = 0; i < stmtCount - 1; i++) {
+      final Local op1 = locals.get(random.nextInt(localCount));
+      if (i > 0 && random.nextInt(100) < 10) {
+        stmts.add(
+            Jimple.newIfStmt(Jimple.newGtExpr(op1, IntConstant.getInstance(0)), noPosition));
+        branchTargets.add(random.nextInt(stmtCount - 1));
+      } else {
+        final Local op2 = locals.get(random.nextInt(localCount));
+        stmts.add(
+            Jimple.newAssignStmt(
+                locals.get(random.nextInt(localCount)), Jimple.newAddExpr(op1, op2), noPosition));
+        branchTargets.add(-1);
+      }
+    }
+    stmts.add(Jimple.newReturnStmt(locals.get(0), noPosition));
+
+    final int trapStart = stmtCount / 4;
+    final int trapEnd = stmtCount / 2;
+    final Stmt handler =
+        Jimple.newIdentityStmt(
+            Jimple.newLocal("ex", exceptionType),
+            new JCaughtExceptionRef(exceptionType),
+            noPosition);
+    final Stmt handlerDef =
+        Jimple.newAssignStmt(
+            locals.get(1), Jimple.newAddExpr(locals.get(2), locals.get(3)), noPosition);
+
+    final MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+    for (int i = 0; i < stmts.size(); i++) {
+      graph.addNode(
+          stmts.get(i),
+          i >= trapStart && i < trapEnd
+              ? Collections.singletonMap(exceptionType, handler)
+              : Collections.emptyMap());
+    }
+    graph.setStartingStmt(stmts.get(0));
+    for (int i = 0; i < stmts.size() - 1; i++) {
+      graph.putEdge(stmts.get(i), stmts.get(i + 1));
+      if (branchTargets.get(i) >= 0) {
+        graph.putEdge(stmts.get(i), stmts.get(branchTargets.get(i)));
+      }
+    }
+    graph.putEdge(handler, handlerDef);
+    graph.putEdge(handlerDef, stmts.get(trapEnd));
+    return graph;
+  }
+
+  private static Local definedLocal(Stmt stmt) {
+    final List<Value> defs = stmt.getDefs();
+    return !defs.isEmpty() && defs.get(0) instanceof Local ? (Local) defs.get(0) : null;
+  }
+
+  /** Numbers the local definitions of a graph. */
+  private static class Definitions {
+    final List<Stmt> defStmts = new ArrayList<>();
+    final Map<Stmt, Integer> defToIndex = new HashMap<>();
+    final Map<Local, BitSet> defsOfLocal = new HashMap<>();
+
+    Definitions(StmtGraph<?> graph) {
+      for (Stmt stmt : graph.nodes()) {
+        final Local local = definedLocal(stmt);
+        if (local != null) {
+          defToIndex.put(stmt, defStmts.size());
+          defsOfLocal.computeIfAbsent(local, l -> new BitSet()).set(defStmts.size());
+          defStmts.add(stmt);
+        }
+      }
+    }
+
+    Set<Stmt> toStmts(BitSet bits) {
+      final Set<Stmt> stmts = new HashSet<>();
+      for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+        stmts.add(defStmts.get(i));
+      }
+      return stmts;
+    }
+  }
+
+  private static class ReachingDefinitions extends GenKillBitSetFlowAnalysis {
+    private final Definitions definitions;
+
+    ReachingDefinitions(StmtGraph<?> graph, Definitions definitions) {
+      super(graph, Direction.FORWARD);
+      this.definitions = definitions;
+      execute();
+    }
+
+    @Override
+    protected BitSet gen(Stmt stmt) {
+      final BitSet gen = new BitSet();
+      final Integer index = definitions.defToIndex.get(stmt);
+      if (index != null) {
+        gen.set(index);
+      }
+      return gen;
+    }
+
+    @Override
+    protected BitSet kill(Stmt stmt) {
+      final Local local = definedLocal(stmt);
+      return local == null ? new BitSet() : definitions.defsOfLocal.get(local);
+    }
+  }
+
+  /** A must-analysis: the locals that are assigned on every path. */
+  private static class DefinitelyAssigned extends GenKillBitSetFlowAnalysis {
+    private final List<Local> locals;
+
+    DefinitelyAssigned(StmtGraph<?> graph, List<Local> locals) {
+      super(graph, Direction.FORWARD);
+      this.locals = locals;
+      execute();
+    }
+
+    @Override
+    protected BitSet newInitialFlow() {
+      final BitSet all = new BitSet();
+      all.set(0, locals.size());
+      return all;
+    }
+
+    @Override
+    protected BitSet entryInitialFlow() {
+      return new BitSet();
+    }
+
+    @Override
+    protected void merge(BitSet flow, BitSet other) {
+      flow.and(other);
+    }
+
+    @Override
+    protected BitSet gen(Stmt stmt) {
+      final BitSet gen = new BitSet();
+      final Local local = definedLocal(stmt);
+      if (local != null) {
+        gen.set(locals.indexOf(local));
+      }
+      return gen;
+    }
+
+    @Override
+    protected BitSet kill(Stmt stmt) {
+      return new BitSet();
+    }
+  }
+
+  /**
+   * The stmt-level predecessors: the normal predecessors pass the flow after and the exceptional
+   * predecessors pass the flow before them.
+   */
+  private static Map<Stmt, List<Stmt>> predecessors(StmtGraph<?> graph, boolean exceptional) {
+    final Map<Stmt, List<Stmt>> preds = new HashMap<>();
+    for (Stmt stmt : graph.nodes()) {
+      preds.putIfAbsent(stmt, new ArrayList<>());
+      final Collection<Stmt> succs =
+          exceptional ? graph.exceptionalSuccessors(stmt).values() : graph.successors(stmt);
+      for (Stmt succ : succs) {
+        preds.computeIfAbsent(succ, s -> new ArrayList<>()).add(stmt);
+      }
+    }
+    return preds;
+  }
+
+  /** The ad-hoc fixpoint: per stmt hash sets that are recomputed until nothing changes. */
+  private static Map<Stmt, Set<Stmt>> referenceReachingDefinitions(StmtGraph<?> graph) {
+    final Map<Stmt, List<Stmt>> normalPreds = predecessors(graph, false);
+    final Map<Stmt, List<Stmt>> exceptionalPreds = predecessors(graph, true);
+    final Map<Stmt, Set<Stmt>> in = new HashMap<>();
+    final Map<Stmt, Set<Stmt>> out = new HashMap<>();
+    for (Stmt stmt : graph.nodes()) {
+      in.put(stmt, new HashSet<>());
+      out.put(stmt, new HashSet<>());
+    }
+    final Deque<Stmt> worklist = new ArrayDeque<>(graph.nodes());
+    final Set<Stmt> queued = new HashSet<>(graph.nodes());
+    while (!worklist.isEmpty()) {
+      final Stmt stmt = worklist.poll();
+      queued.remove(stmt);
+      final Set<Stmt> newIn = new HashSet<>();
+      for (Stmt pred : normalPreds.get(stmt)) {
+        newIn.addAll(out.get(pred));
+      }
+      for (Stmt pred : exceptionalPreds.get(stmt)) {
+        newIn.addAll(in.get(pred));
+      }
+      final Set<Stmt> newOut = new HashSet<>(newIn);
+      final Local local = definedLocal(stmt);
+      if (local != null) {
+        newOut.removeIf(def -> local.equals(definedLocal(def)));
+        newOut.add(stmt);
+      }
+      final boolean changed = !newIn.equals(in.get(stmt)) || !newOut.equals(out.get(stmt));
+      in.put(stmt, newIn);
+      out.put(stmt, newOut);
+      if (changed) {
+        for (Stmt succ : graph.getAllSuccessors(stmt)) {
+          if (queued.add(succ)) {
+            worklist.add(succ);
+          }
+        }
+      }
+    }
+    return in;
+  }
+
+  private static Map<Stmt, Set<Local>> referenceDefinitelyAssigned(
+      StmtGraph<?> graph, List<Local> locals) {
+    final Map<Stmt, List<Stmt>> normalPreds = predecessors(graph, false);
+    final Map<Stmt, List<Stmt>> exceptionalPreds = predecessors(graph, true);
+    final Map<Stmt, Set<Local>> in = new HashMap<>();
+    final Map<Stmt, Set<Local>> out = new HashMap<>();
+    for (Stmt stmt : graph.nodes()) {
+      in.put(stmt, new HashSet<>(locals));
+      out.put(stmt, new HashSet<>(locals));
+    }
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (Stmt stmt : graph.nodes()) {
+        Set<Local> newIn = null;
+        if (stmt == graph.getStartingStmt()) {
+          newIn = new HashSet<>();
+        }
+        for (Stmt pred : normalPreds.get(stmt)) {
+          newIn = intersect(newIn, out.get(pred));
+        }
+        for (Stmt pred : exceptionalPreds.get(stmt)) {
+          newIn = intersect(newIn, in.get(pred));
+        }
+        if (newIn == null) {
+          newIn = new HashSet<>(locals);
+        }
+        final Set<Local> newOut = new HashSet<>(newIn);
+        final Local local = definedLocal(stmt);
+        if (local != null) {
+          newOut.add(local);
+        }
+        if (!newIn.equals(in.get(stmt)) || !newOut.equals(out.get(stmt))) {
+          in.put(stmt, newIn);
+          out.put(stmt, newOut);
+          changed = true;
+        }
+      }
+    }
+    return in;
+  }
+
+  private static Set<Local> intersect(Set<Local> set, Set<Local> other) {
+    if (set == null) {
+      return new HashSet<>(other);
+    }
+    set.retainAll(other);
+    return set;
+  }
+
+  private static List<Local> localsOf(StmtGraph<?> graph) {
+    final Set<Local> locals = new LinkedHashSet<>();
+    for (Stmt stmt : graph.nodes()) {
+      final Local local = definedLocal(stmt);
+      if (local != null) {
+        locals.add(local);
+      }
+      for (Value use : stmt.getUses()) {
+        if (use instanceof Local) {
+          locals.add((Local) use);
+        }
+      }
+    }
+    return new ArrayList<>(locals);
+  }
+
+  private static Set<Local> toLocals(List<Local> locals, BitSet bits) {
+    final Set<Local> result = new HashSet<>();
+    for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+      result.add(locals.get(i));
+    }
+    return result;
+  }
+
+  @Test
+  public void reachingDefinitionsSameResultAsReference() {
+    for (long seed = 0; seed < 5; seed++) {
+      final StmtGraph<?> graph = generateGraph(400, 30, seed);
+      final Map<Stmt, Set<Stmt>> expected = referenceReachingDefinitions(graph);
+      final Definitions definitions = new Definitions(graph);
+      final ReachingDefinitions analysis = new ReachingDefinitions(graph, definitions);
+      for (Stmt stmt : graph.nodes()) {
+        assertEquals(expected.get(stmt), definitions.toStmts(analysis.getFlowBefore(stmt)));
+      }
+      // every block is visited at least once
+      assertTrue(analysis.getBlockVisitCount() >= analysis.getBlockGraphIndex().getBlockCount());
+    }
+  }
+
+  @Test
+  public void definitelyAssignedSameResultAsReference() {
+    for (long seed = 0; seed < 5; seed++) {
+      final StmtGraph<?> graph = generateGraph(400, 30, seed);
+      final List<Local> locals = localsOf(graph);
+      final Map<Stmt, Set<Local>> expected = referenceDefinitelyAssigned(graph, locals);
+      final DefinitelyAssigned analysis = new DefinitelyAssigned(graph, locals);
+      for (Stmt stmt : graph.nodes()) {
+        assertEquals(expected.get(stmt), toLocals(locals, analysis.getFlowBefore(stmt)));
+      }
+    }
+  }
+}
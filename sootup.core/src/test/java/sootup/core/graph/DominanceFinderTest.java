@@ -0,0 +1,249 @@
+package sootup.core.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import categories.Java8Test;
+import java.util.*;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.jimple.Jimple;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.common.constant.IntConstant;
+import sootup.core.jimple.common.ref.JCaughtExceptionRef;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.signatures.PackageName;
+import sootup.core.types.ClassType;
+import sootup.core.types.PrimitiveType;
+
+/**
+ * Compares {@link DominanceFinder}, {@link PostDominanceFinder} and {@link DominanceTree} with the
+ * textbook fixpoint on dominator sets.
+ */
+@Category(Java8Test.class)
+public class DominanceFinderTest {
+
+  private final StmtPositionInfo noPosition = StmtPositionInfo.createNoStmtPositionInfo();
+
+  private final ClassType exceptionType =
+      new ClassType() {
+        @Override
+        public boolean isBuiltInClass() {
+          return true;
+        }
+
+        @Override
+        public String getFullyQualifiedName() {
+          return "java.lang.Exception";
+        }
+
+        @Override
+        public String getClassName() {
+          return "Exception";
+        }
+
+        @Override
+        public PackageName getPackageName() {
+          return new PackageName("java.lang");
+        }
+      };
+
+  /**
+   * Generates a method with random branches, a trap whose handler loops forever and an unreachable
+   * stmt.
+   */
+  private StmtGraph<?> generateGraph(int stmtCount, int branchPercentage, long seed) {
+    final Random random = new Random(seed);
+    final Local local = Jimple.newLocal("l", PrimitiveType.getInt());
+    final List<Stmt> stmts = new ArrayList<>();
+    final List<Integer> branchTargets = new ArrayList<>();
+    for (int i = 0; i < stmtCount - 1; i++) {
+      if (i > 0 && random.nextInt(100) < branchPercentage) {
+        stmts.add(
+            Jimple.newIfStmt(Jimple.newGtExpr(local, IntConstant.getInstance(i)), noPosition));
+        branchTargets.add(random.nextInt(stmtCount - 1));
+      } else {
+        stmts.add(
+            Jimple.newAssignStmt(
+                local, Jimple.newAddExpr(local, IntConstant.getInstance(1)), noPosition));
+        branchTargets.add(-1);
+      }
+    }
+    stmts.add(Jimple.newReturnStmt(local, noPosition));
+
+    final int trapStart = stmtCount / 4;
+    final int trapEnd = stmtCount / 2;
+    final Stmt handler =
+        Jimple.newIdentityStmt(
+            Jimple.newLocal("ex", exceptionType),
+            new JCaughtExceptionRef(exceptionType),
+            noPosition);
+    final Stmt handlerLoop = Jimple.newGotoStmt(noPosition);
+
+    final MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+    for (int i = 0; i < stmts.size(); i++) {
+      graph.addNode(
+          stmts.get(i),
+          i >= trapStart && i < trapEnd
+              ? Collections.singletonMap(exceptionType, handler)
+              : Collections.emptyMap());
+    }
+    graph.setStartingStmt(stmts.get(0));
+    for (int i = 0; i < stmts.size() - 1; i++) {
+      graph.putEdge(stmts.get(i), stmts.get(i + 1));
+      if (branchTargets.get(i) >= 0) {
+        graph.putEdge(stmts.get(i), stmts.get(branchTargets.get(i)));
+      }
+    }
+    graph.putEdge(handler, handlerLoop);
+    graph.putEdge(handlerLoop, handlerLoop);
+    graph.addNode(Jimple.newNopStmt(noPosition));
+    return graph;
+  }
+
+  /**
+   * The textbook fixpoint: dom(n) = {n} + the intersection of dom(p) of all predecessors p, on
+   * the block graph with the edges in the direction of the dominance. Returns null for the nodes
+   * that are not reachable from the root.
+   */
+  private static BitSet[] referenceDominators(int nodeCount, int root, int[][] preds) {
+    final BitSet[] doms = new BitSet[nodeCount];
+    for (int n = 0; n < nodeCount; n++) {
+      doms[n] = new BitSet();
+      doms[n].set(0, nodeCount);
+    }
+    doms[root].clear();
+    doms[root].set(root);
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (int n = 0; n < nodeCount; n++) {
+        if (n == root) {
+          continue;
+        }
+        final BitSet dom = new BitSet();
+        dom.set(0, nodeCount);
+        for (int pred : preds[n]) {
+          dom.and(doms[pred]);
+        }
+        dom.set(n);
+        if (!dom.equals(doms[n])) {
+          doms[n] = dom;
+          changed = true;
+        }
+      }
+    }
+    // the dominators of unreachable nodes stay the full set
+    for (int n = 0; n < nodeCount; n++) {
+      if (doms[n].cardinality() == nodeCount && nodeCount > 1) {
+        doms[n] = null;
+      }
+    }
+    return doms;
+  }
+
+  /** Returns the reference immediate dominator: the strict dominator with the most dominators. */
+  private static int referenceIdom(BitSet[] doms, int n) {
+    int idom = -1;
+    for (int d = doms[n].nextSetBit(0); d >= 0; d = doms[n].nextSetBit(d + 1)) {
+      if (d != n && (idom == -1 || doms[d].cardinality() > doms[idom].cardinality())) {
+        idom = d;
+      }
+    }
+    return idom;
+  }
+
+  private static int[] concat(int[] first, int[] second) {
+    final int[] result = Arrays.copyOf(first, first.length + second.length);
+    System.arraycopy(second, 0, result, first.length, second.length);
+    return result;
+  }
+
+  /** Checks the finder, its dominance frontiers and the tree against the reference dominators. */
+  private static void check(
+      DominanceFinder finder, BlockGraphIndex index, BitSet[] doms, int[][] preds, int exit) {
+    final DominanceTree tree = new DominanceTree(finder);
+    final int blockCount = index.getBlockCount();
+    final int[] toFinder = new int[blockCount];
+    for (int idx = 0; idx < blockCount; idx++) {
+      toFinder[index.getBlockIndex(finder.getBlock(idx).getHead())] = idx;
+    }
+    for (int b = 0; b < blockCount; b++) {
+      final int idx = toFinder[b];
+      if (doms[b] == null) {
+        assertEquals(-1, finder.getImmediateDominator(idx));
+        continue;
+      }
+      final int expectedIdom = referenceIdom(doms, b);
+      if (expectedIdom == -1 || expectedIdom == exit) {
+        assertEquals(idx, finder.getImmediateDominator(idx));
+      } else {
+        assertEquals(toFinder[expectedIdom], finder.getImmediateDominator(idx));
+      }
+      for (int d = 0; d < blockCount; d++) {
+        assertEquals(doms[b].get(d), tree.dominates(toFinder[d], idx));
+      }
+
+      // y is in the frontier of x if x dominates a predecessor of y but does not strictly
+      // dominate y
+      final Set<Integer> expectedFrontier = new HashSet<>();
+      for (int y = 0; y < blockCount; y++) {
+        if (doms[y] == null || (doms[y].get(b) && y != b)) {
+          continue;
+        }
+        for (int pred : preds[y]) {
+          if (pred != exit && doms[pred] != null && doms[pred].get(b)) {
+            expectedFrontier.add(toFinder[y]);
+          }
+        }
+      }
+      final Set<Integer> frontier = new HashSet<>();
+      for (int y : finder.getDominanceFrontier(idx)) {
+        frontier.add(y);
+      }
+      assertEquals(expectedFrontier, frontier);
+    }
+  }
+
+  @Test
+  public void dominatorsSameAsReference() {
+    for (long seed = 0; seed < 10; seed++) {
+      final StmtGraph<?> graph = generateGraph(300, 20, seed);
+      final BlockGraphIndex index = new BlockGraphIndex(graph);
+      final int blockCount = index.getBlockCount();
+      final int[][] preds = new int[blockCount][];
+      for (int b = 0; b < blockCount; b++) {
+        preds[b] = concat(index.getPredecessors(b), index.getExceptionalPredecessors(b));
+      }
+      final BitSet[] doms = referenceDominators(blockCount, index.getStartingBlock(), preds);
+
+      final DominanceFinder finder = new DominanceFinder(graph);
+      assertEquals(index.getStartingBlock(), index.getBlockIndex(finder.getBlock(0).getHead()));
+      assertEquals(finder.getBlock(0), finder.getImmediateDominator(finder.getBlock(0)));
+      check(finder, index, doms, preds, -1);
+    }
+  }
+
+  @Test
+  public void postDominatorsSameAsReference() {
+    for (long seed = 0; seed < 10; seed++) {
+      final StmtGraph<?> graph = generateGraph(300, 20, seed);
+      final BlockGraphIndex index = new BlockGraphIndex(graph);
+      final int blockCount = index.getBlockCount();
+      // the reversed graph with a virtual exit
+      final int exit = blockCount;
+      final int[][] preds = new int[blockCount + 1][];
+      preds[exit] = new int[0];
+      for (int b = 0; b < blockCount; b++) {
+        final int[] succs = concat(index.getSuccessors(b), index.getExceptionalSuccessors(b));
+        preds[b] = succs.length == 0 ? new int[] {exit} : succs;
+      }
+      final BitSet[] doms = referenceDominators(blockCount + 1, exit, preds);
+
+      final PostDominanceFinder finder = new PostDominanceFinder(graph);
+      assertTrue(finder.isPostDominance());
+      check(finder, index, doms, preds, exit);
+    }
+  }
+}
@@ -0,0 +1,184 @@
+package sootup.core.graph;
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import java.util.*;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.basic.Trap;
+import sootup.core.jimple.common.constant.IntConstant;
+import sootup.core.jimple.common.expr.JLeExpr;
+import sootup.core.jimple.common.ref.JCaughtExceptionRef;
+import sootup.core.jimple.common.stmt.*;
+import sootup.core.signatures.PackageName;
+import sootup.core.types.ClassType;
+
+@Category(Java8Test.class)
+public class ImmutableBlockStmtGraphTest {
+
+  private final StmtPositionInfo noPosition = StmtPositionInfo.createNoStmtPositionInfo();
+
+  private final ClassType throwableSig =
+      new ClassType() {
+        @Override
+        public boolean isBuiltInClass() {
+          return true;
+        }
+
+        @Override
+        public String getFullyQualifiedName() {
+          return getPackageName() + "." + getClassName();
+        }
+
+        @Override
+        public String getClassName() {
+          return "Throwable";
+        }
+
+        @Override
+        public PackageName getPackageName() {
+          return new PackageName("java.lang");
+        }
+      };
+
+  private final Stmt nop1 = new JNopStmt(noPosition);
+  private final Stmt ifStmt =
+      new JIfStmt(new JLeExpr(IntConstant.getInstance(2), IntConstant.getInstance(3)), noPosition);
+  private final Stmt nop2 = new JNopStmt(noPosition);
+  private final Stmt gotoStmt = new JGotoStmt(noPosition);
+  private final Stmt nop3 = new JNopStmt(noPosition);
+  private final Stmt returnStmt = new JReturnVoidStmt(noPosition);
+  private final Stmt handlerStmt =
+      new JIdentityStmt<>(
+          new Local("ex", throwableSig), new JCaughtExceptionRef(throwableSig), noPosition);
+  private final Stmt handlerGotoStmt = new JGotoStmt(noPosition);
+
+  /**
+   * <pre>
+   * nop1                 (trapped, first block)
+   * if 2 &lt;= 3 goto nop3 (trapped, first block)
+   * nop2                 (trapped, second block)
+   * goto returnStmt
+   * nop3
+   * returnStmt
+   * handlerStmt: ex := @caughtexception
+   * goto returnStmt
+   * </pre>
+   */
+  private MutableBlockStmtGraph createGraph() {
+    final MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+    final Map<BranchingStmt, List<Stmt>> branches = new HashMap<>();
+    branches.put((BranchingStmt) ifStmt, Collections.singletonList(nop3));
+    branches.put((BranchingStmt) gotoStmt, Collections.singletonList(returnStmt));
+    branches.put((BranchingStmt) handlerGotoStmt, Collections.singletonList(returnStmt));
+    graph.initializeWith(
+        Arrays.asList(
+            nop1, ifStmt, nop2, gotoStmt, nop3, returnStmt, handlerStmt, handlerGotoStmt),
+        branches,
+        Collections.singletonList(new Trap(throwableSig, nop1, gotoStmt, handlerStmt)));
+    return graph;
+  }
+
+  @Test
+  public void testNavigationEqualsSourceGraph() {
+    final MutableBlockStmtGraph graph = createGraph();
+    final ImmutableBlockStmtGraph immutableGraph = new ImmutableBlockStmtGraph(graph);
+
+    assertEquals(graph.getStartingStmt(), immutableGraph.getStartingStmt());
+    assertEquals(graph.nodes(), immutableGraph.nodes());
+    assertEquals(graph.getBlocks().size(), immutableGraph.getBlocks().size());
+    for (Stmt stmt : graph.nodes()) {
+      assertTrue(immutableGraph.containsNode(stmt));
+      assertEquals(graph.successors(stmt), immutableGraph.successors(stmt));
+      // the predecessors have no specific order. The predecessors of a traphandler are derived
+      // from the exceptional successors, as the MutableBlockStmtGraph keeps stale entries there.
+      if (stmt != handlerStmt) {
+        assertEquals(
+            new HashSet<>(graph.predecessors(stmt)),
+            new HashSet<>(immutableGraph.predecessors(stmt)));
+      }
+      assertEquals(immutableGraph.predecessors(stmt).size(), immutableGraph.inDegree(stmt));
+      assertEquals(graph.exceptionalSuccessors(stmt), immutableGraph.exceptionalSuccessors(stmt));
+      assertEquals(graph.outDegree(stmt), immutableGraph.outDegree(stmt));
+      assertEquals(
+          graph.getBlockOf(stmt).getStmts(), immutableGraph.getBlockOf(stmt).getStmts());
+      for (Stmt target : graph.nodes()) {
+        assertEquals(
+            graph.hasEdgeConnecting(stmt, target), immutableGraph.hasEdgeConnecting(stmt, target));
+      }
+    }
+
+    assertEquals(graph.getStmts(), immutableGraph.getStmts());
+    assertEquals(graph.getTraps(), immutableGraph.getTraps());
+    assertEquals(graph, immutableGraph);
+    assertEquals(immutableGraph, new MutableBlockStmtGraph(immutableGraph));
+    assertFalse(immutableGraph.containsNode(new JNopStmt(noPosition)));
+  }
+
+  @Test
+  public void testExceptionalPredecessors() {
+    final ImmutableBlockStmtGraph graph = new ImmutableBlockStmtGraph(createGraph());
+
+    assertEquals(
+        new HashSet<>(Arrays.asList(nop1, ifStmt, nop2)),
+        new HashSet<>(graph.exceptionalPredecessors(handlerStmt)));
+    assertEquals(3, graph.exceptionalPredecessors(handlerStmt).size());
+    assertTrue(graph.exceptionalPredecessors(handlerGotoStmt).isEmpty());
+    assertTrue(graph.exceptionalPredecessors(nop3).isEmpty());
+
+    final ImmutableBlockStmtGraph.ImmutableBasicBlock handlerBlock =
+        graph.getBlockOf(handlerStmt);
+    assertEquals(2, handlerBlock.getExceptionalPredecessors().size());
+    assertEquals(
+        new HashSet<>(Arrays.asList(ifStmt, nop2)), new HashSet<>(graph.predecessors(handlerStmt)));
+    assertEquals(2, graph.inDegree(handlerStmt));
+    assertSame(
+        handlerBlock,
+        graph.getBlockOf(nop1).getExceptionalSuccessors().get(throwableSig));
+  }
+
+  @Test
+  public void testDenseStmtNumbering() {
+    final ImmutableBlockStmtGraph graph = new ImmutableBlockStmtGraph(createGraph());
+
+    assertEquals(8, graph.getStmtCount());
+    for (int i = 0; i < graph.getStmtCount(); i++) {
+      assertEquals(i, graph.getStmtIndex(graph.getStmt(i)));
+    }
+    assertEquals(-1, graph.getStmtIndex(new JNopStmt(noPosition)));
+
+    // the stmts of a block have consecutive indices
+    for (ImmutableBlockStmtGraph.ImmutableBasicBlock block : graph.getBlocks()) {
+      final int head = graph.getStmtIndex(block.getHead());
+      final List<Stmt> stmts = block.getStmts();
+      for (int i = 0; i < stmts.size(); i++) {
+        assertEquals(head + i, graph.getStmtIndex(stmts.get(i)));
+      }
+      assertSame(block.getTail(), stmts.get(stmts.size() - 1));
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testLargeBlock() {
+    final int size = 100000;
+    final List<Stmt> stmts = new ArrayList<>(size);
+    for (int i = 0; i < size - 1; i++) {
+      stmts.add(new JNopStmt(noPosition));
+    }
+    stmts.add(new JReturnVoidStmt(noPosition));
+    final MutableBlockStmtGraph mutableGraph = new MutableBlockStmtGraph();
+    mutableGraph.initializeWith(stmts, Collections.emptyMap(), Collections.emptyList());
+
+    final ImmutableBlockStmtGraph graph = new ImmutableBlockStmtGraph(mutableGraph);
+    assertEquals(1, graph.getBlocks().size());
+    for (int i = 1; i < size - 1; i++) {
+      final Stmt stmt = stmts.get(i);
+      assertSame(stmts.get(i + 1), graph.successors(stmt).get(0));
+      assertSame(stmts.get(i - 1), graph.predecessors(stmt).get(0));
+    }
+    assertEquals(stmts, graph.getStmts());
+  }
+}
@@ -750,14 +750,13 @@ public class MutableBlockStmtGraphTest {
 
   @Test
   public void copyOfImmutable() {
-    /*
     Stmt stmt1 = new JNopStmt(StmtPositionInfo.createNoStmtPositionInfo());
     Stmt stmt2 = new JNopStmt(StmtPositionInfo.createNoStmtPositionInfo());
     MutableStmtGraph graph = new MutableBlockStmtGraph();
     graph.putEdge(stmt1, stmt2);
     graph.setStartingStmt(stmt1);
 
-    final ImmutableStmtGraph immutableGraph = ImmutableStmtGraph.copyOf(graph);
+    final ImmutableBlockStmtGraph immutableGraph = new ImmutableBlockStmtGraph(graph);
 
     assertEquals(graph.getStartingStmt(), immutableGraph.getStartingStmt());
     assertEquals(graph.nodes().size(), immutableGraph.nodes().size());
@@ -778,17 +777,10 @@ public class MutableBlockStmtGraphTest {
     }
 
     try {
-      immutableGraph.predecessors(stmt1).add(stmt2);
+      immutableGraph.getBlockOf(stmt1).getStmts().add(stmt2);
       assertTrue(false);
     } catch (Exception ignore) {
     }
-
-    try {
-      immutableGraph.successors(stmt1).add(stmt2);
-      assertTrue(false);
-    } catch (Exception ignore) {
-    }
-     */
   }
 
   @Test
@@ -167,6 +167,9 @@ class AsmClassSource extends JavaSootClassSource {
 
   @Nonnull
   public Optional<? extends ClassType> resolveOuterClass() {
+    if (classNode.outerClass == null) {
+      return Optional.empty();
+    }
     return Optional.ofNullable(AsmUtil.toJimpleClassType(classNode.outerClass));
   }
 
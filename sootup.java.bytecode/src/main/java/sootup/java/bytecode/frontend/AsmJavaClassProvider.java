@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.util.List;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.tree.ClassNode;
 import sootup.core.frontend.AbstractClassSource;
@@ -33,6 +34,8 @@ import sootup.core.inputlocation.AnalysisInputLocation;
 import sootup.core.inputlocation.FileType;
 import sootup.core.jimple.basic.NoPositionInformation;
 import sootup.core.model.SootClass;
+import sootup.core.transform.BodyConversionProfiler;
+import sootup.core.transform.BodyConversionProfiler.PhaseMeasurement;
 import sootup.core.transform.BodyInterceptor;
 import sootup.core.types.ClassType;
 import sootup.java.core.JavaModuleIdentifierFactory;
@@ -46,8 +49,21 @@ public class AsmJavaClassProvider implements ClassProvider<JavaSootClass> {
 
   @Nonnull private final List<BodyInterceptor> bodyInterceptors;
 
+  @Nullable private final BodyConversionProfiler bodyConversionProfiler;
+
   public AsmJavaClassProvider(@Nonnull List<BodyInterceptor> bodyInterceptors) {
+    this(bodyInterceptors, null);
+  }
+
+  /**
+   * @param bodyConversionProfiler if set, it is notified about the decoding of the classes and the
+   *     conversion phases of their method bodies
+   */
+  public AsmJavaClassProvider(
+      @Nonnull List<BodyInterceptor> bodyInterceptors,
+      @Nullable BodyConversionProfiler bodyConversionProfiler) {
     this.bodyInterceptors = bodyInterceptors;
+    this.bodyConversionProfiler = bodyConversionProfiler;
   }
 
   @Override
@@ -57,13 +73,65 @@ public class AsmJavaClassProvider implements ClassProvider<JavaSootClass> {
       ClassType classType) {
     SootClassNode classNode = new SootClassNode();
 
+    final PhaseMeasurement decoding = startDecoding();
     try {
       AsmUtil.initAsmClassSource(sourcePath, classNode);
     } catch (IOException exception) {
       throw new ResolveException(
           exception.getMessage(), sourcePath, NoPositionInformation.getInstance(), exception);
     }
+    finishDecoding(decoding, classType);
 
+    return createClassSource(srcNamespace, sourcePath, classType, classNode);
+  }
+
+  /**
+   * Creates a class source from the content of a class file that has already been read, e.g. from
+   * an archive that is not accessed via a {@link java.nio.file.FileSystem}.
+   *
+   * @param sourcePath the path that is reported as the origin of the class
+   * @param classContent the content of the class file
+   */
+  public AbstractClassSource<JavaSootClass> createClassSource(
+      @Nonnull AnalysisInputLocation<? extends SootClass<?>> srcNamespace,
+      @Nonnull Path sourcePath,
+      @Nonnull ClassType classType,
+      @Nonnull byte[] classContent) {
+    SootClassNode classNode = new SootClassNode();
+
+    final PhaseMeasurement decoding = startDecoding();
+    try {
+      AsmUtil.initAsmClassSource(classContent, classNode);
+    } catch (RuntimeException exception) {
+      // ASM does not validate its input and fails with arbitrary exceptions on malformed content
+      throw new ResolveException(
+          "Malformed class file: " + exception.getMessage(),
+          sourcePath,
+          NoPositionInformation.getInstance(),
+          exception);
+    }
+    finishDecoding(decoding, classType);
+
+    return createClassSource(srcNamespace, sourcePath, classType, classNode);
+  }
+
+  @Nullable
+  private PhaseMeasurement startDecoding() {
+    return bodyConversionProfiler == null ? null : PhaseMeasurement.start(0);
+  }
+
+  private void finishDecoding(@Nullable PhaseMeasurement decoding, @Nonnull ClassType classType) {
+    if (decoding != null && bodyConversionProfiler != null) {
+      bodyConversionProfiler.classDecoded(
+          classType, decoding.getElapsedNanos(), decoding.getAllocatedBytes());
+    }
+  }
+
+  private AbstractClassSource<JavaSootClass> createClassSource(
+      AnalysisInputLocation<? extends SootClass<?>> srcNamespace,
+      Path sourcePath,
+      ClassType classType,
+      SootClassNode classNode) {
     JavaClassType klassType = (JavaClassType) classType;
     if (klassType instanceof ModuleJavaClassType
         && klassType.getClassName().equals(JavaModuleIdentifierFactory.MODULE_INFO_FILE)) {
@@ -100,7 +168,14 @@ public class AsmJavaClassProvider implements ClassProvider<JavaSootClass> {
         @Nonnull String[] exceptions) {
 
       AsmMethodSource mn =
-          new AsmMethodSource(access, name, desc, signature, exceptions, bodyInterceptors);
+          new AsmMethodSource(
+              access,
+              name,
+              desc,
+              signature,
+              exceptions,
+              bodyInterceptors,
+              bodyConversionProfiler);
       methods.add(mn);
       return mn;
     }
@@ -81,6 +81,8 @@ import sootup.core.model.Modifier;
 import sootup.core.model.Position;
 import sootup.core.signatures.FieldSignature;
 import sootup.core.signatures.MethodSignature;
+import sootup.core.transform.BodyConversionProfiler;
+import sootup.core.transform.BodyConversionProfiler.PhaseMeasurement;
 import sootup.core.transform.BodyInterceptor;
 import sootup.core.types.ArrayType;
 import sootup.core.types.ClassType;
@@ -133,6 +135,8 @@ public class AsmMethodSource extends JSRInlinerAdapter implements BodySource {
       bodyInterceptors; // TODO: [ms] show them their place i.e. move them inside a View (same for
   // sourcecodefrontend)
 
+  @Nullable private final BodyConversionProfiler bodyConversionProfiler;
+
   @Nonnull private final Set<LabelNode> inlineExceptionLabels = new HashSet<>();
   @Nonnull private final Map<LabelNode, Stmt> inlineExceptionHandlers = new HashMap<>();
 
@@ -156,9 +160,11 @@ public class AsmMethodSource extends JSRInlinerAdapter implements BodySource {
       @Nonnull String desc,
       @Nonnull String signature,
       @Nonnull String[] exceptions,
-      @Nonnull List<BodyInterceptor> bodyInterceptors) {
+      @Nonnull List<BodyInterceptor> bodyInterceptors,
+      @Nullable BodyConversionProfiler bodyConversionProfiler) {
     super(AsmUtil.SUPPORTED_ASM_OPCODE, null, access, name, desc, signature, exceptions);
     this.bodyInterceptors = bodyInterceptors;
+    this.bodyConversionProfiler = bodyConversionProfiler;
   }
 
   @Override
@@ -193,6 +199,9 @@ public class AsmMethodSource extends JSRInlinerAdapter implements BodySource {
       trapHandler.put(tc.handler, null);
     }
 
+    final BodyConversionProfiler profiler = bodyConversionProfiler;
+    PhaseMeasurement phase = profiler == null ? null : PhaseMeasurement.start(0);
+
     /* convert instructions */
     try {
       convert();
@@ -200,6 +209,10 @@ public class AsmMethodSource extends JSRInlinerAdapter implements BodySource {
       instructions.iterator().forEachRemaining(item -> System.out.println(AsmUtil.toString(item)));
       throw new RuntimeException("Failed to convert " + lazyMethodSignature.get(), e);
     }
+    if (profiler != null) {
+      phase.finish(profiler, lazyMethodSignature.get(), "convert", 0);
+      phase = PhaseMeasurement.start(0);
+    }
 
     /* build body (add stmts, locals, traps, etc.) */
     final MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
@@ -211,6 +224,9 @@ public class AsmMethodSource extends JSRInlinerAdapter implements BodySource {
     } catch (Exception e) {
       throw new RuntimeException("Failed to convert " + lazyMethodSignature.get(), e);
     }
+    if (profiler != null) {
+      phase.finish(profiler, lazyMethodSignature.get(), "arrangeStmts", graph.nodes().size());
+    }
 
     if (graph.nodes().size() > 0) {
       Position firstStmtPos = graph.getStartingStmt().getPositionInfo().getStmtPosition();
@@ -233,14 +249,31 @@ public class AsmMethodSource extends JSRInlinerAdapter implements BodySource {
     bodyBuilder.setMethodSignature(lazyMethodSignature.get());
 
     for (BodyInterceptor bodyInterceptor : bodyInterceptors) {
+      if (profiler != null) {
+        phase = PhaseMeasurement.start(bodyBuilder.getStmtGraph().nodes().size());
+      }
       try {
         bodyInterceptor.interceptBody(bodyBuilder);
       } catch (Exception e) {
         throw new IllegalStateException(
             "Failed to apply " + bodyInterceptor + " to " + lazyMethodSignature.get(), e);
       }
+      if (profiler != null) {
+        phase.finish(
+            profiler,
+            lazyMethodSignature.get(),
+            bodyInterceptor.getClass().getSimpleName(),
+            bodyBuilder.getStmtGraph().nodes().size());
+      }
+    }
+
+    if (profiler == null) {
+      return bodyBuilder.build();
     }
-    return bodyBuilder.build();
+    phase = PhaseMeasurement.start(bodyBuilder.getStmtGraph().nodes().size());
+    final Body body = bodyBuilder.build();
+    phase.finish(profiler, lazyMethodSignature.get(), "build", body.getStmtGraph().nodes().size());
+    return body;
   }
 
   @Override
@@ -1877,6 +1910,8 @@ public class AsmMethodSource extends JSRInlinerAdapter implements BodySource {
     }
 
     Set<Local> bodyLocals = new LinkedHashSet<>(locals);
+    // slots that are never used (e.g. the second slot of a long parameter) have no Local
+    bodyLocals.remove(null);
     bodyBuilder.setLocals(bodyLocals);
     return preambleBlock;
   }
@@ -75,6 +75,19 @@ public final class AsmUtil {
     }
   }
 
+  /**
+   * Initializes a class node from the content of a class file that has already been read.
+   *
+   * @param classContent The content of the class file.
+   * @param classNode The node to initialize
+   */
+  protected static void initAsmClassSource(
+      @Nonnull byte[] classContent, @Nonnull ClassVisitor classNode) {
+    ClassReader clsr = new ClassReader(classContent);
+
+    clsr.accept(classNode, ClassReader.SKIP_FRAMES);
+  }
+
   /**
    * Determines if a type is a dword type.
    *
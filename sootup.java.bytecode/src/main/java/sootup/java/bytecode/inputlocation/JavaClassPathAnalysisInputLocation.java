@@ -24,22 +24,27 @@ package sootup.java.bytecode.inputlocation;
 
 import java.io.*;
 import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sootup.core.frontend.AbstractClassSource;
 import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.inputlocation.FileType;
 import sootup.core.model.SourceType;
 import sootup.core.types.ClassType;
 import sootup.core.util.PathUtils;
 import sootup.core.util.StreamUtils;
 import sootup.core.views.View;
+import sootup.java.core.JavaModuleIdentifierFactory;
 import sootup.java.core.JavaSootClass;
 
 /**
@@ -47,6 +52,13 @@ import sootup.java.core.JavaSootClass;
  * directories, archives (including wildcard denoted archives) as stated in the official
  * documentation: https://docs.oracle.com/javase/8/docs/technotes/tools/windows/classpath.html
  *
+ * <p>Looking up a class uses an index from class names to the first class path entry that
+ * contains them, which is computed on the first lookup. The index is authoritative: a lookup of a
+ * class that is not indexed, e.g. of a phantom class, does not access the file system. Classes that
+ * are added to the class path after indexing are only found after {@link #invalidateIndex()}.
+ * Entries whose content can not be indexed (e.g. war files and multi-release jars) are searched on
+ * every lookup that they could shadow.
+ *
  * @author Manuel Benz created on 22.05.18
  * @author Kaustubh Kelkar updated on 20.07.2020
  */
@@ -55,7 +67,17 @@ public class JavaClassPathAnalysisInputLocation implements AnalysisInputLocation
       LoggerFactory.getLogger(JavaClassPathAnalysisInputLocation.class);
   private static final @Nonnull String WILDCARD_CHAR = "*";
 
-  @Nonnull private final Collection<AnalysisInputLocation<JavaSootClass>> cpEntries;
+  private static final @Nonnull String CLASS_FILE_SUFFIX = "." + FileType.CLASS.getExtension();
+  private static final @Nonnull String MODULE_INFO_FILE =
+      JavaModuleIdentifierFactory.MODULE_INFO_FILE + CLASS_FILE_SUFFIX;
+
+  @Nonnull private final List<AnalysisInputLocation<JavaSootClass>> cpEntries;
+
+  /** The paths of the {@link #cpEntries}, in the same order. */
+  @Nonnull private final List<Path> cpPaths;
+
+  /** Is null until the first lookup and after it has been invalidated. */
+  @Nullable private volatile ClassPathIndex index;
 
   /** Variable to track if user has specified the SourceType. By default, it will be set to null. */
   private SourceType srcType = null;
@@ -71,7 +93,8 @@ public class JavaClassPathAnalysisInputLocation implements AnalysisInputLocation
       throw new IllegalStateException("Empty class path given");
     }
 
-    cpEntries = explodeClassPath(classPath);
+    cpPaths = explodeClassPath(classPath);
+    cpEntries = createInputLocations(cpPaths);
 
     if (cpEntries.isEmpty()) {
       throw new IllegalStateException("Empty class path is given.");
@@ -91,7 +114,8 @@ public class JavaClassPathAnalysisInputLocation implements AnalysisInputLocation
       throw new IllegalStateException("Empty class path given");
     }
     setSpecifiedAsBuiltInByUser(srcType);
-    cpEntries = explodeClassPath(classPath);
+    cpPaths = explodeClassPath(classPath);
+    cpEntries = createInputLocations(cpPaths);
 
     if (cpEntries.isEmpty()) {
       throw new IllegalStateException("Empty class path is given.");
@@ -191,9 +215,29 @@ public class JavaClassPathAnalysisInputLocation implements AnalysisInputLocation
   @Nonnull
   public Optional<? extends AbstractClassSource<JavaSootClass>> getClassSource(
       @Nonnull ClassType type, @Nonnull View<?> view) {
-    for (AnalysisInputLocation<JavaSootClass> inputLocation : cpEntries) {
+    final ClassPathIndex index = getIndex();
+    final Integer indexedEntry = index.firstEntries.get(type.getFullyQualifiedName());
+    final int firstCandidate = indexedEntry == null ? cpEntries.size() : indexedEntry;
+
+    // entries that are not indexed can shadow the indexed entry
+    for (int entry : index.unindexedEntries) {
+      if (entry > firstCandidate) {
+        break;
+      }
+      final Optional<? extends AbstractClassSource<JavaSootClass>> classSource =
+          cpEntries.get(entry).getClassSource(type, view);
+      if (classSource.isPresent()) {
+        return classSource;
+      }
+    }
+    if (indexedEntry == null) {
+      return Optional.empty();
+    }
+
+    // the indexed entry may have been changed since indexing; search the later entries then
+    for (int entry = firstCandidate; entry < cpEntries.size(); entry++) {
       final Optional<? extends AbstractClassSource<JavaSootClass>> classSource =
-          inputLocation.getClassSource(type, view);
+          cpEntries.get(entry).getClassSource(type, view);
       if (classSource.isPresent()) {
         return classSource;
       }
@@ -201,13 +245,130 @@ public class JavaClassPathAnalysisInputLocation implements AnalysisInputLocation
     return Optional.empty();
   }
 
+  /**
+   * Discards the index of the class path; it is computed again on the next lookup. Call this after
+   * classes have been added to or removed from the class path.
+   */
+  public synchronized void invalidateIndex() {
+    index = null;
+  }
+
+  @Nonnull
+  private ClassPathIndex getIndex() {
+    ClassPathIndex currentIndex = index;
+    if (currentIndex != null) {
+      return currentIndex;
+    }
+    synchronized (this) {
+      currentIndex = index;
+      if (currentIndex == null) {
+        currentIndex = buildIndex();
+        index = currentIndex;
+      }
+      return currentIndex;
+    }
+  }
+
+  @Nonnull
+  private ClassPathIndex buildIndex() {
+    final Map<String, Integer> firstEntries = new HashMap<>();
+    final List<Integer> unindexedEntries = new ArrayList<>();
+
+    for (int entry = 0; entry < cpPaths.size(); entry++) {
+      final Path path = cpPaths.get(entry);
+      final Set<String> classNames = new HashSet<>();
+      final boolean indexed;
+      try {
+        if (Files.isDirectory(path)) {
+          indexDirectory(path, classNames);
+          indexed = true;
+        } else if (PathUtils.hasExtension(path, FileType.JAR)
+            || PathUtils.hasExtension(path, FileType.ZIP)) {
+          indexed = indexArchive(path, classNames);
+        } else {
+          indexed = false;
+        }
+      } catch (IOException e) {
+        logger.debug("Class path entry " + path + " is not indexed", e);
+        unindexedEntries.add(entry);
+        continue;
+      }
+      if (!indexed) {
+        unindexedEntries.add(entry);
+        continue;
+      }
+      for (String className : classNames) {
+        firstEntries.putIfAbsent(className, entry);
+      }
+    }
+
+    return new ClassPathIndex(
+        firstEntries, unindexedEntries.stream().mapToInt(Integer::intValue).toArray());
+  }
+
+  /** Collects the names of the classes in a directory and its subdirectories. */
+  private static void indexDirectory(@Nonnull Path directory, @Nonnull Set<String> classNames)
+      throws IOException {
+    Files.walkFileTree(
+        directory,
+        new SimpleFileVisitor<Path>() {
+          @Override
+          public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+            final String name = directory.relativize(file).toString();
+            if (name.endsWith(CLASS_FILE_SUFFIX) && !name.endsWith(MODULE_INFO_FILE)) {
+              classNames.add(
+                  toClassName(name.replace(file.getFileSystem().getSeparator(), "/")));
+            }
+            return FileVisitResult.CONTINUE;
+          }
+        });
+  }
+
+  /**
+   * Collects the names of the classes in an archive from its central directory.
+   *
+   * @return false if the archive is a multi-release jar, i.e. the class that is found for a name
+   *     depends on the Java version of the view and the archive can not be indexed
+   */
+  private static boolean indexArchive(@Nonnull Path archive, @Nonnull Set<String> classNames)
+      throws IOException {
+    try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+      final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+      while (entries.hasMoreElements()) {
+        final String name = entries.nextElement().getName();
+        if (name.startsWith("META-INF/versions/")) {
+          return false;
+        }
+        if (name.endsWith(CLASS_FILE_SUFFIX) && !name.endsWith(MODULE_INFO_FILE)) {
+          classNames.add(toClassName(name));
+        }
+      }
+    }
+    return true;
+  }
+
+  /** Converts a '/' separated path of a class file to the fully qualified name of its class. */
+  @Nonnull
+  private static String toClassName(@Nonnull String classFilePath) {
+    return classFilePath
+        .substring(0, classFilePath.length() - CLASS_FILE_SUFFIX.length())
+        .replace('/', '.');
+  }
+
   @Nonnull
-  private Optional<AnalysisInputLocation<JavaSootClass>> inputLocationForPath(@Nonnull Path path) {
+  private List<AnalysisInputLocation<JavaSootClass>> createInputLocations(
+      @Nonnull List<Path> paths) {
+    return paths.stream()
+        .map(path -> new PathBasedAnalysisInputLocation(path, srcType))
+        .collect(Collectors.toList());
+  }
+
+  private static boolean isValidClassPathEntry(@Nonnull Path path) {
     if (Files.exists(path) && (Files.isDirectory(path) || PathUtils.isArchive(path))) {
-      return Optional.of(new PathBasedAnalysisInputLocation(path, srcType));
+      return true;
     } else {
       logger.warn("Invalid/Unknown class path entry: " + path);
-      return Optional.empty();
+      return false;
     }
   }
 
@@ -217,7 +378,7 @@ public class JavaClassPathAnalysisInputLocation implements AnalysisInputLocation
    * @param jarPath The jar path for which the classes need to be listed
    * @return list of classpath entries
    */
-  private List<AnalysisInputLocation<JavaSootClass>> explodeClassPath(@Nonnull String jarPath) {
+  private List<Path> explodeClassPath(@Nonnull String jarPath) {
     return explodeClassPath(jarPath, FileSystems.getDefault());
   }
 
@@ -228,11 +389,10 @@ public class JavaClassPathAnalysisInputLocation implements AnalysisInputLocation
    * @param fileSystem the filesystem the path should be resolved for
    * @return list of classpath entries
    */
-  private List<AnalysisInputLocation<JavaSootClass>> explodeClassPath(
-      @Nonnull String jarPath, @Nonnull FileSystem fileSystem) {
+  private List<Path> explodeClassPath(@Nonnull String jarPath, @Nonnull FileSystem fileSystem) {
     try {
       return explode(jarPath, fileSystem)
-          .flatMap(cp -> StreamUtils.optionalToStream(inputLocationForPath(cp)))
+          .filter(JavaClassPathAnalysisInputLocation::isValidClassPathEntry)
           .collect(Collectors.toList());
 
     } catch (IllegalArgumentException e) {
@@ -252,4 +412,19 @@ public class JavaClassPathAnalysisInputLocation implements AnalysisInputLocation
     }
     return cpEntries.equals(((JavaClassPathAnalysisInputLocation) o).cpEntries);
   }
+
+  /** Maps the names of the classes on the class path to the entries that contain them. */
+  private static final class ClassPathIndex {
+
+    /** the position of the first indexed entry that contains a class */
+    @Nonnull final Map<String, Integer> firstEntries;
+
+    /** the positions of the entries that are not indexed, in ascending order */
+    @Nonnull final int[] unindexedEntries;
+
+    ClassPathIndex(@Nonnull Map<String, Integer> firstEntries, @Nonnull int[] unindexedEntries) {
+      this.firstEntries = firstEntries;
+      this.unindexedEntries = unindexedEntries;
+    }
+  }
 }
@@ -38,6 +38,7 @@ import sootup.core.frontend.AbstractClassSource;
 import sootup.core.frontend.ClassProvider;
 import sootup.core.frontend.ResolveException;
 import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.inputlocation.FileType;
 import sootup.core.types.ClassType;
 import sootup.core.util.StreamUtils;
 import sootup.core.views.View;
@@ -59,6 +60,13 @@ import sootup.java.core.types.JavaClassType;
 public class JrtFileSystemAnalysisInputLocation implements ModuleInfoAnalysisInputLocation {
 
   private static final FileSystem theFileSystem = FileSystems.getFileSystem(URI.create("jrt:/"));
+
+  /**
+   * Maps the packages of the runtime image to the modules that contain them. A package is contained
+   * in a single module of the image. Is null until it is needed.
+   */
+  private static volatile Map<String, String> modulesByPackage = null;
+
   Map<ModuleSignature, JavaModuleInfo> moduleInfoMap = new HashMap<>();
   boolean isResolved = false;
 
@@ -69,46 +77,71 @@ public class JrtFileSystemAnalysisInputLocation implements ModuleInfoAnalysisInp
     JavaClassType klassType = (JavaClassType) classType;
 
     ClassProvider<JavaSootClass> classProvider =
-        new AsmJavaClassProvider(((View<JavaSootClass>) view).getBodyInterceptors(this));
+        new AsmJavaClassProvider(
+            ((View<JavaSootClass>) view).getBodyInterceptors(this),
+            view.getBodyConversionProfiler());
+    return findClassFile(klassType, classProvider.getHandledFileType())
+        .map(foundClass -> classProvider.createClassSource(this, foundClass, klassType));
+  }
+
+  /** Returns the path of the file of a class in the jrt filesystem, if the class exists. */
+  @Nonnull
+  Optional<Path> findClassFile(@Nonnull JavaClassType klassType, @Nonnull FileType fileType) {
     Path filepath =
         theFileSystem.getPath(
-            klassType.getFullyQualifiedName().replace('.', '/')
-                + "."
-                + classProvider.getHandledFileType().getExtension());
+            klassType.getFullyQualifiedName().replace('.', '/') + "." + fileType.getExtension());
 
-    // parse as module
+    final String moduleName;
     if (klassType.getPackageName() instanceof ModulePackageName) {
-
-      ModulePackageName modulePackageSignature = (ModulePackageName) klassType.getPackageName();
-
-      final Path module =
-          theFileSystem.getPath(
-              "modules", modulePackageSignature.getModuleSignature().getModuleName());
-      Path foundClass = module.resolve(filepath);
-      if (Files.isRegularFile(foundClass)) {
-        return Optional.of(classProvider.createClassSource(this, foundClass, klassType));
-      } else {
+      // parse as module
+      moduleName =
+          ((ModulePackageName) klassType.getPackageName()).getModuleSignature().getModuleName();
+    } else {
+      // module information does not exist in Signature -> look up the module of the package
+      moduleName = getModulesByPackage().get(klassType.getPackageName().getPackageName());
+      if (moduleName == null) {
         return Optional.empty();
       }
     }
 
-    // module information does not exist in Signature -> search for class
-    final Path moduleRoot = theFileSystem.getPath("modules");
-    try (DirectoryStream<Path> stream = Files.newDirectoryStream(moduleRoot)) {
-      {
-        for (Path entry : stream) {
-          // check each module folder for the class
-          Path foundfile = entry.resolve(filepath);
-          if (Files.isRegularFile(foundfile)) {
-            return Optional.of(classProvider.createClassSource(this, foundfile, klassType));
+    Path foundClass = theFileSystem.getPath("modules", moduleName).resolve(filepath);
+    if (Files.isRegularFile(foundClass)) {
+      return Optional.of(foundClass);
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Returns the index of the packages of the runtime image, which is read once from the
+   * "/packages" directory of the jrt filesystem. That directory contains a directory for each
+   * package, which in turn contains a link for each module that contains the package.
+   */
+  @Nonnull
+  private static Map<String, String> getModulesByPackage() {
+    Map<String, String> index = modulesByPackage;
+    if (index != null) {
+      return index;
+    }
+    synchronized (JrtFileSystemAnalysisInputLocation.class) {
+      if (modulesByPackage == null) {
+        final Path packageRoot = theFileSystem.getPath("packages");
+        final Map<String, String> packages = new HashMap<>();
+        try (DirectoryStream<Path> packageDirs = Files.newDirectoryStream(packageRoot)) {
+          for (Path packageDir : packageDirs) {
+            try (DirectoryStream<Path> modules = Files.newDirectoryStream(packageDir)) {
+              for (Path module : modules) {
+                packages.putIfAbsent(
+                    packageDir.getFileName().toString(), module.getFileName().toString());
+              }
+            }
           }
+        } catch (IOException e) {
+          throw new ResolveException("Error while indexing the packages", packageRoot, e);
         }
+        modulesByPackage = packages;
       }
-    } catch (IOException e) {
-      throw new ResolveException("Error loading a module", moduleRoot, e);
+      return modulesByPackage;
     }
-
-    return Optional.empty();
   }
 
   /** Retreive CLassSources of a module specified by methodSignature */
@@ -127,7 +160,9 @@ public class JrtFileSystemAnalysisInputLocation implements ModuleInfoAnalysisInp
       @Nonnull View<?> view) {
 
     ClassProvider<JavaSootClass> classProvider =
-        new AsmJavaClassProvider(((View<JavaSootClass>) view).getBodyInterceptors(this));
+        new AsmJavaClassProvider(
+            ((View<JavaSootClass>) view).getBodyInterceptors(this),
+            view.getBodyConversionProfiler());
 
     String moduleInfoFilename =
         JavaModuleIdentifierFactory.MODULE_INFO_FILE
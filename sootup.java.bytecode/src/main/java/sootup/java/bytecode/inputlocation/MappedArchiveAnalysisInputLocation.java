@@ -0,0 +1,340 @@
+package sootup.java.bytecode.inputlocation;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.frontend.AbstractClassSource;
+import sootup.core.frontend.ResolveException;
+import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.inputlocation.FileType;
+import sootup.core.model.SourceType;
+import sootup.core.types.ClassType;
+import sootup.core.views.View;
+import sootup.java.bytecode.frontend.AsmJavaClassProvider;
+import sootup.java.core.JavaModuleIdentifierFactory;
+import sootup.java.core.JavaSootClass;
+
+/**
+ * An {@link AnalysisInputLocation} for a jar or zip archive that does not use a zip {@link
+ * java.nio.file.FileSystem}. The central directory of the archive is read once into an index from
+ * class names to entries, and the archive is mapped into memory. Looking up a class is a lookup in
+ * the index and the class file is inflated directly from the mapped archive, i.e. no file system
+ * operations are necessary after the location has been created.
+ *
+ * <p>The mapped archive is managed by the operating system and does not occupy heap memory; the
+ * heap only holds the index, which contains a fixed amount of data per class file. No file handle
+ * is kept open.
+ *
+ * <p>The source path of a class is synthetic: it is the path of the archive resolved with the name
+ * of the class file, e.g. <code>MiniApp.jar/ds/Employee.class</code>, which identifies the class
+ * file but does not exist on disk.
+ *
+ * <p>Multi-release jars, ZIP64 archives and archives larger than 2 GB are not supported; use {@link
+ * PathBasedAnalysisInputLocation} for them.
+ */
+public class MappedArchiveAnalysisInputLocation implements AnalysisInputLocation<JavaSootClass> {
+
+  private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+  private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+  private static final int CENTRAL_DIRECTORY_HEADER_SIGNATURE = 0x02014b50;
+  private static final int CENTRAL_DIRECTORY_HEADER_SIZE = 46;
+  private static final int LOCAL_FILE_HEADER_SIGNATURE = 0x04034b50;
+  private static final int LOCAL_FILE_HEADER_SIZE = 30;
+  private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+  private static final int ZIP64_MARKER = 0xFFFFFFFF;
+
+  private static final int METHOD_STORED = 0;
+  private static final int METHOD_DEFLATED = 8;
+
+  private static final String CLASS_FILE_SUFFIX = "." + FileType.CLASS.getExtension();
+  private static final String MODULE_INFO_FILE =
+      JavaModuleIdentifierFactory.MODULE_INFO_FILE + CLASS_FILE_SUFFIX;
+
+  @Nonnull private final Path path;
+  @Nullable private final SourceType srcType;
+
+  /** the archive; it is only accessed via duplicates so that it can be read concurrently */
+  @Nonnull private final ByteBuffer archive;
+
+  /** maps the fully qualified names of the classes to their entries in the archive */
+  @Nonnull private final Map<String, Entry> index;
+
+  public MappedArchiveAnalysisInputLocation(@Nonnull Path path) {
+    this(path, null);
+  }
+
+  /**
+   * @throws IllegalArgumentException if the archive can not be read or has an unsupported format
+   */
+  public MappedArchiveAnalysisInputLocation(@Nonnull Path path, @Nullable SourceType srcType) {
+    this.path = path;
+    this.srcType = srcType;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      final long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("The archive '" + path + "' is larger than 2 GB.");
+      }
+      final MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      mapped.order(ByteOrder.LITTLE_ENDIAN);
+      this.archive = mapped;
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Could not map the archive '" + path + "'.", e);
+    }
+    this.index = readCentralDirectory();
+  }
+
+  @Nonnull
+  private Map<String, Entry> readCentralDirectory() {
+    final int end = findEndOfCentralDirectory();
+    final int entryCount = archive.getShort(end + 10) & 0xFFFF;
+    final int directoryOffset = archive.getInt(end + 16);
+    if (entryCount == 0xFFFF || directoryOffset == ZIP64_MARKER) {
+      throw new IllegalArgumentException("The archive '" + path + "' is a ZIP64 archive.");
+    }
+
+    final Map<String, Entry> entries = new HashMap<>();
+    int position = directoryOffset;
+    for (int i = 0; i < entryCount; i++) {
+      checkSignature(position, CENTRAL_DIRECTORY_HEADER_SIGNATURE);
+      checkRange(position, CENTRAL_DIRECTORY_HEADER_SIZE);
+      final int method = archive.getShort(position + 10) & 0xFFFF;
+      final int compressedSize = archive.getInt(position + 20);
+      final int size = archive.getInt(position + 24);
+      final int nameLength = archive.getShort(position + 28) & 0xFFFF;
+      final int extraLength = archive.getShort(position + 30) & 0xFFFF;
+      final int commentLength = archive.getShort(position + 32) & 0xFFFF;
+      final int headerOffset = archive.getInt(position + 42);
+
+      final String name = readName(position + CENTRAL_DIRECTORY_HEADER_SIZE, nameLength);
+      position += CENTRAL_DIRECTORY_HEADER_SIZE + nameLength + extraLength + commentLength;
+
+      if (!name.endsWith(CLASS_FILE_SUFFIX)
+          || name.endsWith(MODULE_INFO_FILE)
+          || name.startsWith("META-INF/")) {
+        continue;
+      }
+      if (compressedSize == ZIP64_MARKER || size == ZIP64_MARKER || headerOffset == ZIP64_MARKER) {
+        throw new IllegalArgumentException("The archive '" + path + "' is a ZIP64 archive.");
+      }
+      if (compressedSize < 0 || size < 0 || headerOffset < 0) {
+        throw corrupted();
+      }
+      if (method != METHOD_STORED && method != METHOD_DEFLATED) {
+        throw new IllegalArgumentException(
+            "The entry '" + name + "' of '" + path + "' uses the unsupported method " + method);
+      }
+      final String className =
+          name.substring(0, name.length() - CLASS_FILE_SUFFIX.length()).replace('/', '.');
+      entries.putIfAbsent(className, new Entry(name, method, headerOffset, compressedSize, size));
+    }
+    return entries;
+  }
+
+  private int findEndOfCentralDirectory() {
+    final int limit = archive.capacity();
+    final int lowest = Math.max(0, limit - END_OF_CENTRAL_DIRECTORY_SIZE - MAX_COMMENT_LENGTH);
+    // the record is followed by a comment of variable length, so it is searched from the back
+    for (int position = limit - END_OF_CENTRAL_DIRECTORY_SIZE; position >= lowest; position--) {
+      if (archive.getInt(position) == END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
+        return position;
+      }
+    }
+    throw new IllegalArgumentException("'" + path + "' is not a zip archive.");
+  }
+
+  private void checkSignature(int position, int signature) {
+    checkRange(position, 4);
+    if (archive.getInt(position) != signature) {
+      throw corrupted();
+    }
+  }
+
+  /** Checks that the given number of bytes at the given position are inside the archive. */
+  private void checkRange(int position, int length) {
+    if (position < 0 || length < 0 || position > archive.capacity() - length) {
+      throw corrupted();
+    }
+  }
+
+  @Nonnull
+  private IllegalArgumentException corrupted() {
+    return new IllegalArgumentException("The archive '" + path + "' is corrupted.");
+  }
+
+  @Nonnull
+  private String readName(int position, int length) {
+    checkRange(position, length);
+    final byte[] name = new byte[length];
+    read(position, name);
+    return new String(name, StandardCharsets.UTF_8);
+  }
+
+  private void read(int position, @Nonnull byte[] target) {
+    final ByteBuffer buffer = archive.duplicate();
+    // cast for the compatibility with Java 8, where position(int) is declared by Buffer only
+    ((Buffer) buffer).position(position);
+    buffer.get(target);
+  }
+
+  /** Returns the content of the class file of an entry. */
+  @Nonnull
+  private byte[] readContent(@Nonnull Entry entry) {
+    final int headerOffset = entry.headerOffset;
+    checkSignature(headerOffset, LOCAL_FILE_HEADER_SIGNATURE);
+    checkRange(headerOffset, LOCAL_FILE_HEADER_SIZE);
+    // the extra field of the local header may differ from the one in the central directory
+    final int nameLength = archive.getShort(headerOffset + 26) & 0xFFFF;
+    final int extraLength = archive.getShort(headerOffset + 28) & 0xFFFF;
+    final int dataOffset = headerOffset + LOCAL_FILE_HEADER_SIZE + nameLength + extraLength;
+
+    checkRange(dataOffset, entry.compressedSize);
+    final byte[] compressed = new byte[entry.compressedSize];
+    read(dataOffset, compressed);
+    if (entry.method == METHOD_STORED) {
+      return compressed;
+    }
+
+    final byte[] content = new byte[entry.size];
+    final Inflater inflater = new Inflater(true);
+    try {
+      inflater.setInput(compressed);
+      int length = 0;
+      while (length < content.length && !inflater.finished()) {
+        final int inflated = inflater.inflate(content, length, content.length - length);
+        if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        length += inflated;
+      }
+      if (length != content.length) {
+        throw new DataFormatException("unexpected size of the inflated content");
+      }
+    } catch (DataFormatException e) {
+      throw new ResolveException(
+          "Could not inflate the class file: " + e.getMessage(), getSourcePath(entry), e);
+    } finally {
+      inflater.end();
+    }
+    return content;
+  }
+
+  /** Returns the synthetic path of the class file of an entry, see the class documentation. */
+  @Nonnull
+  private Path getSourcePath(@Nonnull Entry entry) {
+    return path.resolve(entry.name);
+  }
+
+  @Nonnull
+  private AsmJavaClassProvider createClassProvider(@Nonnull View<?> view) {
+    return new AsmJavaClassProvider(
+        ((View<JavaSootClass>) view).getBodyInterceptors(this), view.getBodyConversionProfiler());
+  }
+
+  @Nonnull
+  @Override
+  public Optional<? extends AbstractClassSource<JavaSootClass>> getClassSource(
+      @Nonnull ClassType type, @Nonnull View<?> view) {
+    final Entry entry = index.get(type.getFullyQualifiedName());
+    if (entry == null) {
+      return Optional.empty();
+    }
+    return Optional.of(
+        createClassProvider(view)
+            .createClassSource(this, getSourcePath(entry), type, readContent(entry)));
+  }
+
+  @Nonnull
+  @Override
+  public Collection<? extends AbstractClassSource<JavaSootClass>> getClassSources(
+      @Nonnull View<?> view) {
+    final AsmJavaClassProvider classProvider = createClassProvider(view);
+    final List<AbstractClassSource<JavaSootClass>> classSources = new ArrayList<>(index.size());
+    for (Map.Entry<String, Entry> entry : index.entrySet()) {
+      final ClassType type = view.getIdentifierFactory().getClassType(entry.getKey());
+      classSources.add(
+          classProvider.createClassSource(
+              this, getSourcePath(entry.getValue()), type, readContent(entry.getValue())));
+    }
+    return classSources;
+  }
+
+  /** Returns the number of class files in the archive. */
+  public int getClassCount() {
+    return index.size();
+  }
+
+  @Override
+  public SourceType getSourceType() {
+    return srcType;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (!(o instanceof MappedArchiveAnalysisInputLocation)) {
+      return false;
+    }
+    return path.equals(((MappedArchiveAnalysisInputLocation) o).path);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(path);
+  }
+
+  /** The location of a class file in the archive. */
+  private static final class Entry {
+    @Nonnull final String name;
+    final int method;
+    final int headerOffset;
+    final int compressedSize;
+    final int size;
+
+    Entry(@Nonnull String name, int method, int headerOffset, int compressedSize, int size) {
+      this.name = name;
+      this.method = method;
+      this.headerOffset = headerOffset;
+      this.compressedSize = compressedSize;
+      this.size = size;
+    }
+  }
+}
@@ -32,6 +32,7 @@ import sootup.core.frontend.ClassProvider;
 import sootup.core.inputlocation.AnalysisInputLocation;
 import sootup.core.inputlocation.FileType;
 import sootup.core.model.SourceType;
+import sootup.core.transform.BodyInterceptor;
 import sootup.core.types.ClassType;
 import sootup.core.util.PathUtils;
 import sootup.core.util.StreamUtils;
@@ -42,6 +43,8 @@ import sootup.java.core.JavaModuleIdentifierFactory;
 import sootup.java.core.JavaModuleInfo;
 import sootup.java.core.JavaSootClass;
 import sootup.java.core.ModuleInfoAnalysisInputLocation;
+import sootup.java.core.binary.CachingJavaClassProvider;
+import sootup.java.core.binary.PersistentClassCache;
 import sootup.java.core.signatures.ModuleSignature;
 import sootup.java.core.types.JavaClassType;
 import sootup.java.core.types.ModuleJavaClassType;
@@ -90,6 +93,9 @@ public class PathBasedAnalysisInputLocation implements AnalysisInputLocation<Jav
    */
   PathBasedAnalysisInputLocation pathBasedAnalysisInputLocationObj;
 
+  /** Stores the converted classes between runs; no classes are cached if it is null. */
+  @Nullable private PersistentClassCache classCache;
+
   public PathBasedAnalysisInputLocation getPathBasedAnalysisInputLocationObj() {
     return pathBasedAnalysisInputLocationObj;
   }
@@ -129,6 +135,37 @@ public class PathBasedAnalysisInputLocation implements AnalysisInputLocation<Jav
     this.srcType = srcType;
   }
 
+  /**
+   * Sets the cache that stores the converted classes and their bodies between runs. A class
+   * whose content has not changed is decoded from the cache instead of being parsed and converted
+   * again.
+   *
+   * @param classCache the cache or null to disable caching
+   */
+  public void setClassCache(@Nullable PersistentClassCache classCache) {
+    this.classCache = classCache;
+    if (pathBasedAnalysisInputLocationObj != null) {
+      pathBasedAnalysisInputLocationObj.setClassCache(classCache);
+    }
+  }
+
+  @Nullable
+  public PersistentClassCache getClassCache() {
+    return classCache;
+  }
+
+  @Nonnull
+  protected ClassProvider<JavaSootClass> createClassProvider(@Nonnull View<?> view) {
+    final List<BodyInterceptor> bodyInterceptors =
+        ((View<JavaSootClass>) view).getBodyInterceptors(this);
+    final ClassProvider<JavaSootClass> classProvider =
+        new AsmJavaClassProvider(bodyInterceptors, view.getBodyConversionProfiler());
+    if (classCache == null) {
+      return classProvider;
+    }
+    return new CachingJavaClassProvider(classProvider, classCache, bodyInterceptors);
+  }
+
   /**
    * Create or find a class source for a given type.
    *
@@ -242,20 +279,14 @@ public class PathBasedAnalysisInputLocation implements AnalysisInputLocation<Jav
     @Nonnull
     public Collection<? extends AbstractClassSource<JavaSootClass>> getClassSources(
         @Nonnull View<?> view) {
-      return walkDirectory(
-          path,
-          view.getIdentifierFactory(),
-          new AsmJavaClassProvider(((View<JavaSootClass>) view).getBodyInterceptors(this)));
+      return walkDirectory(path, view.getIdentifierFactory(), createClassProvider(view));
     }
 
     @Override
     @Nonnull
     public Optional<? extends AbstractClassSource<JavaSootClass>> getClassSource(
         @Nonnull ClassType type, @Nonnull View<?> view) {
-      return getClassSourceInternal(
-          (JavaClassType) type,
-          path,
-          new AsmJavaClassProvider(((View<JavaSootClass>) view).getBodyInterceptors(this)));
+      return getClassSourceInternal((JavaClassType) type, path, createClassProvider(view));
     }
   }
 
@@ -299,6 +330,19 @@ public class PathBasedAnalysisInputLocation implements AnalysisInputLocation<Jav
       discoverInputLocations(srcType);
     }
 
+    @Override
+    public void setClassCache(@Nullable PersistentClassCache classCache) {
+      super.setClassCache(classCache);
+      final List<AnalysisInputLocation<JavaSootClass>> allInputLocations =
+          new ArrayList<>(baseInputLocations);
+      inputLocations.values().forEach(allInputLocations::addAll);
+      for (AnalysisInputLocation<JavaSootClass> inputLocation : allInputLocations) {
+        if (inputLocation instanceof PathBasedAnalysisInputLocation) {
+          ((PathBasedAnalysisInputLocation) inputLocation).setClassCache(classCache);
+        }
+      }
+    }
+
     /** Discovers all input locations for different java versions in this multi release jar */
     private void discoverInputLocations(@Nullable SourceType srcType) {
       FileSystem fs = null;
@@ -593,9 +637,7 @@ public class PathBasedAnalysisInputLocation implements AnalysisInputLocation<Jav
         FileSystem fs = fileSystemCache.get(path);
         final Path archiveRoot = fs.getPath("/");
         return getClassSourceInternal(
-            (JavaClassType) type,
-            archiveRoot,
-            new AsmJavaClassProvider(((View<JavaSootClass>) view).getBodyInterceptors(this)));
+            (JavaClassType) type, archiveRoot, createClassProvider(view));
       } catch (ExecutionException e) {
         throw new RuntimeException("Failed to retrieve file system from cache for " + path, e);
       }
@@ -610,9 +652,7 @@ public class PathBasedAnalysisInputLocation implements AnalysisInputLocation<Jav
       try (FileSystem fs = FileSystems.newFileSystem(path, (ClassLoader) null)) {
         final Path archiveRoot = fs.getPath("/");
         return walkDirectory(
-            archiveRoot,
-            view.getProject().getIdentifierFactory(),
-            new AsmJavaClassProvider(((View<JavaSootClass>) view).getBodyInterceptors(this)));
+            archiveRoot, view.getProject().getIdentifierFactory(), createClassProvider(view));
       } catch (IOException e) {
         throw new RuntimeException(e);
       }
@@ -660,6 +700,14 @@ public class PathBasedAnalysisInputLocation implements AnalysisInputLocation<Jav
       }
     }
 
+    @Override
+    public void setClassCache(@Nullable PersistentClassCache classCache) {
+      super.setClassCache(classCache);
+      for (AnalysisInputLocation<JavaSootClass> inputLocation : containedInputLocations) {
+        ((PathBasedAnalysisInputLocation) inputLocation).setClassCache(classCache);
+      }
+    }
+
     @Override
     @Nonnull
     public Collection<? extends AbstractClassSource<JavaSootClass>> getClassSources(
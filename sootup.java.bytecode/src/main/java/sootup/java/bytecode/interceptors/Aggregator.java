@@ -23,6 +23,7 @@ package sootup.java.bytecode.interceptors;
 import com.google.common.collect.Lists;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import javax.annotation.Nonnull;
 import sootup.core.graph.StmtGraph;
 import sootup.core.jimple.basic.Immediate;
@@ -189,4 +190,10 @@ public class Aggregator implements BodyInterceptor {
       }
     }
   }
+
+  @Nonnull
+  @Override
+  public Optional<String> getFingerprint() {
+    return Optional.of(getClass().getName() + "(onlyStackVars=" + onlyStackVars + ")");
+  }
 }
@@ -21,6 +21,7 @@ package sootup.java.bytecode.interceptors;
  * #L%
  */
 import com.google.common.collect.Lists;
+import java.util.Optional;
 import javax.annotation.Nonnull;
 import sootup.core.graph.StmtGraph;
 import sootup.core.jimple.common.expr.JCastExpr;
@@ -104,4 +105,10 @@ public class CastAndReturnInliner implements BodyInterceptor {
       builder.removeStmt(retStmt);
     }
   }
+
+  @Nonnull
+  @Override
+  public Optional<String> getFingerprint() {
+    return Optional.of(getClass().getName());
+  }
 }
@@ -96,6 +96,12 @@ public class ConditionalBranchFolder implements BodyInterceptor {
     }
   }
 
+  @Nonnull
+  @Override
+  public Optional<String> getFingerprint() {
+    return Optional.of(getClass().getName());
+  }
+
   private void pruneExclusivelyReachableStmts(
       @Nonnull MutableStmtGraph stmtGraph, @Nonnull Stmt fallsThroughStmt) {
     Set<Stmt> reachedBranchingStmts = new HashSet<>();
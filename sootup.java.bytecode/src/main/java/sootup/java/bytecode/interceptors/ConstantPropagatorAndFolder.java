@@ -23,6 +23,7 @@ package sootup.java.bytecode.interceptors;
 import com.google.common.collect.Lists;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import javax.annotation.Nonnull;
 import sootup.core.jimple.basic.Immediate;
 import sootup.core.jimple.basic.Local;
@@ -105,4 +106,10 @@ public class ConstantPropagatorAndFolder implements BodyInterceptor {
       }
     }
   }
+
+  @Nonnull
+  @Override
+  public Optional<String> getFingerprint() {
+    return Optional.of(getClass().getName());
+  }
 }
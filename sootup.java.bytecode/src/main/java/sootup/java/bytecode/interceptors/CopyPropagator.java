@@ -77,6 +77,12 @@ public class CopyPropagator implements BodyInterceptor {
     }
   }
 
+  @Nonnull
+  @Override
+  public Optional<String> getFingerprint() {
+    return Optional.of(getClass().getName());
+  }
+
   private void replaceUse(
       @Nonnull Body.BodyBuilder builder, @Nonnull Stmt stmt, Value use, Value rhs) {
     Stmt newStmt = BodyUtils.withNewUse(stmt, use, rhs);
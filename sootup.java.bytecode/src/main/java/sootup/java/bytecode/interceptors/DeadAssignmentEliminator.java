@@ -237,4 +237,11 @@ public class DeadAssignmentEliminator implements BodyInterceptor {
       }
     }
   }
+
+  @Nonnull
+  @Override
+  public Optional<String> getFingerprint() {
+    return Optional.of(
+        getClass().getName() + "(eliminateOnlyStackLocals=" + eliminateOnlyStackLocals + ")");
+  }
 }
@@ -24,133 +24,142 @@ package sootup.java.bytecode.interceptors;
 
 import java.util.*;
 import javax.annotation.Nonnull;
+import sootup.core.graph.BitSetFlowAnalysis;
+import sootup.core.graph.GenKillBitSetFlowAnalysis;
 import sootup.core.graph.StmtGraph;
 import sootup.core.jimple.basic.Local;
 import sootup.core.jimple.basic.Value;
 import sootup.core.jimple.common.stmt.Stmt;
 
-/** @author Zun Wang */
+/**
+ * Computes the live locals before and after each stmt of a {@link StmtGraph}.
+ *
+ * <p>The locals are numbered and liveness is solved as a backward {@link
+ * GenKillBitSetFlowAnalysis}: a stmt generates the locals it uses and kills the local it defines.
+ * The locals that are live at a handler are live before each stmt it traps, as a stmt that throws
+ * has not assigned its local yet.
+ *
+ * @author Zun Wang
+ */
 public class LocalLivenessAnalyser {
 
-  // Each stmt(node) has out-edges and in-edges
-  // A local is live-in at a node if it is live on any its in-edges
-  private final Map<Stmt, Set<Local>> liveIn = new HashMap<>();
+  /** the index of each local in the bitsets */
+  private final Map<Local, Integer> localToIndex = new HashMap<>();
+
+  private final List<Local> locals = new ArrayList<>();
+
+  // A local is live-in at a node if it is live on any its in-edges.
   // A local is live-out at a node if it is live on any of its out-edges.
   // e.g: a = b + c; live-in={b,c}  live-out={a,b,c}
-  private final Map<Stmt, Set<Local>> liveOut = new HashMap<>();
+  private final Liveness liveness;
 
   public LocalLivenessAnalyser(@Nonnull StmtGraph<?> graph) {
-    // initial liveIn and liveOut
-    List<Stmt> startingStmts = new ArrayList<>();
-    for (Stmt stmt : graph.nodes()) {
-      liveIn.put(stmt, Collections.emptySet());
-      liveOut.put(stmt, Collections.emptySet());
-      if (graph.successors(stmt).isEmpty() && graph.exceptionalSuccessors(stmt).isEmpty()) {
-        startingStmts.add(stmt);
-      }
-    }
-
-    boolean fixed = false;
-    while (!fixed) {
-      fixed = true;
-      Deque<Stmt> queue = new ArrayDeque<>(startingStmts);
-      HashSet<Stmt> visitedStmts = new HashSet<>();
-      while (!queue.isEmpty()) {
-        Stmt stmt = queue.removeFirst();
-        visitedStmts.add(stmt);
-
-        Set<Local> out = new HashSet<>(liveOut.get(stmt));
-        for (Stmt succ : graph.successors(stmt)) {
-          out = merge(out, liveIn.get(succ));
-        }
-        for (Stmt esucc : graph.exceptionalSuccessors(stmt).values()) {
-          out = merge(out, liveIn.get(esucc));
-        }
-        if (isNotEqual(out, liveOut.get(stmt))) {
-          fixed = false;
-          liveOut.put(stmt, new HashSet<>(out));
-        }
+    liveness = new Liveness(graph);
+  }
 
-        Set<Local> in = new HashSet<>();
-        for (Value use : stmt.getUses()) {
-          if (use instanceof Local) {
-            in.add((Local) use);
-          }
-        }
-        final List<Value> defs = stmt.getDefs();
-        if (!defs.isEmpty()) {
-          final Value value = defs.get(0);
-          if (value instanceof Local) {
-            out.remove(value);
-          }
-        }
-        in = merge(in, out);
-        if (isNotEqual(in, liveIn.get(stmt))) {
-          fixed = false;
-          liveIn.put(stmt, in);
-        }
-        for (Stmt pred : graph.predecessors(stmt)) {
-          if (!visitedStmts.contains(pred)) {
-            queue.addLast(pred);
-          }
-        }
-        for (Stmt epred : graph.exceptionalPredecessors(stmt)) {
-          if (!visitedStmts.contains(epred)) {
-            queue.addLast(epred);
-          }
-        }
-      }
+  private int indexOf(@Nonnull Local local) {
+    Integer index = localToIndex.get(local);
+    if (index == null) {
+      index = locals.size();
+      localToIndex.put(local, index);
+      locals.add(local);
     }
+    return index;
   }
 
   /** Get all live locals before the given stmt. */
   @Nonnull
   public Set<Local> getLiveLocalsBeforeStmt(@Nonnull Stmt stmt) {
-    if (!liveIn.containsKey(stmt)) {
-      throw new RuntimeException("Stmt: " + stmt + " is not in StmtGraph!");
-    }
-    return liveIn.get(stmt);
+    return new LocalSet(liveness.getFlowBefore(stmt));
   }
 
   /** Get all live locals after the given stmt. */
   @Nonnull
   public Set<Local> getLiveLocalsAfterStmt(@Nonnull Stmt stmt) {
-    if (!liveOut.containsKey(stmt)) {
-      throw new RuntimeException("Stmt: " + stmt + " is not in StmtGraph!");
-    }
-    return liveOut.get(stmt);
+    return new LocalSet(liveness.getFlowAfter(stmt));
   }
 
-  /**
-   * Merge two local sets into one set.
-   *
-   * @return a merged local set
-   */
-  @Nonnull
-  private Set<Local> merge(@Nonnull Set<Local> set1, @Nonnull Set<Local> set2) {
-    if (set1.isEmpty()) {
-      return set2;
-    } else {
-      set1.addAll(set2);
-      return set1;
+  private class Liveness extends GenKillBitSetFlowAnalysis {
+
+    Liveness(@Nonnull StmtGraph<?> graph) {
+      super(graph, BitSetFlowAnalysis.Direction.BACKWARD);
+      execute();
     }
-  }
 
-  /**
-   * Check whether two sets contains same locals.
-   *
-   * @return if same return true, else return false;
-   */
-  private boolean isNotEqual(@Nonnull Set<Local> set1, @Nonnull Set<Local> set2) {
-    if (set1.size() != set2.size()) {
-      return true;
-    } else {
-      for (Local local : set1) {
-        if (!set2.contains(local)) {
-          return true;
+    @Nonnull
+    @Override
+    protected BitSet gen(@Nonnull Stmt stmt) {
+      final BitSet uses = new BitSet();
+      for (Value value : stmt.getUses()) {
+        if (value instanceof Local) {
+          uses.set(indexOf((Local) value));
         }
       }
+      return uses;
+    }
+
+    @Nonnull
+    @Override
+    protected BitSet kill(@Nonnull Stmt stmt) {
+      final BitSet defs = new BitSet();
+      final List<Value> stmtDefs = stmt.getDefs();
+      if (!stmtDefs.isEmpty() && stmtDefs.get(0) instanceof Local) {
+        defs.set(indexOf((Local) stmtDefs.get(0)));
+      }
+      return defs;
+    }
+  }
+
+  /** An unmodifiable view of a bitset of local indices as a set of locals. */
+  private class LocalSet extends AbstractSet<Local> {
+
+    @Nonnull private final BitSet bits;
+    private int size = -1;
+
+    LocalSet(@Nonnull BitSet bits) {
+      this.bits = bits;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      final Integer index = o instanceof Local ? localToIndex.get(o) : null;
+      return index != null && bits.get(index);
+    }
+
+    @Override
+    public int size() {
+      if (size < 0) {
+        size = bits.cardinality();
+      }
+      return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return bits.isEmpty();
+    }
+
+    @Nonnull
+    @Override
+    public Iterator<Local> iterator() {
+      return new Iterator<Local>() {
+        int next = bits.nextSetBit(0);
+
+        @Override
+        public boolean hasNext() {
+          return next >= 0;
+        }
+
+        @Override
+        public Local next() {
+          if (next < 0) {
+            throw new NoSuchElementException();
+          }
+          final Local local = locals.get(next);
+          next = bits.nextSetBit(next + 1);
+          return local;
+        }
+      };
     }
-    return false;
   }
 }
@@ -147,6 +147,12 @@ public class LocalNameStandardizer implements BodyInterceptor {
     }
   }
 
+  @Nonnull
+  @Override
+  public Optional<String> getFingerprint() {
+    return Optional.of(getClass().getName());
+  }
+
   private static class LocalComparator implements Comparator<Local> {
 
     Map<Local, Integer> localToFirstOccurence;
@@ -123,6 +123,12 @@ public class LocalPacker implements BodyInterceptor {
     builder.setLocals(newLocals);
   }
 
+  @Nonnull
+  @Override
+  public Optional<String> getFingerprint() {
+    return Optional.of(getClass().getName());
+  }
+
   /**
    * Assign each local from a Bodybuilder an integer color
    *
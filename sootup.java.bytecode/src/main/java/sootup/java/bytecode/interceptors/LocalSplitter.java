@@ -24,18 +24,14 @@ package sootup.java.bytecode.interceptors;
 
 import java.util.*;
 import javax.annotation.Nonnull;
-import javax.annotation.Nullable;
+import sootup.core.graph.BlockGraphIndex;
 import sootup.core.graph.StmtGraph;
 import sootup.core.jimple.basic.Local;
 import sootup.core.jimple.basic.Value;
-import sootup.core.jimple.common.ref.JCaughtExceptionRef;
-import sootup.core.jimple.common.stmt.JIdentityStmt;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.Body;
-import sootup.core.model.Body.BodyBuilder;
 import sootup.core.model.BodyUtils;
 import sootup.core.transform.BodyInterceptor;
-import sootup.core.types.ClassType;
 
 /**
  * A BodyInterceptor that attempts to identify and separate uses of a local variable (definition)
@@ -63,345 +59,351 @@ import sootup.core.types.ClassType;
  *    return
  * </pre>
  *
+ * <p>The definitions of a local that reach a common use form a web, and every web of a local
+ * that has more than one web gets its own local. The webs are built with a union-find over the
+ * definitions: a forward propagation over the basic blocks tracks, for each local that is defined
+ * more than once, the web that reaches the current stmt, and merges the incoming webs wherever
+ * control flow joins while the local is live. Afterwards all stmts are rewritten at once.
+ *
  * @author Zun Wang
  */
 public class LocalSplitter implements BodyInterceptor {
   // FIXME: [ms] assumes that names of Locals do not contain a '#' already -> could lead to problems
-  // TODO: [ms] check equivTo()'s - I guess they can be equals()'s - or even: '=='s
+
+  private static final int NONE = -1;
 
   @Override
   public void interceptBody(@Nonnull Body.BodyBuilder builder) {
+    final List<Stmt> stmts = builder.getStmts();
 
-    // Find all Locals that must be split
-    // If a local as a definition appears two or more times, then this local must be split
-    List<Stmt> stmts = builder.getStmts();
-    Set<Local> visitedLocals = new LinkedHashSet<>();
-    Set<Local> toSplitLocals = new LinkedHashSet<>();
+    // Find all Locals that must be split: the ones that are defined two or more times
+    final Map<Local, Integer> defCounts = new HashMap<>();
     for (Stmt stmt : stmts) {
-      final List<Value> defs = stmt.getDefs();
-      if (!defs.isEmpty()) {
-        Value def = defs.get(0);
-        if (def instanceof Local) {
-          if (visitedLocals.contains(def)) {
-            toSplitLocals.add((Local) def);
-          }
-          visitedLocals.add((Local) def);
-        }
+      final Local def = definedLocal(stmt);
+      if (def != null) {
+        defCounts.merge(def, 1, Integer::sum);
+      }
+    }
+    final Map<Local, Integer> localToIndex = new HashMap<>();
+    final List<Local> toSplitLocals = new ArrayList<>();
+    for (Stmt stmt : stmts) {
+      final Local def = definedLocal(stmt);
+      if (def != null && defCounts.get(def) > 1 && !localToIndex.containsKey(def)) {
+        localToIndex.put(def, toSplitLocals.size());
+        toSplitLocals.add(def);
       }
     }
+    if (toSplitLocals.isEmpty()) {
+      return;
+    }
 
-    StmtGraph<?> graph = builder.getStmtGraph();
+    final StmtGraph<?> graph = builder.getStmtGraph();
+    final Webs webs = new Webs(graph, localToIndex);
 
-    // Create a new Local-Set for the modified new body.
-    Set<Local> newLocals = new LinkedHashSet<>(builder.getLocals());
+    // name the webs in the order of their first definition; a local with a single web keeps its
+    // name
+    final Map<Local, Set<Integer>> websOfLocal = new HashMap<>();
+    for (Stmt stmt : stmts) {
+      final int def = webs.getDef(stmt);
+      if (def != NONE) {
+        websOfLocal
+            .computeIfAbsent(definedLocal(stmt), l -> new HashSet<>())
+            .add(webs.find(def));
+      }
+    }
+    final Set<Local> newLocals = new LinkedHashSet<>(builder.getLocals());
+    final Map<Integer, Local> webToLocal = new HashMap<>();
     int localIndex = 1;
-
-    // iterate stmts
-    while (!stmts.isEmpty()) {
-      Stmt currentStmt = stmts.remove(0);
-      // At first Check the definition(left side) of the currentStmt is a local which must be split:
-      if (!currentStmt.getDefs().isEmpty()
-          && currentStmt.getDefs().get(0) instanceof Local
-          && toSplitLocals.contains(currentStmt.getDefs().get(0))) {
-        // then assign a new name to the oriLocal to get a new local which is called newLocal
-        Local oriLocal = (Local) currentStmt.getDefs().get(0);
-        Local newLocal = oriLocal.withName(oriLocal.getName() + "#" + localIndex);
-        newLocals.add(newLocal);
+    for (Stmt stmt : stmts) {
+      final int def = webs.getDef(stmt);
+      if (def == NONE) {
+        continue;
+      }
+      final Local oriLocal = definedLocal(stmt);
+      final int web = webs.find(def);
+      if (websOfLocal.get(oriLocal).size() > 1 && !webToLocal.containsKey(web)) {
+        final Local newLocal = oriLocal.withName(oriLocal.getName() + "#" + localIndex);
         localIndex++;
+        webToLocal.put(web, newLocal);
+        newLocals.add(newLocal);
+      }
+    }
 
-        // create newStmt whose definition is replaced with the newLocal,
-        Stmt newStmt = BodyUtils.withNewDef(currentStmt, newLocal);
-        // replace corresponding oldStmt with newStmt in builder
-        replaceStmtInBuilder(builder, stmts, currentStmt, newStmt);
-
-        // Build the forwardsQueue which is used to iterate all Stmts before the orilocal is defined
-        // again.
-        // The direction of iteration is from root of the StmtGraph to leafs. So the successors of
-        // the newStmt are added into the forwardsQueue.
-        Deque<Stmt> forwardsQueue = new ArrayDeque<>(graph.successors(newStmt));
-        // Create the visitedStmt to store the visited Stmts for the forwardsQueue, to avoid, a
-        // Stmt is added twice into the forwardQueue.
-        Set<Stmt> visitedStmts = new HashSet<>();
+    // rewrite the defs and uses of all stmts in bulk
+    for (Stmt stmt : stmts) {
+      Stmt newStmt = stmt;
+      final int[] useDefs = webs.getUseDefs(stmt);
+      if (useDefs != null) {
+        final List<Local> useLocals = webs.getUseLocals(stmt);
+        for (int i = 0; i < useDefs.length; i++) {
+          final Local newUse =
+              useDefs[i] == NONE ? null : webToLocal.get(webs.find(useDefs[i]));
+          if (newUse != null) {
+            newStmt = BodyUtils.withNewLocalUse(newStmt, useLocals.get(i), newUse);
+          }
+        }
+      }
+      final int def = webs.getDef(stmt);
+      if (def != NONE) {
+        final Local newDef = webToLocal.get(webs.find(def));
+        if (newDef != null) {
+          newStmt = BodyUtils.withNewDef(newStmt, newDef);
+        }
+      }
+      if (newStmt != stmt) {
+        builder.replaceStmt(stmt, newStmt);
+      }
+    }
+    builder.setLocals(newLocals);
+  }
 
-        while (!forwardsQueue.isEmpty()) {
-          Stmt head = forwardsQueue.remove();
-          visitedStmts.add(head);
+  @Nonnull
+  @Override
+  public Optional<String> getFingerprint() {
+    return Optional.of(getClass().getName());
+  }
 
-          // 1.case: if useList of head contains oriLocal, then replace the oriLocal with
-          // newLocal.
-          if (head.getUses().contains(oriLocal)) {
-            Stmt newHead = BodyUtils.withNewUse(head, oriLocal, newLocal);
-            replaceStmtInBuilder(builder, stmts, head, newHead);
+  private static Local definedLocal(@Nonnull Stmt stmt) {
+    final List<Value> defs = stmt.getDefs();
+    return !defs.isEmpty() && defs.get(0) instanceof Local ? (Local) defs.get(0) : null;
+  }
 
-            // if head doesn't define the the oriLocal again, then add all successors which are
-            // not in forwardsQueue and visitedUsesStmt, into the forwardsQueue.
-            if (newHead.getDefs().isEmpty() || !newHead.getDefs().get(0).equivTo(oriLocal)) {
-              for (Stmt succ : graph.successors(newHead)) {
-                if (!visitedStmts.contains(succ) && !forwardsQueue.contains(succ)) {
-                  forwardsQueue.addLast(succ);
-                }
-              }
-            }
-          }
+  /**
+   * Builds the webs of the locals to split. Every definition of such a local gets an id; the
+   * state of the propagation maps each of the locals to the id of a definition of the web that
+   * reaches the current stmt (or NONE), and the ids are normalized with {@link #find(int)}.
+   */
+  private static class Webs {
 
-          // 2.case: if uses of head contains the modified orilocal, so a conflict maybe arise,
-          // then trace the StmtGraph backwards to resolve the conflict.
-          else if (hasModifiedUse(head, oriLocal)) {
+    @Nonnull private final Map<Local, Integer> localToIndex;
+    @Nonnull private final Map<Stmt, Integer> stmtToDef = new HashMap<>();
+    // the used locals to split of a stmt, and the definition that reaches each of them
+    @Nonnull private final Map<Stmt, List<Local>> stmtToUseLocals = new HashMap<>();
+    @Nonnull private final Map<Stmt, int[]> stmtToUseDefs = new HashMap<>();
+    private int[] parent = new int[16];
+    private int defCount = 0;
 
-            Local modifiedLocal = getModifiedUse(head, oriLocal);
-            if (modifiedLocal == null) {
-              throw new IllegalStateException("Modified Use is not found.");
-            }
+    Webs(@Nonnull StmtGraph<?> graph, @Nonnull Map<Local, Integer> localToIndex) {
+      this.localToIndex = localToIndex;
+      final int localCount = localToIndex.size();
+      final BlockGraphIndex index = new BlockGraphIndex(graph);
+      final int blockCount = index.getBlockCount();
 
-            // if modifed name is not same as the newLocal's name then -> conflict arises -> trace
-            // backwards
-            if (!modifiedLocal.getName().equals(newLocal.getName())) {
-              localIndex--;
+      // per stmt: the index of the defined local and its definition id, and the used locals
+      final int[][] defLocal = new int[blockCount][];
+      final int[][] defId = new int[blockCount][];
+      final int[][][] useIndices = new int[blockCount][][];
+      for (int b = 0; b < blockCount; b++) {
+        final List<Stmt> stmts = index.getStmts(b);
+        defLocal[b] = new int[stmts.size()];
+        defId[b] = new int[stmts.size()];
+        useIndices[b] = new int[stmts.size()][];
+        for (int i = 0; i < stmts.size(); i++) {
+          final Stmt stmt = stmts.get(i);
+          final Local def = definedLocal(stmt);
+          final Integer defIndex = def == null ? null : localToIndex.get(def);
+          defLocal[b][i] = defIndex == null ? NONE : defIndex;
+          defId[b][i] = defIndex == null ? NONE : newDef(stmt);
+          useIndices[b][i] = collectUses(stmt);
+        }
+      }
 
-              // Build the backwardsQueue which is used to iterate all Stmts between head and the
-              // Stmts which define the oriLocal in last time.
-              // The direction of iteration is from leave of the StmtGraph to the root. So the
-              // predecessors of head are added into the BackwardsQueue.
-              Deque<Stmt> backwardsQueue = new ArrayDeque<>(graph.predecessors(head));
+      // the locals to split that are live at the beginning of each block
+      final LocalLivenessAnalyser liveness = new LocalLivenessAnalyser(graph);
+      final BitSet[] liveAtHead = new BitSet[blockCount];
+      final BitSet[] liveAtHandlers = new BitSet[blockCount];
+      for (int b = 0; b < blockCount; b++) {
+        final BitSet live = new BitSet(localCount);
+        for (Local local : liveness.getLiveLocalsBeforeStmt(index.getHead(b))) {
+          final Integer localIdx = localToIndex.get(local);
+          if (localIdx != null) {
+            live.set(localIdx);
+          }
+        }
+        liveAtHead[b] = live;
+      }
+      for (int b = 0; b < blockCount; b++) {
+        final int[] handlers = index.getExceptionalSuccessors(b);
+        if (handlers.length > 0) {
+          final BitSet live = new BitSet(localCount);
+          for (int handler : handlers) {
+            live.or(liveAtHead[handler]);
+          }
+          liveAtHandlers[b] = live;
+        }
+      }
 
-              while (!backwardsQueue.isEmpty()) {
-                // Remove the first Stmt of backwardQueue, and name it as backStmt.
-                Stmt backStmt = backwardsQueue.remove();
+      // propagate the webs forward until the state at the beginning of the blocks is stable
+      final int[][] in = new int[blockCount][];
+      final int[][] out = new int[blockCount][];
+      final int[][] exceptionalOut = new int[blockCount][];
+      final int[] order = index.getReversePostorder();
+      final int[] position = new int[blockCount];
+      for (int i = 0; i < blockCount; i++) {
+        position[order[i]] = i;
+      }
+      final BitSet pending = new BitSet(blockCount);
+      pending.set(0, blockCount);
+      int pos = 0;
+      while ((pos = nextPending(pending, pos)) >= 0) {
+        pending.clear(pos);
+        final int b = order[pos];
 
-                // 2.1 case: if backStmt's definition is the modified and has a higher
-                // local-name-index than the modifiedLocal of head
-                // then replace the definition of backStmt with the modifiedLocal of head, and
-                // remove the corresponding Local(definition of backStmt) from the set: newLocals
-                if (hasModifiedDef(backStmt, oriLocal)) {
-                  if (hasHigherLocalName((Local) backStmt.getDefs().get(0), modifiedLocal)) {
-                    Stmt newBackStmt = BodyUtils.withNewDef(backStmt, modifiedLocal);
-                    replaceStmtInBuilder(builder, stmts, backStmt, newBackStmt);
-                    newLocals.remove(newLocal);
-                  }
-                }
-                // 2.2 case: if backStmt's uses contains the modified oriLocal, and this
-                // modified oriLocal has a higher local-name-index that the modifiedLocal of head
-                // then replace the corresponding use of backStmt with modifiedLocal of head, and
-                // add all predecessors of the backStmt into the backwardsQueue.
-                else if (hasModifiedUse(backStmt, oriLocal)) {
-                  Local modifiedUse = getModifiedUse(backStmt, oriLocal);
-                  if (hasHigherLocalName(modifiedUse, modifiedLocal)) {
-                    Stmt newBackStmt = BodyUtils.withNewUse(backStmt, modifiedUse, modifiedLocal);
-                    replaceStmtInBuilder(builder, stmts, backStmt, newBackStmt);
-                    backwardsQueue.addAll(graph.predecessors(newBackStmt));
-                  }
-                }
-                // 2.3 case: if there's no relationship between backStmt's defs/uses and
-                // oriLocal, then add all predecessors of the backStmt into the backwardsQueue.
-                else {
-                  backwardsQueue.addAll(graph.predecessors(backStmt));
-                }
-              }
-            }
+        // merge the webs of the live locals that flow in
+        final int[] state = new int[localCount];
+        Arrays.fill(state, NONE);
+        final BitSet live = liveAtHead[b];
+        for (int local = live.nextSetBit(0); local >= 0; local = live.nextSetBit(local + 1)) {
+          int web = NONE;
+          for (int pred : index.getPredecessors(b)) {
+            web = out[pred] == null ? web : union(web, out[pred][local]);
           }
-          // 3.case: if uses of head contains neither orilocal nor the modified orilocal,
-          // then add all successors of head which are not in forwardsQueue and visitedStmts,
-          // into the forwardsQueue.
-          else {
-            if (head.getDefs().isEmpty() || !head.getDefs().get(0).equivTo(oriLocal)) {
-              for (Stmt succ : graph.successors(head)) {
-                if (!visitedStmts.contains(succ) && !forwardsQueue.contains(succ)) {
-                  forwardsQueue.addLast(succ);
-                }
-              }
-            }
+          for (int pred : index.getExceptionalPredecessors(b)) {
+            web = exceptionalOut[pred] == null ? web : union(web, exceptionalOut[pred][local]);
           }
+          state[local] = web == NONE ? NONE : find(web);
         }
-        // Then check the uses of currentStmt:
-      } else {
-        // For each Local(oriL) which is to be split, check whether it is used in currentStmt
-        // without definition before.
-        // We define a StmtGraph consists of a mainStmtGraph and none or more trapStmtGraphs.
-        // This situation could arise just in a trapStmtGraph.
-        for (Local oriLocal : toSplitLocals) {
-          // If so:
-          // 1.step: find out all trapStmtGraphs' root(handlerStmts) which contain currentStmt,
-          // namely a set of handlerStmts.
-          // 2.step: find out all stmts whose exceptional destination-traps are with the found
-          // handlerStmts.
-          // 3.step: iterate these stmts, find a modified oriL((Local) with a maximum name index.
-          // 4.step: Use this modified oriL to modify the visitedStmt
-          if (currentStmt.getUses().contains(oriLocal)) {
-            // 1.step:
-            Set<Stmt> handlerStmts = traceHandlerStmts(graph, currentStmt);
-            // 2.step:
-            Set<Stmt> stmtsWithDests = new HashSet<>();
-            for (Stmt handlerStmt : handlerStmts) {
-              for (Stmt exceptionalPred : graph.predecessors(handlerStmt)) {
-                Map<ClassType, Stmt> dests = graph.exceptionalSuccessors(exceptionalPred);
-                List<Stmt> destHandlerStmts = new ArrayList<>();
-                dests.forEach((key, dest) -> destHandlerStmts.add(dest));
-                if (destHandlerStmts.contains(handlerStmt)) {
-                  stmtsWithDests.add(exceptionalPred);
-                }
-              }
-            }
-            // 3.step:
-            Local lastChange = null;
-            for (Stmt stmt : stmtsWithDests) {
-              if (hasModifiedDef(stmt, oriLocal)) {
-                Local modifiedLocal = (Local) stmt.getDefs().get(0);
-                if (lastChange == null || hasHigherLocalName(modifiedLocal, lastChange)) {
-                  lastChange = modifiedLocal;
-                }
-              }
+        if (in[b] != null && sameWebs(in[b], state)) {
+          continue;
+        }
+        in[b] = state.clone();
+
+        // walk through the block
+        final List<Stmt> stmts = index.getStmts(b);
+        final BitSet handlerLive = liveAtHandlers[b];
+        final int[] exceptional = handlerLive == null ? null : new int[localCount];
+        if (exceptional != null) {
+          Arrays.fill(exceptional, NONE);
+        }
+        for (int i = 0; i < stmts.size(); i++) {
+          if (exceptional != null) {
+            // the handlers are reached from before each stmt of the block
+            for (int local = handlerLive.nextSetBit(0);
+                local >= 0;
+                local = handlerLive.nextSetBit(local + 1)) {
+              exceptional[local] = union(exceptional[local], state[local]);
             }
-            // 4.step:
-            if (lastChange != null) {
-              Stmt newStmt = BodyUtils.withNewUse(currentStmt, oriLocal, lastChange);
-              replaceStmtInBuilder(builder, stmts, currentStmt, newStmt);
+          }
+          final int[] uses = useIndices[b][i];
+          if (uses != null) {
+            final int[] useDefs = stmtToUseDefs.get(stmts.get(i));
+            for (int u = 0; u < uses.length; u++) {
+              useDefs[u] = state[uses[u]];
             }
           }
+          if (defLocal[b][i] != NONE) {
+            state[defLocal[b][i]] = defId[b][i];
+          }
+        }
+        out[b] = state;
+        exceptionalOut[b] = exceptional;
+        for (int succ : index.getSuccessors(b)) {
+          pending.set(position[succ]);
+        }
+        for (int succ : index.getExceptionalSuccessors(b)) {
+          pending.set(position[succ]);
         }
       }
     }
-    builder.setLocals(newLocals);
-  }
-
-  // ******************assist_functions*************************
-
-  /**
-   * Replace corresponding oldStmt with newStmt in BodyBuilder and visitList
-   *
-   * @param builder
-   * @param stmtIterationList
-   * @param oldStmt
-   * @param newStmt
-   */
-  private void replaceStmtInBuilder(
-      @Nonnull BodyBuilder builder,
-      @Nonnull List<Stmt> stmtIterationList,
-      @Nonnull Stmt oldStmt,
-      @Nonnull Stmt newStmt) {
 
-    builder.replaceStmt(oldStmt, newStmt);
+    private static int nextPending(@Nonnull BitSet pending, int from) {
+      final int next = pending.nextSetBit(from);
+      return next >= 0 ? next : pending.nextSetBit(0);
+    }
 
-    // adapt VisitList
-    final int index = stmtIterationList.indexOf(oldStmt);
-    if (index > -1) {
-      stmtIterationList.set(index, newStmt);
+    private boolean sameWebs(@Nonnull int[] oldState, @Nonnull int[] newState) {
+      for (int local = 0; local < oldState.length; local++) {
+        final int oldWeb = oldState[local] == NONE ? NONE : find(oldState[local]);
+        if (oldWeb != newState[local]) {
+          return false;
+        }
+      }
+      return true;
     }
-  }
 
-  /**
-   * Check whether a Stmt's useList contains the given modified oriLocal.
-   *
-   * @param stmt: a stmt is to be checked
-   * @param oriLocal: a local is to be checked
-   * @return if so, return true, else return false
-   */
-  private boolean hasModifiedUse(@Nonnull Stmt stmt, @Nonnull Local oriLocal) {
-    if (!stmt.getUses().isEmpty()) {
-      for (Value use : stmt.getUses()) {
-        return isLocalFromSameOrigin(oriLocal, use);
+    private int newDef(@Nonnull Stmt stmt) {
+      if (defCount == parent.length) {
+        parent = Arrays.copyOf(parent, defCount * 2);
       }
+      parent[defCount] = defCount;
+      stmtToDef.put(stmt, defCount);
+      return defCount++;
     }
-    return false;
-  }
 
-  /**
-   * Get the modified Local if a Stmt's useList contains the given modified oriLocal
-   *
-   * @param stmt: a stmt is to be checked
-   * @param oriLocal: a local is to be checked.
-   * @return if so, return this modified local, else return null
-   */
-  @Nullable
-  private Local getModifiedUse(@Nonnull Stmt stmt, @Nonnull Local oriLocal) {
-    if (hasModifiedUse(stmt, oriLocal)) {
-      List<Value> useList = stmt.getUses();
-      if (!useList.isEmpty()) {
-        for (Value use : useList) {
-          if (isLocalFromSameOrigin(oriLocal, use)) {
-            return (Local) use;
+    /**
+     * Returns the indices of the distinct used locals to split, or null if there are none. A local
+     * used twice, e.g. in <code>a = b + b</code>, has one reaching web and is replaced at once.
+     */
+    private int[] collectUses(@Nonnull Stmt stmt) {
+      List<Local> useLocals = null;
+      for (Value use : stmt.getUses()) {
+        if (use instanceof Local && localToIndex.containsKey(use)) {
+          if (useLocals == null) {
+            useLocals = new ArrayList<>();
+          }
+          if (!useLocals.contains(use)) {
+            useLocals.add((Local) use);
           }
         }
       }
+      if (useLocals == null) {
+        return null;
+      }
+      final int[] indices = new int[useLocals.size()];
+      for (int i = 0; i < indices.length; i++) {
+        indices[i] = localToIndex.get(useLocals.get(i));
+      }
+      stmtToUseLocals.put(stmt, useLocals);
+      stmtToUseDefs.put(stmt, new int[indices.length]);
+      return indices;
     }
-    return null;
-  }
 
-  /**
-   * Check whether a local is modified from the given oriLocal
-   *
-   * @param local: a local is to be checked
-   * @param oriLocal: the given oriLocal
-   * @return if so, return true, else return false.
-   */
-  private boolean isLocalFromSameOrigin(@Nonnull Local oriLocal, Value local) {
-    if (local instanceof Local) {
-      final String name = ((Local) local).getName();
-      final String origName = oriLocal.getName();
-      final int origLength = origName.length();
-      return name.length() > origLength
-          && name.startsWith(origName)
-          && name.charAt(origLength) == '#';
+    int find(int def) {
+      int root = def;
+      while (parent[root] != root) {
+        root = parent[root];
+      }
+      // path compression
+      while (parent[def] != root) {
+        final int next = parent[def];
+        parent[def] = root;
+        def = next;
+      }
+      return root;
     }
-    return false;
-  }
 
-  /**
-   * Check whether a Stmt's def is the modified oriLocal
-   *
-   * @param stmt: a stmt is to be checked
-   * @param oriLocal: a local is to be checked
-   * @return if so, return true, else return false
-   */
-  private boolean hasModifiedDef(@Nonnull Stmt stmt, @Nonnull Local oriLocal) {
-    final List<Value> defs = stmt.getDefs();
-    if (!defs.isEmpty() && defs.get(0) instanceof Local) {
-      return isLocalFromSameOrigin(oriLocal, defs.get(0));
+    /** Merges the webs of both definitions; NONE is the neutral element. */
+    int union(int first, int second) {
+      if (first == NONE) {
+        return second;
+      }
+      if (second == NONE) {
+        return first;
+      }
+      final int firstRoot = find(first);
+      final int secondRoot = find(second);
+      // the smaller id stays the root, so a web is represented by its first definition
+      if (firstRoot < secondRoot) {
+        parent[secondRoot] = firstRoot;
+        return firstRoot;
+      }
+      parent[firstRoot] = secondRoot;
+      return secondRoot;
     }
-    return false;
-  }
-
-  /**
-   * Check whether leftLocal's name has higher index than rightLocal's.
-   *
-   * @param leftLocal: a local in form oriLocal#num1
-   * @param rightLocal: a local in form oriLocal#num2
-   * @return if so return true, else return false
-   */
-  private boolean hasHigherLocalName(@Nonnull Local leftLocal, @Nonnull Local rightLocal) {
-    String leftName = leftLocal.getName();
-    String rightName = rightLocal.getName();
-    int lIdx = leftName.lastIndexOf('#');
-    int rIdx = rightName.lastIndexOf('#');
-    int leftNum = Integer.parseInt(leftName.substring(lIdx + 1));
-    int rightNum = Integer.parseInt(rightName.substring(rIdx + 1));
-    return leftNum > rightNum;
-  }
 
-  /**
-   * A given entryStmt may be in one or several trapStmtGraphs, return these trapStmtGraphs'
-   * handlerStmts
-   *
-   * @param entryStmt a given entryStmt which is in one or several trapStmtGraphs
-   * @param graph to trace handlerStmts
-   * @return a set of handlerStmts
-   */
-  @Nonnull
-  private Set<Stmt> traceHandlerStmts(@Nonnull StmtGraph<?> graph, @Nonnull Stmt entryStmt) {
+    /** Returns the definition id of the stmt or NONE if it does not define a local to split. */
+    int getDef(@Nonnull Stmt stmt) {
+      final Integer def = stmtToDef.get(stmt);
+      return def == null ? NONE : def;
+    }
 
-    Set<Stmt> handlerStmts = new HashSet<>();
+    List<Local> getUseLocals(@Nonnull Stmt stmt) {
+      return stmtToUseLocals.get(stmt);
+    }
 
-    Deque<Stmt> queue = new ArrayDeque<>();
-    queue.add(entryStmt);
-    while (!queue.isEmpty()) {
-      Stmt stmt = queue.removeFirst();
-      if (stmt instanceof JIdentityStmt
-          && ((JIdentityStmt<?>) stmt).getRightOp() instanceof JCaughtExceptionRef) {
-        handlerStmts.add(stmt);
-      } else {
-        final List<Stmt> predecessors = graph.predecessors(stmt);
-        queue.addAll(predecessors);
-      }
+    /** Returns the reaching definition of each used local to split, or null if there are none. */
+    int[] getUseDefs(@Nonnull Stmt stmt) {
+      return stmtToUseDefs.get(stmt);
     }
-    return handlerStmts;
   }
 }
@@ -58,4 +58,10 @@ public class NopEliminator implements BodyInterceptor {
       builder.removeStmt(stmt);
     }
   }
+
+  @Nonnull
+  @Override
+  public Optional<String> getFingerprint() {
+    return Optional.of(getClass().getName());
+  }
 }
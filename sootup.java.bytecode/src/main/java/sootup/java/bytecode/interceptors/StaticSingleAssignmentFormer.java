@@ -191,6 +191,12 @@ public class StaticSingleAssignmentFormer implements BodyInterceptor {
     builder.setLocals(newLocals);
   }
 
+  @Nonnull
+  @Override
+  public Optional<String> getFingerprint() {
+    return Optional.of(getClass().getName());
+  }
+
   /**
    * This method is used to decide which block should add phiStmts. Note: some phiStmts maybe
    * contain just one argument, it should be not added into StmtGraph
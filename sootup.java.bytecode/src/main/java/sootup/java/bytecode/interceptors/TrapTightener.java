@@ -100,6 +100,12 @@ public class TrapTightener implements BodyInterceptor {
 
   }
 
+  @Nonnull
+  @Override
+  public Optional<String> getFingerprint() {
+    return Optional.of(getClass().getName());
+  }
+
   /**
    * Find out all monitored stmts from a given exceptional graph, collect them into a list
    *
@@ -21,24 +21,139 @@ package sootup.java.bytecode.interceptors;
  * #L%
  */
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.Value;
+import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.Body;
+import sootup.core.model.BodyUtils;
 import sootup.core.transform.BodyInterceptor;
+import sootup.core.typehierarchy.TypeHierarchy;
+import sootup.core.types.Type;
+import sootup.java.bytecode.interceptors.typeresolving.BytecodeHierarchy;
+import sootup.java.bytecode.interceptors.typeresolving.TypeResolver;
 
 // https://github.com/Sable/soot/blob/master/src/main/java/soot/jimple/toolkits/typing/TypeAssigner.java
 
 /**
  * This transformer assigns types to local variables.
  *
+ * <p>The locals that the bytecode frontend creates have an unknown type; their types are inferred
+ * by a {@link TypeResolver} from the values assigned to them and refined by their uses. Locals
+ * that already have a type keep it. Given the {@link TypeHierarchy} of the view, reference locals
+ * get their least common superclass, otherwise two different classes meet in <code>
+ * java.lang.Object</code>. The answers of the {@link TypeHierarchy} are cached per body, so changes
+ * of the hierarchy between bodies are seen. Each body has a budget of evaluations per definition,
+ * after which its remaining types are widened; as it counts work instead of time, the result of an
+ * instance is the same for a body on every run.
+ *
+ * <p>The {@link LocalSplitter} should run before, as a reused variable slot with values of
+ * different kinds can not be typed and keeps its unknown type. Without a {@link TypeHierarchy}, a
+ * local that holds instances of different classes is typed <code>java.lang.Object</code> even if
+ * it is used as a common supertype. Hence it is not part of {@link BytecodeBodyInterceptors}, which
+ * do not know the view; add it with the hierarchy of the view, e.g. <code>
+ * new TypeAssigner(view.getTypeHierarchy())</code>.
+ *
  * @author Etienne Gagnon
  * @author Ben Bellamy
  * @author Eric Bodden
  */
 public class TypeAssigner implements BodyInterceptor {
 
+  /** the budget of the {@link TypeResolver} per body, unless another one is given */
+  public static final int DEFAULT_EVALUATIONS_PER_DEFINITION = 32;
+
+  @Nullable private final TypeHierarchy typeHierarchy;
+  private final int evaluationsPerDefinition;
+
+  public TypeAssigner() {
+    this(null);
+  }
+
+  public TypeAssigner(@Nullable TypeHierarchy typeHierarchy) {
+    this(typeHierarchy, DEFAULT_EVALUATIONS_PER_DEFINITION);
+  }
+
+  /**
+   * @param typeHierarchy the hierarchy of the view, or null to let different classes meet in
+   *     <code>java.lang.Object</code>
+   * @param evaluationsPerDefinition the budget of the type inference per body, see {@link
+   *     TypeResolver#resolve(int)}
+   */
+  public TypeAssigner(@Nullable TypeHierarchy typeHierarchy, int evaluationsPerDefinition) {
+    if (evaluationsPerDefinition <= 0) {
+      throw new IllegalArgumentException("The budget must be positive.");
+    }
+    this.typeHierarchy = typeHierarchy;
+    this.evaluationsPerDefinition = evaluationsPerDefinition;
+  }
+
   @Override
   public void interceptBody(@Nonnull Body.BodyBuilder builder) {
-    // TODO Implement
+    final List<Stmt> stmts = builder.getStmts();
+    final Type returnType =
+        builder.getMethodSignature() == null ? null : builder.getMethodSignature().getType();
+    final BytecodeHierarchy hierarchy = new BytecodeHierarchy(typeHierarchy);
+    final Map<Local, Type> types =
+        new TypeResolver(stmts, builder.getLocals(), returnType, hierarchy)
+            .resolve(evaluationsPerDefinition);
+    if (types.isEmpty()) {
+      return;
+    }
+
+    final Map<Local, Local> typedLocals = new HashMap<>();
+    final Set<Local> newLocals = new LinkedHashSet<>();
+    for (Local local : builder.getLocals()) {
+      final Type type = types.get(local);
+      if (type == null) {
+        newLocals.add(local);
+      } else {
+        final Local typedLocal = local.withType(type);
+        typedLocals.put(local, typedLocal);
+        newLocals.add(typedLocal);
+      }
+    }
 
+    for (Stmt stmt : stmts) {
+      Stmt newStmt = stmt;
+      final Set<Value> replaced = Collections.newSetFromMap(new IdentityHashMap<>());
+      for (Value use : stmt.getUses()) {
+        final Local typedLocal = use instanceof Local ? typedLocals.get(use) : null;
+        if (typedLocal != null && replaced.add(use)) {
+          newStmt = BodyUtils.withNewLocalUse(newStmt, (Local) use, typedLocal);
+        }
+      }
+      final List<Value> defs = stmt.getDefs();
+      if (!defs.isEmpty() && defs.get(0) instanceof Local) {
+        final Local typedLocal = typedLocals.get(defs.get(0));
+        if (typedLocal != null) {
+          newStmt = BodyUtils.withNewDef(newStmt, typedLocal);
+        }
+      }
+      if (newStmt != stmt) {
+        builder.replaceStmt(stmt, newStmt);
+      }
+    }
+    builder.setLocals(newLocals);
+  }
+
+  /** The types depend on the given {@link TypeHierarchy}, which can not be identified. */
+  @Nonnull
+  @Override
+  public Optional<String> getFingerprint() {
+    if (typeHierarchy != null) {
+      return Optional.empty();
+    }
+    return Optional.of(
+        getClass().getName() + "(evaluationsPerDefinition=" + evaluationsPerDefinition + ")");
   }
 }
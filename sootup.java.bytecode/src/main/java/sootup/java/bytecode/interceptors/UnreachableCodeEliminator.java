@@ -66,4 +66,10 @@ public class UnreachableCodeEliminator implements BodyInterceptor {
       builder.removeStmt(stmt);
     }
   }
+
+  @Nonnull
+  @Override
+  public Optional<String> getFingerprint() {
+    return Optional.of(getClass().getName());
+  }
 }
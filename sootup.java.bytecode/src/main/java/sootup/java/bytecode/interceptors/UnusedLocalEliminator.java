@@ -22,6 +22,7 @@ package sootup.java.bytecode.interceptors;
  *
  */
 import java.util.LinkedHashSet;
+import java.util.Optional;
 import java.util.Set;
 import javax.annotation.Nonnull;
 import sootup.core.jimple.basic.Local;
@@ -60,4 +61,10 @@ public class UnusedLocalEliminator implements BodyInterceptor {
 
     builder.setLocals(locals);
   }
+
+  @Nonnull
+  @Override
+  public Optional<String> getFingerprint() {
+    return Optional.of(getClass().getName());
+  }
 }
@@ -0,0 +1,124 @@
+package sootup.java.bytecode.interceptors.typeresolving;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import javax.annotation.Nonnull;
+import sootup.core.jimple.visitor.TypeVisitor;
+import sootup.core.types.PrimitiveType;
+import sootup.core.types.Type;
+
+/**
+ * The types of int constants that are used during the type inference of locals. The bytecode uses
+ * int for boolean, byte, char and short as well, so a constant only tells the range of the int
+ * types it fits into: {@link Integer1Type} (0 and 1) fits into every int type, {@link
+ * Integer127Type} (0 to 127) into every int type but boolean and {@link Integer32767Type} (0 to
+ * 32767) into short, char and int. These types never end up as the type of a local.
+ */
+public final class AugmentIntegerTypes {
+
+  private AugmentIntegerTypes() {}
+
+  /** Returns the smallest type the given int constant fits into. */
+  @Nonnull
+  public static Type getTypeOfConstant(int value) {
+    if (value >= 0) {
+      if (value <= 1) {
+        return Integer1Type.INSTANCE;
+      } else if (value <= 127) {
+        return Integer127Type.INSTANCE;
+      } else if (value <= 32767) {
+        return Integer32767Type.INSTANCE;
+      }
+    } else if (value >= -128) {
+      return PrimitiveType.getByte();
+    } else if (value >= -32768) {
+      return PrimitiveType.getShort();
+    }
+    return PrimitiveType.getInt();
+  }
+
+  public static boolean isAugmentedIntegerType(@Nonnull Type type) {
+    return type instanceof AugmentIntegerType;
+  }
+
+  abstract static class AugmentIntegerType extends Type {
+    @Nonnull private final String name;
+
+    private AugmentIntegerType(@Nonnull String name) {
+      this.name = name;
+    }
+
+    @Override
+    public void accept(@Nonnull TypeVisitor v) {
+      v.defaultCaseType();
+    }
+
+    @Override
+    @Nonnull
+    public String toString() {
+      return name;
+    }
+  }
+
+  /** The type of the int constants 0 and 1. */
+  public static final class Integer1Type extends AugmentIntegerType {
+    private static final Integer1Type INSTANCE = new Integer1Type();
+
+    private Integer1Type() {
+      super("integer1");
+    }
+
+    @Nonnull
+    public static Integer1Type getInstance() {
+      return INSTANCE;
+    }
+  }
+
+  /** The type of the int constants from 2 to 127. */
+  public static final class Integer127Type extends AugmentIntegerType {
+    private static final Integer127Type INSTANCE = new Integer127Type();
+
+    private Integer127Type() {
+      super("integer127");
+    }
+
+    @Nonnull
+    public static Integer127Type getInstance() {
+      return INSTANCE;
+    }
+  }
+
+  /** The type of the int constants from 128 to 32767. */
+  public static final class Integer32767Type extends AugmentIntegerType {
+    private static final Integer32767Type INSTANCE = new Integer32767Type();
+
+    private Integer32767Type() {
+      super("integer32767");
+    }
+
+    @Nonnull
+    public static Integer32767Type getInstance() {
+      return INSTANCE;
+    }
+  }
+}
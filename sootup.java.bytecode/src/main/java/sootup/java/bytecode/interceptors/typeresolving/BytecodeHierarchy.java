@@ -0,0 +1,257 @@
+package sootup.java.bytecode.interceptors.typeresolving;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.frontend.ResolveException;
+import sootup.core.typehierarchy.TypeHierarchy;
+import sootup.core.types.ArrayType;
+import sootup.core.types.ClassType;
+import sootup.core.types.NullType;
+import sootup.core.types.PrimitiveType;
+import sootup.core.types.ReferenceType;
+import sootup.core.types.Type;
+import sootup.core.types.UnknownType;
+import sootup.java.core.JavaIdentifierFactory;
+
+/**
+ * The subtyping of the types a local can have in bytecode: the int types including the {@link
+ * AugmentIntegerTypes}, and the reference types, whose class hierarchy is taken from a {@link
+ * TypeHierarchy}. Without a {@link TypeHierarchy}, two different classes have <code>
+ * java.lang.Object</code> as their only common supertype.
+ *
+ * <p>The answers of the {@link TypeHierarchy} are cached and the cache is never invalidated, so an
+ * instance must not outlive changes of the {@link TypeHierarchy}, e.g. by {@link
+ * sootup.core.typehierarchy.MutableTypeHierarchy#addType}. The {@link
+ * sootup.java.bytecode.interceptors.TypeAssigner} uses one instance per body. It is not safe to use
+ * from multiple threads.
+ */
+public class BytecodeHierarchy {
+
+  // the int types; the supertypes of each are kept as a bit mask over this list
+  private static final List<Type> INT_TYPES =
+      Arrays.asList(
+          AugmentIntegerTypes.Integer1Type.getInstance(),
+          AugmentIntegerTypes.Integer127Type.getInstance(),
+          AugmentIntegerTypes.Integer32767Type.getInstance(),
+          PrimitiveType.getBoolean(),
+          PrimitiveType.getByte(),
+          PrimitiveType.getShort(),
+          PrimitiveType.getChar(),
+          PrimitiveType.getInt());
+
+  // boolean is a subtype of int here, as both are ints on the operand stack
+  private static final int[] INT_SUPERTYPES = {
+    0b11111111, 0b11110110, 0b11100100, 0b10001000, 0b10110000, 0b10100000, 0b11000000, 0b10000000
+  };
+
+  @Nullable private final TypeHierarchy typeHierarchy;
+  @Nonnull private final ClassType objectType;
+  @Nonnull private final ClassType cloneableType;
+  @Nonnull private final ClassType serializableType;
+
+  private final Map<TypePair, Type> leastCommonSupertypes = new HashMap<>();
+  private final Map<TypePair, Boolean> subtypes = new HashMap<>();
+
+  public BytecodeHierarchy(@Nullable TypeHierarchy typeHierarchy) {
+    this.typeHierarchy = typeHierarchy;
+    final JavaIdentifierFactory factory = JavaIdentifierFactory.getInstance();
+    objectType = factory.getClassType("java.lang.Object");
+    cloneableType = factory.getClassType("java.lang.Cloneable");
+    serializableType = factory.getClassType("java.io.Serializable");
+  }
+
+  @Nonnull
+  public ClassType getObjectType() {
+    return objectType;
+  }
+
+  /** Returns whether the given type is boolean, byte, char, short, int or an augmented int type. */
+  public static boolean isIntType(@Nonnull Type type) {
+    return INT_TYPES.indexOf(type) >= 0;
+  }
+
+  /**
+   * Returns the least common supertype of both types, or {@link UnknownType} if they have none,
+   * e.g. for an int and a reference type.
+   */
+  @Nonnull
+  public Type getLeastCommonSupertype(@Nonnull Type a, @Nonnull Type b) {
+    if (a.equals(b)) {
+      return a;
+    }
+    final int aIndex = INT_TYPES.indexOf(a);
+    final int bIndex = INT_TYPES.indexOf(b);
+    if (aIndex >= 0 && bIndex >= 0) {
+      final int supertypes = INT_SUPERTYPES[aIndex] & INT_SUPERTYPES[bIndex];
+      for (int i = 0; i < INT_SUPERTYPES.length; i++) {
+        if (INT_SUPERTYPES[i] == supertypes) {
+          return INT_TYPES.get(i);
+        }
+      }
+      return PrimitiveType.getInt();
+    }
+    if (a instanceof ReferenceType && b instanceof ReferenceType) {
+      return getLeastCommonSuperReferenceType((ReferenceType) a, (ReferenceType) b);
+    }
+    return UnknownType.getInstance();
+  }
+
+  /** Returns whether a value of type <code>from</code> can be assigned to type <code>to</code>. */
+  public boolean isAssignable(@Nonnull Type to, @Nonnull Type from) {
+    if (to.equals(from)) {
+      return true;
+    }
+    final int toIndex = INT_TYPES.indexOf(to);
+    final int fromIndex = INT_TYPES.indexOf(from);
+    if (toIndex >= 0 && fromIndex >= 0) {
+      return (INT_SUPERTYPES[fromIndex] & (1 << toIndex)) != 0;
+    }
+    if (!(to instanceof ReferenceType) || !(from instanceof ReferenceType)) {
+      return false;
+    }
+    if (from instanceof NullType || to.equals(objectType)) {
+      return true;
+    }
+    if (to instanceof NullType || typeHierarchy == null) {
+      return false;
+    }
+    final TypePair key = new TypePair(to, from);
+    Boolean subtype = subtypes.get(key);
+    if (subtype == null) {
+      try {
+        subtype = typeHierarchy.isSubtype(to, from);
+      } catch (ResolveException e) {
+        // a type outside of the view
+        subtype = false;
+      }
+      subtypes.put(key, subtype);
+    }
+    return subtype;
+  }
+
+  @Nonnull
+  private Type getLeastCommonSuperReferenceType(
+      @Nonnull ReferenceType a, @Nonnull ReferenceType b) {
+    if (a.equals(b)) {
+      return a;
+    }
+    if (a instanceof NullType) {
+      return b;
+    }
+    if (b instanceof NullType) {
+      return a;
+    }
+    if (a instanceof ArrayType && b instanceof ArrayType) {
+      return getLeastCommonSuperArrayType((ArrayType) a, (ArrayType) b);
+    }
+    if (a instanceof ArrayType || b instanceof ArrayType) {
+      final Type classType = a instanceof ArrayType ? b : a;
+      return classType.equals(cloneableType) || classType.equals(serializableType)
+          ? classType
+          : objectType;
+    }
+    if (typeHierarchy == null) {
+      return objectType;
+    }
+
+    final TypePair key = new TypePair(a, b);
+    Type supertype = leastCommonSupertypes.get(key);
+    if (supertype == null) {
+      supertype = getLeastCommonSuperClass((ClassType) a, (ClassType) b);
+      leastCommonSupertypes.put(key, supertype);
+      leastCommonSupertypes.put(new TypePair(b, a), supertype);
+    }
+    return supertype;
+  }
+
+  @Nonnull
+  private Type getLeastCommonSuperClass(@Nonnull ClassType a, @Nonnull ClassType b) {
+    if (isAssignable(a, b)) {
+      return a;
+    }
+    if (isAssignable(b, a)) {
+      return b;
+    }
+    try {
+      for (ClassType superClass : typeHierarchy.superClassesOf(a)) {
+        if (isAssignable(superClass, b)) {
+          return superClass;
+        }
+      }
+    } catch (ResolveException e) {
+      // a superclass outside of the view
+    }
+    return objectType;
+  }
+
+  @Nonnull
+  private Type getLeastCommonSuperArrayType(@Nonnull ArrayType a, @Nonnull ArrayType b) {
+    final JavaIdentifierFactory factory = JavaIdentifierFactory.getInstance();
+    final Type aBase = a.getBaseType();
+    final Type bBase = b.getBaseType();
+    int dimension = Math.min(a.getDimension(), b.getDimension());
+    if (a.getDimension() == b.getDimension()
+        && aBase instanceof ReferenceType
+        && bBase instanceof ReferenceType) {
+      return factory.getArrayType(
+          getLeastCommonSuperReferenceType((ReferenceType) aBase, (ReferenceType) bBase),
+          dimension);
+    }
+    // e.g. int[][] and String[] have Object[] in common, int[] and String[] only Object
+    final Type lowerBase = a.getDimension() <= b.getDimension() ? aBase : bBase;
+    if (lowerBase instanceof PrimitiveType || a.getDimension() == b.getDimension()) {
+      dimension--;
+    }
+    return dimension == 0 ? objectType : factory.getArrayType(objectType, dimension);
+  }
+
+  private static final class TypePair {
+    @Nonnull private final Type first;
+    @Nonnull private final Type second;
+
+    private TypePair(@Nonnull Type first, @Nonnull Type second) {
+      this.first = first;
+      this.second = second;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof TypePair)) {
+        return false;
+      }
+      final TypePair other = (TypePair) o;
+      return first.equals(other.first) && second.equals(other.second);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * first.hashCode() + second.hashCode();
+    }
+  }
+}
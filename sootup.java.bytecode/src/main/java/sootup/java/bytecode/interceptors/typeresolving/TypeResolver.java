@@ -0,0 +1,477 @@
+package sootup.java.bytecode.interceptors.typeresolving;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.Value;
+import sootup.core.jimple.common.constant.IntConstant;
+import sootup.core.jimple.common.expr.AbstractBinopExpr;
+import sootup.core.jimple.common.expr.AbstractConditionExpr;
+import sootup.core.jimple.common.expr.AbstractInstanceInvokeExpr;
+import sootup.core.jimple.common.expr.AbstractInvokeExpr;
+import sootup.core.jimple.common.expr.JAndExpr;
+import sootup.core.jimple.common.expr.JCmpExpr;
+import sootup.core.jimple.common.expr.JCmpgExpr;
+import sootup.core.jimple.common.expr.JCmplExpr;
+import sootup.core.jimple.common.expr.JNegExpr;
+import sootup.core.jimple.common.expr.JOrExpr;
+import sootup.core.jimple.common.expr.JPhiExpr;
+import sootup.core.jimple.common.expr.JShlExpr;
+import sootup.core.jimple.common.expr.JShrExpr;
+import sootup.core.jimple.common.expr.JUshrExpr;
+import sootup.core.jimple.common.expr.JXorExpr;
+import sootup.core.jimple.common.ref.JArrayRef;
+import sootup.core.jimple.common.ref.JFieldRef;
+import sootup.core.jimple.common.ref.JInstanceFieldRef;
+import sootup.core.jimple.common.stmt.AbstractDefinitionStmt;
+import sootup.core.jimple.common.stmt.JAssignStmt;
+import sootup.core.jimple.common.stmt.JIdentityStmt;
+import sootup.core.jimple.common.stmt.JReturnStmt;
+import sootup.core.jimple.common.stmt.JThrowStmt;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.types.ArrayType;
+import sootup.core.types.NullType;
+import sootup.core.types.PrimitiveType;
+import sootup.core.types.ReferenceType;
+import sootup.core.types.Type;
+import sootup.core.types.UnknownType;
+import sootup.java.core.JavaIdentifierFactory;
+
+/**
+ * Infers the types of the locals of a body whose type is {@link UnknownType}, in the spirit of
+ * Bellamy et al., "Efficient Local Type Inference" (OOPSLA 2008).
+ *
+ * <p>The type of a local is the least common supertype of the types of the values assigned to it.
+ * The types are propagated with a worklist over the definitions: whenever the type of a local
+ * grows, the definitions that read it are evaluated again. int constants get the {@link
+ * AugmentIntegerTypes} of their value range, which are resolved at the end by the uses of the
+ * local, e.g. a local that is only assigned 0 and 1 and passed as a boolean argument becomes a
+ * boolean. A reference local whose inferred type does not fit a use, e.g. the receiver of an
+ * interface call, gets the type of the use if all of its definitions are assignable to it.
+ *
+ * <p>A local with both primitive and reference definitions, e.g. a reused variable slot that has
+ * not been split by the {@code LocalSplitter}, keeps {@link UnknownType}. The number of
+ * evaluations of definitions is bounded by a budget; if it is exceeded, the types found so far are
+ * widened to int, <code>java.lang.Object</code> and arrays of the same dimension, which is
+ * imprecise but not wrong. The budget counts work instead of time, so the result does not depend
+ * on the machine or its load.
+ */
+public class TypeResolver {
+
+  @Nonnull private final BytecodeHierarchy hierarchy;
+  @Nullable private final Type returnType;
+
+  // the locals with unknown type
+  @Nonnull private final Map<Local, Integer> localToIndex = new HashMap<>();
+  @Nonnull private final List<Local> locals = new ArrayList<>();
+  // the inferred type of each local, null while no definition has been evaluated
+  @Nonnull private final Type[] types;
+
+  // the defined local and the assigned value of each definition
+  @Nonnull private final int[] defLocals;
+  @Nonnull private final Value[] defValues;
+  // the definitions of each local and the definitions that read it
+  @Nonnull private final int[][] defsOf;
+  @Nonnull private final int[][] dependents;
+  @Nonnull private final List<Stmt> stmts;
+
+  private boolean budgetExceeded = false;
+
+  public TypeResolver(
+      @Nonnull List<Stmt> stmts,
+      @Nonnull Iterable<Local> locals,
+      @Nullable Type returnType,
+      @Nonnull BytecodeHierarchy hierarchy) {
+    this.stmts = stmts;
+    this.returnType = returnType;
+    this.hierarchy = hierarchy;
+    for (Local local : locals) {
+      if (local.getType() == UnknownType.getInstance()) {
+        localToIndex.put(local, this.locals.size());
+        this.locals.add(local);
+      }
+    }
+    types = new Type[this.locals.size()];
+
+    final List<Integer> defLocalList = new ArrayList<>();
+    final List<Value> defValueList = new ArrayList<>();
+    final List<List<Integer>> defLists = new ArrayList<>();
+    final List<List<Integer>> dependentLists = new ArrayList<>();
+    for (int i = 0; i < this.locals.size(); i++) {
+      defLists.add(new ArrayList<>(1));
+      dependentLists.add(new ArrayList<>(2));
+    }
+    for (Stmt stmt : stmts) {
+      if (!(stmt instanceof JAssignStmt) && !(stmt instanceof JIdentityStmt)) {
+        continue;
+      }
+      final AbstractDefinitionStmt<?, ?> def = (AbstractDefinitionStmt<?, ?>) stmt;
+      final int local = indexOf(def.getLeftOp());
+      if (local < 0) {
+        continue;
+      }
+      final int defId = defLocalList.size();
+      defLists.get(local).add(defId);
+      defLocalList.add(local);
+      defValueList.add(def.getRightOp());
+      // the uses of a value do not contain the value itself, e.g. the local of a copy
+      final List<Value> uses = new ArrayList<>(def.getRightOp().getUses());
+      uses.add(def.getRightOp());
+      for (Value use : uses) {
+        final int usedLocal = indexOf(use);
+        if (usedLocal >= 0) {
+          dependentLists.get(usedLocal).add(defId);
+        }
+      }
+    }
+    defLocals = defLocalList.stream().mapToInt(Integer::intValue).toArray();
+    defValues = defValueList.toArray(new Value[0]);
+    defsOf = new int[this.locals.size()][];
+    dependents = new int[this.locals.size()][];
+    for (int i = 0; i < dependents.length; i++) {
+      defsOf[i] = defLists.get(i).stream().mapToInt(Integer::intValue).toArray();
+      dependents[i] = dependentLists.get(i).stream().mapToInt(Integer::intValue).toArray();
+    }
+  }
+
+  /**
+   * Infers the types and returns them for the locals that got one, in the order of the locals.
+   *
+   * @param evaluationsPerDefinition the budget of the inference: it is cut short after this many
+   *     evaluations per definition of a local on average
+   */
+  @Nonnull
+  public Map<Local, Type> resolve(int evaluationsPerDefinition) {
+    if (locals.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    propagate((long) evaluationsPerDefinition * defLocals.length);
+    if (budgetExceeded) {
+      widen();
+    } else {
+      refineByUses();
+    }
+
+    final Map<Local, Type> result = new LinkedHashMap<>();
+    for (int i = 0; i < types.length; i++) {
+      final Type type = types[i];
+      if (type != null && type != UnknownType.getInstance()) {
+        result.put(locals.get(i), type);
+      }
+    }
+    return result;
+  }
+
+  /** Returns whether the budget was exceeded before the inference was complete. */
+  public boolean isBudgetExceeded() {
+    return budgetExceeded;
+  }
+
+  private int indexOf(@Nonnull Value value) {
+    if (!(value instanceof Local)) {
+      return -1;
+    }
+    final Integer index = localToIndex.get(value);
+    return index == null ? -1 : index;
+  }
+
+  private void propagate(long maxEvaluations) {
+    final int defCount = defLocals.length;
+    // a ring buffer of the definitions to evaluate, each at most once
+    final int[] queue = new int[defCount];
+    final boolean[] queued = new boolean[defCount];
+    for (int d = 0; d < defCount; d++) {
+      queue[d] = d;
+      queued[d] = true;
+    }
+    int head = 0;
+    int size = defCount;
+    long evaluations = 0;
+    while (size > 0) {
+      if (++evaluations > maxEvaluations) {
+        budgetExceeded = true;
+        return;
+      }
+      final int d = queue[head];
+      head = head + 1 == defCount ? 0 : head + 1;
+      size--;
+      queued[d] = false;
+
+      final Type valueType = typeOf(defValues[d]);
+      if (valueType == null) {
+        continue;
+      }
+      final int local = defLocals[d];
+      final Type oldType = types[local];
+      final Type newType =
+          oldType == null ? valueType : hierarchy.getLeastCommonSupertype(oldType, valueType);
+      if (newType.equals(oldType)) {
+        continue;
+      }
+      types[local] = newType;
+      for (int dependent : dependents[local]) {
+        if (!queued[dependent]) {
+          queued[dependent] = true;
+          queue[(head + size) % defCount] = dependent;
+          size++;
+        }
+      }
+    }
+  }
+
+  /** Returns the type of the value for the current types of the locals, or null if unknown yet. */
+  @Nullable
+  private Type typeOf(@Nonnull Value value) {
+    if (value instanceof Local) {
+      final int local = indexOf(value);
+      return local < 0 ? value.getType() : types[local];
+    }
+    if (value instanceof IntConstant) {
+      return AugmentIntegerTypes.getTypeOfConstant(((IntConstant) value).getValue());
+    }
+    if (value instanceof JArrayRef) {
+      final Type base = typeOf(((JArrayRef) value).getBase());
+      if (base == null || base instanceof NullType) {
+        return null;
+      }
+      if (!(base instanceof ArrayType)) {
+        return UnknownType.getInstance();
+      }
+      final ArrayType arrayType = (ArrayType) base;
+      return arrayType.getDimension() == 1
+          ? arrayType.getBaseType()
+          : JavaIdentifierFactory.getInstance()
+              .getArrayType(arrayType.getBaseType(), arrayType.getDimension() - 1);
+    }
+    if (value instanceof AbstractBinopExpr) {
+      return typeOfBinop((AbstractBinopExpr) value);
+    }
+    if (value instanceof JNegExpr) {
+      final Type op = typeOf(((JNegExpr) value).getOp());
+      return op != null && BytecodeHierarchy.isIntType(op) ? PrimitiveType.getInt() : op;
+    }
+    if (value instanceof JPhiExpr) {
+      Type type = null;
+      for (Local arg : ((JPhiExpr) value).getArgs()) {
+        final Type argType = typeOf(arg);
+        if (argType != null) {
+          type = type == null ? argType : hierarchy.getLeastCommonSupertype(type, argType);
+        }
+      }
+      return type;
+    }
+    return value.getType();
+  }
+
+  @Nullable
+  private Type typeOfBinop(@Nonnull AbstractBinopExpr expr) {
+    if (expr instanceof AbstractConditionExpr) {
+      return PrimitiveType.getBoolean();
+    }
+    if (expr instanceof JCmpExpr || expr instanceof JCmplExpr || expr instanceof JCmpgExpr) {
+      return PrimitiveType.getInt();
+    }
+    final Type op1 = typeOf(expr.getOp1());
+    if (op1 == null) {
+      return null;
+    }
+    if (expr instanceof JShlExpr || expr instanceof JShrExpr || expr instanceof JUshrExpr) {
+      return BytecodeHierarchy.isIntType(op1) ? PrimitiveType.getInt() : op1;
+    }
+    final Type op2 = typeOf(expr.getOp2());
+    if (op2 == null) {
+      return null;
+    }
+    if (BytecodeHierarchy.isIntType(op1) && BytecodeHierarchy.isIntType(op2)) {
+      if (expr instanceof JAndExpr || expr instanceof JOrExpr || expr instanceof JXorExpr) {
+        // e.g. the bitwise operations on booleans stay booleans
+        final Type type = hierarchy.getLeastCommonSupertype(op1, op2);
+        final boolean keepsType =
+            type == PrimitiveType.getBoolean() || AugmentIntegerTypes.isAugmentedIntegerType(type);
+        return keepsType ? type : PrimitiveType.getInt();
+      }
+      return PrimitiveType.getInt();
+    }
+    return op1 instanceof PrimitiveType ? op1 : UnknownType.getInstance();
+  }
+
+  /**
+   * Widens the incomplete types to the top of their kind. Arrays stay arrays, as they are still
+   * accessed: arrays of references become <code>java.lang.Object</code> arrays of the same
+   * dimension and arrays of primitives keep their type.
+   */
+  private void widen() {
+    for (int i = 0; i < types.length; i++) {
+      final Type type = types[i];
+      if (type == null) {
+        continue;
+      }
+      if (BytecodeHierarchy.isIntType(type)) {
+        types[i] = PrimitiveType.getInt();
+      } else if (type instanceof ArrayType) {
+        final ArrayType arrayType = (ArrayType) type;
+        if (!(arrayType.getBaseType() instanceof PrimitiveType)) {
+          types[i] =
+              JavaIdentifierFactory.getInstance()
+                  .getArrayType(hierarchy.getObjectType(), arrayType.getDimension());
+        }
+      } else if (type instanceof ReferenceType) {
+        types[i] = hierarchy.getObjectType();
+      }
+    }
+  }
+
+  /**
+   * Resolves the augmented int types and the reference types that do not fit a use with the types
+   * that the uses of the locals require.
+   */
+  private void refineByUses() {
+    final List<List<Type>> required = collectRequiredTypes();
+
+    // each round refines at least one more local, or it is the last one
+    final boolean[] refined = new boolean[types.length];
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (int i = 0; i < types.length; i++) {
+        final Type type = types[i];
+        if (!refined[i] && type instanceof ReferenceType) {
+          final Type refinedType = refineReferenceType(i, type, required.get(i));
+          if (refinedType != type) {
+            types[i] = refinedType;
+            refined[i] = true;
+            changed = true;
+          }
+        }
+      }
+    }
+
+    for (int i = 0; i < types.length; i++) {
+      final Type type = types[i];
+      if (type != null && AugmentIntegerTypes.isAugmentedIntegerType(type)) {
+        // the smallest int type a use requires, or int
+        Type resolved = PrimitiveType.getInt();
+        for (Type requiredType : required.get(i)) {
+          if (BytecodeHierarchy.isIntType(requiredType)
+              && hierarchy.isAssignable(requiredType, type)
+              && hierarchy.isAssignable(resolved, requiredType)) {
+            resolved = requiredType;
+          }
+        }
+        types[i] = resolved;
+      }
+    }
+  }
+
+  @Nonnull
+  private Type refineReferenceType(int local, @Nonnull Type type, @Nonnull List<Type> required) {
+    for (Type requiredType : required) {
+      if (!(requiredType instanceof ReferenceType)
+          || (hierarchy.isAssignable(requiredType, type) && !(type instanceof NullType))) {
+        continue;
+      }
+      boolean fits = true;
+      for (Type otherRequiredType : required) {
+        fits &= hierarchy.isAssignable(otherRequiredType, requiredType);
+      }
+      for (int d : defsOf[local]) {
+        final Type valueType = typeOf(defValues[d]);
+        fits &= valueType != null && hierarchy.isAssignable(requiredType, valueType);
+      }
+      if (fits) {
+        return requiredType;
+      }
+    }
+    return type;
+  }
+
+  /** Collects the types that the uses of each local expect. */
+  @Nonnull
+  private List<List<Type>> collectRequiredTypes() {
+    final List<List<Type>> required = new ArrayList<>(types.length);
+    for (int i = 0; i < types.length; i++) {
+      required.add(new ArrayList<>(1));
+    }
+    for (Stmt stmt : stmts) {
+      if (stmt.containsInvokeExpr()) {
+        final AbstractInvokeExpr invokeExpr = stmt.getInvokeExpr();
+        if (invokeExpr instanceof AbstractInstanceInvokeExpr) {
+          require(
+              required,
+              ((AbstractInstanceInvokeExpr) invokeExpr).getBase(),
+              invokeExpr.getMethodSignature().getDeclClassType());
+        }
+        final List<Type> parameterTypes = invokeExpr.getMethodSignature().getParameterTypes();
+        final List<? extends Value> args = invokeExpr.getArgs();
+        for (int i = 0; i < args.size() && i < parameterTypes.size(); i++) {
+          require(required, args.get(i), parameterTypes.get(i));
+        }
+      }
+      if (stmt instanceof JAssignStmt) {
+        final Value leftOp = ((JAssignStmt<?, ?>) stmt).getLeftOp();
+        final Value rightOp = ((JAssignStmt<?, ?>) stmt).getRightOp();
+        if (leftOp instanceof JFieldRef) {
+          require(required, rightOp, ((JFieldRef) leftOp).getFieldSignature().getType());
+        } else if (leftOp instanceof JArrayRef) {
+          final Type elementType = typeOf(leftOp);
+          if (elementType != null) {
+            require(required, rightOp, elementType);
+          }
+        } else if (indexOf(leftOp) < 0) {
+          require(required, rightOp, leftOp.getType());
+        }
+        for (Value value : Arrays.asList(leftOp, rightOp)) {
+          if (value instanceof JInstanceFieldRef) {
+            final JInstanceFieldRef fieldRef = (JInstanceFieldRef) value;
+            require(required, fieldRef.getBase(), fieldRef.getFieldSignature().getDeclClassType());
+          }
+        }
+      } else if (stmt instanceof JReturnStmt && returnType != null) {
+        require(required, ((JReturnStmt) stmt).getOp(), returnType);
+      } else if (stmt instanceof JThrowStmt) {
+        require(
+            required,
+            ((JThrowStmt) stmt).getOp(),
+            JavaIdentifierFactory.getInstance().getClassType("java.lang.Throwable"));
+      }
+    }
+    return required;
+  }
+
+  private void require(
+      @Nonnull List<List<Type>> required, @Nonnull Value value, @Nonnull Type requiredType) {
+    final int local = indexOf(value);
+    if (local >= 0 && requiredType != UnknownType.getInstance()) {
+      required.get(local).add(requiredType);
+    }
+  }
+}
@@ -0,0 +1,123 @@
+package sootup.java.bytecode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import categories.Java8Test;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.model.SootMethod;
+import sootup.core.types.ClassType;
+import sootup.core.util.printer.JimplePrinter;
+import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.JavaProject;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.binary.BinaryJimpleAnalysisInputLocation;
+import sootup.java.core.binary.BinaryJimpleWriter;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.JavaView;
+
+/** Writes the classes of a jar in the binary Jimple format and reads them again. */
+@Category(Java8Test.class)
+public class BinaryJimpleAnalysisInputLocationTest {
+
+  final Path jar = Paths.get("../shared-test-resources/soot-1580/jpush-android_v3.0.5.jar");
+  Path directory;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("sootup-binary-jimple");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  private JavaView createBytecodeView() {
+    return JavaProject.builder(new JavaLanguage(7))
+        .addInputLocation(new PathBasedAnalysisInputLocation(jar, null))
+        .build()
+        .createOnDemandView();
+  }
+
+  private JavaView createBinaryJimpleView() {
+    return JavaProject.builder(new JavaLanguage(7))
+        .addInputLocation(new BinaryJimpleAnalysisInputLocation(directory))
+        .build()
+        .createOnDemandView();
+  }
+
+  private static int resolveBodies(JavaView view) {
+    int stmtCount = 0;
+    for (JavaSootClass clazz : view.getClasses()) {
+      for (SootMethod method : clazz.getMethods()) {
+        if (method.isConcrete()) {
+          stmtCount += method.getBody().getStmts().size();
+        }
+      }
+    }
+    return stmtCount;
+  }
+
+  @Test
+  public void writtenClassesCanBeRead() throws IOException {
+    final JavaView bytecodeView = createBytecodeView();
+    for (JavaSootClass clazz : bytecodeView.getClasses()) {
+      BinaryJimpleWriter.writeToDirectory(clazz, directory);
+    }
+
+    final JavaView binaryView = createBinaryJimpleView();
+    final Map<ClassType, JavaSootClass> classes =
+        binaryView.getClasses().stream()
+            .collect(Collectors.toMap(JavaSootClass::getType, Function.identity()));
+    assertEquals(91, classes.size());
+    for (JavaSootClass clazz : bytecodeView.getClasses()) {
+      PersistentClassCacheTest.assertSameClass(clazz, classes.get(clazz.getType()));
+    }
+
+    // a single class can be resolved without reading the others
+    final JavaView lazyView = createBinaryJimpleView();
+    final ClassType type = bytecodeView.getClasses().iterator().next().getType();
+    assertTrue(lazyView.getClass(type).isPresent());
+    assertFalse(
+        lazyView
+            .getClass(JavaIdentifierFactory.getInstance().getClassType("does.not.Exist"))
+            .isPresent());
+  }
+
+  @Test
+  public void binaryJimpleIsSmallerThanTextJimple() throws IOException {
+    long jimpleSize = 0;
+    long binarySize = 0;
+    for (JavaSootClass clazz : createBytecodeView().getClasses()) {
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      try (PrintWriter writer = new PrintWriter(out)) {
+        new JimplePrinter().printTo(clazz, writer);
+      }
+      jimpleSize += out.size();
+      binarySize += Files.size(BinaryJimpleWriter.writeToDirectory(clazz, directory));
+    }
+    assertTrue(binarySize < jimpleSize);
+    assertEquals(resolveBodies(createBytecodeView()), resolveBodies(createBinaryJimpleView()));
+  }
+}
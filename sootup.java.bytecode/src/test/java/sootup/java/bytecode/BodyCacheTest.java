@@ -0,0 +1,112 @@
+package sootup.java.bytecode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import categories.Java8Test;
+import com.google.common.cache.CacheStats;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.cache.BodyCache;
+import sootup.core.model.Body;
+import sootup.core.model.SootMethod;
+import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
+import sootup.java.core.JavaProject;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.JavaView;
+
+/** Checks the retention policies of a {@link BodyCache} that is set on a {@link JavaView}. */
+@Category(Java8Test.class)
+public class BodyCacheTest {
+
+  final Path jar = Paths.get("../shared-test-resources/soot-1580/jpush-android_v3.0.5.jar");
+
+  private JavaView createView(BodyCache bodyCache) {
+    JavaView view =
+        JavaProject.builder(new JavaLanguage(7))
+            .addInputLocation(new PathBasedAnalysisInputLocation(jar, null))
+            .build()
+            .createOnDemandView();
+    view.setBodyCache(bodyCache);
+    return view;
+  }
+
+  private static List<SootMethod> concreteMethods(JavaView view, int count) {
+    return view.getClasses().stream()
+        .flatMap(clazz -> clazz.getMethods().stream())
+        .filter(SootMethod::isConcrete)
+        .sorted((a, b) -> a.getSignature().toString().compareTo(b.getSignature().toString()))
+        .limit(count)
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  public void noCache() {
+    JavaView view = createView(null);
+    assertNull(view.getBodyCache());
+    SootMethod method = concreteMethods(view, 1).get(0);
+    assertSame(method.getBody(), method.getBody());
+  }
+
+  @Test
+  public void strongCache() {
+    BodyCache bodyCache = BodyCache.strong();
+    JavaView view = createView(bodyCache);
+    List<SootMethod> methods = concreteMethods(view, 10);
+
+    methods.forEach(SootMethod::getBody);
+    for (SootMethod method : methods) {
+      assertSame(method.getBody(), method.getBody());
+    }
+
+    CacheStats stats = bodyCache.getStats();
+    assertEquals(10, stats.missCount());
+    assertEquals(20, stats.hitCount());
+    assertEquals(0, stats.evictionCount());
+    assertEquals(10, bodyCache.size());
+  }
+
+  @Test
+  public void boundedCacheEvictsAndRebuilds() {
+    BodyCache bodyCache = BodyCache.bounded(2);
+    JavaView view = createView(bodyCache);
+    List<SootMethod> methods = concreteMethods(view, 5);
+
+    Body firstBody = methods.get(0).getBody();
+    String firstBodyText = firstBody.toString();
+    methods.forEach(SootMethod::getBody);
+    assertTrue(bodyCache.size() <= 2);
+
+    Body rebuiltBody = methods.get(0).getBody();
+    assertNotSame(firstBody, rebuiltBody);
+    assertEquals(firstBodyText, rebuiltBody.toString());
+
+    CacheStats stats = bodyCache.getStats();
+    assertEquals(1, stats.hitCount());
+    assertEquals(6, stats.missCount());
+    assertEquals(4, stats.evictionCount());
+  }
+
+  @Test
+  public void weightBoundedCache() {
+    BodyCache bodyCache = BodyCache.bounded(200, BodyCache.STMT_COUNT_WEIGHER);
+    JavaView view = createView(bodyCache);
+    List<SootMethod> methods = concreteMethods(view, 50);
+
+    long totalWeight = 0;
+    for (SootMethod method : methods) {
+      totalWeight += method.getBody().getStmtGraph().nodes().size();
+    }
+    assertTrue(totalWeight > 200);
+    assertTrue(bodyCache.getStats().evictionCount() > 0);
+    assertEquals(50, bodyCache.getStats().missCount());
+    assertEquals(BodyCache.RetentionPolicy.BOUNDED, bodyCache.getRetentionPolicy());
+  }
+}
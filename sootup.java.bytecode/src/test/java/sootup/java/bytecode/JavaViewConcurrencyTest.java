@@ -0,0 +1,269 @@
+package sootup.java.bytecode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import categories.Java8Test;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.frontend.BodySource;
+import sootup.core.frontend.ResolveException;
+import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.inputlocation.ClassLoadingOptions;
+import sootup.core.model.Body;
+import sootup.core.model.Modifier;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.types.ClassType;
+import sootup.java.bytecode.interceptors.NopEliminator;
+import sootup.java.bytecode.interceptors.UnusedLocalEliminator;
+import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
+import sootup.java.core.JavaProject;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.JavaSootMethod;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.BodyMaterializationResult;
+import sootup.java.core.views.JavaView;
+
+/** Checks that a {@link JavaView} can be queried from multiple threads at the same time. */
+@Category(Java8Test.class)
+public class JavaViewConcurrencyTest {
+
+  final Path jar = Paths.get("../shared-test-resources/soot-1580/jpush-android_v3.0.5.jar");
+  final int threadCount = 8;
+
+  private JavaView createView() {
+    AnalysisInputLocation<JavaSootClass> inputLocation =
+        new PathBasedAnalysisInputLocation(jar, null);
+    JavaProject project =
+        JavaProject.builder(new JavaLanguage(7)).addInputLocation(inputLocation).build();
+    return project.createOnDemandView();
+  }
+
+  private List<ClassType> getClassTypes() {
+    return createView().getClasses().stream()
+        .map(JavaSootClass::getType)
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  public void concurrentGetClassBuildsEachClassOnce() throws Exception {
+    final List<ClassType> types = getClassTypes();
+    assertEquals(91, types.size());
+
+    for (int round = 0; round < 10; round++) {
+      final JavaView view = createView();
+      final Map<ClassType, JavaSootClass> seen = new ConcurrentHashMap<>();
+      final CountDownLatch start = new CountDownLatch(1);
+      final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+      final List<Future<?>> futures = new ArrayList<>();
+
+      for (int t = 0; t < threadCount; t++) {
+        final List<ClassType> shuffled = new ArrayList<>(types);
+        Collections.shuffle(shuffled, new Random(round * threadCount + t));
+        futures.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  for (ClassType type : shuffled) {
+                    Optional<JavaSootClass> clazz = view.getClass(type);
+                    assertTrue(clazz.isPresent());
+                    JavaSootClass previous = seen.putIfAbsent(type, clazz.get());
+                    if (previous != null) {
+                      // every thread has to get the very same instance
+                      assertSame(previous, clazz.get());
+                    }
+                  }
+                  return null;
+                }));
+      }
+
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get();
+      }
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+      assertEquals(types.size(), seen.size());
+      assertEquals(types.size(), view.getClasses().size());
+      for (JavaSootClass clazz : view.getClasses()) {
+        assertSame(seen.get(clazz.getType()), clazz);
+      }
+    }
+  }
+
+  @Test
+  public void concurrentGetClassesResolvesAll() throws Exception {
+    final JavaView view = createView();
+    final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    final List<Future<Integer>> futures = new ArrayList<>();
+    for (int t = 0; t < threadCount; t++) {
+      futures.add(executor.submit(() -> view.getClasses().size()));
+    }
+    for (Future<Integer> future : futures) {
+      future.get();
+    }
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+    assertEquals(91, view.getClasses().size());
+  }
+
+  @Test
+  public void parallelResolveAllEqualsSequentialResolveAll() {
+    final Set<ClassType> sequentialTypes =
+        createView().getClasses().stream().map(JavaSootClass::getType).collect(Collectors.toSet());
+
+    final ForkJoinPool pool = new ForkJoinPool(threadCount);
+    try {
+      final JavaView view = createView();
+      final AtomicInteger progressCalls = new AtomicInteger();
+      final AtomicInteger lastTotal = new AtomicInteger();
+      view.setResolveAllExecutor(pool);
+      view.setResolveProgressListener(
+          (resolved, total) -> {
+            progressCalls.incrementAndGet();
+            lastTotal.set(total);
+          });
+
+      final Set<ClassType> parallelTypes =
+          view.getClasses().stream().map(JavaSootClass::getType).collect(Collectors.toSet());
+      assertEquals(sequentialTypes, parallelTypes);
+      assertEquals(91, progressCalls.get());
+      assertEquals(91, lastTotal.get());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void parallelResolveAllUsesFirstMatchingInputLocation() {
+    final PathBasedAnalysisInputLocation first = new PathBasedAnalysisInputLocation(jar, null);
+    final PathBasedAnalysisInputLocation second = new PathBasedAnalysisInputLocation(jar, null);
+    final JavaProject project =
+        JavaProject.builder(new JavaLanguage(7))
+            .addInputLocation(first)
+            .addInputLocation(second)
+            .build();
+
+    final ForkJoinPool pool = new ForkJoinPool(threadCount);
+    try {
+      final JavaView view = project.createOnDemandView();
+      view.setResolveAllExecutor(pool);
+      assertEquals(91, view.getClasses().size());
+      for (JavaSootClass clazz : view.getClasses()) {
+        assertSame(
+            first.getPathBasedAnalysisInputLocationObj(),
+            clazz.getClassSource().getClassSource());
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private JavaView createViewWithInterceptors() {
+    AnalysisInputLocation<JavaSootClass> inputLocation =
+        new PathBasedAnalysisInputLocation(jar, null);
+    JavaProject project =
+        JavaProject.builder(new JavaLanguage(7)).addInputLocation(inputLocation).build();
+    return project.createOnDemandView(
+        location ->
+            (ClassLoadingOptions)
+                () -> Arrays.asList(new NopEliminator(), new UnusedLocalEliminator()));
+  }
+
+  private static Map<MethodSignature, String> printBodies(JavaView view) {
+    final Map<MethodSignature, String> bodies = new HashMap<>();
+    for (JavaSootClass clazz : view.getClasses()) {
+      for (JavaSootMethod method : clazz.getMethods()) {
+        if (method.isConcrete()) {
+          bodies.put(method.getSignature(), method.getBody().toString());
+        }
+      }
+    }
+    return bodies;
+  }
+
+  @Test
+  public void materializeBodiesEqualsLazyBodies() {
+    final Map<MethodSignature, String> lazyBodies = printBodies(createViewWithInterceptors());
+
+    final ForkJoinPool pool = new ForkJoinPool(threadCount);
+    try {
+      final JavaView view = createViewWithInterceptors();
+      final BodyMaterializationResult result = view.materializeBodies(clazz -> true, pool, 16);
+      assertFalse(result.hasFailures());
+      assertEquals(lazyBodies.size(), result.getMaterializedBodies());
+      assertEquals(lazyBodies, printBodies(view));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void materializeBodiesIsolatesFailures() {
+    final JavaView view = createView();
+    final List<SootMethod> methods =
+        view.getClasses().stream()
+            .flatMap(clazz -> clazz.getMethods().stream())
+            .filter(SootMethod::isConcrete)
+            .collect(Collectors.toList());
+    final JavaSootMethod brokenMethod =
+        ((JavaSootMethod) methods.get(0))
+            .withSource(
+                new BodySource() {
+                  @Nonnull
+                  @Override
+                  public Body resolveBody(@Nonnull Iterable<Modifier> modifiers) {
+                    throw new ResolveException("broken body", Paths.get(""));
+                  }
+
+                  @Override
+                  public Object resolveAnnotationsDefaultValue() {
+                    return null;
+                  }
+
+                  @Nonnull
+                  @Override
+                  public MethodSignature getSignature() {
+                    return methods.get(0).getSignature();
+                  }
+                });
+    final List<SootMethod> allMethods = new ArrayList<>(methods);
+    allMethods.add(brokenMethod);
+
+    final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    try {
+      final BodyMaterializationResult result = view.materializeBodies(allMethods, executor, 4);
+      assertEquals(methods.size(), result.getMaterializedBodies());
+      assertEquals(1, result.getFailures().size());
+      assertTrue(
+          result.getFailures().get(brokenMethod.getSignature()) instanceof ResolveException);
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
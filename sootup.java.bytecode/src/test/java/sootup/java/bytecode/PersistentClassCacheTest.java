@@ -0,0 +1,239 @@
+package sootup.java.bytecode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import categories.Java8Test;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.inputlocation.ClassLoadingOptions;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.Body;
+import sootup.core.transform.BodyInterceptor;
+import sootup.core.types.ClassType;
+import sootup.java.bytecode.interceptors.DeadAssignmentEliminator;
+import sootup.java.bytecode.interceptors.NopEliminator;
+import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
+import sootup.java.core.JavaProject;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.JavaSootField;
+import sootup.java.core.JavaSootMethod;
+import sootup.java.core.binary.BinaryJimpleClassSource;
+import sootup.java.core.binary.PersistentClassCache;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.JavaView;
+
+/** Checks that classes which are decoded from a {@link PersistentClassCache} are unchanged. */
+@Category(Java8Test.class)
+public class PersistentClassCacheTest {
+
+  final Path jar = Paths.get("../shared-test-resources/soot-1580/jpush-android_v3.0.5.jar");
+  Path cacheDirectory;
+
+  @Before
+  public void setUp() throws IOException {
+    cacheDirectory = Files.createTempDirectory("sootup-class-cache");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    try (Stream<Path> paths = Files.walk(cacheDirectory)) {
+      for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  private JavaView createView(PersistentClassCache cache) {
+    PathBasedAnalysisInputLocation inputLocation = new PathBasedAnalysisInputLocation(jar, null);
+    inputLocation.setClassCache(cache);
+    JavaProject project =
+        JavaProject.builder(new JavaLanguage(7)).addInputLocation(inputLocation).build();
+    return project.createOnDemandView();
+  }
+
+  private JavaView createView(PersistentClassCache cache, BodyInterceptor... bodyInterceptors) {
+    PathBasedAnalysisInputLocation inputLocation = new PathBasedAnalysisInputLocation(jar, null);
+    inputLocation.setClassCache(cache);
+    JavaProject project =
+        JavaProject.builder(new JavaLanguage(7)).addInputLocation(inputLocation).build();
+    return project.createOnDemandView(
+        location -> (ClassLoadingOptions) () -> Arrays.asList(bodyInterceptors));
+  }
+
+  private static Map<ClassType, JavaSootClass> classesByType(JavaView view) {
+    return view.getClasses().stream()
+        .collect(Collectors.toMap(JavaSootClass::getType, Function.identity()));
+  }
+
+  /** Resolves every class and every body of the view and returns the number of statements. */
+  private static int resolveAll(JavaView view) {
+    int stmtCount = 0;
+    for (JavaSootClass clazz : view.getClasses()) {
+      for (JavaSootMethod method : clazz.getMethods()) {
+        if (method.isConcrete()) {
+          stmtCount += method.getBody().getStmts().size();
+        }
+      }
+    }
+    return stmtCount;
+  }
+
+  private static List<Object> toList(Iterable<?> elements) {
+    return StreamSupport.stream(elements.spliterator(), false).collect(Collectors.toList());
+  }
+
+  private static List<String> toStrings(Iterable<?> elements) {
+    return StreamSupport.stream(elements.spliterator(), false)
+        .map(String::valueOf)
+        .sorted()
+        .collect(Collectors.toList());
+  }
+
+  static void assertSameClass(JavaSootClass expected, JavaSootClass actual) {
+    assertEquals(expected.getModifiers(), actual.getModifiers());
+    assertEquals(expected.getSuperclass(), actual.getSuperclass());
+    assertEquals(expected.getInterfaces(), actual.getInterfaces());
+    assertEquals(expected.getOuterClass(), actual.getOuterClass());
+    assertEquals(expected.getPosition(), actual.getPosition());
+    assertEquals(
+        toList(expected.getDeclaredAnnotations()), toList(actual.getDeclaredAnnotations()));
+
+    final Map<?, JavaSootField> actualFields =
+        actual.getFields().stream()
+            .collect(Collectors.toMap(JavaSootField::getSignature, Function.identity()));
+    assertEquals(expected.getFields().size(), actualFields.size());
+    for (JavaSootField field : expected.getFields()) {
+      final JavaSootField actualField = actualFields.get(field.getSignature());
+      assertEquals(field.getModifiers(), actualField.getModifiers());
+      assertEquals(
+          toList(field.getDeclaredAnnotations()),
+          toList(actualField.getDeclaredAnnotations()));
+    }
+
+    final Map<?, JavaSootMethod> actualMethods =
+        actual.getMethods().stream()
+            .collect(Collectors.toMap(JavaSootMethod::getSignature, Function.identity()));
+    assertEquals(expected.getMethods().size(), actualMethods.size());
+    for (JavaSootMethod method : expected.getMethods()) {
+      final JavaSootMethod actualMethod = actualMethods.get(method.getSignature());
+      assertEquals(method.getModifiers(), actualMethod.getModifiers());
+      assertEquals(method.getExceptionSignatures(), actualMethod.getExceptionSignatures());
+      assertEquals(
+          toList(method.getDeclaredAnnotations()),
+          toList(actualMethod.getDeclaredAnnotations()));
+      assertEquals(method.isConcrete(), actualMethod.isConcrete());
+      if (method.isConcrete()) {
+        assertSameBody(method.getBody(), actualMethod.getBody());
+      }
+    }
+  }
+
+  private static void assertSameBody(Body expected, Body actual) {
+    final List<Stmt> expectedStmts = expected.getStmts();
+    final List<Stmt> actualStmts = actual.getStmts();
+    assertEquals(expected.getMethodSignature(), actual.getMethodSignature());
+    assertEquals(expectedStmts.size(), actualStmts.size());
+    for (int i = 0; i < expectedStmts.size(); i++) {
+      final Stmt expectedStmt = expectedStmts.get(i);
+      final Stmt actualStmt = actualStmts.get(i);
+      assertEquals(expectedStmt.toString(), actualStmt.toString());
+      assertEquals(
+          expectedStmt.getPositionInfo().getStmtPosition(),
+          actualStmt.getPositionInfo().getStmtPosition());
+      assertEquals(
+          toStrings(expected.getStmtGraph().successors(expectedStmt)),
+          toStrings(actual.getStmtGraph().successors(actualStmt)));
+    }
+    assertEquals(toStrings(expected.getTraps()), toStrings(actual.getTraps()));
+    assertEquals(
+        expected.getLocals().stream()
+            .map(local -> local.getName() + ":" + local.getType())
+            .collect(Collectors.toList()),
+        actual.getLocals().stream()
+            .map(local -> local.getName() + ":" + local.getType())
+            .collect(Collectors.toList()));
+  }
+
+  @Test
+  public void cachedClassesEqualConvertedClasses() {
+    final Map<ClassType, JavaSootClass> expected = classesByType(createView(null));
+    assertEquals(91, expected.size());
+
+    final PersistentClassCache coldCache = new PersistentClassCache(cacheDirectory);
+    final Map<ClassType, JavaSootClass> cold = classesByType(createView(coldCache));
+    assertEquals(0, coldCache.getHitCount());
+    assertNotEquals(0, coldCache.getMissCount());
+
+    final PersistentClassCache warmCache = new PersistentClassCache(cacheDirectory);
+    final Map<ClassType, JavaSootClass> warm = classesByType(createView(warmCache));
+    assertEquals(0, warmCache.getMissCount());
+    assertEquals(coldCache.getMissCount(), warmCache.getHitCount());
+
+    assertEquals(expected.keySet(), cold.keySet());
+    assertEquals(expected.keySet(), warm.keySet());
+    for (JavaSootClass clazz : expected.values()) {
+      assertSameClass(clazz, cold.get(clazz.getType()));
+      assertSameClass(clazz, warm.get(clazz.getType()));
+      assertTrue(warm.get(clazz.getType()).getClassSource() instanceof BinaryJimpleClassSource);
+    }
+  }
+
+  @Test
+  public void corruptedEntriesAreReplaced() throws IOException {
+    final PersistentClassCache cache = new PersistentClassCache(cacheDirectory);
+    final int stmtCount = resolveAll(createView(cache));
+    try (Stream<Path> paths = Files.walk(cacheDirectory)) {
+      for (Path path : paths.filter(Files::isRegularFile).collect(Collectors.toList())) {
+        Files.write(path, new byte[] {1, 2, 3});
+      }
+    }
+    assertEquals(stmtCount, resolveAll(createView(new PersistentClassCache(cacheDirectory))));
+    final PersistentClassCache repairedCache = new PersistentClassCache(cacheDirectory);
+    assertEquals(stmtCount, resolveAll(createView(repairedCache)));
+    assertEquals(0, repairedCache.getMissCount());
+  }
+
+  @Test
+  public void interceptorSettingsArePartOfTheKey() {
+    final PersistentClassCache coldCache = new PersistentClassCache(cacheDirectory);
+    createView(coldCache, new NopEliminator(), new DeadAssignmentEliminator(true)).getClasses();
+    assertNotEquals(0, coldCache.getMissCount());
+
+    final PersistentClassCache otherSettingsCache = new PersistentClassCache(cacheDirectory);
+    createView(otherSettingsCache, new NopEliminator(), new DeadAssignmentEliminator(false))
+        .getClasses();
+    assertEquals(0, otherSettingsCache.getHitCount());
+    assertEquals(coldCache.getMissCount(), otherSettingsCache.getMissCount());
+
+    final PersistentClassCache warmCache = new PersistentClassCache(cacheDirectory);
+    createView(warmCache, new NopEliminator(), new DeadAssignmentEliminator(true)).getClasses();
+    assertEquals(0, warmCache.getMissCount());
+    assertEquals(coldCache.getMissCount(), warmCache.getHitCount());
+  }
+
+  @Test
+  public void unidentifiableInterceptorsAreNotCached() {
+    final BodyInterceptor interceptor = builder -> {};
+    final PersistentClassCache cache = new PersistentClassCache(cacheDirectory);
+    final int stmtCount = resolveAll(createView(cache, new NopEliminator(), interceptor));
+    assertEquals(stmtCount, resolveAll(createView(cache, new NopEliminator(), interceptor)));
+    assertEquals(0, cache.getHitCount());
+    assertEquals(0, cache.getMissCount());
+  }
+}
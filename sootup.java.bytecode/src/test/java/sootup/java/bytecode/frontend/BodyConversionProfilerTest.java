@@ -0,0 +1,77 @@
+package sootup.java.bytecode.frontend;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import categories.Java8Test;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.inputlocation.ClassLoadingOptions;
+import sootup.core.model.SootMethod;
+import sootup.core.transform.BodyConversionStatistics;
+import sootup.java.bytecode.interceptors.NopEliminator;
+import sootup.java.bytecode.interceptors.UnusedLocalEliminator;
+import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
+import sootup.java.core.JavaProject;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.JavaView;
+
+@Category(Java8Test.class)
+public class BodyConversionProfilerTest {
+
+  @Test
+  public void recordsEveryPhase() {
+    JavaView view =
+        JavaProject.builder(new JavaLanguage(7))
+            .addInputLocation(
+                new PathBasedAnalysisInputLocation(
+                    Paths.get("../shared-test-resources/soot-1580/jpush-android_v3.0.5.jar"),
+                    null))
+            .build()
+            .createOnDemandView(
+                location ->
+                    (ClassLoadingOptions)
+                        () -> Arrays.asList(new NopEliminator(), new UnusedLocalEliminator()));
+    BodyConversionStatistics statistics = new BodyConversionStatistics();
+    view.setBodyConversionProfiler(statistics);
+
+    List<SootMethod> methods =
+        view.getClasses().stream()
+            .flatMap(clazz -> clazz.getMethods().stream())
+            .filter(SootMethod::isConcrete)
+            .collect(Collectors.toList());
+    methods.forEach(SootMethod::getBody);
+
+    List<String> phases =
+        statistics.getPhases().stream()
+            .map(BodyConversionStatistics.PhaseStatistics::getName)
+            .collect(Collectors.toList());
+    assertEquals(
+        Arrays.asList(
+            BodyConversionStatistics.CLASS_DECODING_PHASE,
+            "convert",
+            "arrangeStmts",
+            "NopEliminator",
+            "UnusedLocalEliminator",
+            "build"),
+        phases);
+    assertEquals(91, statistics.getPhase(BodyConversionStatistics.CLASS_DECODING_PHASE).getCount());
+    for (String phase : phases.subList(1, phases.size())) {
+      BodyConversionStatistics.PhaseStatistics phaseStatistics = statistics.getPhase(phase);
+      assertEquals(methods.size(), phaseStatistics.getCount());
+      assertNotNull(phaseStatistics.getSlowest());
+      assertTrue(phaseStatistics.getPercentileNanos(0.5) <= phaseStatistics.getPercentileNanos(1));
+    }
+    // the interceptors can only remove statements
+    assertTrue(statistics.getPhase("NopEliminator").getStmtDelta() <= 0);
+    assertEquals(methods.size(), statistics.getMethodCount());
+    assertEquals(5, statistics.getSlowestMethods(5).size());
+
+    assertTrue(statistics.report(5).contains("UnusedLocalEliminator"));
+  }
+}
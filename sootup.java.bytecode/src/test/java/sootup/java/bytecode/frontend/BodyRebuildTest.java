@@ -0,0 +1,88 @@
+package sootup.java.bytecode.frontend;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import categories.Java8Test;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.model.Body;
+import sootup.core.model.SootMethod;
+import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
+import sootup.java.core.JavaProject;
+import sootup.java.core.language.JavaLanguage;
+
+/**
+ * Checks rebuilding the bodies of a jar via {@link Body#builder(Body, java.util.Set)}: unmodified,
+ * i.e. sharing the frozen graph, and modified, i.e. copying the graph with and without validation.
+ */
+@Category(Java8Test.class)
+public class BodyRebuildTest {
+
+  private static final List<SootMethod> methods = new ArrayList<>();
+
+  @BeforeClass
+  public static void loadBodies() {
+    JavaProject.builder(new JavaLanguage(7))
+        .addInputLocation(
+            new PathBasedAnalysisInputLocation(
+                Paths.get("../shared-test-resources/soot-1580/jpush-android_v3.0.5.jar"), null))
+        .build()
+        .createOnDemandView()
+        .getClasses()
+        .forEach(
+            clazz -> {
+              for (SootMethod method : clazz.getMethods()) {
+                if (method.isConcrete()) {
+                  method.getBody();
+                  methods.add(method);
+                }
+              }
+            });
+  }
+
+  private static Body.BodyBuilder builder(SootMethod method) {
+    return Body.builder(method.getBody(), method.getModifiers());
+  }
+
+  private static Body rebuildModified(SootMethod method) {
+    final Body.BodyBuilder builder = builder(method);
+    builder.getStmtGraph();
+    return builder.build();
+  }
+
+  private static Body rebuildModifiedTrusted(SootMethod method) {
+    final Body.BodyBuilder builder = builder(method);
+    builder.getStmtGraph();
+    return builder.buildTrusted();
+  }
+
+  @Test
+  public void unmodifiedRebuildSharesGraph() {
+    for (SootMethod method : methods) {
+      final Body body = method.getBody();
+      final Body rebuilt = builder(method).build();
+      assertSame(body.getStmtGraph(), rebuilt.getStmtGraph());
+      assertEquals(body.getLocals(), rebuilt.getLocals());
+      assertEquals(body.getStmts(), builder(method).getStmts());
+    }
+  }
+
+  @Test
+  public void modifiedRebuildCopiesGraph() {
+    for (SootMethod method : methods) {
+      final Body body = method.getBody();
+      for (Body rebuilt : new Body[] {rebuildModified(method), rebuildModifiedTrusted(method)}) {
+        assertNotSame(body.getStmtGraph(), rebuilt.getStmtGraph());
+        assertEquals(body.getStmtGraph(), rebuilt.getStmtGraph());
+        assertEquals(body.getStmts(), rebuilt.getStmts());
+        assertEquals(body.getTraps(), rebuilt.getTraps());
+      }
+    }
+  }
+}
@@ -0,0 +1,153 @@
+package sootup.java.bytecode.inputlocation;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import categories.Java8Test;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.types.ClassType;
+import sootup.java.core.JavaProject;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.JavaView;
+
+@Category(Java8Test.class)
+public class JavaClassPathAnalysisInputLocationTest extends AnalysisInputLocationTest {
+
+  private Path directory;
+  private ClassType employee;
+
+  @Before
+  public void setUpDirectory() throws IOException {
+    directory = Files.createTempDirectory("sootup-class-path");
+    employee = getIdentifierFactory().getClassType("Employee", "ds");
+  }
+
+  @After
+  public void tearDownDirectory() throws IOException {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  private static JavaView createView(AnalysisInputLocation<JavaSootClass> inputLocation) {
+    return JavaProject.builder(new JavaLanguage(8))
+        .addInputLocation(inputLocation)
+        .build()
+        .createOnDemandView();
+  }
+
+  private static String classPath(Path... paths) {
+    return Stream.of(paths).map(Path::toString).collect(Collectors.joining(File.pathSeparator));
+  }
+
+  /** Copies the class file of ds.Employee from the jar into the directory. */
+  private void copyEmployeeToDirectory() throws IOException {
+    try (FileSystem fs = FileSystems.newFileSystem(jar, (ClassLoader) null);
+        InputStream in = Files.newInputStream(fs.getPath("/ds/Employee.class"))) {
+      Files.createDirectories(directory.resolve("ds"));
+      Files.copy(in, directory.resolve("ds").resolve("Employee.class"));
+    }
+  }
+
+  private boolean isFoundInDirectory(
+      JavaClassPathAnalysisInputLocation inputLocation, JavaView view) {
+    return inputLocation
+        .getClassSource(employee, view)
+        .get()
+        .getSourcePath()
+        .startsWith(directory);
+  }
+
+  @Test
+  public void testClassPath() {
+    final JavaClassPathAnalysisInputLocation inputLocation =
+        new JavaClassPathAnalysisInputLocation(classPath(directory, jar));
+    testClassReceival(inputLocation, employee, 4);
+    testClassReceival(inputLocation, getIdentifierFactory().getClassType("MiniApp"), 4);
+
+    final ClassType phantom = getIdentifierFactory().getClassType("Phantom", "ds");
+    assertFalse(inputLocation.getClassSource(phantom, createView(inputLocation)).isPresent());
+  }
+
+  @Test
+  public void firstEntryShadowsLaterEntries() throws IOException {
+    copyEmployeeToDirectory();
+
+    final JavaClassPathAnalysisInputLocation directoryFirst =
+        new JavaClassPathAnalysisInputLocation(classPath(directory, jar));
+    assertTrue(isFoundInDirectory(directoryFirst, createView(directoryFirst)));
+
+    final JavaClassPathAnalysisInputLocation jarFirst =
+        new JavaClassPathAnalysisInputLocation(classPath(jar, directory));
+    assertFalse(isFoundInDirectory(jarFirst, createView(jarFirst)));
+  }
+
+  @Test
+  public void missesDoNotRebuildTheIndex() throws IOException {
+    final JavaClassPathAnalysisInputLocation inputLocation =
+        new JavaClassPathAnalysisInputLocation(classPath(directory));
+    final JavaView view = createView(inputLocation);
+    assertFalse(inputLocation.getClassSource(employee, view).isPresent());
+
+    // a miss is answered by the index alone, so the added class is not seen
+    copyEmployeeToDirectory();
+    assertFalse(inputLocation.getClassSource(employee, view).isPresent());
+
+    inputLocation.invalidateIndex();
+    assertTrue(isFoundInDirectory(inputLocation, view));
+  }
+
+  @Test
+  public void shadowingClassesAreFoundAfterInvalidation() throws IOException {
+    final JavaClassPathAnalysisInputLocation inputLocation =
+        new JavaClassPathAnalysisInputLocation(classPath(directory, jar));
+    final JavaView view = createView(inputLocation);
+    assertFalse(isFoundInDirectory(inputLocation, view));
+
+    copyEmployeeToDirectory();
+    assertFalse(isFoundInDirectory(inputLocation, view));
+
+    inputLocation.invalidateIndex();
+    assertTrue(isFoundInDirectory(inputLocation, view));
+  }
+}
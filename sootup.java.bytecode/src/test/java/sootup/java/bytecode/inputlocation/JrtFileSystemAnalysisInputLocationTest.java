@@ -12,6 +12,7 @@ import sootup.core.Project;
 import sootup.core.frontend.AbstractClassSource;
 import sootup.core.inputlocation.DefaultSourceTypeSpecifier;
 import sootup.core.types.ClassType;
+import sootup.java.core.JavaIdentifierFactory;
 import sootup.java.core.JavaModuleIdentifierFactory;
 import sootup.java.core.JavaModuleProject;
 import sootup.java.core.JavaSootClass;
@@ -41,6 +42,41 @@ public class JrtFileSystemAnalysisInputLocationTest {
     assertEquals(sig, clazz.get().getClassType());
   }
 
+  @Test
+  public void getClassSourceWithoutModule() {
+    JrtFileSystemAnalysisInputLocation inputLocation = new JrtFileSystemAnalysisInputLocation();
+    Project<JavaSootClass, JavaView> project =
+        new JavaModuleProject(
+            new JavaLanguage(9),
+            Collections.emptyList(),
+            Collections.singletonList(inputLocation),
+            DefaultSourceTypeSpecifier.getInstance());
+    final JavaView view = project.createOnDemandView();
+    final JavaIdentifierFactory identifierFactory = JavaIdentifierFactory.getInstance();
+
+    final ClassType string = identifierFactory.getClassType("java.lang.String");
+    final Optional<? extends AbstractClassSource<JavaSootClass>> clazz =
+        inputLocation.getClassSource(string, view);
+    assertTrue(clazz.isPresent());
+    assertEquals(string, clazz.get().getClassType());
+    assertEquals(
+        "modules/java.base/java/lang/String.class", clazz.get().getSourcePath().toString());
+
+    final ClassType sql = identifierFactory.getClassType("java.sql.Connection");
+    assertEquals(
+        "modules/java.sql/java/sql/Connection.class",
+        inputLocation.getClassSource(sql, view).get().getSourcePath().toString());
+
+    assertFalse(
+        inputLocation
+            .getClassSource(identifierFactory.getClassType("java.lang.DoesNotExist"), view)
+            .isPresent());
+    assertFalse(
+        inputLocation
+            .getClassSource(identifierFactory.getClassType("not.a.jdk.Package"), view)
+            .isPresent());
+  }
+
   @Test
   public void getClassSources() {
     // hint: quite expensive as it loads **all** Runtime modules!
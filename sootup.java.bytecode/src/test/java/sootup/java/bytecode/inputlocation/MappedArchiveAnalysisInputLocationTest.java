@@ -0,0 +1,191 @@
+package sootup.java.bytecode.inputlocation;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import categories.Java8Test;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.model.SootClassMember;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.Signature;
+import sootup.core.types.ClassType;
+import sootup.java.core.JavaProject;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.JavaView;
+
+@Category(Java8Test.class)
+public class MappedArchiveAnalysisInputLocationTest extends AnalysisInputLocationTest {
+
+  final Path largerJar = Paths.get("../shared-test-resources/soot-1580/jpush-android_v3.0.5.jar");
+
+  private static JavaView createView(AnalysisInputLocation<JavaSootClass> inputLocation) {
+    return JavaProject.builder(new JavaLanguage(7))
+        .addInputLocation(inputLocation)
+        .build()
+        .createOnDemandView();
+  }
+
+  private static List<String> getStmts(SootMethod method) {
+    return method.getBody().getStmts().stream().map(Object::toString).collect(Collectors.toList());
+  }
+
+  private static Set<Signature> getSignatures(Set<? extends SootClassMember<?>> members) {
+    return members.stream().map(SootClassMember::getSignature).collect(Collectors.toSet());
+  }
+
+  @Test
+  public void testJar() {
+    final MappedArchiveAnalysisInputLocation inputLocation =
+        new MappedArchiveAnalysisInputLocation(jar);
+
+    testClassReceival(inputLocation, getIdentifierFactory().getClassType("Employee", "ds"), 4);
+    testClassReceival(inputLocation, getIdentifierFactory().getClassType("MiniApp"), 4);
+
+    final JavaView view = createView(inputLocation);
+    assertFalse(
+        inputLocation
+            .getClassSource(getIdentifierFactory().getClassType("NotInTheJar", "ds"), view)
+            .isPresent());
+  }
+
+  @Test
+  public void sameClassesAsZipFileSystem() {
+    final JavaView expectedView = createView(new PathBasedAnalysisInputLocation(largerJar, null));
+    final MappedArchiveAnalysisInputLocation inputLocation =
+        new MappedArchiveAnalysisInputLocation(largerJar);
+    final JavaView view = createView(inputLocation);
+
+    final Map<ClassType, JavaSootClass> expectedClasses =
+        expectedView.getClasses().stream()
+            .collect(Collectors.toMap(JavaSootClass::getType, Function.identity()));
+    final Map<ClassType, JavaSootClass> classes =
+        view.getClasses().stream()
+            .collect(Collectors.toMap(JavaSootClass::getType, Function.identity()));
+    assertEquals(expectedClasses.keySet(), classes.keySet());
+    assertEquals(expectedClasses.size(), inputLocation.getClassCount());
+
+    for (JavaSootClass expected : expectedClasses.values()) {
+      final JavaSootClass actual = classes.get(expected.getType());
+      assertEquals(expected.getSuperclass(), actual.getSuperclass());
+      assertEquals(expected.getInterfaces(), actual.getInterfaces());
+      assertEquals(getSignatures(expected.getFields()), getSignatures(actual.getFields()));
+      for (SootMethod expectedMethod : expected.getMethods()) {
+        final SootMethod method =
+            actual.getMethod(expectedMethod.getSignature().getSubSignature()).get();
+        if (expectedMethod.isConcrete()) {
+          assertEquals(getStmts(expectedMethod), getStmts(method));
+        }
+      }
+    }
+  }
+
+  /**
+   * Copies the jar and overwrites a field of the central directory header of its last class file.
+   *
+   * @param fieldOffset the offset of the field in the header
+   * @param value the new value of the field
+   * @param isShort whether the field has two bytes instead of four
+   */
+  private Path corruptedJar(int fieldOffset, int value, boolean isShort) throws IOException {
+    final ByteBuffer archive = ByteBuffer.wrap(Files.readAllBytes(jar));
+    archive.order(ByteOrder.LITTLE_ENDIAN);
+    int header = -1;
+    for (int position = 0; position <= archive.capacity() - 46; position++) {
+      if (archive.getInt(position) == 0x02014b50) {
+        final int nameLength = archive.getShort(position + 28) & 0xFFFF;
+        final String name =
+            new String(archive.array(), position + 46, nameLength, StandardCharsets.UTF_8);
+        if (name.endsWith(".class")) {
+          header = position;
+        }
+      }
+    }
+    if (isShort) {
+      archive.putShort(header + fieldOffset, (short) value);
+    } else {
+      archive.putInt(header + fieldOffset, value);
+    }
+    final Path corrupted = Files.createTempFile("sootup-corrupted", ".jar");
+    Files.write(corrupted, archive.array());
+    return corrupted;
+  }
+
+  private static void assertCorrupted(Runnable access) {
+    try {
+      access.run();
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().endsWith("is corrupted."));
+    }
+  }
+
+  @Test
+  public void corruptedNameLength() throws IOException {
+    final Path corrupted = corruptedJar(28, 0xFFFF, true);
+    try {
+      assertCorrupted(() -> new MappedArchiveAnalysisInputLocation(corrupted));
+    } finally {
+      Files.delete(corrupted);
+    }
+  }
+
+  @Test
+  public void corruptedSizes() throws IOException {
+    final Path negative = corruptedJar(20, 0x80000000, false);
+    try {
+      assertCorrupted(() -> new MappedArchiveAnalysisInputLocation(negative));
+    } finally {
+      Files.delete(negative);
+    }
+
+    final Path tooLarge = corruptedJar(20, Integer.MAX_VALUE - 1, false);
+    try {
+      final MappedArchiveAnalysisInputLocation inputLocation =
+          new MappedArchiveAnalysisInputLocation(tooLarge);
+      final JavaView view = createView(inputLocation);
+      assertCorrupted(() -> inputLocation.getClassSources(view));
+    } finally {
+      Files.delete(tooLarge);
+    }
+  }
+}
@@ -0,0 +1,155 @@
+package sootup.java.bytecode.interceptors;
+
+import static org.junit.Assert.assertEquals;
+
+import categories.Java8Test;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.graph.MutableBlockStmtGraph;
+import sootup.core.graph.StmtGraph;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.basic.Value;
+import sootup.core.jimple.common.constant.IntConstant;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.types.ClassType;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.language.JavaJimple;
+
+/**
+ * Compares {@link LocalLivenessAnalyser} with a straightforward stmt-level fixpoint on generated
+ * methods with loops, a trap and many locals.
+ */
+@Category(Java8Test.class)
+public class LocalLivenessAnalyserReferenceTest {
+
+  private final JavaIdentifierFactory factory = JavaIdentifierFactory.getInstance();
+  private final StmtPositionInfo noPosition = StmtPositionInfo.createNoStmtPositionInfo();
+  private final ClassType intType = factory.getClassType("int");
+  private final ClassType exceptionType = factory.getClassType("java.lang.Exception");
+
+  /** Generates a method body with the given number of stmts and int locals. */
+  private StmtGraph<?> generateGraph(int stmtCount, int localCount, long seed) {
+    final Random random = new Random(seed);
+    final List<Local> locals = new ArrayList<>();
+    for (int i = 0; i < localCount; i++) {
+      locals.add(JavaJimple.newLocal("l" + i, intType));
+    }
+
+    final List<Stmt> stmts = new ArrayList<>();
+    final List<Integer> branchTargets = new ArrayList<>();
+    for (int i = 0; i < stmtCount - 1; i++) {
+      final Local op1 = locals.get(random.nextInt(localCount));
+      if (i > 0 && random.nextInt(100) < 10) {
+        stmts.add(
+            JavaJimple.newIfStmt(
+                JavaJimple.newGtExpr(op1, IntConstant.getInstance(0)), noPosition));
+        branchTargets.add(random.nextInt(stmtCount - 1));
+      } else {
+        final Local op2 = locals.get(random.nextInt(localCount));
+        stmts.add(
+            JavaJimple.newAssignStmt(
+                locals.get(random.nextInt(localCount)),
+                JavaJimple.newAddExpr(op1, op2),
+                noPosition));
+        branchTargets.add(-1);
+      }
+    }
+    stmts.add(JavaJimple.newReturnStmt(locals.get(0), noPosition));
+
+    // the handler of the trap reads a few locals and continues after the trapped range
+    final int trapStart = stmtCount / 4;
+    final int trapEnd = stmtCount / 2;
+    final Local exception = JavaJimple.newLocal("ex", exceptionType);
+    final Stmt handler =
+        JavaJimple.newIdentityStmt(
+            exception, JavaJimple.getInstance().newCaughtExceptionRef(), noPosition);
+    final Stmt handlerUse =
+        JavaJimple.newAssignStmt(
+            locals.get(1), JavaJimple.newAddExpr(locals.get(2), locals.get(3)), noPosition);
+
+    final MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+    for (int i = 0; i < stmts.size(); i++) {
+      graph.addNode(
+          stmts.get(i),
+          i >= trapStart && i < trapEnd
+              ? Collections.singletonMap(exceptionType, handler)
+              : Collections.emptyMap());
+    }
+    graph.setStartingStmt(stmts.get(0));
+    for (int i = 0; i < stmts.size() - 1; i++) {
+      graph.putEdge(stmts.get(i), stmts.get(i + 1));
+      if (branchTargets.get(i) >= 0) {
+        graph.putEdge(stmts.get(i), stmts.get(branchTargets.get(i)));
+      }
+    }
+    graph.putEdge(handler, handlerUse);
+    graph.putEdge(handlerUse, stmts.get(trapEnd));
+    return graph;
+  }
+
+  /**
+   * The textbook stmt-level fixpoint: out = union of the successors' in, in = use + out - def +
+   * union of the handlers' in.
+   */
+  private static Map<Stmt, Set<Local>> referenceLiveIn(StmtGraph<?> graph) {
+    final List<Stmt> stmts = new ArrayList<>(graph.nodes());
+    final Map<Stmt, Set<Local>> liveIn = new HashMap<>();
+    for (Stmt stmt : stmts) {
+      liveIn.put(stmt, new HashSet<>());
+    }
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (int i = stmts.size() - 1; i >= 0; i--) {
+        final Stmt stmt = stmts.get(i);
+        final Set<Local> in = new HashSet<>();
+        for (Stmt succ : graph.successors(stmt)) {
+          in.addAll(liveIn.get(succ));
+        }
+        final List<Value> defs = stmt.getDefs();
+        if (!defs.isEmpty() && defs.get(0) instanceof Local) {
+          in.remove(defs.get(0));
+        }
+        for (Value use : stmt.getUses()) {
+          if (use instanceof Local) {
+            in.add((Local) use);
+          }
+        }
+        for (Stmt succ : graph.exceptionalSuccessors(stmt).values()) {
+          in.addAll(liveIn.get(succ));
+        }
+        if (!in.equals(liveIn.get(stmt))) {
+          liveIn.put(stmt, in);
+          changed = true;
+        }
+      }
+    }
+    return liveIn;
+  }
+
+  @Test
+  public void sameResultAsReference() {
+    for (long seed = 0; seed < 5; seed++) {
+      final StmtGraph<?> graph = generateGraph(500, 40, seed);
+      final Map<Stmt, Set<Local>> expected = referenceLiveIn(graph);
+      final LocalLivenessAnalyser analyser = new LocalLivenessAnalyser(graph);
+      for (Stmt stmt : graph.nodes()) {
+        assertEquals(expected.get(stmt), analyser.getLiveLocalsBeforeStmt(stmt));
+        final Set<Local> expectedOut = new HashSet<>();
+        for (Stmt succ : graph.successors(stmt)) {
+          expectedOut.addAll(expected.get(succ));
+        }
+        assertEquals(expectedOut, analyser.getLiveLocalsAfterStmt(stmt));
+      }
+    }
+  }
+}
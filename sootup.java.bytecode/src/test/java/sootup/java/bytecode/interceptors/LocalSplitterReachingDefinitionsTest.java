@@ -0,0 +1,190 @@
+package sootup.java.bytecode.interceptors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import categories.Java8Test;
+import java.util.*;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.graph.MutableBlockStmtGraph;
+import sootup.core.graph.StmtGraph;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.NoPositionInformation;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.basic.Value;
+import sootup.core.jimple.common.constant.IntConstant;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.Body;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.types.ClassType;
+import sootup.core.types.VoidType;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.language.JavaJimple;
+
+/**
+ * Checks {@link LocalSplitter} on generated methods with loops and a trap: every definition of an
+ * original local that reaches a use has to be renamed to the local of that use.
+ */
+@Category(Java8Test.class)
+public class LocalSplitterReachingDefinitionsTest {
+
+  private final JavaIdentifierFactory factory = JavaIdentifierFactory.getInstance();
+  private final StmtPositionInfo noPosition = StmtPositionInfo.createNoStmtPositionInfo();
+  private final ClassType intType = factory.getClassType("int");
+  private final ClassType exceptionType = factory.getClassType("java.lang.Exception");
+  private final MethodSignature methodSignature =
+      new MethodSignature(
+          factory.getClassType("Test"), "test", Collections.emptyList(), VoidType.getInstance());
+
+  /** Generates a method body with the given number of stmts and int locals. */
+  private Body.BodyBuilder generateBody(int stmtCount, int localCount, long seed) {
+    final Random random = new Random(seed);
+    final List<Local> locals = new ArrayList<>();
+    for (int i = 0; i < localCount; i++) {
+      locals.add(JavaJimple.newLocal("l" + i, intType));
+    }
+
+    final List<Stmt> stmts = new ArrayList<>();
+    final List<Integer> branchTargets = new ArrayList<>();
+    // define every local before the branches start
+    for (Local local : locals) {
+      stmts.add(JavaJimple.newAssignStmt(local, IntConstant.getInstance(0), noPosition));
+      branchTargets.add(-1);
+    }
+    for (int i = localCount; i < stmtCount - 1; i++) {
+      final Local op1 = locals.get(random.nextInt(localCount));
+      if (random.nextInt(100) < 5) {
+        stmts.add(
+            JavaJimple.newIfStmt(
+                JavaJimple.newGtExpr(op1, IntConstant.getInstance(0)), noPosition));
+        // short forward and backward jumps, as in real code
+        final int offset = 2 + random.nextInt(20);
+        final boolean backward =
+            random.nextBoolean() ? i - offset >= localCount : i + offset >= stmtCount;
+        branchTargets.add(backward ? i - offset : i + offset);
+      } else {
+        final Local op2 = locals.get(random.nextInt(localCount));
+        stmts.add(
+            JavaJimple.newAssignStmt(
+                locals.get(random.nextInt(localCount)),
+                JavaJimple.newAddExpr(op1, op2),
+                noPosition));
+        branchTargets.add(-1);
+      }
+    }
+    stmts.add(JavaJimple.newReturnStmt(locals.get(0), noPosition));
+
+    // the handler of the trap reads a few locals and continues after the trapped range
+    final int trapStart = stmtCount / 4;
+    final int trapEnd = stmtCount / 2;
+    final Stmt handler =
+        JavaJimple.newIdentityStmt(
+            JavaJimple.newLocal("ex", exceptionType),
+            JavaJimple.getInstance().newCaughtExceptionRef(),
+            noPosition);
+    final Stmt handlerUse =
+        JavaJimple.newAssignStmt(
+            locals.get(1), JavaJimple.newAddExpr(locals.get(2), locals.get(3)), noPosition);
+
+    final MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+    for (int i = 0; i < stmts.size(); i++) {
+      graph.addNode(
+          stmts.get(i),
+          i >= trapStart && i < trapEnd
+              ? Collections.singletonMap(exceptionType, handler)
+              : Collections.emptyMap());
+    }
+    graph.setStartingStmt(stmts.get(0));
+    for (int i = 0; i < stmts.size() - 1; i++) {
+      graph.putEdge(stmts.get(i), stmts.get(i + 1));
+      if (branchTargets.get(i) >= 0) {
+        graph.putEdge(stmts.get(i), stmts.get(branchTargets.get(i)));
+      }
+    }
+    graph.putEdge(handler, handlerUse);
+    graph.putEdge(handlerUse, stmts.get(trapEnd));
+
+    final Body.BodyBuilder builder = Body.builder(graph);
+    builder.setMethodSignature(methodSignature);
+    final Set<Local> bodyLocals = new LinkedHashSet<>(locals);
+    bodyLocals.add(JavaJimple.newLocal("ex", exceptionType));
+    builder.setLocals(bodyLocals);
+    builder.setPosition(NoPositionInformation.getInstance());
+    return builder;
+  }
+
+  private static String originalName(Local local) {
+    final int hash = local.getName().indexOf('#');
+    return hash < 0 ? local.getName() : local.getName().substring(0, hash);
+  }
+
+  private static Local definedLocal(Stmt stmt) {
+    final List<Value> defs = stmt.getDefs();
+    return !defs.isEmpty() && defs.get(0) instanceof Local ? (Local) defs.get(0) : null;
+  }
+
+  /**
+   * Walks backwards from each use of the split graph and checks that every definition of the
+   * original local that reaches it has been renamed to the used local.
+   */
+  private static void assertUsesMatchReachingDefinitions(StmtGraph<?> graph) {
+    final Map<Stmt, List<Stmt>> predecessors = new HashMap<>();
+    for (Stmt stmt : graph.nodes()) {
+      predecessors.putIfAbsent(stmt, new ArrayList<>());
+      for (Stmt succ : graph.successors(stmt)) {
+        predecessors.computeIfAbsent(succ, s -> new ArrayList<>()).add(stmt);
+      }
+    }
+    // an exceptional predecessor is left before it assigns anything, so its predecessors are
+    // searched instead
+    final Map<Stmt, List<Stmt>> exceptionalPredecessors = new HashMap<>();
+    for (Stmt stmt : graph.nodes()) {
+      for (Stmt handler : graph.exceptionalSuccessors(stmt).values()) {
+        exceptionalPredecessors.computeIfAbsent(handler, s -> new ArrayList<>()).add(stmt);
+      }
+    }
+
+    for (Stmt stmt : graph.nodes()) {
+      for (Value use : stmt.getUses()) {
+        if (!(use instanceof Local)) {
+          continue;
+        }
+        final String original = originalName((Local) use);
+        final Deque<Stmt> worklist = new ArrayDeque<>(predecessors.get(stmt));
+        final Set<Stmt> visited = new HashSet<>();
+        for (Stmt pred : exceptionalPredecessors.getOrDefault(stmt, Collections.emptyList())) {
+          worklist.addAll(predecessors.get(pred));
+          worklist.addAll(exceptionalPredecessors.getOrDefault(pred, Collections.emptyList()));
+        }
+        while (!worklist.isEmpty()) {
+          final Stmt pred = worklist.poll();
+          if (!visited.add(pred)) {
+            continue;
+          }
+          final Local def = definedLocal(pred);
+          if (def != null && originalName(def).equals(original)) {
+            assertEquals(use + " in " + stmt, ((Local) use).getName(), def.getName());
+            continue;
+          }
+          worklist.addAll(predecessors.get(pred));
+          for (Stmt exPred :
+              exceptionalPredecessors.getOrDefault(pred, Collections.emptyList())) {
+            worklist.addAll(predecessors.get(exPred));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void usesMatchReachingDefinitions() {
+    for (long seed = 0; seed < 5; seed++) {
+      final Body.BodyBuilder builder = generateBody(300, 10, seed);
+      new LocalSplitter().interceptBody(builder);
+      final Body body = builder.build();
+      assertUsesMatchReachingDefinitions(body.getStmtGraph());
+      assertTrue(body.getLocals().size() > 11);
+    }
+  }
+}
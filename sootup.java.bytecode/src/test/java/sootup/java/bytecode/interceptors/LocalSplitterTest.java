@@ -2,7 +2,6 @@ package sootup.java.bytecode.interceptors;
 
 import categories.Java8Test;
 import java.util.*;
-import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import sootup.core.graph.MutableBlockStmtGraph;
@@ -25,7 +24,6 @@ import sootup.java.core.types.JavaClassType;
 
 /** @author Zun Wang */
 @Category(Java8Test.class)
-@Ignore("FIXME: does currently not work")
 public class LocalSplitterTest {
 
   // Preparation
@@ -217,9 +215,11 @@ public class LocalSplitterTest {
    *    l2 = 2
    *    return
    *    $stack3 := @caughtexception
-   *    l3 = l1#2
+   *    l3 = l1#1
    *    goto return
    * </pre>
+   *
+   * The handler is reached before l1#2 is assigned, so it uses l1#1.
    */
   @Test
   public void testLocalSplitterInTraps() {
@@ -615,13 +615,14 @@ public class LocalSplitterTest {
     Stmt stmt2 = JavaJimple.newAssignStmt(l1hash2, IntConstant.getInstance(1), noStmtPositionInfo);
     Stmt stmt3 = JavaJimple.newAssignStmt(l2, IntConstant.getInstance(2), noStmtPositionInfo);
     Stmt stmt4 = JavaJimple.newIdentityStmt(stack3, caughtExceptionRef, noStmtPositionInfo);
-    Stmt stmt5 = JavaJimple.newAssignStmt(l3, l1hash2, noStmtPositionInfo);
+    Stmt stmt5 = JavaJimple.newAssignStmt(l3, l1hash1, noStmtPositionInfo);
     Stmt stmt6 = JavaJimple.newGotoStmt(noStmtPositionInfo);
     Stmt ret = JavaJimple.newReturnVoidStmt(noStmtPositionInfo);
 
     graph.addBlock(
         Arrays.asList(startingStmt, stmt1, stmt2), Collections.singletonMap(exception, stmt4));
     graph.addBlock(Arrays.asList(stmt4, stmt5, stmt6), Collections.emptyMap());
+    graph.addNode(stmt3);
     graph.putEdge(stmt2, stmt3);
     graph.putEdge(stmt3, ret);
     graph.putEdge(stmt6, ret);
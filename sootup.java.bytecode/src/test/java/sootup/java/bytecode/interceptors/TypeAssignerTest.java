@@ -0,0 +1,389 @@
+package sootup.java.bytecode.interceptors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import categories.Java8Test;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.frontend.ResolveException;
+import sootup.core.graph.MutableBlockStmtGraph;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.NoPositionInformation;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.basic.Value;
+import sootup.core.jimple.common.constant.IntConstant;
+import sootup.core.jimple.common.constant.NullConstant;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.Body;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.typehierarchy.TypeHierarchy;
+import sootup.core.types.ArrayType;
+import sootup.core.types.ClassType;
+import sootup.core.types.PrimitiveType;
+import sootup.core.types.Type;
+import sootup.core.types.UnknownType;
+import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
+import sootup.java.bytecode.interceptors.typeresolving.BytecodeHierarchy;
+import sootup.java.bytecode.interceptors.typeresolving.TypeResolver;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.JavaProject;
+import sootup.java.core.language.JavaJimple;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.JavaView;
+
+@Category(Java8Test.class)
+public class TypeAssignerTest {
+
+  private final JavaIdentifierFactory factory = JavaIdentifierFactory.getInstance();
+  private final JavaJimple javaJimple = JavaJimple.getInstance();
+  private final StmtPositionInfo noPosition = StmtPositionInfo.createNoStmtPositionInfo();
+
+  private final ClassType testType = factory.getClassType("Test");
+  private final ClassType objectType = factory.getClassType("java.lang.Object");
+  private final ClassType stringType = factory.getClassType("java.lang.String");
+  private final ClassType runnableType = factory.getClassType("java.lang.Runnable");
+  private final ClassType aType = factory.getClassType("A");
+  private final ClassType bType = factory.getClassType("B");
+  private final ClassType cType = factory.getClassType("C");
+
+  /**
+   * A hierarchy of the classes A, B and C extends A, where A and B implement java.lang.Runnable.
+   */
+  private final TypeHierarchy typeHierarchy =
+      new TypeHierarchy() {
+        private final Map<ClassType, ClassType> superClasses = new HashMap<>();
+        private final Map<ClassType, Set<ClassType>> interfaces = new HashMap<>();
+
+        {
+          superClasses.put(aType, objectType);
+          superClasses.put(bType, objectType);
+          superClasses.put(cType, aType);
+          superClasses.put(runnableType, objectType);
+          superClasses.put(objectType, null);
+          interfaces.put(aType, Collections.singleton(runnableType));
+          interfaces.put(bType, Collections.singleton(runnableType));
+          interfaces.put(cType, Collections.singleton(runnableType));
+        }
+
+        @Nonnull
+        @Override
+        public Set<ClassType> implementersOf(@Nonnull ClassType interfaceType) {
+          throw new UnsupportedOperationException();
+        }
+
+        @Nonnull
+        @Override
+        public Set<ClassType> subclassesOf(@Nonnull ClassType classType) {
+          throw new UnsupportedOperationException();
+        }
+
+        @Nonnull
+        @Override
+        public Set<ClassType> implementedInterfacesOf(@Nonnull ClassType type) {
+          return interfaces.getOrDefault(type, Collections.emptySet());
+        }
+
+        @Nonnull
+        @Override
+        public Set<ClassType> subtypesOf(@Nonnull ClassType type) {
+          throw new UnsupportedOperationException();
+        }
+
+        @Nonnull
+        @Override
+        public Set<ClassType> directSubtypesOf(@Nonnull ClassType type) {
+          throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ClassType superClassOf(@Nonnull ClassType classType) {
+          if (!superClasses.containsKey(classType)) {
+            throw new ResolveException("Could not find " + classType);
+          }
+          return superClasses.get(classType);
+        }
+      };
+
+  private static Local unknownLocal(String name) {
+    return JavaJimple.newLocal(name, UnknownType.getInstance());
+  }
+
+  private Body.BodyBuilder createBody(List<Stmt> stmts, List<Local> locals, String returnType) {
+    final MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+    graph.setStartingStmt(stmts.get(0));
+    for (int i = 0; i < stmts.size() - 1; i++) {
+      graph.putEdge(stmts.get(i), stmts.get(i + 1));
+    }
+    final Body.BodyBuilder builder = Body.builder(graph);
+    builder.setMethodSignature(
+        factory.getMethodSignature("test", "Test", returnType, Collections.emptyList()));
+    builder.setLocals(new LinkedHashSet<>(locals));
+    builder.setPosition(NoPositionInformation.getInstance());
+    return builder;
+  }
+
+  private static Map<String, Type> typesOf(Body body) {
+    final Map<String, Type> types = new HashMap<>();
+    for (Local local : body.getLocals()) {
+      types.put(local.getName(), local.getType());
+    }
+    return types;
+  }
+
+  /**
+   * Tests the types of
+   *
+   * <pre>
+   * l0 := @this: Test
+   * l1 := @parameter0: int
+   * l2 = 1
+   * l3 = l1 + 5
+   * l4 = new java.lang.StringBuilder
+   * l5 = newarray (java.lang.String)[l3]
+   * l6 = l5[0]
+   * l7 = null
+   * l8 = 0
+   * l8 = l6
+   * staticinvoke &lt;Test: void use(boolean,java.lang.String,java.lang.String)&gt;(l2, l6, l7)
+   * return l3
+   * </pre>
+   *
+   * where l8 has definitions of different kinds and keeps its unknown type.
+   */
+  @Test
+  public void testPrimitiveAndReferenceTypes() {
+    final Local l0 = unknownLocal("l0");
+    final Local l1 = unknownLocal("l1");
+    final Local l2 = unknownLocal("l2");
+    final Local l3 = unknownLocal("l3");
+    final Local l4 = unknownLocal("l4");
+    final Local l5 = unknownLocal("l5");
+    final Local l6 = unknownLocal("l6");
+    final Local l7 = unknownLocal("l7");
+    final Local l8 = unknownLocal("l8");
+    final MethodSignature use =
+        factory.getMethodSignature(
+            "use",
+            "Test",
+            "void",
+            Arrays.asList("boolean", "java.lang.String", "java.lang.String"));
+    final List<Stmt> stmts =
+        Arrays.asList(
+            JavaJimple.newIdentityStmt(l0, javaJimple.newThisRef(testType), noPosition),
+            JavaJimple.newIdentityStmt(
+                l1, javaJimple.newParameterRef(PrimitiveType.getInt(), 0), noPosition),
+            JavaJimple.newAssignStmt(l2, IntConstant.getInstance(1), noPosition),
+            JavaJimple.newAssignStmt(
+                l3, JavaJimple.newAddExpr(l1, IntConstant.getInstance(5)), noPosition),
+            JavaJimple.newAssignStmt(
+                l4,
+                JavaJimple.newNewExpr(factory.getClassType("java.lang.StringBuilder")),
+                noPosition),
+            JavaJimple.newAssignStmt(l5, javaJimple.newNewArrayExpr(stringType, l3), noPosition),
+            JavaJimple.newAssignStmt(
+                l6, javaJimple.newArrayRef(l5, IntConstant.getInstance(0)), noPosition),
+            JavaJimple.newAssignStmt(l7, NullConstant.getInstance(), noPosition),
+            JavaJimple.newAssignStmt(l8, IntConstant.getInstance(0), noPosition),
+            JavaJimple.newAssignStmt(l8, l6, noPosition),
+            JavaJimple.newInvokeStmt(
+                JavaJimple.newStaticInvokeExpr(use, Arrays.asList(l2, l6, l7)), noPosition),
+            JavaJimple.newReturnStmt(l3, noPosition));
+    final Body.BodyBuilder builder =
+        createBody(stmts, Arrays.asList(l0, l1, l2, l3, l4, l5, l6, l7, l8), "int");
+
+    new TypeAssigner().interceptBody(builder);
+    final Body body = builder.build();
+
+    final Map<String, Type> types = typesOf(body);
+    assertEquals(testType, types.get("l0"));
+    assertEquals(PrimitiveType.getInt(), types.get("l1"));
+    assertEquals(PrimitiveType.getBoolean(), types.get("l2"));
+    assertEquals(PrimitiveType.getInt(), types.get("l3"));
+    assertEquals(factory.getClassType("java.lang.StringBuilder"), types.get("l4"));
+    assertEquals(new ArrayType(stringType, 1), types.get("l5"));
+    assertEquals(stringType, types.get("l6"));
+    assertEquals(stringType, types.get("l7"));
+    assertEquals(UnknownType.getInstance(), types.get("l8"));
+
+    // the stmts refer to the typed locals as well
+    for (Stmt stmt : body.getStmts()) {
+      for (Local local : stmt.getUsesAndDefs().stream()
+          .filter(value -> value instanceof Local)
+          .map(value -> (Local) value)
+          .collect(Collectors.toList())) {
+        assertEquals(stmt.toString(), types.get(local.getName()), local.getType());
+      }
+    }
+  }
+
+  /**
+   * Tests
+   *
+   * <pre>
+   * l1 = new A
+   * l1 = new B
+   * interfaceinvoke l1.&lt;java.lang.Runnable: void run()&gt;()
+   * l2 = new C
+   * l2 = new A
+   * return
+   * </pre>
+   *
+   * where l1 is typed by its use, as A and B have no common superclass but java.lang.Object.
+   */
+  @Test
+  public void testLeastCommonSuperclassAndInterfaceUse() {
+    final Local l1 = unknownLocal("l1");
+    final Local l2 = unknownLocal("l2");
+    final MethodSignature run =
+        factory.getMethodSignature("run", "java.lang.Runnable", "void", Collections.emptyList());
+    final List<Stmt> stmts =
+        Arrays.asList(
+            JavaJimple.newAssignStmt(l1, JavaJimple.newNewExpr(aType), noPosition),
+            JavaJimple.newAssignStmt(l1, JavaJimple.newNewExpr(bType), noPosition),
+            JavaJimple.newInvokeStmt(JavaJimple.newInterfaceInvokeExpr(l1, run), noPosition),
+            JavaJimple.newAssignStmt(l2, JavaJimple.newNewExpr(cType), noPosition),
+            JavaJimple.newAssignStmt(l2, JavaJimple.newNewExpr(aType), noPosition),
+            JavaJimple.newReturnVoidStmt(noPosition));
+
+    final Body.BodyBuilder withHierarchy = createBody(stmts, Arrays.asList(l1, l2), "void");
+    new TypeAssigner(typeHierarchy).interceptBody(withHierarchy);
+    Map<String, Type> types = typesOf(withHierarchy.build());
+    assertEquals(runnableType, types.get("l1"));
+    assertEquals(aType, types.get("l2"));
+
+    final Body.BodyBuilder withoutHierarchy = createBody(stmts, Arrays.asList(l1, l2), "void");
+    new TypeAssigner().interceptBody(withoutHierarchy);
+    types = typesOf(withoutHierarchy.build());
+    assertEquals(objectType, types.get("l1"));
+    assertEquals(objectType, types.get("l2"));
+  }
+
+  @Test
+  public void testLeastCommonSupertypes() {
+    final BytecodeHierarchy hierarchy = new BytecodeHierarchy(typeHierarchy);
+    assertEquals(aType, hierarchy.getLeastCommonSupertype(cType, aType));
+    assertEquals(objectType, hierarchy.getLeastCommonSupertype(bType, cType));
+    assertEquals(
+        new ArrayType(aType, 2),
+        hierarchy.getLeastCommonSupertype(new ArrayType(cType, 2), new ArrayType(aType, 2)));
+    assertEquals(
+        new ArrayType(objectType, 1),
+        hierarchy.getLeastCommonSupertype(
+            new ArrayType(PrimitiveType.getInt(), 2), new ArrayType(stringType, 1)));
+    assertEquals(
+        objectType,
+        hierarchy.getLeastCommonSupertype(
+            new ArrayType(PrimitiveType.getInt(), 1), new ArrayType(PrimitiveType.getLong(), 1)));
+    assertEquals(
+        PrimitiveType.getShort(),
+        hierarchy.getLeastCommonSupertype(PrimitiveType.getByte(), PrimitiveType.getShort()));
+    assertEquals(
+        PrimitiveType.getInt(),
+        hierarchy.getLeastCommonSupertype(PrimitiveType.getByte(), PrimitiveType.getChar()));
+    assertEquals(
+        UnknownType.getInstance(),
+        hierarchy.getLeastCommonSupertype(PrimitiveType.getInt(), stringType));
+    // a class outside of the hierarchy
+    assertEquals(objectType, hierarchy.getLeastCommonSupertype(aType, stringType));
+  }
+
+  /** The types found before the budget is exceeded are widened to the top of their kind. */
+  @Test
+  public void testBudget() {
+    final List<Local> locals = new ArrayList<>();
+    final List<Stmt> stmts = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      locals.add(unknownLocal("l" + i));
+    }
+    // the arrays are still accessed after widening, so they have to stay arrays
+    final Local strings = unknownLocal("strings");
+    final Local ints = unknownLocal("ints");
+    locals.add(strings);
+    locals.add(ints);
+    final IntConstant one = IntConstant.getInstance(1);
+    stmts.add(
+        JavaJimple.newAssignStmt(strings, javaJimple.newNewArrayExpr(stringType, one), noPosition));
+    stmts.add(
+        JavaJimple.newAssignStmt(
+            ints, javaJimple.newNewArrayExpr(PrimitiveType.getInt(), one), noPosition));
+    // each local is assigned the next one, so the string type reaches the first local only after
+    // one evaluation per local beyond the first pass
+    for (int i = 0; i < 99; i++) {
+      stmts.add(JavaJimple.newAssignStmt(locals.get(i), locals.get(i + 1), noPosition));
+    }
+    stmts.add(
+        JavaJimple.newAssignStmt(locals.get(99), javaJimple.newStringConstant("str"), noPosition));
+    final Local number = unknownLocal("n");
+    locals.add(number);
+    stmts.add(JavaJimple.newAssignStmt(number, one, noPosition));
+    final Value firstString = javaJimple.newArrayRef(strings, IntConstant.getInstance(0));
+    stmts.add(JavaJimple.newAssignStmt(firstString, locals.get(0), noPosition));
+    stmts.add(JavaJimple.newReturnVoidStmt(noPosition));
+
+    final TypeResolver exceeded =
+        new TypeResolver(stmts, locals, null, new BytecodeHierarchy(null));
+    final Map<Local, Type> widened = exceeded.resolve(1);
+    assertTrue(exceeded.isBudgetExceeded());
+    assertEquals(objectType, widened.get(locals.get(99)));
+    assertEquals(PrimitiveType.getInt(), widened.get(number));
+    assertEquals(factory.getArrayType(objectType, 1), widened.get(strings));
+    assertEquals(factory.getArrayType(PrimitiveType.getInt(), 1), widened.get(ints));
+    assertEquals(4, widened.size());
+
+    final TypeResolver complete =
+        new TypeResolver(stmts, locals, null, new BytecodeHierarchy(null));
+    final Map<Local, Type> types =
+        complete.resolve(TypeAssigner.DEFAULT_EVALUATIONS_PER_DEFINITION);
+    assertFalse(complete.isBudgetExceeded());
+    assertEquals(stringType, types.get(locals.get(0)));
+    assertEquals(PrimitiveType.getInt(), types.get(number));
+    assertEquals(factory.getArrayType(stringType, 1), types.get(strings));
+    assertEquals(locals.size(), types.size());
+  }
+
+  /** Types the bodies of a real-world jar with the hierarchy of its view. */
+  @Test
+  public void testJar() {
+    final JavaView view =
+        JavaProject.builder(new JavaLanguage(7))
+            .addInputLocation(
+                new PathBasedAnalysisInputLocation(
+                    Paths.get("../shared-test-resources/soot-1580/jpush-android_v3.0.5.jar"),
+                    null))
+            .build()
+            .createOnDemandView(location -> Collections::emptyList);
+    final TypeAssigner typeAssigner = new TypeAssigner(view.getTypeHierarchy());
+
+    int localCount = 0;
+    int unknownCount = 0;
+    for (SootMethod method :
+        view.getClasses().stream()
+            .flatMap(clazz -> clazz.getMethods().stream())
+            .filter(SootMethod::isConcrete)
+            .collect(Collectors.toList())) {
+      final Body.BodyBuilder builder = Body.builder(method.getBody(), method.getModifiers());
+      new LocalSplitter().interceptBody(builder);
+      typeAssigner.interceptBody(builder);
+      final Set<Value> definedLocals = new HashSet<>();
+      builder.getStmts().forEach(stmt -> definedLocals.addAll(stmt.getDefs()));
+      for (Local local : builder.getLocals()) {
+        // the split locals stay in the body without definitions
+        if (definedLocals.contains(local)) {
+          localCount++;
+          if (local.getType() == UnknownType.getInstance()) {
+            unknownCount++;
+          }
+        }
+      }
+    }
+    assertTrue(localCount > 0);
+    assertEquals(0, unknownCount);
+  }
+}
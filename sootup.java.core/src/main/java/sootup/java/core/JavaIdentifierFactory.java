@@ -22,13 +22,17 @@ package sootup.java.core;
  * #L%
  */
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.common.collect.Maps;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.ClassUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -57,10 +61,14 @@ public class JavaIdentifierFactory implements IdentifierFactory {
   @Nonnull private static final JavaIdentifierFactory INSTANCE = new JavaIdentifierFactory();
 
   /** Caches the created PackageNames for packages. */
-  @Nonnull protected final Map<String, PackageName> packages = new HashMap<>();
+  @Nonnull protected final Map<String, PackageName> packages = new ConcurrentHashMap<>();
 
   /** Caches annotation types */
-  @Nonnull protected final Map<String, AnnotationType> annotationTypes = new HashMap<>();
+  @Nonnull
+  protected final Map<String, AnnotationType> annotationTypes = new ConcurrentHashMap<>();
+
+  /** the pool of the interned types and signatures, null if the interning mode is disabled */
+  @Nullable private volatile Interner<Object> interner = null;
 
   @Nonnull
   protected final Map<String, PrimitiveType> primitiveTypeMap = Maps.newHashMapWithExpectedSize(8);
@@ -69,6 +77,43 @@ public class JavaIdentifierFactory implements IdentifierFactory {
     return INSTANCE;
   }
 
+  /**
+   * Enables or disables the interning mode. In the interning mode, the class types, array types,
+   * method and field signatures and sub-signatures that are created by this factory are
+   * canonicalized: equal instances are the same object, so they can be compared by identity and
+   * are stored only once. The pool is weak and thread-safe, i.e. instances that are not used
+   * anymore are garbage collected.
+   *
+   * <p>The interning mode should be enabled before any types are created, instances created before
+   * are not part of the pool.
+   */
+  public void setInterning(boolean interning) {
+    if (!interning) {
+      interner = null;
+    } else if (interner == null) {
+      synchronized (this) {
+        if (interner == null) {
+          interner = Interners.newWeakInterner();
+        }
+      }
+    }
+  }
+
+  public boolean isInterning() {
+    return interner != null;
+  }
+
+  /**
+   * Returns the canonical instance of <code>object</code> in the interning mode, otherwise the
+   * given object.
+   */
+  @Nonnull
+  @SuppressWarnings("unchecked")
+  protected <T> T intern(@Nonnull T object) {
+    Interner<Object> currentInterner = interner;
+    return currentInterner == null ? object : (T) currentInterner.intern(object);
+  }
+
   JavaIdentifierFactory() {
     /* Represents the default package. */
     packages.put(PackageName.DEFAULT_PACKAGE.getPackageName(), PackageName.DEFAULT_PACKAGE);
@@ -93,8 +138,9 @@ public class JavaIdentifierFactory implements IdentifierFactory {
   }
 
   /**
-   * Always creates a new ClassSignature. In opposite to PackageSignatures, ClassSignatures are not
-   * cached because the are unique per class, and thus reusing them does not make sense.
+   * Always creates a new ClassSignature unless the interning mode is enabled (see {@link
+   * #setInterning(boolean)}). In opposite to PackageSignatures, ClassSignatures are not cached by
+   * default because the are unique per class.
    *
    * @param className the simple class name
    * @param packageName the Java package name; must not be null use empty string for the default
@@ -106,11 +152,11 @@ public class JavaIdentifierFactory implements IdentifierFactory {
   @Override
   public JavaClassType getClassType(final String className, final String packageName) {
     PackageName packageIdentifier = getPackageName(packageName);
-    return new JavaClassType(className, packageIdentifier);
+    return intern(new JavaClassType(className, packageIdentifier));
   }
 
   /**
-   * Always creates a new ClassSignature.
+   * Always creates a new ClassSignature unless the interning mode is enabled.
    *
    * @param fullyQualifiedClassName the fully-qualified name of the class
    * @return a ClassSignature for a Java Class
@@ -176,7 +222,7 @@ public class JavaIdentifierFactory implements IdentifierFactory {
     }
 
     if (nrDims > 0) {
-      ret = new ArrayType(ret, nrDims);
+      ret = getArrayType(ret, nrDims);
     }
     return ret;
   }
@@ -203,7 +249,7 @@ public class JavaIdentifierFactory implements IdentifierFactory {
 
   @Override
   public ArrayType getArrayType(Type baseType, int dim) {
-    return new ArrayType(baseType, dim);
+    return intern(new ArrayType(baseType, dim));
   }
 
   public AnnotationType getAnnotationType(final String fullyQualifiedClassName) {
@@ -255,7 +301,8 @@ public class JavaIdentifierFactory implements IdentifierFactory {
   }
 
   /**
-   * Always creates a new MethodSignature AND a new ClassSignature.
+   * Always creates a new MethodSignature AND a new ClassSignature unless the interning mode is
+   * enabled.
    *
    * @param methodName the method's name
    * @param fullyQualifiedNameDeclClass the fully-qualified name of the declaring class
@@ -276,11 +323,12 @@ public class JavaIdentifierFactory implements IdentifierFactory {
       Type parameterSignature = getType(fqParameterName);
       parameterSignatures.add(parameterSignature);
     }
-    return new MethodSignature(declaringClass, methodName, parameterSignatures, returnType);
+    return getMethodSignature(declaringClass, methodName, returnType, parameterSignatures);
   }
 
   /**
-   * Always creates a new MethodSignature reusing the given ClassSignature.
+   * Always creates a new MethodSignature reusing the given ClassSignature unless the interning mode
+   * is enabled.
    *
    * @param declaringClassSignature the ClassSignature of the declaring class
    * @param methodName the method's name
@@ -300,8 +348,7 @@ public class JavaIdentifierFactory implements IdentifierFactory {
       Type parameterSignature = getType(fqParameterName);
       parameterSignatures.add(parameterSignature);
     }
-    return new MethodSignature(
-        declaringClassSignature, methodName, parameterSignatures, returnType);
+    return getMethodSignature(declaringClassSignature, methodName, returnType, parameterSignatures);
   }
 
   @Override
@@ -310,8 +357,8 @@ public class JavaIdentifierFactory implements IdentifierFactory {
       final String methodName,
       final Type fqReturnType,
       final List<Type> parameters) {
-
-    return new MethodSignature(declaringClassSignature, methodName, parameters, fqReturnType);
+    return getMethodSignature(
+        declaringClassSignature, getMethodSubSignature(methodName, fqReturnType, parameters));
   }
 
   @Override
@@ -325,7 +372,7 @@ public class JavaIdentifierFactory implements IdentifierFactory {
   @Nonnull
   public MethodSignature getMethodSignature(
       @Nonnull ClassType declaringClassSignature, @Nonnull MethodSubSignature subSignature) {
-    return new MethodSignature(declaringClassSignature, subSignature);
+    return intern(new MethodSignature(intern(declaringClassSignature), intern(subSignature)));
   }
 
   private static final class MethodSignatureParserPatternHolder {
@@ -427,7 +474,7 @@ public class JavaIdentifierFactory implements IdentifierFactory {
       @Nonnull String name,
       @Nonnull Type returnType,
       @Nonnull Iterable<? extends Type> parameterSignatures) {
-    return new MethodSubSignature(name, parameterSignatures, returnType);
+    return intern(new MethodSubSignature(name, parameterSignatures, returnType));
   }
 
   @Nonnull
@@ -580,26 +627,26 @@ public class JavaIdentifierFactory implements IdentifierFactory {
   public FieldSignature getFieldSignature(
       final String fieldName, final ClassType declaringClassSignature, final String fieldType) {
     Type type = getType(fieldType);
-    return new FieldSignature(declaringClassSignature, fieldName, type);
+    return getFieldSignature(fieldName, declaringClassSignature, type);
   }
 
   @Override
   public FieldSignature getFieldSignature(
       final String fieldName, final ClassType declaringClassSignature, final Type fieldType) {
-    return new FieldSignature(declaringClassSignature, fieldName, fieldType);
+    return getFieldSignature(declaringClassSignature, getFieldSubSignature(fieldName, fieldType));
   }
 
   @Override
   @Nonnull
   public FieldSignature getFieldSignature(
       @Nonnull ClassType declaringClassSignature, @Nonnull FieldSubSignature subSignature) {
-    return new FieldSignature(declaringClassSignature, subSignature);
+    return intern(new FieldSignature(intern(declaringClassSignature), intern(subSignature)));
   }
 
   @Nonnull
   @Override
   public FieldSubSignature getFieldSubSignature(@Nonnull String name, @Nonnull Type type) {
-    return new FieldSubSignature(name, type);
+    return intern(new FieldSubSignature(name, type));
   }
 
   @Nonnull
@@ -99,9 +99,9 @@ public class JavaModuleIdentifierFactory extends JavaIdentifierFactory {
   }
 
   /**
-   * Always creates a new ClassSignature. In opposite to PackageSignatures and ModuleSignatures,
-   * ClassSignatures are not cached because the are unique per class, and thus reusing them does not
-   * make sense.
+   * Always creates a new ClassSignature unless the interning mode is enabled (see {@link
+   * #setInterning(boolean)}). In opposite to PackageSignatures and ModuleSignatures,
+   * ClassSignatures are not cached by default because the are unique per class.
    *
    * @param className the simple name of the class
    * @param packageName the declaring package
@@ -115,7 +115,7 @@ public class JavaModuleIdentifierFactory extends JavaIdentifierFactory {
       final @Nonnull String packageName,
       final @Nonnull String moduleName) {
     ModulePackageName packageIdentifier = getPackageName(packageName, moduleName);
-    return new ModuleJavaClassType(className, packageIdentifier);
+    return intern(new ModuleJavaClassType(className, packageIdentifier));
   }
 
   public ModuleJavaClassType getClassType(
@@ -123,7 +123,7 @@ public class JavaModuleIdentifierFactory extends JavaIdentifierFactory {
       final @Nonnull String packageName,
       final @Nonnull ModuleSignature moduleSignature) {
     ModulePackageName packageIdentifier = getPackageName(packageName, moduleSignature);
-    return new ModuleJavaClassType(className, packageIdentifier);
+    return intern(new ModuleJavaClassType(className, packageIdentifier));
   }
 
   /**
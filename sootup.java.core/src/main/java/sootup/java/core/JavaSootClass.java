@@ -97,6 +97,16 @@ public class JavaSootClass extends SootClass<JavaSootClassSource> {
     return annotationUsages;
   }
 
+  /**
+   * Get the annotations that are declared on this class. In contrast to {@link
+   * #getAnnotations(Optional)} inherited annotations are not included and the default values of the
+   * annotation types are not resolved.
+   */
+  @Nonnull
+  public Iterable<AnnotationUsage> getDeclaredAnnotations() {
+    return classSource.resolveAnnotations();
+  }
+
   @Nonnull
   @Override
   public Set<? extends JavaSootMethod> getMethods() {
@@ -58,6 +58,12 @@ public class JavaSootField extends SootField {
     return annotations;
   }
 
+  /** @return the annotations of this field without resolving the default values of their types */
+  @Nonnull
+  public Iterable<AnnotationUsage> getDeclaredAnnotations() {
+    return annotations;
+  }
+
   @Nonnull
   public JavaSootField withAnnotations(@Nonnull Iterable<AnnotationUsage> annotations) {
     return new JavaSootField(getSignature(), getModifiers(), annotations, getPosition());
@@ -75,6 +75,12 @@ public class JavaSootMethod extends SootMethod {
     return annotations;
   }
 
+  /** @return the annotations of this method without resolving the default values of their types */
+  @Nonnull
+  public Iterable<AnnotationUsage> getDeclaredAnnotations() {
+    return annotations;
+  }
+
   private void resolveDefaultsForAnnotationTypes(
       @Nonnull Optional<JavaView> view, Iterable<AnnotationUsage> annotationUsages) {
     for (AnnotationUsage annotationUsage : annotationUsages) {
@@ -0,0 +1,123 @@
+package sootup.java.core.binary;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.model.SourceType;
+import sootup.core.types.ClassType;
+import sootup.core.util.PathUtils;
+import sootup.core.views.View;
+import sootup.java.core.JavaSootClass;
+
+/**
+ * An {@link AnalysisInputLocation} for a directory of files in the binary Jimple format, as written
+ * by {@link BinaryJimpleWriter#writeToDirectory(JavaSootClass, Path)}. The bodies of the methods
+ * are decoded lazily when they are resolved.
+ *
+ * <p>The stored bodies already are the result of the body interceptors that were applied when they
+ * were written, i.e. the body interceptors of the view are not applied again.
+ */
+public class BinaryJimpleAnalysisInputLocation implements AnalysisInputLocation<JavaSootClass> {
+
+  @Nonnull private final Path path;
+  @Nullable private final SourceType srcType;
+  @Nonnull private final BinaryJimpleClassProvider classProvider = new BinaryJimpleClassProvider();
+
+  public BinaryJimpleAnalysisInputLocation(@Nonnull Path path) {
+    this(path, null);
+  }
+
+  public BinaryJimpleAnalysisInputLocation(@Nonnull Path path, @Nullable SourceType srcType) {
+    if (!Files.isDirectory(path)) {
+      throw new IllegalArgumentException(
+          "The configured path '"
+              + path
+              + "' pointing to '"
+              + path.toAbsolutePath()
+              + "' is not a directory.");
+    }
+    this.path = path;
+    this.srcType = srcType;
+  }
+
+  @Nonnull
+  @Override
+  public Optional<BinaryJimpleClassSource> getClassSource(
+      @Nonnull ClassType type, @Nonnull View<?> view) {
+    final Path file = BinaryJimpleFormat.resolve(path, type);
+    if (!Files.exists(file)) {
+      return Optional.empty();
+    }
+    return Optional.of(classProvider.createClassSource(this, file, type));
+  }
+
+  @Nonnull
+  @Override
+  public Collection<BinaryJimpleClassSource> getClassSources(@Nonnull View<?> view) {
+    final List<Path> files;
+    try (Stream<Path> paths = Files.walk(path)) {
+      files =
+          paths
+              .filter(p -> PathUtils.hasExtension(p, classProvider.getHandledFileType()))
+              .collect(Collectors.toList());
+    } catch (IOException e) {
+      throw new IllegalArgumentException(e);
+    }
+    return files.stream()
+        .map(
+            file ->
+                classProvider.createClassSource(
+                    this, file, view.getIdentifierFactory().fromPath(path, file)))
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public SourceType getSourceType() {
+    return srcType;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (!(o instanceof BinaryJimpleAnalysisInputLocation)) {
+      return false;
+    }
+    return path.equals(((BinaryJimpleAnalysisInputLocation) o).path);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(path);
+  }
+}
@@ -0,0 +1,89 @@
+package sootup.java.core.binary;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import java.nio.file.Path;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.frontend.BodySource;
+import sootup.core.frontend.ResolveException;
+import sootup.core.model.Body;
+import sootup.core.model.Modifier;
+import sootup.core.signatures.MethodSignature;
+
+/** Decodes the body of a method from the data of a {@link BinaryJimpleReader}. */
+class BinaryJimpleBodySource implements BodySource {
+
+  @Nonnull private final BinaryJimpleReader reader;
+  @Nonnull private final MethodSignature signature;
+  @Nonnull private final Path sourcePath;
+  private final int offset;
+  /** the message of the exception the body could not be created with when it was written */
+  @Nullable private final String failure;
+  /** the default value if the method is an element of an annotation type */
+  @Nullable private final Object defaultValue;
+
+  BinaryJimpleBodySource(
+      @Nonnull BinaryJimpleReader reader,
+      @Nonnull MethodSignature signature,
+      @Nonnull Path sourcePath,
+      int offset,
+      @Nullable String failure,
+      @Nullable Object defaultValue) {
+    this.reader = reader;
+    this.signature = signature;
+    this.sourcePath = sourcePath;
+    this.offset = offset;
+    this.failure = failure;
+    this.defaultValue = defaultValue;
+  }
+
+  @Nonnull
+  @Override
+  public Body resolveBody(@Nonnull Iterable<Modifier> modifiers) throws ResolveException {
+    if (failure != null) {
+      throw new ResolveException(failure, sourcePath);
+    }
+    if (offset < 0) {
+      throw new ResolveException("There is no body for " + signature + ".", sourcePath);
+    }
+    try {
+      return reader.readBody(offset, signature);
+    } catch (IllegalStateException | ClassCastException | ArrayIndexOutOfBoundsException e) {
+      throw new ResolveException(
+          "The binary Jimple body of " + signature + " is corrupted.", sourcePath, e);
+    }
+  }
+
+  @Override
+  public Object resolveAnnotationsDefaultValue() {
+    return defaultValue;
+  }
+
+  @Nonnull
+  @Override
+  public MethodSignature getSignature() {
+    return signature;
+  }
+}
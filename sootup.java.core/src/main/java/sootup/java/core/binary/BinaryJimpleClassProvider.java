@@ -0,0 +1,66 @@
+package sootup.java.core.binary;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import sootup.core.frontend.ClassProvider;
+import sootup.core.frontend.ResolveException;
+import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.inputlocation.FileType;
+import sootup.core.model.SootClass;
+import sootup.core.types.ClassType;
+import sootup.java.core.JavaSootClass;
+
+/**
+ * A {@link ClassProvider} for files in the binary Jimple format. Only the class metadata is decoded
+ * when a class source is created, the bodies are decoded when they are resolved.
+ */
+public class BinaryJimpleClassProvider implements ClassProvider<JavaSootClass> {
+
+  @Override
+  public BinaryJimpleClassSource createClassSource(
+      AnalysisInputLocation<? extends SootClass<?>> inputLocation,
+      Path sourcePath,
+      ClassType classType) {
+    final BinaryJimpleReader reader;
+    try {
+      reader = new BinaryJimpleReader(Files.readAllBytes(sourcePath));
+    } catch (IOException | IllegalArgumentException e) {
+      throw new ResolveException(e.getMessage(), sourcePath, e);
+    }
+    if (!reader.getClassType().getFullyQualifiedName().equals(classType.getFullyQualifiedName())) {
+      throw new ResolveException(
+          "The file contains " + reader.getClassType() + " instead of " + classType + ".",
+          sourcePath);
+    }
+    return reader.readClassSource(inputLocation, sourcePath);
+  }
+
+  @Override
+  public FileType getHandledFileType() {
+    return FileType.BINARY_JIMPLE;
+  }
+}
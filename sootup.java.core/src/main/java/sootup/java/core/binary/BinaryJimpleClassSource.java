@@ -0,0 +1,141 @@
+package sootup.java.core.binary;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.model.Modifier;
+import sootup.core.model.Position;
+import sootup.core.model.SootClass;
+import sootup.core.model.SootField;
+import sootup.core.model.SootMethod;
+import sootup.core.model.SourceType;
+import sootup.core.types.ClassType;
+import sootup.java.core.AnnotationUsage;
+import sootup.java.core.JavaAnnotationSootClass;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.JavaSootClassSource;
+import sootup.java.core.types.AnnotationType;
+
+/**
+ * A class source whose metadata has been decoded by a {@link BinaryJimpleReader}. The bodies of its
+ * methods are decoded when they are resolved.
+ */
+public class BinaryJimpleClassSource extends JavaSootClassSource {
+
+  @Nullable private final ClassType superclass;
+  @Nonnull private final Set<ClassType> interfaces;
+  @Nullable private final ClassType outerClass;
+  @Nonnull private final Set<SootField> fields;
+  @Nonnull private final Set<SootMethod> methods;
+  @Nonnull private final Position position;
+  @Nonnull private final EnumSet<Modifier> modifiers;
+  @Nonnull private final Iterable<AnnotationUsage> annotations;
+
+  BinaryJimpleClassSource(
+      @Nonnull AnalysisInputLocation<? extends SootClass<?>> inputLocation,
+      @Nonnull ClassType classType,
+      @Nonnull Path sourcePath,
+      @Nullable ClassType superclass,
+      @Nonnull Set<ClassType> interfaces,
+      @Nullable ClassType outerClass,
+      @Nonnull Set<SootField> fields,
+      @Nonnull Set<SootMethod> methods,
+      @Nonnull Position position,
+      @Nonnull EnumSet<Modifier> modifiers,
+      @Nonnull Iterable<AnnotationUsage> annotations) {
+    super(inputLocation, classType, sourcePath);
+    this.superclass = superclass;
+    this.interfaces = interfaces;
+    this.outerClass = outerClass;
+    this.fields = fields;
+    this.methods = methods;
+    this.position = position;
+    this.modifiers = modifiers;
+    this.annotations = annotations;
+  }
+
+  @Nonnull
+  @Override
+  public JavaSootClass buildClass(@Nonnull SourceType sourceType) {
+    if (getClassType() instanceof AnnotationType) {
+      return new JavaAnnotationSootClass(this, sourceType);
+    }
+    return super.buildClass(sourceType);
+  }
+
+  @Nonnull
+  @Override
+  public Collection<? extends SootMethod> resolveMethods() {
+    return methods;
+  }
+
+  @Nonnull
+  @Override
+  public Collection<? extends SootField> resolveFields() {
+    return fields;
+  }
+
+  @Nonnull
+  @Override
+  public Set<Modifier> resolveModifiers() {
+    return modifiers;
+  }
+
+  @Nonnull
+  @Override
+  public Set<? extends ClassType> resolveInterfaces() {
+    return interfaces;
+  }
+
+  @Nonnull
+  @Override
+  public Optional<? extends ClassType> resolveSuperclass() {
+    return Optional.ofNullable(superclass);
+  }
+
+  @Nonnull
+  @Override
+  public Optional<? extends ClassType> resolveOuterClass() {
+    return Optional.ofNullable(outerClass);
+  }
+
+  @Nonnull
+  @Override
+  public Position resolvePosition() {
+    return position;
+  }
+
+  @Nonnull
+  @Override
+  protected Iterable<AnnotationUsage> resolveAnnotations() {
+    return annotations;
+  }
+}
@@ -0,0 +1,180 @@
+package sootup.java.core.binary;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.nio.file.Path;
+import javax.annotation.Nonnull;
+import sootup.core.inputlocation.FileType;
+import sootup.core.types.ClassType;
+
+/**
+ * Constants of the binary Jimple format written by {@link BinaryJimpleWriter} and read by {@link
+ * BinaryJimpleReader}.
+ *
+ * <p>A file starts with {@link #MAGIC} and {@link #VERSION}, followed by the constant pools
+ * (strings, types, field signatures, method signatures), the class metadata with one entry per
+ * method that holds the offset of its body, and finally the bodies. Every number is stored as a
+ * (zigzag-)varint and every name, type and signature is stored as an index into its constant pool.
+ * The methods of an annotation type additionally store their default value.
+ *
+ * <p>Files are stored in a directory structure that follows the package of their class, e.g.
+ * <code>de/upb/Example.jb</code>.
+ */
+public final class BinaryJimpleFormat {
+
+  /** "SJB" followed by a format marker. */
+  public static final int MAGIC = 0x534A4201;
+
+  /** Has to be increased whenever the layout of the format changes. */
+  public static final int VERSION = 2;
+
+  // types
+  static final int TYPE_CLASS = 0;
+  static final int TYPE_ANNOTATION = 1;
+  static final int TYPE_ARRAY = 2;
+  static final int TYPE_BOOLEAN = 3;
+  static final int TYPE_BYTE = 4;
+  static final int TYPE_CHAR = 5;
+  static final int TYPE_SHORT = 6;
+  static final int TYPE_INT = 7;
+  static final int TYPE_LONG = 8;
+  static final int TYPE_FLOAT = 9;
+  static final int TYPE_DOUBLE = 10;
+  static final int TYPE_VOID = 11;
+  static final int TYPE_NULL = 12;
+  static final int TYPE_UNKNOWN = 13;
+
+  // positions
+  static final int POSITION_NONE = 0;
+  static final int POSITION_LINE = 1;
+  static final int POSITION_FULL = 2;
+
+  // method bodies
+  static final int BODY_NONE = 0;
+  static final int BODY_PRESENT = 1;
+  static final int BODY_FAILED = 2;
+
+  // default values of the elements of an annotation type
+  static final int ANNOTATION_DEFAULT_NONE = 0;
+  static final int ANNOTATION_DEFAULT_PRESENT = 1;
+
+  // annotation values
+  static final int ANNOTATION_VALUE_CONSTANT = 0;
+  static final int ANNOTATION_VALUE_LIST = 1;
+  static final int ANNOTATION_VALUE_ANNOTATIONS = 2;
+
+  // locals
+  static final int LOCAL_PLAIN = 0;
+  static final int LOCAL_ANNOTATED = 1;
+  /** a null entry in the locals of a body, e.g. for the second slot of a long or double */
+  static final int LOCAL_ABSENT = 2;
+
+  // statements
+  static final int STMT_NOP = 0;
+  static final int STMT_BREAKPOINT = 1;
+  static final int STMT_GOTO = 2;
+  static final int STMT_RETURN_VOID = 3;
+  static final int STMT_RETURN = 4;
+  static final int STMT_THROW = 5;
+  static final int STMT_ENTER_MONITOR = 6;
+  static final int STMT_EXIT_MONITOR = 7;
+  static final int STMT_RET = 8;
+  static final int STMT_INVOKE = 9;
+  static final int STMT_ASSIGN = 10;
+  static final int STMT_IDENTITY = 11;
+  static final int STMT_IF = 12;
+  static final int STMT_TABLE_SWITCH = 13;
+  static final int STMT_LOOKUP_SWITCH = 14;
+
+  // immediates
+  static final int VALUE_LOCAL = 0;
+  static final int VALUE_INT = 1;
+  static final int VALUE_LONG = 2;
+  static final int VALUE_FLOAT = 3;
+  static final int VALUE_DOUBLE = 4;
+  static final int VALUE_BOOLEAN = 5;
+  static final int VALUE_NULL = 6;
+  static final int VALUE_STRING = 7;
+  static final int VALUE_CLASS = 8;
+  static final int VALUE_ENUM = 9;
+  static final int VALUE_METHOD_HANDLE = 10;
+  static final int VALUE_METHOD_TYPE = 11;
+
+  // binary expressions
+  static final int VALUE_ADD = 12;
+  static final int VALUE_AND = 13;
+  static final int VALUE_CMP = 14;
+  static final int VALUE_CMPG = 15;
+  static final int VALUE_CMPL = 16;
+  static final int VALUE_DIV = 17;
+  static final int VALUE_EQ = 18;
+  static final int VALUE_NE = 19;
+  static final int VALUE_GE = 20;
+  static final int VALUE_GT = 21;
+  static final int VALUE_LE = 22;
+  static final int VALUE_LT = 23;
+  static final int VALUE_MUL = 24;
+  static final int VALUE_OR = 25;
+  static final int VALUE_REM = 26;
+  static final int VALUE_SHL = 27;
+  static final int VALUE_SHR = 28;
+  static final int VALUE_USHR = 29;
+  static final int VALUE_SUB = 30;
+  static final int VALUE_XOR = 31;
+
+  // other expressions
+  static final int VALUE_NEG = 32;
+  static final int VALUE_LENGTH = 33;
+  static final int VALUE_CAST = 34;
+  static final int VALUE_INSTANCE_OF = 35;
+  static final int VALUE_NEW = 36;
+  static final int VALUE_NEW_ARRAY = 37;
+  static final int VALUE_NEW_MULTI_ARRAY = 38;
+  static final int VALUE_SPECIAL_INVOKE = 39;
+  static final int VALUE_VIRTUAL_INVOKE = 40;
+  static final int VALUE_INTERFACE_INVOKE = 41;
+  static final int VALUE_STATIC_INVOKE = 42;
+  static final int VALUE_DYNAMIC_INVOKE = 43;
+
+  // references
+  static final int VALUE_STATIC_FIELD_REF = 44;
+  static final int VALUE_INSTANCE_FIELD_REF = 45;
+  static final int VALUE_ARRAY_REF = 46;
+  static final int VALUE_PARAMETER_REF = 47;
+  static final int VALUE_THIS_REF = 48;
+  static final int VALUE_CAUGHT_EXCEPTION_REF = 49;
+
+  private BinaryJimpleFormat() {}
+
+  /** @return the path of the file that stores the given class in the given directory */
+  @Nonnull
+  public static Path resolve(@Nonnull Path directory, @Nonnull ClassType type) {
+    return directory.resolve(
+        directory
+            .getFileSystem()
+            .getPath(
+                type.getFullyQualifiedName().replace('.', '/')
+                    + "."
+                    + FileType.BINARY_JIMPLE.getExtension()));
+  }
+}
@@ -0,0 +1,759 @@
+package sootup.java.core.binary;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import static sootup.java.core.binary.BinaryJimpleFormat.*;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.graph.MutableBlockStmtGraph;
+import sootup.core.jimple.Jimple;
+import sootup.core.jimple.basic.Immediate;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.NoPositionInformation;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.basic.Value;
+import sootup.core.jimple.common.constant.*;
+import sootup.core.jimple.common.expr.AbstractConditionExpr;
+import sootup.core.jimple.common.expr.AbstractInvokeExpr;
+import sootup.core.jimple.common.expr.JCastExpr;
+import sootup.core.jimple.common.expr.JDynamicInvokeExpr;
+import sootup.core.jimple.common.expr.JInstanceOfExpr;
+import sootup.core.jimple.common.ref.IdentityRef;
+import sootup.core.jimple.common.ref.JCaughtExceptionRef;
+import sootup.core.jimple.common.ref.JFieldRef;
+import sootup.core.jimple.common.ref.JParameterRef;
+import sootup.core.jimple.common.ref.JThisRef;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.jimple.javabytecode.stmt.JBreakpointStmt;
+import sootup.core.jimple.javabytecode.stmt.JRetStmt;
+import sootup.core.model.Body;
+import sootup.core.model.Modifier;
+import sootup.core.model.Position;
+import sootup.core.model.SootClass;
+import sootup.core.model.SootField;
+import sootup.core.model.SootMethod;
+import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.signatures.FieldSignature;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.types.ArrayType;
+import sootup.core.types.ClassType;
+import sootup.core.types.NullType;
+import sootup.core.types.PrimitiveType;
+import sootup.core.types.Type;
+import sootup.core.types.UnknownType;
+import sootup.core.types.VoidType;
+import sootup.java.core.AnnotationUsage;
+import sootup.java.core.JavaAnnotationSootMethod;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.JavaSootField;
+import sootup.java.core.JavaSootMethod;
+import sootup.java.core.language.JavaJimple;
+import sootup.java.core.types.AnnotationType;
+
+/**
+ * Reads a class written by {@link BinaryJimpleWriter}. The constant pools and the class metadata
+ * are decoded eagerly, the bodies are decoded on demand from the retained bytes. A reader is
+ * immutable after its construction, i.e. bodies can be decoded concurrently.
+ */
+public class BinaryJimpleReader {
+
+  private static final StmtPositionInfo NO_POSITION = StmtPositionInfo.createNoStmtPositionInfo();
+
+  @Nonnull private final byte[] data;
+  @Nonnull private final String[] strings;
+  @Nonnull private final Type[] types;
+  @Nonnull private final FieldSignature[] fieldSignatures;
+  @Nonnull private final MethodSignature[] methodSignatures;
+  private final int metadataStart;
+  private final int bodiesStart;
+
+  /**
+   * @param data the complete content of a binary Jimple file
+   * @throws IllegalArgumentException if data is not in the current binary Jimple format
+   */
+  public BinaryJimpleReader(@Nonnull byte[] data) {
+    this.data = data;
+    final VarIntInput in = new VarIntInput(data, 0, data.length);
+    try {
+      if (data.length < 4 || in.readFixedInt() != MAGIC) {
+        throw new IllegalArgumentException("The data is not in the binary Jimple format.");
+      }
+      final int version = in.readVarInt();
+      if (version != VERSION) {
+        throw new IllegalArgumentException(
+            "Unsupported binary Jimple version " + version + ", expected " + VERSION + ".");
+      }
+
+      final JavaIdentifierFactory identifierFactory = JavaIdentifierFactory.getInstance();
+      strings = new String[in.readVarInt()];
+      for (int i = 0; i < strings.length; i++) {
+        strings[i] = in.readUtf8();
+      }
+      types = new Type[in.readVarInt()];
+      for (int i = 0; i < types.length; i++) {
+        types[i] = readTypeEntry(in, identifierFactory);
+      }
+      fieldSignatures = new FieldSignature[in.readVarInt()];
+      for (int i = 0; i < fieldSignatures.length; i++) {
+        final ClassType declaringClass = (ClassType) readType(in);
+        final String name = readString(in);
+        final Type type = readType(in);
+        fieldSignatures[i] = identifierFactory.getFieldSignature(name, declaringClass, type);
+      }
+      methodSignatures = new MethodSignature[in.readVarInt()];
+      for (int i = 0; i < methodSignatures.length; i++) {
+        final ClassType declaringClass = (ClassType) readType(in);
+        final String name = readString(in);
+        final Type returnType = readType(in);
+        final List<Type> parameterTypes = readTypes(in);
+        methodSignatures[i] =
+            identifierFactory.getMethodSignature(declaringClass, name, returnType, parameterTypes);
+      }
+
+      final int metadataLength = in.readVarInt();
+      metadataStart = in.position();
+      bodiesStart = metadataStart + metadataLength;
+      if (bodiesStart > data.length) {
+        throw new IllegalArgumentException("The binary Jimple data is truncated.");
+      }
+    } catch (IllegalStateException | ClassCastException | ArrayIndexOutOfBoundsException e) {
+      throw new IllegalArgumentException("The binary Jimple data is corrupted.", e);
+    }
+  }
+
+  /** @return the type of the class that is stored in the data */
+  @Nonnull
+  public ClassType getClassType() {
+    return (ClassType) readType(new VarIntInput(data, metadataStart, bodiesStart));
+  }
+
+  /** Decodes the class metadata; the bodies of its methods are decoded when they are resolved. */
+  @Nonnull
+  public BinaryJimpleClassSource readClassSource(
+      @Nonnull AnalysisInputLocation<? extends SootClass<?>> inputLocation,
+      @Nonnull Path sourcePath) {
+    final VarIntInput in = new VarIntInput(data, metadataStart, bodiesStart);
+    final ClassType classType = (ClassType) readType(in);
+    final boolean isAnnotation = classType instanceof AnnotationType;
+    final EnumSet<Modifier> modifiers = readModifiers(in);
+    final ClassType superclass = readOptionalType(in);
+    final ClassType outerClass = readOptionalType(in);
+    final int interfaceCount = in.readVarInt();
+    final Set<ClassType> interfaces = new LinkedHashSet<>(interfaceCount * 2);
+    for (int i = 0; i < interfaceCount; i++) {
+      interfaces.add((ClassType) readType(in));
+    }
+    final Position position = readPosition(in);
+    final List<AnnotationUsage> annotations = readAnnotations(in);
+
+    final int fieldCount = in.readVarInt();
+    final Set<SootField> fields = new LinkedHashSet<>(fieldCount * 2);
+    for (int i = 0; i < fieldCount; i++) {
+      final FieldSignature signature = fieldSignatures[in.readVarInt()];
+      final EnumSet<Modifier> fieldModifiers = readModifiers(in);
+      final List<AnnotationUsage> fieldAnnotations = readAnnotations(in);
+      fields.add(new JavaSootField(signature, fieldModifiers, fieldAnnotations, readPosition(in)));
+    }
+
+    final int methodCount = in.readVarInt();
+    final Set<SootMethod> methods = new LinkedHashSet<>(methodCount * 2);
+    for (int i = 0; i < methodCount; i++) {
+      final MethodSignature signature = methodSignatures[in.readVarInt()];
+      final EnumSet<Modifier> methodModifiers = readModifiers(in);
+      final int exceptionCount = in.readVarInt();
+      final List<ClassType> exceptions = new ArrayList<>(exceptionCount);
+      for (int j = 0; j < exceptionCount; j++) {
+        exceptions.add((ClassType) readType(in));
+      }
+      final List<AnnotationUsage> methodAnnotations = readAnnotations(in);
+      final Position methodPosition = readPosition(in);
+
+      int bodyOffset = -1;
+      String failure = null;
+      final int bodyKind = in.readVarInt();
+      if (bodyKind == BODY_PRESENT) {
+        bodyOffset = in.readVarInt();
+      } else if (bodyKind == BODY_FAILED) {
+        failure = readString(in);
+      }
+
+      if (isAnnotation) {
+        final Object defaultValue =
+            in.readVarInt() == ANNOTATION_DEFAULT_PRESENT ? readAnnotationValue(in) : null;
+        methods.add(
+            new JavaAnnotationSootMethod(
+                new BinaryJimpleBodySource(
+                    this, signature, sourcePath, bodyOffset, failure, defaultValue),
+                signature,
+                methodModifiers,
+                exceptions,
+                methodAnnotations,
+                methodPosition));
+      } else {
+        methods.add(
+            new JavaSootMethod(
+                new BinaryJimpleBodySource(this, signature, sourcePath, bodyOffset, failure, null),
+                signature,
+                methodModifiers,
+                exceptions,
+                methodAnnotations,
+                methodPosition));
+      }
+    }
+
+    return new BinaryJimpleClassSource(
+        inputLocation,
+        classType,
+        sourcePath,
+        superclass,
+        interfaces,
+        outerClass,
+        fields,
+        methods,
+        position,
+        modifiers,
+        annotations);
+  }
+
+  /**
+   * Decodes the body that starts at the given offset of the body section.
+   *
+   * @param offset the offset stored in the metadata of the method
+   * @param signature the signature of the method the body belongs to
+   */
+  @Nonnull
+  Body readBody(int offset, @Nonnull MethodSignature signature) {
+    final VarIntInput in = new VarIntInput(data, bodiesStart + offset, data.length);
+    final Position position = readPosition(in);
+
+    final int bodyLocalCount = in.readVarInt();
+    final Local[] locals = new Local[in.readVarInt()];
+    for (int i = 0; i < locals.length; i++) {
+      final int kind = in.readVarInt();
+      if (kind == LOCAL_ABSENT) {
+        continue;
+      }
+      final List<AnnotationUsage> annotations =
+          kind == LOCAL_ANNOTATED ? readAnnotations(in) : null;
+      final String name = readString(in);
+      final Type type = readType(in);
+      final Position localPosition = readPosition(in);
+      locals[i] =
+          annotations != null
+              ? JavaJimple.newLocal(name, type, annotations)
+              : new Local(name, type, localPosition);
+    }
+
+    final Stmt[] stmts = new Stmt[in.readVarInt()];
+    final int blockCount = in.readVarInt();
+    final int[] blockStarts = new int[blockCount + 1];
+    final List<Map<ClassType, Integer>> blockTraps = new ArrayList<>(blockCount);
+    final int[][] blockSuccessors = new int[blockCount][];
+    int stmtIndex = 0;
+    for (int block = 0; block < blockCount; block++) {
+      blockStarts[block] = stmtIndex;
+      final int blockSize = in.readVarInt();
+      for (int i = 0; i < blockSize; i++) {
+        stmts[stmtIndex++] = readStmt(in, locals);
+      }
+      final int trapCount = in.readVarInt();
+      final Map<ClassType, Integer> traps =
+          trapCount == 0 ? Collections.emptyMap() : new HashMap<>(trapCount * 2);
+      for (int i = 0; i < trapCount; i++) {
+        final ClassType exceptionType = (ClassType) readType(in);
+        traps.put(exceptionType, in.readVarInt());
+      }
+      blockTraps.add(traps);
+      final int[] successors = new int[in.readVarInt()];
+      for (int i = 0; i < successors.length; i++) {
+        successors[i] = in.readVarInt();
+      }
+      blockSuccessors[block] = successors;
+    }
+    blockStarts[blockCount] = stmtIndex;
+    final int startingStmtIndex = in.readSignedVarInt();
+
+    final MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+    final List<Stmt> stmtList = Arrays.asList(stmts);
+    for (int block = 0; block < blockCount; block++) {
+      final Map<ClassType, Stmt> traps = new HashMap<>();
+      for (Map.Entry<ClassType, Integer> trap : blockTraps.get(block).entrySet()) {
+        traps.put(trap.getKey(), stmts[blockStarts[trap.getValue()]]);
+      }
+      graph.addBlock(stmtList.subList(blockStarts[block], blockStarts[block + 1]), traps);
+    }
+    // link the branching Stmts first: their targets would be merged into the block of a
+    // fallsthrough predecessor otherwise
+    for (boolean branching : new boolean[] {true, false}) {
+      for (int block = 0; block < blockCount; block++) {
+        final Stmt tail = stmts[blockStarts[block + 1] - 1];
+        if (tail.branches() == branching) {
+          for (int successor : blockSuccessors[block]) {
+            graph.putEdge(tail, stmts[blockStarts[successor]]);
+          }
+        }
+      }
+    }
+    if (startingStmtIndex >= 0) {
+      graph.setStartingStmt(stmts[startingStmtIndex]);
+    }
+
+    final Set<Local> bodyLocals = new LinkedHashSet<>(bodyLocalCount * 2);
+    bodyLocals.addAll(Arrays.asList(locals).subList(0, bodyLocalCount));
+    // the graph was written from a Body that has already been validated
+    return Body.builder(graph)
+        .setMethodSignature(signature)
+        .setLocals(bodyLocals)
+        .setPosition(position)
+        .buildTrusted();
+  }
+
+  @Nonnull
+  private Stmt readStmt(@Nonnull VarIntInput in, @Nonnull Local[] locals) {
+    final int tag = in.readVarInt();
+    final StmtPositionInfo position = readStmtPosition(in);
+    switch (tag) {
+      case STMT_NOP:
+        return Jimple.newNopStmt(position);
+      case STMT_BREAKPOINT:
+        return new JBreakpointStmt(position);
+      case STMT_GOTO:
+        return Jimple.newGotoStmt(position);
+      case STMT_RETURN_VOID:
+        return Jimple.newReturnVoidStmt(position);
+      case STMT_RETURN:
+        return Jimple.newReturnStmt((Immediate) readValue(in, locals), position);
+      case STMT_THROW:
+        return Jimple.newThrowStmt((Immediate) readValue(in, locals), position);
+      case STMT_ENTER_MONITOR:
+        return Jimple.newEnterMonitorStmt((Immediate) readValue(in, locals), position);
+      case STMT_EXIT_MONITOR:
+        return Jimple.newExitMonitorStmt((Immediate) readValue(in, locals), position);
+      case STMT_RET:
+        return new JRetStmt(readValue(in, locals), position);
+      case STMT_INVOKE:
+        return Jimple.newInvokeStmt((AbstractInvokeExpr) readValue(in, locals), position);
+      case STMT_ASSIGN:
+        {
+          final Value leftOp = readValue(in, locals);
+          return Jimple.newAssignStmt(leftOp, readValue(in, locals), position);
+        }
+      case STMT_IDENTITY:
+        {
+          final Local local = (Local) readValue(in, locals);
+          return Jimple.newIdentityStmt(local, (IdentityRef) readValue(in, locals), position);
+        }
+      case STMT_IF:
+        return Jimple.newIfStmt((AbstractConditionExpr) readValue(in, locals), position);
+      case STMT_TABLE_SWITCH:
+        {
+          final Immediate key = (Immediate) readValue(in, locals);
+          final int lowIndex = in.readSignedVarInt();
+          final int valueCount = in.readVarInt();
+          return Jimple.newTableSwitchStmt(key, lowIndex, lowIndex + valueCount - 1, position);
+        }
+      case STMT_LOOKUP_SWITCH:
+        {
+          final Immediate key = (Immediate) readValue(in, locals);
+          final int valueCount = in.readVarInt();
+          final List<IntConstant> values = new ArrayList<>(valueCount);
+          for (int i = 0; i < valueCount; i++) {
+            values.add(IntConstant.getInstance(in.readSignedVarInt()));
+          }
+          return Jimple.newLookupSwitchStmt(key, values, position);
+        }
+      default:
+        throw new IllegalStateException("Unknown Stmt tag " + tag + ".");
+    }
+  }
+
+  @Nonnull
+  private Value readValue(@Nonnull VarIntInput in, @Nullable Local[] locals) {
+    final int tag = in.readVarInt();
+    switch (tag) {
+      case VALUE_LOCAL:
+        if (locals == null) {
+          throw new IllegalStateException("A Local is not allowed outside of a body.");
+        }
+        return locals[in.readVarInt()];
+      case VALUE_INT:
+        return IntConstant.getInstance(in.readSignedVarInt());
+      case VALUE_LONG:
+        return LongConstant.getInstance(in.readSignedVarLong());
+      case VALUE_FLOAT:
+        return FloatConstant.getInstance(Float.intBitsToFloat(in.readFixedInt()));
+      case VALUE_DOUBLE:
+        return DoubleConstant.getInstance(Double.longBitsToDouble(in.readFixedLong()));
+      case VALUE_BOOLEAN:
+        return BooleanConstant.getInstance(in.readVarInt());
+      case VALUE_NULL:
+        return NullConstant.getInstance();
+      case VALUE_STRING:
+        {
+          final String value = readString(in);
+          return new StringConstant(value, readType(in));
+        }
+      case VALUE_CLASS:
+        {
+          final String value = readString(in);
+          return new ClassConstant(value, readType(in));
+        }
+      case VALUE_ENUM:
+        {
+          final String value = readString(in);
+          return new EnumConstant(value, (ClassType) readType(in));
+        }
+      case VALUE_METHOD_HANDLE:
+        {
+          final int handleTag = in.readVarInt();
+          final Type type = readType(in);
+          if (in.readVarInt() == 1) {
+            return new MethodHandle(methodSignatures[in.readVarInt()], handleTag, type);
+          }
+          return new MethodHandle((JFieldRef) readValue(in, locals), handleTag, type);
+        }
+      case VALUE_METHOD_TYPE:
+        {
+          final ClassType type = (ClassType) readType(in);
+          final Type returnType = readType(in);
+          final List<Type> parameterTypes = readTypes(in);
+          return new MethodType(
+              JavaIdentifierFactory.getInstance()
+                  .getMethodSubSignature("__METHODTYPE__", returnType, parameterTypes),
+              type);
+        }
+      case VALUE_ADD:
+        return Jimple.newAddExpr(readImmediate(in, locals), readImmediate(in, locals));
+      case VALUE_AND:
+        return Jimple.newAndExpr(readImmediate(in, locals), readImmediate(in, locals));
+      case VALUE_CMP:
+        return Jimple.newCmpExpr(readImmediate(in, locals), readImmediate(in, locals));
+      case VALUE_CMPG:
+        return Jimple.newCmpgExpr(readImmediate(in, locals), readImmediate(in, locals));
+      case VALUE_CMPL:
+        return Jimple.newCmplExpr(readImmediate(in, locals), readImmediate(in, locals));
+      case VALUE_DIV:
+        return Jimple.newDivExpr(readImmediate(in, locals), readImmediate(in, locals));
+      case VALUE_EQ:
+        return Jimple.newEqExpr(readImmediate(in, locals), readImmediate(in, locals));
+      case VALUE_NE:
+        return Jimple.newNeExpr(readImmediate(in, locals), readImmediate(in, locals));
+      case VALUE_GE:
+        return Jimple.newGeExpr(readImmediate(in, locals), readImmediate(in, locals));
+      case VALUE_GT:
+        return Jimple.newGtExpr(readImmediate(in, locals), readImmediate(in, locals));
+      case VALUE_LE:
+        return Jimple.newLeExpr(readImmediate(in, locals), readImmediate(in, locals));
+      case VALUE_LT:
+        return Jimple.newLtExpr(readImmediate(in, locals), readImmediate(in, locals));
+      case VALUE_MUL:
+        return Jimple.newMulExpr(readImmediate(in, locals), readImmediate(in, locals));
+      case VALUE_OR:
+        return Jimple.newOrExpr(readImmediate(in, locals), readImmediate(in, locals));
+      case VALUE_REM:
+        return Jimple.newRemExpr(readImmediate(in, locals), readImmediate(in, locals));
+      case VALUE_SHL:
+        return Jimple.newShlExpr(readImmediate(in, locals), readImmediate(in, locals));
+      case VALUE_SHR:
+        return Jimple.newShrExpr(readImmediate(in, locals), readImmediate(in, locals));
+      case VALUE_USHR:
+        return Jimple.newUshrExpr(readImmediate(in, locals), readImmediate(in, locals));
+      case VALUE_SUB:
+        return Jimple.newSubExpr(readImmediate(in, locals), readImmediate(in, locals));
+      case VALUE_XOR:
+        return Jimple.newXorExpr(readImmediate(in, locals), readImmediate(in, locals));
+      case VALUE_NEG:
+        return Jimple.newNegExpr(readImmediate(in, locals));
+      case VALUE_LENGTH:
+        return Jimple.newLengthExpr(readImmediate(in, locals));
+      case VALUE_CAST:
+        {
+          final Immediate op = readImmediate(in, locals);
+          return new JCastExpr(op, readType(in));
+        }
+      case VALUE_INSTANCE_OF:
+        {
+          final Immediate op = readImmediate(in, locals);
+          return new JInstanceOfExpr(op, readType(in));
+        }
+      case VALUE_NEW:
+        return Jimple.newNewExpr((ClassType) readType(in));
+      case VALUE_NEW_ARRAY:
+        {
+          final Type baseType = readType(in);
+          return JavaJimple.getInstance().newNewArrayExpr(baseType, readImmediate(in, locals));
+        }
+      case VALUE_NEW_MULTI_ARRAY:
+        {
+          final ArrayType type = (ArrayType) readType(in);
+          return Jimple.newNewMultiArrayExpr(type, readImmediates(in, locals));
+        }
+      case VALUE_SPECIAL_INVOKE:
+        {
+          final Local base = (Local) readValue(in, locals);
+          final MethodSignature signature = methodSignatures[in.readVarInt()];
+          return Jimple.newSpecialInvokeExpr(base, signature, readImmediates(in, locals));
+        }
+      case VALUE_VIRTUAL_INVOKE:
+        {
+          final Local base = (Local) readValue(in, locals);
+          final MethodSignature signature = methodSignatures[in.readVarInt()];
+          return Jimple.newVirtualInvokeExpr(base, signature, readImmediates(in, locals));
+        }
+      case VALUE_INTERFACE_INVOKE:
+        {
+          final Local base = (Local) readValue(in, locals);
+          final MethodSignature signature = methodSignatures[in.readVarInt()];
+          return Jimple.newInterfaceInvokeExpr(base, signature, readImmediates(in, locals));
+        }
+      case VALUE_STATIC_INVOKE:
+        {
+          final MethodSignature signature = methodSignatures[in.readVarInt()];
+          return Jimple.newStaticInvokeExpr(signature, readImmediates(in, locals));
+        }
+      case VALUE_DYNAMIC_INVOKE:
+        {
+          final MethodSignature bootstrapMethod = methodSignatures[in.readVarInt()];
+          final List<Immediate> bootstrapArgs = readImmediates(in, locals);
+          final MethodSignature signature = methodSignatures[in.readVarInt()];
+          final int handleTag = in.readVarInt();
+          return new JDynamicInvokeExpr(
+              bootstrapMethod, bootstrapArgs, signature, handleTag, readImmediates(in, locals));
+        }
+      case VALUE_STATIC_FIELD_REF:
+        return Jimple.newStaticFieldRef(fieldSignatures[in.readVarInt()]);
+      case VALUE_INSTANCE_FIELD_REF:
+        {
+          final Local base = (Local) readValue(in, locals);
+          return Jimple.newInstanceFieldRef(base, fieldSignatures[in.readVarInt()]);
+        }
+      case VALUE_ARRAY_REF:
+        {
+          final Local base = (Local) readValue(in, locals);
+          return JavaJimple.getInstance().newArrayRef(base, readImmediate(in, locals));
+        }
+      case VALUE_PARAMETER_REF:
+        {
+          final Type type = readType(in);
+          return new JParameterRef(type, in.readVarInt());
+        }
+      case VALUE_THIS_REF:
+        return new JThisRef((ClassType) readType(in));
+      case VALUE_CAUGHT_EXCEPTION_REF:
+        return new JCaughtExceptionRef(readType(in));
+      default:
+        throw new IllegalStateException("Unknown Value tag " + tag + ".");
+    }
+  }
+
+  @Nonnull
+  private Immediate readImmediate(@Nonnull VarIntInput in, @Nullable Local[] locals) {
+    return (Immediate) readValue(in, locals);
+  }
+
+  @Nonnull
+  private List<Immediate> readImmediates(@Nonnull VarIntInput in, @Nullable Local[] locals) {
+    final int count = in.readVarInt();
+    final List<Immediate> immediates = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      immediates.add(readImmediate(in, locals));
+    }
+    return immediates;
+  }
+
+  @Nonnull
+  private List<AnnotationUsage> readAnnotations(@Nonnull VarIntInput in) {
+    final int count = in.readVarInt();
+    if (count == 0) {
+      return Collections.emptyList();
+    }
+    final List<AnnotationUsage> annotations = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      final AnnotationType annotationType = (AnnotationType) readType(in);
+      final int valueCount = in.readVarInt();
+      final Map<String, Object> values = new HashMap<>(valueCount * 2);
+      for (int j = 0; j < valueCount; j++) {
+        final String name = readString(in);
+        values.put(name, readAnnotationValue(in));
+      }
+      annotations.add(new AnnotationUsage(annotationType, values));
+    }
+    return annotations;
+  }
+
+  @Nonnull
+  private Object readAnnotationValue(@Nonnull VarIntInput in) {
+    final int kind = in.readVarInt();
+    switch (kind) {
+      case ANNOTATION_VALUE_CONSTANT:
+        return readValue(in, null);
+      case ANNOTATION_VALUE_LIST:
+        {
+          final int count = in.readVarInt();
+          final List<Object> values = new ArrayList<>(count);
+          for (int i = 0; i < count; i++) {
+            values.add(readAnnotationValue(in));
+          }
+          return values;
+        }
+      case ANNOTATION_VALUE_ANNOTATIONS:
+        return new ArrayList<>(readAnnotations(in));
+      default:
+        throw new IllegalStateException("Unknown annotation value kind " + kind + ".");
+    }
+  }
+
+  @Nonnull
+  private static Position readPosition(@Nonnull VarIntInput in) {
+    final int kind = in.readVarInt();
+    switch (kind) {
+      case POSITION_NONE:
+        return NoPositionInformation.getInstance();
+      case POSITION_LINE:
+        {
+          final int line = in.readSignedVarInt();
+          return new Position(line, -1, line, -1);
+        }
+      case POSITION_FULL:
+        return new Position(
+            in.readSignedVarInt(),
+            in.readSignedVarInt(),
+            in.readSignedVarInt(),
+            in.readSignedVarInt());
+      default:
+        throw new IllegalStateException("Unknown position kind " + kind + ".");
+    }
+  }
+
+  @Nonnull
+  private static StmtPositionInfo readStmtPosition(@Nonnull VarIntInput in) {
+    final int kind = in.readVarInt();
+    switch (kind) {
+      case POSITION_NONE:
+        return NO_POSITION;
+      case POSITION_LINE:
+        return new StmtPositionInfo(in.readSignedVarInt());
+      case POSITION_FULL:
+        return new StmtPositionInfo(
+            new Position(
+                in.readSignedVarInt(),
+                in.readSignedVarInt(),
+                in.readSignedVarInt(),
+                in.readSignedVarInt()),
+            null);
+      default:
+        throw new IllegalStateException("Unknown position kind " + kind + ".");
+    }
+  }
+
+  @Nonnull
+  private static EnumSet<Modifier> readModifiers(@Nonnull VarIntInput in) {
+    final int bits = in.readVarInt();
+    final EnumSet<Modifier> modifiers = EnumSet.noneOf(Modifier.class);
+    for (Modifier modifier : Modifier.values()) {
+      if ((bits & (1 << modifier.ordinal())) != 0) {
+        modifiers.add(modifier);
+      }
+    }
+    return modifiers;
+  }
+
+  @Nonnull
+  private String readString(@Nonnull VarIntInput in) {
+    return strings[in.readVarInt()];
+  }
+
+  @Nonnull
+  private Type readType(@Nonnull VarIntInput in) {
+    return types[in.readVarInt()];
+  }
+
+  @Nullable
+  private ClassType readOptionalType(@Nonnull VarIntInput in) {
+    final int index = in.readVarInt();
+    return index == 0 ? null : (ClassType) types[index - 1];
+  }
+
+  @Nonnull
+  private List<Type> readTypes(@Nonnull VarIntInput in) {
+    final int count = in.readVarInt();
+    final List<Type> result = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      result.add(readType(in));
+    }
+    return result;
+  }
+
+  @Nonnull
+  private Type readTypeEntry(
+      @Nonnull VarIntInput in, @Nonnull JavaIdentifierFactory identifierFactory) {
+    final int kind = in.readVarInt();
+    switch (kind) {
+      case TYPE_CLASS:
+        return identifierFactory.getClassType(readString(in));
+      case TYPE_ANNOTATION:
+        return identifierFactory.getAnnotationType(readString(in));
+      case TYPE_ARRAY:
+        {
+          final Type baseType = readType(in);
+          return identifierFactory.getArrayType(baseType, in.readVarInt());
+        }
+      case TYPE_BOOLEAN:
+        return PrimitiveType.getBoolean();
+      case TYPE_BYTE:
+        return PrimitiveType.getByte();
+      case TYPE_CHAR:
+        return PrimitiveType.getChar();
+      case TYPE_SHORT:
+        return PrimitiveType.getShort();
+      case TYPE_INT:
+        return PrimitiveType.getInt();
+      case TYPE_LONG:
+        return PrimitiveType.getLong();
+      case TYPE_FLOAT:
+        return PrimitiveType.getFloat();
+      case TYPE_DOUBLE:
+        return PrimitiveType.getDouble();
+      case TYPE_VOID:
+        return VoidType.getInstance();
+      case TYPE_NULL:
+        return NullType.getInstance();
+      case TYPE_UNKNOWN:
+        return UnknownType.getInstance();
+      default:
+        throw new IllegalStateException("Unknown type kind " + kind + ".");
+    }
+  }
+}
@@ -0,0 +1,778 @@
+package sootup.java.core.binary;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import static sootup.java.core.binary.BinaryJimpleFormat.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.graph.BasicBlock;
+import sootup.core.graph.StmtGraph;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.NoPositionInformation;
+import sootup.core.jimple.basic.Value;
+import sootup.core.jimple.common.constant.*;
+import sootup.core.jimple.common.expr.*;
+import sootup.core.jimple.common.ref.*;
+import sootup.core.jimple.common.stmt.*;
+import sootup.core.jimple.javabytecode.stmt.*;
+import sootup.core.model.Body;
+import sootup.core.model.Modifier;
+import sootup.core.model.Position;
+import sootup.core.signatures.FieldSignature;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.types.*;
+import sootup.java.core.AnnotationUsage;
+import sootup.java.core.JavaAnnotationSootMethod;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.JavaSootField;
+import sootup.java.core.JavaSootMethod;
+import sootup.java.core.jimple.basic.JavaLocal;
+import sootup.java.core.types.AnnotationType;
+
+/**
+ * Serializes a {@link JavaSootClass} including the {@link Body} of each of its methods into the
+ * format described in {@link BinaryJimpleFormat}.
+ *
+ * <p>A writer collects the constant pools of exactly one class, i.e. create a new instance for
+ * every class.
+ */
+public class BinaryJimpleWriter {
+
+  @Nonnull private final Map<String, Integer> strings = new HashMap<>();
+  @Nonnull private final Map<Type, Integer> types = new HashMap<>();
+  @Nonnull private final Map<FieldSignature, Integer> fieldSignatures = new HashMap<>();
+  @Nonnull private final Map<MethodSignature, Integer> methodSignatures = new HashMap<>();
+
+  @Nonnull private final VarIntOutput stringPool = new VarIntOutput();
+  @Nonnull private final VarIntOutput typePool = new VarIntOutput();
+  @Nonnull private final VarIntOutput fieldSignaturePool = new VarIntOutput();
+  @Nonnull private final VarIntOutput methodSignaturePool = new VarIntOutput();
+
+  private boolean used = false;
+
+  /**
+   * Serializes the given class into its file in the given directory, see {@link
+   * BinaryJimpleFormat#resolve(Path, ClassType)}.
+   *
+   * @return the written file
+   */
+  @Nonnull
+  public static Path writeToDirectory(@Nonnull JavaSootClass clazz, @Nonnull Path directory)
+      throws IOException {
+    final byte[] data = new BinaryJimpleWriter().write(clazz);
+    final Path file = BinaryJimpleFormat.resolve(directory, clazz.getType());
+    final Path parent = file.getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    Files.write(file, data);
+    return file;
+  }
+
+  /**
+   * Serializes the given class. The bodies of its concrete methods are resolved, a method whose
+   * body can not be resolved is stored together with the reason of the failure, so that reading
+   * it fails the same way.
+   *
+   * @throws IllegalArgumentException if the class contains IR that the format does not support
+   *     (e.g. Phi expressions).
+   */
+  @Nonnull
+  public byte[] write(@Nonnull JavaSootClass clazz) {
+    if (used) {
+      throw new IllegalStateException("A BinaryJimpleWriter can only write a single class.");
+    }
+    used = true;
+
+    final VarIntOutput metadata = new VarIntOutput();
+    final VarIntOutput bodies = new VarIntOutput(4096);
+
+    writeType(metadata, clazz.getType());
+    writeModifiers(metadata, clazz.getModifiers());
+    writeOptionalType(metadata, clazz.getSuperclass());
+    writeOptionalType(metadata, clazz.getOuterClass());
+    final Set<? extends ClassType> interfaces = clazz.getInterfaces();
+    metadata.writeVarInt(interfaces.size());
+    for (ClassType anInterface : interfaces) {
+      writeType(metadata, anInterface);
+    }
+    writePosition(metadata, clazz.getPosition());
+    writeAnnotations(metadata, clazz.getDeclaredAnnotations());
+
+    final Set<? extends JavaSootField> fields = clazz.getFields();
+    metadata.writeVarInt(fields.size());
+    for (JavaSootField field : fields) {
+      writeFieldSignature(metadata, field.getSignature());
+      writeModifiers(metadata, field.getModifiers());
+      writeAnnotations(metadata, field.getDeclaredAnnotations());
+      writePosition(metadata, field.getPosition());
+    }
+
+    final boolean isAnnotation = clazz.getType() instanceof AnnotationType;
+    final Set<? extends JavaSootMethod> methods = clazz.getMethods();
+    metadata.writeVarInt(methods.size());
+    for (JavaSootMethod method : methods) {
+      writeMethodSignature(metadata, method.getSignature());
+      writeModifiers(metadata, method.getModifiers());
+      final List<ClassType> exceptions = method.getExceptionSignatures();
+      metadata.writeVarInt(exceptions.size());
+      for (ClassType exception : exceptions) {
+        writeType(metadata, exception);
+      }
+      writeAnnotations(metadata, method.getDeclaredAnnotations());
+      writePosition(metadata, method.getPosition());
+
+      writeBody(metadata, bodies, method);
+
+      if (isAnnotation) {
+        final Object defaultValue =
+            method instanceof JavaAnnotationSootMethod
+                ? ((JavaAnnotationSootMethod) method).getDefaultValue()
+                : null;
+        if (defaultValue == null) {
+          metadata.writeVarInt(ANNOTATION_DEFAULT_NONE);
+        } else {
+          metadata.writeVarInt(ANNOTATION_DEFAULT_PRESENT);
+          writeAnnotationValue(metadata, defaultValue);
+        }
+      }
+    }
+
+    final VarIntOutput file =
+        new VarIntOutput(
+            32
+                + stringPool.size()
+                + typePool.size()
+                + fieldSignaturePool.size()
+                + methodSignaturePool.size()
+                + metadata.size()
+                + bodies.size());
+    file.writeFixedInt(MAGIC);
+    file.writeVarInt(VERSION);
+    file.writeVarInt(strings.size());
+    stringPool.writeTo(file);
+    file.writeVarInt(types.size());
+    typePool.writeTo(file);
+    file.writeVarInt(fieldSignatures.size());
+    fieldSignaturePool.writeTo(file);
+    file.writeVarInt(methodSignatures.size());
+    methodSignaturePool.writeTo(file);
+    file.writeVarInt(metadata.size());
+    metadata.writeTo(file);
+    bodies.writeTo(file);
+    return file.toByteArray();
+  }
+
+  private void writeBody(
+      @Nonnull VarIntOutput metadata,
+      @Nonnull VarIntOutput bodies,
+      @Nonnull JavaSootMethod method) {
+    if (!method.isConcrete()) {
+      metadata.writeVarInt(BODY_NONE);
+      return;
+    }
+    final Body body;
+    try {
+      body = method.getBody();
+    } catch (RuntimeException e) {
+      metadata.writeVarInt(BODY_FAILED);
+      writeString(metadata, String.valueOf(e.getMessage()));
+      return;
+    }
+    metadata.writeVarInt(BODY_PRESENT);
+    metadata.writeVarInt(bodies.size());
+    new BodyEncoder().writeBody(body, bodies);
+  }
+
+  private void writeString(@Nonnull VarIntOutput out, @Nonnull String value) {
+    Integer index = strings.get(value);
+    if (index == null) {
+      index = strings.size();
+      strings.put(value, index);
+      stringPool.writeUtf8(value);
+    }
+    out.writeVarInt(index);
+  }
+
+  private void writeType(@Nonnull VarIntOutput out, @Nonnull Type type) {
+    out.writeVarInt(internType(type));
+  }
+
+  private void writeOptionalType(
+      @Nonnull VarIntOutput out, @Nonnull Optional<? extends ClassType> type) {
+    // 0 encodes the absence of a type
+    out.writeVarInt(type.map(t -> internType(t) + 1).orElse(0));
+  }
+
+  private int internType(@Nonnull Type type) {
+    final Integer existing = types.get(type);
+    if (existing != null) {
+      return existing;
+    }
+
+    // referenced entries have to be in the pool before the entry that references them
+    final VarIntOutput entry = new VarIntOutput(16);
+    if (type instanceof AnnotationType) {
+      entry.writeVarInt(TYPE_ANNOTATION);
+      writeString(entry, ((AnnotationType) type).getFullyQualifiedName());
+    } else if (type instanceof ClassType) {
+      entry.writeVarInt(TYPE_CLASS);
+      writeString(entry, ((ClassType) type).getFullyQualifiedName());
+    } else if (type instanceof ArrayType) {
+      final ArrayType arrayType = (ArrayType) type;
+      final int baseType = internType(arrayType.getBaseType());
+      entry.writeVarInt(TYPE_ARRAY);
+      entry.writeVarInt(baseType);
+      entry.writeVarInt(arrayType.getDimension());
+    } else if (type instanceof PrimitiveType.BooleanType) {
+      entry.writeVarInt(TYPE_BOOLEAN);
+    } else if (type instanceof PrimitiveType.ByteType) {
+      entry.writeVarInt(TYPE_BYTE);
+    } else if (type instanceof PrimitiveType.CharType) {
+      entry.writeVarInt(TYPE_CHAR);
+    } else if (type instanceof PrimitiveType.ShortType) {
+      entry.writeVarInt(TYPE_SHORT);
+    } else if (type instanceof PrimitiveType.IntType) {
+      entry.writeVarInt(TYPE_INT);
+    } else if (type instanceof PrimitiveType.LongType) {
+      entry.writeVarInt(TYPE_LONG);
+    } else if (type instanceof PrimitiveType.FloatType) {
+      entry.writeVarInt(TYPE_FLOAT);
+    } else if (type instanceof PrimitiveType.DoubleType) {
+      entry.writeVarInt(TYPE_DOUBLE);
+    } else if (type instanceof VoidType) {
+      entry.writeVarInt(TYPE_VOID);
+    } else if (type instanceof NullType) {
+      entry.writeVarInt(TYPE_NULL);
+    } else if (type instanceof UnknownType) {
+      entry.writeVarInt(TYPE_UNKNOWN);
+    } else {
+      throw new IllegalArgumentException("Unsupported type " + type.getClass().getName() + ".");
+    }
+
+    final int index = types.size();
+    types.put(type, index);
+    entry.writeTo(typePool);
+    return index;
+  }
+
+  private void writeFieldSignature(@Nonnull VarIntOutput out, @Nonnull FieldSignature signature) {
+    Integer index = fieldSignatures.get(signature);
+    if (index == null) {
+      final VarIntOutput entry = new VarIntOutput(16);
+      writeType(entry, signature.getDeclClassType());
+      writeString(entry, signature.getName());
+      writeType(entry, signature.getType());
+
+      index = fieldSignatures.size();
+      fieldSignatures.put(signature, index);
+      entry.writeTo(fieldSignaturePool);
+    }
+    out.writeVarInt(index);
+  }
+
+  private void writeMethodSignature(
+      @Nonnull VarIntOutput out, @Nonnull MethodSignature signature) {
+    Integer index = methodSignatures.get(signature);
+    if (index == null) {
+      final VarIntOutput entry = new VarIntOutput(16);
+      writeType(entry, signature.getDeclClassType());
+      writeString(entry, signature.getName());
+      writeType(entry, signature.getType());
+      final List<Type> parameterTypes = signature.getParameterTypes();
+      entry.writeVarInt(parameterTypes.size());
+      for (Type parameterType : parameterTypes) {
+        writeType(entry, parameterType);
+      }
+
+      index = methodSignatures.size();
+      methodSignatures.put(signature, index);
+      entry.writeTo(methodSignaturePool);
+    }
+    out.writeVarInt(index);
+  }
+
+  private static void writeModifiers(
+      @Nonnull VarIntOutput out, @Nonnull Set<? extends Modifier> modifiers) {
+    int bits = 0;
+    for (Modifier modifier : modifiers) {
+      bits |= 1 << modifier.ordinal();
+    }
+    out.writeVarInt(bits);
+  }
+
+  static void writePosition(@Nonnull VarIntOutput out, @Nullable Position position) {
+    if (position == null || position instanceof NoPositionInformation) {
+      out.writeVarInt(POSITION_NONE);
+    } else if (position.getFirstLine() == position.getLastLine()
+        && position.getFirstCol() == -1
+        && position.getLastCol() == -1) {
+      // the bytecode frontend knows only line numbers
+      out.writeVarInt(POSITION_LINE);
+      out.writeSignedVarInt(position.getFirstLine());
+    } else {
+      out.writeVarInt(POSITION_FULL);
+      out.writeSignedVarInt(position.getFirstLine());
+      out.writeSignedVarInt(position.getFirstCol());
+      out.writeSignedVarInt(position.getLastLine());
+      out.writeSignedVarInt(position.getLastCol());
+    }
+  }
+
+  private void writeAnnotations(
+      @Nonnull VarIntOutput out, @Nonnull Iterable<AnnotationUsage> annotations) {
+    final List<AnnotationUsage> annotationList = new ArrayList<>();
+    annotations.forEach(annotationList::add);
+    out.writeVarInt(annotationList.size());
+    for (AnnotationUsage annotation : annotationList) {
+      writeType(out, annotation.getAnnotation());
+      final Map<String, Object> values = annotation.getValues();
+      out.writeVarInt(values.size());
+      for (Map.Entry<String, Object> entry : values.entrySet()) {
+        writeString(out, entry.getKey());
+        writeAnnotationValue(out, entry.getValue());
+      }
+    }
+  }
+
+  private void writeAnnotationValue(@Nonnull VarIntOutput out, @Nullable Object value) {
+    if (value instanceof Constant) {
+      out.writeVarInt(ANNOTATION_VALUE_CONSTANT);
+      new BodyEncoder().writeConstant((Constant) value, out);
+    } else if (value instanceof Iterable) {
+      final List<Object> elements = new ArrayList<>();
+      ((Iterable<?>) value).forEach(elements::add);
+      if (!elements.isEmpty() && elements.get(0) instanceof AnnotationUsage) {
+        // nested (e.g. repeatable) annotations
+        final List<AnnotationUsage> annotations = new ArrayList<>();
+        elements.forEach(e -> annotations.add((AnnotationUsage) e));
+        out.writeVarInt(ANNOTATION_VALUE_ANNOTATIONS);
+        writeAnnotations(out, annotations);
+      } else {
+        out.writeVarInt(ANNOTATION_VALUE_LIST);
+        out.writeVarInt(elements.size());
+        for (Object element : elements) {
+          writeAnnotationValue(out, element);
+        }
+      }
+    } else {
+      throw new IllegalArgumentException("Unsupported annotation value " + value + ".");
+    }
+  }
+
+  /**
+   * Writes the Jimple of a single body or a single constant into its own buffer. Locals are
+   * referenced by their index in the locals table of the body.
+   */
+  private class BodyEncoder {
+
+    @Nonnull private final VarIntOutput out = new VarIntOutput(1024);
+    @Nonnull private final Map<Local, Integer> localIndices = new IdentityHashMap<>();
+    @Nonnull private final List<Local> locals = new ArrayList<>();
+
+    void writeBody(@Nonnull Body body, @Nonnull VarIntOutput target) {
+      final StmtGraph<?> graph = body.getStmtGraph();
+      final List<? extends BasicBlock<?>> blocks = graph.getBlocksSorted();
+      final Map<Stmt, Integer> blockIndices = new IdentityHashMap<>();
+      int stmtCount = 0;
+      for (BasicBlock<?> block : blocks) {
+        blockIndices.put(block.getHead(), blockIndices.size());
+        stmtCount += block.getStmts().size();
+      }
+
+      // the locals of the body come first, Local instances which are only referenced by Stmts
+      // are appended while the Stmts are written
+      final Set<Local> bodyLocals = body.getLocals();
+      bodyLocals.forEach(this::indexOf);
+
+      out.writeVarInt(stmtCount);
+      out.writeVarInt(blocks.size());
+      int startingStmtIndex = -1;
+      int stmtIndex = 0;
+      final Stmt startingStmt = graph.getStartingStmt();
+      for (BasicBlock<?> block : blocks) {
+        final List<Stmt> blockStmts = block.getStmts();
+        out.writeVarInt(blockStmts.size());
+        for (Stmt stmt : blockStmts) {
+          if (stmt == startingStmt) {
+            startingStmtIndex = stmtIndex;
+          }
+          writeStmt(stmt);
+          stmtIndex++;
+        }
+
+        final Map<? extends ClassType, ? extends BasicBlock<?>> exceptionalSuccessors =
+            block.getExceptionalSuccessors();
+        out.writeVarInt(exceptionalSuccessors.size());
+        for (Map.Entry<? extends ClassType, ? extends BasicBlock<?>> entry :
+            exceptionalSuccessors.entrySet()) {
+          writeType(out, entry.getKey());
+          out.writeVarInt(blockIndices.get(entry.getValue().getHead()));
+        }
+        final List<? extends BasicBlock<?>> successors = block.getSuccessors();
+        out.writeVarInt(successors.size());
+        for (BasicBlock<?> successor : successors) {
+          out.writeVarInt(blockIndices.get(successor.getHead()));
+        }
+      }
+      out.writeSignedVarInt(startingStmtIndex);
+
+      // the locals table is complete after all Stmts are written
+      writePosition(target, body.getPosition());
+      target.writeVarInt(bodyLocals.size());
+      target.writeVarInt(locals.size());
+      for (Local local : locals) {
+        if (local == null) {
+          target.writeVarInt(LOCAL_ABSENT);
+          continue;
+        }
+        if (local instanceof JavaLocal) {
+          target.writeVarInt(LOCAL_ANNOTATED);
+          writeAnnotations(target, ((JavaLocal) local).getAnnotations());
+        } else {
+          target.writeVarInt(LOCAL_PLAIN);
+        }
+        writeString(target, local.getName());
+        writeType(target, local.getType());
+        writePosition(target, local.getPosition());
+      }
+      out.writeTo(target);
+    }
+
+    void writeConstant(@Nonnull Constant constant, @Nonnull VarIntOutput target) {
+      writeValue(constant);
+      out.writeTo(target);
+    }
+
+    private void writeStmt(@Nonnull Stmt stmt) {
+      final int tag;
+      if (stmt instanceof JNopStmt) {
+        tag = STMT_NOP;
+      } else if (stmt instanceof JBreakpointStmt) {
+        tag = STMT_BREAKPOINT;
+      } else if (stmt instanceof JGotoStmt) {
+        tag = STMT_GOTO;
+      } else if (stmt instanceof JReturnVoidStmt) {
+        tag = STMT_RETURN_VOID;
+      } else if (stmt instanceof JReturnStmt) {
+        tag = STMT_RETURN;
+      } else if (stmt instanceof JThrowStmt) {
+        tag = STMT_THROW;
+      } else if (stmt instanceof JEnterMonitorStmt) {
+        tag = STMT_ENTER_MONITOR;
+      } else if (stmt instanceof JExitMonitorStmt) {
+        tag = STMT_EXIT_MONITOR;
+      } else if (stmt instanceof JRetStmt) {
+        tag = STMT_RET;
+      } else if (stmt instanceof JInvokeStmt) {
+        tag = STMT_INVOKE;
+      } else if (stmt instanceof JAssignStmt) {
+        tag = STMT_ASSIGN;
+      } else if (stmt instanceof JIdentityStmt) {
+        tag = STMT_IDENTITY;
+      } else if (stmt instanceof JIfStmt) {
+        tag = STMT_IF;
+      } else if (stmt instanceof JSwitchStmt) {
+        tag = ((JSwitchStmt) stmt).isTableSwitch() ? STMT_TABLE_SWITCH : STMT_LOOKUP_SWITCH;
+      } else {
+        throw new IllegalArgumentException("Unsupported Stmt " + stmt.getClass().getName() + ".");
+      }
+      out.writeVarInt(tag);
+      writePosition(out, stmt.getPositionInfo().getStmtPosition());
+
+      switch (tag) {
+        case STMT_RETURN:
+        case STMT_THROW:
+        case STMT_ENTER_MONITOR:
+        case STMT_EXIT_MONITOR:
+          writeValue(((AbstractOpStmt) stmt).getOp());
+          break;
+        case STMT_RET:
+          writeValue(((JRetStmt) stmt).getStmtAddress());
+          break;
+        case STMT_INVOKE:
+          writeValue(((JInvokeStmt) stmt).getInvokeExpr());
+          break;
+        case STMT_ASSIGN:
+        case STMT_IDENTITY:
+          writeValue(((AbstractDefinitionStmt<?, ?>) stmt).getLeftOp());
+          writeValue(((AbstractDefinitionStmt<?, ?>) stmt).getRightOp());
+          break;
+        case STMT_IF:
+          writeValue(((JIfStmt) stmt).getCondition());
+          break;
+        case STMT_TABLE_SWITCH:
+          {
+            final JSwitchStmt switchStmt = (JSwitchStmt) stmt;
+            writeValue(switchStmt.getKey());
+            final List<IntConstant> values = switchStmt.getValues();
+            out.writeSignedVarInt(values.isEmpty() ? 0 : values.get(0).getValue());
+            out.writeVarInt(values.size());
+            break;
+          }
+        case STMT_LOOKUP_SWITCH:
+          {
+            final JSwitchStmt switchStmt = (JSwitchStmt) stmt;
+            writeValue(switchStmt.getKey());
+            final List<IntConstant> values = switchStmt.getValues();
+            out.writeVarInt(values.size());
+            for (IntConstant value : values) {
+              out.writeSignedVarInt(value.getValue());
+            }
+            break;
+          }
+        default:
+          break;
+      }
+    }
+
+    private void writeValue(@Nonnull Value value) {
+      if (value instanceof Local) {
+        out.writeVarInt(VALUE_LOCAL);
+        out.writeVarInt(indexOf((Local) value));
+      } else if (value instanceof Constant) {
+        writeConstant((Constant) value);
+      } else if (value instanceof AbstractBinopExpr) {
+        final AbstractBinopExpr binop = (AbstractBinopExpr) value;
+        out.writeVarInt(binopTag(binop));
+        writeValue(binop.getOp1());
+        writeValue(binop.getOp2());
+      } else if (value instanceof AbstractInvokeExpr) {
+        writeInvokeExpr((AbstractInvokeExpr) value);
+      } else if (value instanceof JNegExpr) {
+        out.writeVarInt(VALUE_NEG);
+        writeValue(((JNegExpr) value).getOp());
+      } else if (value instanceof JLengthExpr) {
+        out.writeVarInt(VALUE_LENGTH);
+        writeValue(((JLengthExpr) value).getOp());
+      } else if (value instanceof JCastExpr) {
+        out.writeVarInt(VALUE_CAST);
+        writeValue(((JCastExpr) value).getOp());
+        writeType(out, value.getType());
+      } else if (value instanceof JInstanceOfExpr) {
+        out.writeVarInt(VALUE_INSTANCE_OF);
+        writeValue(((JInstanceOfExpr) value).getOp());
+        writeType(out, ((JInstanceOfExpr) value).getCheckType());
+      } else if (value instanceof JNewExpr) {
+        out.writeVarInt(VALUE_NEW);
+        writeType(out, value.getType());
+      } else if (value instanceof JNewArrayExpr) {
+        out.writeVarInt(VALUE_NEW_ARRAY);
+        writeType(out, ((JNewArrayExpr) value).getBaseType());
+        writeValue(((JNewArrayExpr) value).getSize());
+      } else if (value instanceof JNewMultiArrayExpr) {
+        final JNewMultiArrayExpr expr = (JNewMultiArrayExpr) value;
+        out.writeVarInt(VALUE_NEW_MULTI_ARRAY);
+        writeType(out, expr.getBaseType());
+        writeValues(expr.getSizes());
+      } else if (value instanceof JStaticFieldRef) {
+        out.writeVarInt(VALUE_STATIC_FIELD_REF);
+        writeFieldSignature(out, ((JStaticFieldRef) value).getFieldSignature());
+      } else if (value instanceof JInstanceFieldRef) {
+        out.writeVarInt(VALUE_INSTANCE_FIELD_REF);
+        writeValue(((JInstanceFieldRef) value).getBase());
+        writeFieldSignature(out, ((JInstanceFieldRef) value).getFieldSignature());
+      } else if (value instanceof JArrayRef) {
+        out.writeVarInt(VALUE_ARRAY_REF);
+        writeValue(((JArrayRef) value).getBase());
+        writeValue(((JArrayRef) value).getIndex());
+      } else if (value instanceof JParameterRef) {
+        out.writeVarInt(VALUE_PARAMETER_REF);
+        writeType(out, value.getType());
+        out.writeVarInt(((JParameterRef) value).getIndex());
+      } else if (value instanceof JThisRef) {
+        out.writeVarInt(VALUE_THIS_REF);
+        writeType(out, value.getType());
+      } else if (value instanceof JCaughtExceptionRef) {
+        out.writeVarInt(VALUE_CAUGHT_EXCEPTION_REF);
+        writeType(out, value.getType());
+      } else {
+        throw new IllegalArgumentException(
+            "Unsupported Value " + value.getClass().getName() + ".");
+      }
+    }
+
+    private void writeValues(@Nonnull List<? extends Value> values) {
+      out.writeVarInt(values.size());
+      for (Value value : values) {
+        writeValue(value);
+      }
+    }
+
+    private void writeConstant(@Nonnull Constant constant) {
+      if (constant instanceof IntConstant) {
+        out.writeVarInt(VALUE_INT);
+        out.writeSignedVarInt(((IntConstant) constant).getValue());
+      } else if (constant instanceof LongConstant) {
+        out.writeVarInt(VALUE_LONG);
+        out.writeSignedVarLong(((LongConstant) constant).getValue());
+      } else if (constant instanceof FloatConstant) {
+        out.writeVarInt(VALUE_FLOAT);
+        out.writeFixedInt(Float.floatToRawIntBits(((FloatConstant) constant).getValue()));
+      } else if (constant instanceof DoubleConstant) {
+        out.writeVarInt(VALUE_DOUBLE);
+        out.writeFixedLong(Double.doubleToRawLongBits(((DoubleConstant) constant).getValue()));
+      } else if (constant instanceof BooleanConstant) {
+        out.writeVarInt(VALUE_BOOLEAN);
+        out.writeVarInt(constant == BooleanConstant.getTrue() ? 1 : 0);
+      } else if (constant instanceof NullConstant) {
+        out.writeVarInt(VALUE_NULL);
+      } else if (constant instanceof StringConstant) {
+        out.writeVarInt(VALUE_STRING);
+        writeString(out, ((StringConstant) constant).getValue());
+        writeType(out, constant.getType());
+      } else if (constant instanceof ClassConstant) {
+        out.writeVarInt(VALUE_CLASS);
+        writeString(out, ((ClassConstant) constant).getValue());
+        writeType(out, constant.getType());
+      } else if (constant instanceof EnumConstant) {
+        out.writeVarInt(VALUE_ENUM);
+        writeString(out, ((EnumConstant) constant).getValue());
+        writeType(out, constant.getType());
+      } else if (constant instanceof MethodHandle) {
+        final MethodHandle handle = (MethodHandle) constant;
+        out.writeVarInt(VALUE_METHOD_HANDLE);
+        out.writeVarInt(handle.tag);
+        writeType(out, handle.getType());
+        if (handle.getMethodSignature() != null) {
+          out.writeVarInt(1);
+          writeMethodSignature(out, handle.getMethodSignature());
+        } else {
+          out.writeVarInt(0);
+          writeValue(handle.getFieldRef());
+        }
+      } else if (constant instanceof MethodType) {
+        final MethodType methodType = (MethodType) constant;
+        out.writeVarInt(VALUE_METHOD_TYPE);
+        writeType(out, methodType.getType());
+        writeType(out, methodType.getReturnType());
+        final List<Type> parameterTypes = methodType.getParameterTypes();
+        out.writeVarInt(parameterTypes.size());
+        for (Type parameterType : parameterTypes) {
+          writeType(out, parameterType);
+        }
+      } else {
+        throw new IllegalArgumentException(
+            "Unsupported Constant " + constant.getClass().getName() + ".");
+      }
+    }
+
+    private void writeInvokeExpr(@Nonnull AbstractInvokeExpr expr) {
+      if (expr instanceof JDynamicInvokeExpr) {
+        final JDynamicInvokeExpr dynamicExpr = (JDynamicInvokeExpr) expr;
+        out.writeVarInt(VALUE_DYNAMIC_INVOKE);
+        writeMethodSignature(out, dynamicExpr.getBootstrapMethodSignature());
+        writeValues(dynamicExpr.getBootstrapArgs());
+        writeMethodSignature(out, dynamicExpr.getMethodSignature());
+        out.writeVarInt(dynamicExpr.getHandleTag());
+        writeValues(dynamicExpr.getArgs());
+        return;
+      }
+
+      if (expr instanceof JStaticInvokeExpr) {
+        out.writeVarInt(VALUE_STATIC_INVOKE);
+      } else {
+        if (expr instanceof JSpecialInvokeExpr) {
+          out.writeVarInt(VALUE_SPECIAL_INVOKE);
+        } else if (expr instanceof JVirtualInvokeExpr) {
+          out.writeVarInt(VALUE_VIRTUAL_INVOKE);
+        } else if (expr instanceof JInterfaceInvokeExpr) {
+          out.writeVarInt(VALUE_INTERFACE_INVOKE);
+        } else {
+          throw new IllegalArgumentException(
+              "Unsupported InvokeExpr " + expr.getClass().getName() + ".");
+        }
+        writeValue(((AbstractInstanceInvokeExpr) expr).getBase());
+      }
+      writeMethodSignature(out, expr.getMethodSignature());
+      writeValues(expr.getArgs());
+    }
+
+    private int binopTag(@Nonnull AbstractBinopExpr expr) {
+      if (expr instanceof JAddExpr) {
+        return VALUE_ADD;
+      } else if (expr instanceof JAndExpr) {
+        return VALUE_AND;
+      } else if (expr instanceof JCmpExpr) {
+        return VALUE_CMP;
+      } else if (expr instanceof JCmpgExpr) {
+        return VALUE_CMPG;
+      } else if (expr instanceof JCmplExpr) {
+        return VALUE_CMPL;
+      } else if (expr instanceof JDivExpr) {
+        return VALUE_DIV;
+      } else if (expr instanceof JEqExpr) {
+        return VALUE_EQ;
+      } else if (expr instanceof JNeExpr) {
+        return VALUE_NE;
+      } else if (expr instanceof JGeExpr) {
+        return VALUE_GE;
+      } else if (expr instanceof JGtExpr) {
+        return VALUE_GT;
+      } else if (expr instanceof JLeExpr) {
+        return VALUE_LE;
+      } else if (expr instanceof JLtExpr) {
+        return VALUE_LT;
+      } else if (expr instanceof JMulExpr) {
+        return VALUE_MUL;
+      } else if (expr instanceof JOrExpr) {
+        return VALUE_OR;
+      } else if (expr instanceof JRemExpr) {
+        return VALUE_REM;
+      } else if (expr instanceof JShlExpr) {
+        return VALUE_SHL;
+      } else if (expr instanceof JShrExpr) {
+        return VALUE_SHR;
+      } else if (expr instanceof JUshrExpr) {
+        return VALUE_USHR;
+      } else if (expr instanceof JSubExpr) {
+        return VALUE_SUB;
+      } else if (expr instanceof JXorExpr) {
+        return VALUE_XOR;
+      }
+      throw new IllegalArgumentException("Unsupported Expr " + expr.getClass().getName() + ".");
+    }
+
+    private int indexOf(@Nullable Local local) {
+      Integer index = localIndices.get(local);
+      if (index == null) {
+        index = locals.size();
+        localIndices.put(local, index);
+        locals.add(local);
+      }
+      return index;
+    }
+  }
+}
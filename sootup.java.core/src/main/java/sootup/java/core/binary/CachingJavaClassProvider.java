@@ -0,0 +1,140 @@
+package sootup.java.core.binary;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.frontend.AbstractClassSource;
+import sootup.core.frontend.ClassProvider;
+import sootup.core.frontend.ResolveException;
+import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.inputlocation.FileType;
+import sootup.core.model.SootClass;
+import sootup.core.model.SourceType;
+import sootup.core.transform.BodyInterceptor;
+import sootup.core.types.ClassType;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.JavaSootClassSource;
+
+/**
+ * Decorates a {@link ClassProvider} with a {@link PersistentClassCache}. On a cache hit the class
+ * and its bodies are decoded from the binary Jimple format, i.e. the delegate and the body
+ * interceptors are not invoked at all. On a miss the class is created by the delegate, all of its
+ * bodies are converted and the result is stored in the cache.
+ */
+public class CachingJavaClassProvider implements ClassProvider<JavaSootClass> {
+
+  @Nonnull private final ClassProvider<JavaSootClass> delegate;
+  @Nonnull private final PersistentClassCache cache;
+  /** null if one of the body interceptors can not be identified, i.e. nothing is cached */
+  @Nullable private final String fingerprint;
+
+  /**
+   * @param delegate creates the classes that are not cached yet
+   * @param cache stores the converted classes
+   * @param bodyInterceptors the body interceptors the delegate applies; their {@link
+   *     BodyInterceptor#getFingerprint() fingerprints} are part of the key of an entry. If one of
+   *     them does not provide a fingerprint, the cache is bypassed completely.
+   */
+  public CachingJavaClassProvider(
+      @Nonnull ClassProvider<JavaSootClass> delegate,
+      @Nonnull PersistentClassCache cache,
+      @Nonnull List<BodyInterceptor> bodyInterceptors) {
+    this.delegate = delegate;
+    this.cache = cache;
+    final List<Optional<String>> fingerprints =
+        bodyInterceptors.stream()
+            .map(BodyInterceptor::getFingerprint)
+            .collect(Collectors.toList());
+    if (fingerprints.stream().allMatch(Optional::isPresent)) {
+      this.fingerprint =
+          delegate.getClass().getName()
+              + fingerprints.stream().map(Optional::get).collect(Collectors.joining(",", "[", "]"));
+    } else {
+      this.fingerprint = null;
+    }
+  }
+
+  @Override
+  public AbstractClassSource<JavaSootClass> createClassSource(
+      AnalysisInputLocation<? extends SootClass<?>> inputLocation,
+      Path sourcePath,
+      ClassType classType) {
+    if (fingerprint == null) {
+      return delegate.createClassSource(inputLocation, sourcePath, classType);
+    }
+    final String key;
+    try {
+      // the kind of the requested type decides e.g. whether annotation defaults are resolved
+      key =
+          PersistentClassCache.computeKey(
+              Files.readAllBytes(sourcePath), fingerprint + classType.getClass().getName());
+    } catch (IOException e) {
+      throw new ResolveException(e.getMessage(), sourcePath, e);
+    }
+
+    final Optional<byte[]> cached = cache.load(key);
+    if (cached.isPresent()) {
+      try {
+        final BinaryJimpleReader reader = new BinaryJimpleReader(cached.get());
+        if (reader.getClassType().equals(classType)) {
+          return reader.readClassSource(inputLocation, sourcePath);
+        }
+      } catch (IllegalArgumentException e) {
+        // the entry is corrupted: it is replaced below
+      }
+      cache.invalidate(key);
+    }
+
+    final AbstractClassSource<JavaSootClass> classSource =
+        delegate.createClassSource(inputLocation, sourcePath, classType);
+    if (!(classSource instanceof JavaSootClassSource)) {
+      return classSource;
+    }
+    final byte[] data;
+    try {
+      data =
+          new BinaryJimpleWriter()
+              .write(((JavaSootClassSource) classSource).buildClass(SourceType.Library));
+    } catch (IllegalArgumentException e) {
+      // the class contains Jimple that can not be stored in the binary format
+      return classSource;
+    }
+    cache.store(key, data);
+    // decode the stored data so that cached and uncached classes do not share mutable state (e.g.
+    // bodies) with the class that has been built for writing
+    return new BinaryJimpleReader(data).readClassSource(inputLocation, sourcePath);
+  }
+
+  @Override
+  public FileType getHandledFileType() {
+    return delegate.getHandledFileType();
+  }
+}
@@ -0,0 +1,157 @@
+package sootup.java.core.binary;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sootup.core.inputlocation.FileType;
+
+/**
+ * A directory that stores classes in the binary Jimple format. An entry is keyed by the hash of
+ * the content it was created from, i.e. a changed class file leads to a new entry instead of a
+ * stale one. Entries are written to a temporary file first and moved into place afterwards, hence
+ * a cache directory can be shared by concurrent threads and processes.
+ */
+public class PersistentClassCache {
+
+  private static final @Nonnull Logger logger = LoggerFactory.getLogger(PersistentClassCache.class);
+
+  @Nonnull private final Path directory;
+  @Nonnull private final AtomicLong hits = new AtomicLong();
+  @Nonnull private final AtomicLong misses = new AtomicLong();
+
+  /** @param directory the directory the entries are stored in; it is created if necessary */
+  public PersistentClassCache(@Nonnull Path directory) {
+    this.directory = directory;
+  }
+
+  @Nonnull
+  public Path getDirectory() {
+    return directory;
+  }
+
+  /**
+   * Computes the key of an entry.
+   *
+   * @param content the content the entry is created from, e.g. the bytes of a class file
+   * @param fingerprint describes everything besides the content that influences the entry, e.g.
+   *     the body interceptors that have been applied
+   */
+  @Nonnull
+  public static String computeKey(@Nonnull byte[] content, @Nonnull String fingerprint) {
+    final MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not supported by this JVM.", e);
+    }
+    digest.update(
+        (BinaryJimpleFormat.VERSION + ":" + fingerprint + ":").getBytes(StandardCharsets.UTF_8));
+    final byte[] hash = digest.digest(content);
+    final StringBuilder sb = new StringBuilder(hash.length * 2);
+    for (byte b : hash) {
+      sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    }
+    return sb.toString();
+  }
+
+  /** @return the content of the entry or nothing if there is no (readable) entry for the key */
+  @Nonnull
+  public Optional<byte[]> load(@Nonnull String key) {
+    try {
+      final byte[] data = Files.readAllBytes(resolve(key));
+      hits.incrementAndGet();
+      return Optional.of(data);
+    } catch (NoSuchFileException e) {
+      misses.incrementAndGet();
+      return Optional.empty();
+    } catch (IOException e) {
+      logger.warn("Could not read the class cache entry " + key, e);
+      misses.incrementAndGet();
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Stores an entry. Failing to store an entry is not fatal as it just has to be created again by
+   * the next run.
+   */
+  public void store(@Nonnull String key, @Nonnull byte[] data) {
+    final Path target = resolve(key);
+    try {
+      Files.createDirectories(target.getParent());
+      final Path tmp = Files.createTempFile(target.getParent(), key, ".tmp");
+      try {
+        Files.write(tmp, data);
+        try {
+          Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+          Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+      } finally {
+        Files.deleteIfExists(tmp);
+      }
+    } catch (IOException e) {
+      logger.warn("Could not write the class cache entry " + key, e);
+    }
+  }
+
+  /** Removes a (e.g. corrupted) entry. */
+  public void invalidate(@Nonnull String key) {
+    try {
+      Files.deleteIfExists(resolve(key));
+    } catch (IOException e) {
+      logger.warn("Could not remove the class cache entry " + key, e);
+    }
+  }
+
+  /** @return the number of loads that found an entry */
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  /** @return the number of loads that did not find an entry */
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  @Nonnull
+  private Path resolve(@Nonnull String key) {
+    return directory
+        .resolve(key.substring(0, 2))
+        .resolve(key.substring(2) + "." + FileType.BINARY_JIMPLE.getExtension());
+  }
+}
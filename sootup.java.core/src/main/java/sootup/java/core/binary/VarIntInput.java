@@ -0,0 +1,100 @@
+package sootup.java.core.binary;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import java.nio.charset.StandardCharsets;
+import javax.annotation.Nonnull;
+
+/** Reads the numbers written by {@link VarIntOutput} from a byte array. */
+final class VarIntInput {
+
+  @Nonnull private final byte[] data;
+  private int position;
+  private final int limit;
+
+  VarIntInput(@Nonnull byte[] data, int offset, int limit) {
+    this.data = data;
+    this.position = offset;
+    this.limit = limit;
+  }
+
+  int position() {
+    return position;
+  }
+
+  int readByte() {
+    if (position >= limit) {
+      throw new IllegalStateException("Unexpected end of binary Jimple data at " + position + ".");
+    }
+    return data[position++] & 0xFF;
+  }
+
+  int readVarInt() {
+    int result = 0;
+    for (int shift = 0; shift < 35; shift += 7) {
+      final int b = readByte();
+      result |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return result;
+      }
+    }
+    throw new IllegalStateException("Malformed varint at " + position + ".");
+  }
+
+  int readSignedVarInt() {
+    final int zigzag = readVarInt();
+    return (zigzag >>> 1) ^ -(zigzag & 1);
+  }
+
+  long readSignedVarLong() {
+    long zigzag = 0;
+    for (int shift = 0; shift < 70; shift += 7) {
+      final int b = readByte();
+      zigzag |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+      }
+    }
+    throw new IllegalStateException("Malformed varlong at " + position + ".");
+  }
+
+  int readFixedInt() {
+    return (readByte() << 24) | (readByte() << 16) | (readByte() << 8) | readByte();
+  }
+
+  long readFixedLong() {
+    return ((long) readFixedInt() << 32) | (readFixedInt() & 0xFFFFFFFFL);
+  }
+
+  @Nonnull
+  String readUtf8() {
+    final int length = readVarInt();
+    if (length < 0 || position + length > limit) {
+      throw new IllegalStateException("Malformed string at " + position + ".");
+    }
+    final String value = new String(data, position, length, StandardCharsets.UTF_8);
+    position += length;
+    return value;
+  }
+}
@@ -0,0 +1,117 @@
+package sootup.java.core.binary;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import javax.annotation.Nonnull;
+
+/** Growable byte buffer that stores numbers as (zigzag-)varints. */
+final class VarIntOutput {
+
+  @Nonnull private byte[] buffer;
+  private int size = 0;
+
+  VarIntOutput() {
+    this(256);
+  }
+
+  VarIntOutput(int initialCapacity) {
+    buffer = new byte[Math.max(16, initialCapacity)];
+  }
+
+  int size() {
+    return size;
+  }
+
+  void writeByte(int value) {
+    ensureCapacity(1);
+    buffer[size++] = (byte) value;
+  }
+
+  /** Writes a non-negative int in 1-5 bytes. */
+  void writeVarInt(int value) {
+    ensureCapacity(5);
+    while ((value & ~0x7F) != 0) {
+      buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    buffer[size++] = (byte) value;
+  }
+
+  /** Writes an int that may be negative, small absolute values take a single byte. */
+  void writeSignedVarInt(int value) {
+    writeVarInt((value << 1) ^ (value >> 31));
+  }
+
+  void writeSignedVarLong(long value) {
+    long zigzag = (value << 1) ^ (value >> 63);
+    ensureCapacity(10);
+    while ((zigzag & ~0x7FL) != 0) {
+      buffer[size++] = (byte) ((zigzag & 0x7F) | 0x80);
+      zigzag >>>= 7;
+    }
+    buffer[size++] = (byte) zigzag;
+  }
+
+  void writeFixedInt(int value) {
+    ensureCapacity(4);
+    buffer[size++] = (byte) (value >>> 24);
+    buffer[size++] = (byte) (value >>> 16);
+    buffer[size++] = (byte) (value >>> 8);
+    buffer[size++] = (byte) value;
+  }
+
+  void writeFixedLong(long value) {
+    writeFixedInt((int) (value >>> 32));
+    writeFixedInt((int) value);
+  }
+
+  void writeUtf8(@Nonnull String value) {
+    final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    writeVarInt(bytes.length);
+    writeBytes(bytes, 0, bytes.length);
+  }
+
+  void writeBytes(@Nonnull byte[] bytes, int offset, int length) {
+    ensureCapacity(length);
+    System.arraycopy(bytes, offset, buffer, size, length);
+    size += length;
+  }
+
+  void writeTo(@Nonnull VarIntOutput other) {
+    other.writeBytes(buffer, 0, size);
+  }
+
+  @Nonnull
+  byte[] toByteArray() {
+    return Arrays.copyOf(buffer, size);
+  }
+
+  private void ensureCapacity(int additionalBytes) {
+    if (size + additionalBytes > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + additionalBytes));
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package sootup.java.core.views;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Collections;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import sootup.core.signatures.MethodSignature;
+
+/**
+ * Summarizes a run of {@link JavaView#materializeBodies}: the number of bodies that were built and
+ * the methods whose body could not be built, together with the cause.
+ */
+public class BodyMaterializationResult {
+
+  private final int materializedBodies;
+  @Nonnull private final Map<MethodSignature, Throwable> failures;
+
+  BodyMaterializationResult(
+      int materializedBodies, @Nonnull Map<MethodSignature, Throwable> failures) {
+    this.materializedBodies = materializedBodies;
+    this.failures = Collections.unmodifiableMap(failures);
+  }
+
+  /** Returns the number of methods whose body is built. */
+  public int getMaterializedBodies() {
+    return materializedBodies;
+  }
+
+  /** Returns the methods whose body could not be built, mapped to the exception of the build. */
+  @Nonnull
+  public Map<MethodSignature, Throwable> getFailures() {
+    return failures;
+  }
+
+  public boolean hasFailures() {
+    return !failures.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    return "BodyMaterializationResult{materialized="
+        + materializedBodies
+        + ", failed="
+        + failures.size()
+        + "}";
+  }
+}
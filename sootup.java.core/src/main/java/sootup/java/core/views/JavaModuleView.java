@@ -23,6 +23,7 @@ package sootup.java.core.views;
  */
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -50,7 +51,7 @@ import sootup.java.core.types.JavaClassType;
  */
 public class JavaModuleView extends JavaView {
 
-  @Nonnull final HashMap<ModuleSignature, JavaModuleInfo> moduleInfoMap = new HashMap<>();
+  @Nonnull final Map<ModuleSignature, JavaModuleInfo> moduleInfoMap = new ConcurrentHashMap<>();
 
   @Nonnull
   protected Function<AnalysisInputLocation<? extends JavaSootClass>, ClassLoadingOptions>
@@ -143,10 +144,14 @@ public class JavaModuleView extends JavaView {
     return filteredExportedPackages.isPresent();
   }
 
+  /**
+   * Module aware input locations discover their modules lazily, hence looking up the source of a
+   * class that is not cached yet is serialized for this view.
+   */
   @Override
   @Nonnull
-  protected Optional<? extends AbstractClassSource<? extends JavaSootClass>> getAbstractClass(
-      @Nonnull ClassType type) {
+  protected synchronized Optional<? extends AbstractClassSource<? extends JavaSootClass>>
+      getAbstractClass(@Nonnull ClassType type) {
 
     Optional<? extends AbstractClassSource<JavaSootClass>> cs =
         getProject().getModuleInfoAnalysisInputLocation().stream()
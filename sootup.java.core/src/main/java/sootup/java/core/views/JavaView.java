@@ -24,38 +24,70 @@ package sootup.java.core.views;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import sootup.core.Project;
 import sootup.core.frontend.AbstractClassSource;
 import sootup.core.inputlocation.AnalysisInputLocation;
 import sootup.core.inputlocation.ClassLoadingOptions;
 import sootup.core.inputlocation.EmptyClassLoadingOptions;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
 import sootup.core.transform.BodyInterceptor;
 import sootup.core.types.ClassType;
 import sootup.core.views.AbstractView;
 import sootup.java.core.AnnotationUsage;
 import sootup.java.core.JavaAnnotationSootClass;
 import sootup.java.core.JavaSootClass;
+import sootup.java.core.JavaSootMethod;
 import sootup.java.core.types.AnnotationType;
 
 /**
  * The Class JavaView manages the Java classes of the application being analyzed. This view cannot
- * be altered after its creation.
+ * be altered after its creation. Classes can be requested concurrently from multiple threads.
  *
  * @author Linghui Luo created on 31.07.2018
  * @author Jan Martin Persch
  */
 public class JavaView extends AbstractView<JavaSootClass> {
 
-  @Nonnull protected final Map<ClassType, JavaSootClass> cache = new HashMap<>();
+  /**
+   * Holds every class that has been built completely. Lookups on this map are lock-free, so
+   * concurrent analyses that hit already resolved classes do not contend with each other.
+   */
+  @Nonnull protected final Map<ClassType, JavaSootClass> cache = new ConcurrentHashMap<>();
+
+  /**
+   * Holds the classes that are currently being built. Threads that request the same class wait for
+   * the thread that builds it, threads that request different classes do not block each other.
+   */
+  @Nonnull
+  private final Map<ClassType, CompletableFuture<JavaSootClass>> classesInConstruction =
+      new ConcurrentHashMap<>();
 
   protected volatile boolean isFullyResolved = false;
 
+  @Nonnull private final Object resolveAllLock = new Object();
+
+  /** if set, {@link #resolveAll()} discovers and builds the classes in parallel on it */
+  @Nullable private volatile Executor resolveAllExecutor = null;
+
+  @Nullable private volatile ResolveProgressListener resolveProgressListener = null;
+
   @Nonnull
   protected Function<AnalysisInputLocation<? extends JavaSootClass>, ClassLoadingOptions>
       classLoadingOptionsSpecifier;
@@ -97,10 +129,28 @@ public class JavaView extends AbstractView<JavaSootClass> {
     return Collections.emptyList();
   }
 
+  /**
+   * Enables the parallel resolution of all classes for this view: the class sources of the input
+   * locations are discovered and the classes are built concurrently on the given {@link Executor}
+   * (e.g. a {@link java.util.concurrent.ForkJoinPool}). If a class is contained in multiple input
+   * locations, the class of the first input location is used - as in the sequential mode.
+   *
+   * @param executor the executor to run the resolution on or <code>null</code> to resolve all
+   *     classes sequentially on the calling thread (default).
+   */
+  public void setResolveAllExecutor(@Nullable Executor executor) {
+    this.resolveAllExecutor = executor;
+  }
+
+  /** Sets a listener that is notified about the progress of resolving all classes of the view. */
+  public void setResolveProgressListener(@Nullable ResolveProgressListener listener) {
+    this.resolveProgressListener = listener;
+  }
+
   /** Resolves all classes that are part of the view and stores them in the cache. */
   @Override
   @Nonnull
-  public synchronized Collection<JavaSootClass> getClasses() {
+  public Collection<JavaSootClass> getClasses() {
     resolveAll();
     return cache.values();
   }
@@ -108,7 +158,7 @@ public class JavaView extends AbstractView<JavaSootClass> {
   /** Resolves the class matching the provided {@link ClassType ClassType}. */
   @Override
   @Nonnull
-  public synchronized Optional<JavaSootClass> getClass(@Nonnull ClassType type) {
+  public Optional<JavaSootClass> getClass(@Nonnull ClassType type) {
     JavaSootClass cachedClass = cache.get(type);
     if (cachedClass != null) {
       return Optional.of(cachedClass);
@@ -137,14 +187,12 @@ public class JavaView extends AbstractView<JavaSootClass> {
   }
 
   @Nonnull
-  protected synchronized Optional<JavaSootClass> buildClassFrom(
+  protected Optional<JavaSootClass> buildClassFrom(
       AbstractClassSource<? extends JavaSootClass> classSource) {
-    JavaSootClass theClass =
-        cache.computeIfAbsent(
-            classSource.getClassType(),
-            type ->
-                classSource.buildClass(
-                    getProject().getSourceTypeSpecifier().sourceTypeFor(classSource)));
+    JavaSootClass theClass = cache.get(classSource.getClassType());
+    if (theClass == null) {
+      theClass = buildClassOnce(classSource);
+    }
 
     if (theClass.getType() instanceof AnnotationType) {
       JavaAnnotationSootClass jasc = (JavaAnnotationSootClass) theClass;
@@ -154,14 +202,209 @@ public class JavaView extends AbstractView<JavaSootClass> {
     return Optional.of(theClass);
   }
 
-  protected synchronized void resolveAll() {
+  /**
+   * Builds the class of the given source exactly once per {@link ClassType}. The first thread that
+   * requests a type builds it, all other threads that request the same type in the meantime wait
+   * for (and share) its result.
+   */
+  @Nonnull
+  private JavaSootClass buildClassOnce(AbstractClassSource<? extends JavaSootClass> classSource) {
+    final ClassType type = classSource.getClassType();
+    final CompletableFuture<JavaSootClass> ownFuture = new CompletableFuture<>();
+    final CompletableFuture<JavaSootClass> runningFuture =
+        classesInConstruction.putIfAbsent(type, ownFuture);
+    if (runningFuture != null) {
+      return joinUnwrapped(runningFuture);
+    }
+
+    try {
+      // another thread could have finished building the class before we registered our future
+      JavaSootClass theClass = cache.get(type);
+      if (theClass == null) {
+        theClass =
+            classSource.buildClass(
+                getProject().getSourceTypeSpecifier().sourceTypeFor(classSource));
+        theClass.setBodyCache(getBodyCache());
+        final JavaSootClass existingClass = cache.putIfAbsent(type, theClass);
+        if (existingClass != null) {
+          theClass = existingClass;
+        }
+      }
+      ownFuture.complete(theClass);
+      return theClass;
+    } catch (RuntimeException | Error e) {
+      ownFuture.completeExceptionally(e);
+      throw e;
+    } finally {
+      classesInConstruction.remove(type, ownFuture);
+    }
+  }
+
+  protected void resolveAll() {
     if (isFullyResolved) {
       return;
     }
 
-    getProject().getInputLocations().stream()
-        .flatMap(location -> location.getClassSources(this).stream())
-        .forEach(this::buildClassFrom);
-    isFullyResolved = true;
+    synchronized (resolveAllLock) {
+      if (isFullyResolved) {
+        return;
+      }
+
+      final Executor executor = resolveAllExecutor;
+      if (executor == null) {
+        resolveAllSequentially();
+      } else {
+        resolveAllInParallel(executor);
+      }
+      isFullyResolved = true;
+    }
+  }
+
+  private void resolveAllSequentially() {
+    final List<AbstractClassSource<? extends JavaSootClass>> classSources =
+        getProject().getInputLocations().stream()
+            .flatMap(location -> location.getClassSources(this).stream())
+            .collect(Collectors.toList());
+
+    final int totalClasses = classSources.size();
+    int resolvedClasses = 0;
+    for (AbstractClassSource<? extends JavaSootClass> classSource : classSources) {
+      buildClassFrom(classSource);
+      notifyResolveProgress(++resolvedClasses, totalClasses);
+    }
+  }
+
+  private void resolveAllInParallel(@Nonnull Executor executor) {
+    final List<CompletableFuture<? extends Collection<? extends AbstractClassSource<?>>>>
+        discoveredClassSources =
+            getProject().getInputLocations().stream()
+                .map(
+                    location ->
+                        CompletableFuture.supplyAsync(
+                            () -> location.getClassSources(this), executor))
+                .collect(Collectors.toList());
+
+    // like javas behaviour: if multiple matching Classes(ClassTypes) are found on the
+    // classpath the first is used, hence merge the sources in the order of the input locations
+    final Map<ClassType, AbstractClassSource<? extends JavaSootClass>> firstClassSources =
+        new LinkedHashMap<>();
+    for (CompletableFuture<? extends Collection<? extends AbstractClassSource<?>>> future :
+        discoveredClassSources) {
+      for (AbstractClassSource<?> classSource : joinUnwrapped(future)) {
+        @SuppressWarnings("unchecked") // the input locations of a JavaView provide JavaSootClasses
+        final AbstractClassSource<? extends JavaSootClass> javaClassSource =
+            (AbstractClassSource<? extends JavaSootClass>) classSource;
+        firstClassSources.putIfAbsent(classSource.getClassType(), javaClassSource);
+      }
+    }
+
+    final int totalClasses = firstClassSources.size();
+    final AtomicInteger resolvedClasses = new AtomicInteger();
+    final CompletableFuture<?>[] builtClasses =
+        firstClassSources.values().stream()
+            .map(
+                classSource ->
+                    CompletableFuture.runAsync(
+                        () -> {
+                          buildClassFrom(classSource);
+                          notifyResolveProgress(resolvedClasses.incrementAndGet(), totalClasses);
+                        },
+                        executor))
+            .toArray(CompletableFuture<?>[]::new);
+    joinUnwrapped(CompletableFuture.allOf(builtClasses));
+  }
+
+  /**
+   * Builds the bodies of all concrete methods of the classes of this view that match <code>
+   * classFilter</code> ahead of time, e.g. <code>JavaSootClass::isApplicationClass</code>.
+   *
+   * @see #materializeBodies(Collection, Executor, int)
+   */
+  @Nonnull
+  public BodyMaterializationResult materializeBodies(
+      @Nonnull Predicate<? super JavaSootClass> classFilter,
+      @Nonnull Executor executor,
+      int maxPendingBodies) {
+    final List<JavaSootMethod> methods =
+        getClasses().stream()
+            .filter(classFilter)
+            .flatMap(clazz -> clazz.getMethods().stream())
+            .collect(Collectors.toList());
+    return materializeBodies(methods, executor, maxPendingBodies);
+  }
+
+  /**
+   * Builds the bodies of the given methods ahead of time, i.e. converts them and runs the {@link
+   * BodyInterceptor}s of their input location concurrently on the given {@link Executor}, so that
+   * subsequent calls to {@link SootMethod#getBody()} return the already built body. Methods that
+   * can not have a body are skipped. Note that a bounded {@link sootup.core.cache.BodyCache} of
+   * this view may evict the built bodies again.
+   *
+   * <p>The calling thread blocks until all bodies are built. To bound the memory for queued work,
+   * at most <code>maxPendingBodies</code> bodies are submitted to the executor at the same time. A
+   * failing body does not abort the other builds, instead it is reported in the returned {@link
+   * BodyMaterializationResult}.
+   */
+  @Nonnull
+  public BodyMaterializationResult materializeBodies(
+      @Nonnull Collection<? extends SootMethod> methods,
+      @Nonnull Executor executor,
+      int maxPendingBodies) {
+    if (maxPendingBodies < 1) {
+      throw new IllegalArgumentException("maxPendingBodies must be at least 1");
+    }
+    final Semaphore pendingBodies = new Semaphore(maxPendingBodies);
+    final AtomicInteger materializedBodies = new AtomicInteger();
+    final Map<MethodSignature, Throwable> failures = new ConcurrentHashMap<>();
+
+    for (SootMethod method : methods) {
+      if (!method.isConcrete()) {
+        continue;
+      }
+      pendingBodies.acquireUninterruptibly();
+      try {
+        executor.execute(
+            () -> {
+              try {
+                method.getBody();
+                materializedBodies.incrementAndGet();
+              } catch (RuntimeException | StackOverflowError e) {
+                failures.put(method.getSignature(), e);
+              } finally {
+                pendingBodies.release();
+              }
+            });
+      } catch (RejectedExecutionException e) {
+        pendingBodies.release();
+        throw e;
+      }
+    }
+    // wait for the pending bodies
+    pendingBodies.acquireUninterruptibly(maxPendingBodies);
+    pendingBodies.release(maxPendingBodies);
+
+    return new BodyMaterializationResult(materializedBodies.get(), failures);
+  }
+
+  private void notifyResolveProgress(int resolvedClasses, int totalClasses) {
+    final ResolveProgressListener listener = resolveProgressListener;
+    if (listener != null) {
+      listener.classResolved(resolvedClasses, totalClasses);
+    }
+  }
+
+  /** waits for the future and rethrows unchecked exceptions of the computation as they are */
+  private static <R> R joinUnwrapped(@Nonnull CompletableFuture<R> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw e;
+    }
   }
 }
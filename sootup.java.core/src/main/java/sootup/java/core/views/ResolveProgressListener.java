@@ -0,0 +1,37 @@
+package sootup.java.core.views;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+/**
+ * Gets notified about the progress while a {@link JavaView} resolves all classes of its input
+ * locations. In parallel resolution mode the listener is called from the worker threads.
+ */
+@FunctionalInterface
+public interface ResolveProgressListener {
+
+  /**
+   * @param resolvedClasses number of classes that are resolved so far
+   * @param totalClasses number of classes that are going to be resolved
+   */
+  void classResolved(int resolvedClasses, int totalClasses);
+}
@@ -0,0 +1,83 @@
+package sootup.java.core.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import categories.Java8Test;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.jimple.Jimple;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.LocalGenerator;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.common.stmt.JIdentityStmt;
+import sootup.core.jimple.common.stmt.JReturnVoidStmt;
+import sootup.core.model.Body;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.types.ClassType;
+import sootup.core.types.PrimitiveType;
+import sootup.java.core.JavaIdentifierFactory;
+
+@Category(Java8Test.class)
+public class BodyTest {
+
+  private final JavaIdentifierFactory factory = JavaIdentifierFactory.getInstance();
+  private final StmtPositionInfo noPosition = StmtPositionInfo.createNoStmtPositionInfo();
+  private final ClassType stringType = factory.getClassType("java.lang.String");
+  private final MethodSignature methodSignature =
+      factory.getMethodSignature(
+          "method", "Test", "void", Arrays.asList("int", "java.lang.String"));
+
+  @Test
+  public void parameterLocalsAreOrderedByIndex() {
+    final LocalGenerator generator = new LocalGenerator(new LinkedHashSet<>());
+    final Local number = generator.generateLocal(PrimitiveType.getInt());
+    final Local string = generator.generateLocal(stringType);
+    // the identity stmts are not in the order of the parameters
+    final JIdentityStmt<?> stringStmt =
+        Jimple.newIdentityStmt(string, Jimple.newParameterRef(stringType, 1), noPosition);
+    final JIdentityStmt<?> numberStmt =
+        Jimple.newIdentityStmt(
+            number, Jimple.newParameterRef(PrimitiveType.getInt(), 0), noPosition);
+    final JReturnVoidStmt returnStmt = new JReturnVoidStmt(noPosition);
+
+    final Body body =
+        Body.builder()
+            .setStartingStmt(stringStmt)
+            .addFlow(stringStmt, numberStmt)
+            .addFlow(numberStmt, returnStmt)
+            .setMethodSignature(methodSignature)
+            .setLocals(generator.getLocals())
+            .build();
+
+    assertEquals(Arrays.asList(number, string), body.getParameterLocals());
+  }
+
+  @Test
+  public void missingParameterLocalIsReported() {
+    final LocalGenerator generator = new LocalGenerator(new LinkedHashSet<>());
+    final Local string = generator.generateLocal(stringType);
+    final JIdentityStmt<?> stringStmt =
+        Jimple.newIdentityStmt(string, Jimple.newParameterRef(stringType, 1), noPosition);
+    final JReturnVoidStmt returnStmt = new JReturnVoidStmt(noPosition);
+
+    final Body body =
+        Body.builder()
+            .setStartingStmt(stringStmt)
+            .addFlow(stringStmt, returnStmt)
+            .setMethodSignature(methodSignature)
+            .setLocals(generator.getLocals())
+            .build();
+
+    try {
+      body.getParameterLocals();
+      fail();
+    } catch (IllegalStateException e) {
+      assertTrue(e.getMessage().contains("parameter number 0"));
+      assertTrue(e.getMessage().contains(methodSignature.toString()));
+    }
+  }
+}
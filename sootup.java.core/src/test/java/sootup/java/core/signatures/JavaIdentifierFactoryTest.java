@@ -398,4 +398,44 @@ public class JavaIdentifierFactoryTest {
         JavaModuleIdentifierFactory.getInstance().parseFieldSignature(fieldsSigStr);
     assertEquals(fieldsSigStr, fieldSignature.toString());
   }
+
+  @Test
+  public void interning() {
+    JavaIdentifierFactory identifierFactory = JavaIdentifierFactory.getInstance();
+    assertFalse(identifierFactory.isInterning());
+    identifierFactory.setInterning(true);
+    try {
+      assertTrue(identifierFactory.isInterning());
+      assertSame(
+          identifierFactory.getClassType("java.lang.String"),
+          identifierFactory.getClassType("String", "java.lang"));
+      assertSame(
+          identifierFactory.getType("java.lang.String[][]"),
+          identifierFactory.getArrayType(identifierFactory.getClassType("java.lang.String"), 2));
+
+      MethodSignature methodSignature =
+          identifierFactory.getMethodSignature(
+              "println", "java.io.PrintStream", "void", Collections.singletonList("int"));
+      MethodSignature parsedMethodSignature =
+          identifierFactory.parseMethodSignature("<java.io.PrintStream: void println(int)>");
+      assertSame(methodSignature, parsedMethodSignature);
+      assertSame(methodSignature.getSubSignature(), parsedMethodSignature.getSubSignature());
+      assertSame(
+          identifierFactory.getClassType("java.io.PrintStream"),
+          methodSignature.getDeclClassType());
+
+      FieldSignature fieldSignature =
+          identifierFactory.getFieldSignature(
+              "out", identifierFactory.getClassType("java.lang.System"), "java.io.PrintStream");
+      assertSame(
+          fieldSignature,
+          identifierFactory.parseFieldSignature("<java.lang.System: java.io.PrintStream out>"));
+      assertSame(fieldSignature.getType(), methodSignature.getDeclClassType());
+    } finally {
+      identifierFactory.setInterning(false);
+    }
+    assertNotSame(
+        identifierFactory.getClassType("java.lang.String"),
+        identifierFactory.getClassType("java.lang.String"));
+  }
 }
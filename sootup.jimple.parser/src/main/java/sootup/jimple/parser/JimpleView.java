@@ -129,9 +129,13 @@ public class JimpleView extends AbstractView<SootClass<?>> {
     SootClass<?> theClass =
         cache.computeIfAbsent(
             classSource.getClassType(),
-            type ->
-                classSource.buildClass(
-                    getProject().getSourceTypeSpecifier().sourceTypeFor(classSource)));
+            type -> {
+              SootClass<?> builtClass =
+                  classSource.buildClass(
+                      getProject().getSourceTypeSpecifier().sourceTypeFor(classSource));
+              builtClass.setBodyCache(getBodyCache());
+              return builtClass;
+            });
     return Optional.of(theClass);
   }
 
@@ -0,0 +1,124 @@
+package sootup.tests.callgraph;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import categories.Java8Test;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.callgraph.AbstractCallGraphAlgorithm;
+import sootup.callgraph.CallGraph;
+import sootup.callgraph.ClassHierarchyAnalysisAlgorithm;
+import sootup.callgraph.RapidTypeAnalysisAlgorithm;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.typehierarchy.TypeHierarchy;
+import sootup.core.typehierarchy.ViewTypeHierarchy;
+import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
+import sootup.java.core.JavaProject;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.JavaView;
+
+/** Compares the sequential and the parallel processing of the work list of the algorithms. */
+@Category(Java8Test.class)
+public class ParallelCallGraphTest {
+
+  final Path jar = Paths.get("../shared-test-resources/java-miniapps/MiniApp.jar");
+
+  final Path runtimeJar = Paths.get(System.getProperty("java.home"), "lib", "rt.jar");
+
+  @Before
+  public void setUp() {
+    if (!Files.exists(runtimeJar)) {
+      double version = Double.parseDouble(System.getProperty("java.specification.version"));
+      fail("The rt.jar is not available after Java 8. You are using version " + version);
+    }
+  }
+
+  /** Creates a view of the jar and the Java runtime. */
+  private JavaView createView() {
+    return JavaProject.builder(new JavaLanguage(8))
+        .addInputLocation(new PathBasedAnalysisInputLocation(jar, null))
+        .addInputLocation(new PathBasedAnalysisInputLocation(runtimeJar, null))
+        .build()
+        .createOnDemandView();
+  }
+
+  /** The main method of the mini app is the only entry point. */
+  private List<MethodSignature> getEntryPoints(JavaView view) {
+    return Collections.singletonList(
+        view.getIdentifierFactory()
+            .getMethodSignature(
+                "main", "MiniApp", "void", Collections.singletonList("java.lang.String[]")));
+  }
+
+  private static void assertSameCallGraph(CallGraph expected, CallGraph actual) {
+    assertEquals(expected.getMethodSignatures(), actual.getMethodSignatures());
+    assertEquals(expected.callCount(), actual.callCount());
+    for (MethodSignature method : expected.getMethodSignatures()) {
+      assertEquals(expected.callsFrom(method), actual.callsFrom(method));
+      assertEquals(expected.callSitesTo(method), actual.callSitesTo(method));
+    }
+  }
+
+  private void parallelEqualsSequential(
+      BiFunction<JavaView, TypeHierarchy, AbstractCallGraphAlgorithm> algorithmFactory) {
+    JavaView view = createView();
+    List<MethodSignature> entryPoints = getEntryPoints(view);
+    TypeHierarchy typeHierarchy = new ViewTypeHierarchy(view);
+
+    CallGraph sequential = algorithmFactory.apply(view, typeHierarchy).initialize(entryPoints);
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      AbstractCallGraphAlgorithm algorithm = algorithmFactory.apply(view, typeHierarchy);
+      algorithm.setWorkListExecutor(pool);
+      CallGraph parallel = algorithm.initialize(entryPoints);
+      assertTrue(parallel.callCount() > 0);
+      assertSameCallGraph(sequential, parallel);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void parallelCHAEqualsSequentialCHA() {
+    parallelEqualsSequential(ClassHierarchyAnalysisAlgorithm::new);
+  }
+
+  @Test
+  public void parallelRTAEqualsSequentialRTA() {
+    parallelEqualsSequential(RapidTypeAnalysisAlgorithm::new);
+  }
+}
@@ -0,0 +1,142 @@
+package sootup.tests.typehierarchy;
+
+import static org.junit.Assert.assertEquals;
+
+import categories.Java8Test;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import sootup.core.model.SootClass;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.signatures.MethodSubSignature;
+import sootup.core.typehierarchy.MethodDispatchResolver;
+import sootup.core.types.ClassType;
+import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.JavaProject;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.JavaView;
+
+/**
+ * Checks the indexed member lookups of {@link SootClass} and the dispatch of {@link
+ * MethodDispatchResolver} on generated classes with many methods against a linear scan over {@link
+ * SootClass#getMethods()}.
+ */
+@Category(Java8Test.class)
+public class MethodDispatchResolverIndexTest {
+
+  private static final int METHOD_COUNT = 200;
+
+  private Path classDir;
+  private JavaView view;
+  private ClassType baseType;
+  private ClassType subType;
+
+  @Before
+  public void setUp() throws IOException {
+    classDir = Files.createTempDirectory("dispatch-index");
+    Files.write(classDir.resolve("Base.class"), generateClass("Base", "java/lang/Object", 1));
+    // the subclass overrides every second method of its superclass
+    Files.write(classDir.resolve("Sub.class"), generateClass("Sub", "Base", 2));
+
+    view =
+        JavaProject.builder(new JavaLanguage(8))
+            .addInputLocation(new PathBasedAnalysisInputLocation(classDir, null))
+            .build()
+            .createOnDemandView();
+    JavaIdentifierFactory identifierFactory = JavaIdentifierFactory.getInstance();
+    baseType = identifierFactory.getClassType("Base");
+    subType = identifierFactory.getClassType("Sub");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    Files.delete(classDir.resolve("Base.class"));
+    Files.delete(classDir.resolve("Sub.class"));
+    Files.delete(classDir);
+  }
+
+  private static byte[] generateClass(String name, String superName, int step) {
+    ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+    cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, name, null, superName, null);
+    for (int i = 0; i < METHOD_COUNT; i += step) {
+      MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "m" + i, "(I)I", null, null);
+      mv.visitCode();
+      mv.visitVarInsn(Opcodes.ILOAD, 1);
+      mv.visitInsn(Opcodes.IRETURN);
+      mv.visitMaxs(0, 0);
+      mv.visitEnd();
+    }
+    cw.visitEnd();
+    return cw.toByteArray();
+  }
+
+  private static Optional<? extends SootMethod> linearLookup(
+      SootClass<?> sootClass, MethodSubSignature subSignature) {
+    return sootClass.getMethods().stream()
+        .filter(method -> method.getSignature().getSubSignature().equals(subSignature))
+        .findAny();
+  }
+
+  @Test
+  public void memberLookup() {
+    JavaSootClass sub = view.getClass(subType).get();
+    List<MethodSubSignature> subSignatures = new ArrayList<>();
+    for (SootMethod method : view.getClass(baseType).get().getMethods()) {
+      subSignatures.add(method.getSignature().getSubSignature());
+    }
+
+    int hits = 0;
+    for (MethodSubSignature subSignature : subSignatures) {
+      Optional<? extends SootMethod> expected = linearLookup(sub, subSignature);
+      assertEquals(expected, sub.getMethod(subSignature));
+      if (expected.isPresent()) {
+        hits++;
+      }
+    }
+    assertEquals(METHOD_COUNT / 2, hits);
+  }
+
+  @Test
+  public void dispatch() {
+    List<MethodSignature> calls = new ArrayList<>();
+    for (SootMethod method : view.getClass(baseType).get().getMethods()) {
+      calls.add(method.getSignature());
+    }
+    Collections.shuffle(calls, new Random(42));
+
+    int overridden = 0;
+    for (MethodSignature call : calls) {
+      MethodSignature onSub =
+          view.getIdentifierFactory().getMethodSignature(subType, call.getSubSignature());
+      MethodSignature target = MethodDispatchResolver.resolveConcreteDispatch(view, onSub);
+      if (target.getDeclClassType().equals(subType)) {
+        overridden++;
+      }
+    }
+
+    int targets = 0;
+    for (MethodSignature call : calls) {
+      Set<MethodSignature> resolved = MethodDispatchResolver.resolveAbstractDispatch(view, call);
+      targets += resolved.size();
+    }
+
+    assertEquals(METHOD_COUNT / 2, overridden);
+    assertEquals(METHOD_COUNT / 2, targets);
+  }
+}
@@ -327,4 +327,62 @@ public class ViewTypeHierarchyTest {
         "Collection[] should be a subtype of Object[]",
         typeHierarchy.isSubtype(objectArrayDim1Type, collectionArrayDim1Type));
   }
+
+  /** All types of the view that are part of the hierarchy, i.e. all classes of the view. */
+  private List<ClassType> getTypesOfView() {
+    return view.getClasses().stream().map(SootClass::getType).collect(Collectors.toList());
+  }
+
+  @Test
+  public void frozenHierarchyEqualsUnfrozenHierarchy() {
+    ViewTypeHierarchy frozenTypeHierarchy = new ViewTypeHierarchy(view);
+    frozenTypeHierarchy.freeze();
+    assertTrue(frozenTypeHierarchy.isFrozen());
+
+    List<ClassType> types = getTypesOfView();
+    // subtypesOf is expensive in the unfrozen hierarchy, so only every 50th type is compared
+    for (int i = 0; i < types.size(); i++) {
+      ClassType type = types.get(i);
+      assertEquals(
+          typeHierarchy.implementedInterfacesOf(type),
+          frozenTypeHierarchy.implementedInterfacesOf(type));
+      if (i % 50 == 0) {
+        Set<ClassType> subtypes = typeHierarchy.subtypesOf(type);
+        Set<ClassType> frozenSubtypes = frozenTypeHierarchy.subtypesOf(type);
+        assertEquals(subtypes, frozenSubtypes);
+        for (int j = 0; j < types.size(); j += 50) {
+          ClassType other = types.get(j);
+          assertEquals(subtypes.contains(other), frozenSubtypes.contains(other));
+          assertEquals(subtypes.contains(other), frozenTypeHierarchy.isSubtype(type, other));
+          assertEquals(
+              typeHierarchy.isSubtype(other, type), frozenTypeHierarchy.isSubtype(other, type));
+        }
+      }
+    }
+
+    IdentifierFactory factory = view.getIdentifierFactory();
+    ClassType abstractNamespace = factory.getClassType("ds.AbstractDataStrcture");
+    assertEquals(
+        immutableSet(factory.getClassType("ds.Employee"), factory.getClassType("ds.Department")),
+        frozenTypeHierarchy.subclassesOf(abstractNamespace));
+    assertEquals(
+        immutableSet(factory.getClassType("utils.Operations")),
+        frozenTypeHierarchy.implementersOf(factory.getClassType("utils.IFaceOperations")));
+  }
+
+  @Test
+  public void addTypeToFrozenHierarchy() {
+    typeHierarchy.freeze();
+    IdentifierFactory factory = view.getIdentifierFactory();
+    ClassType abstractNamespace = factory.getClassType("ds.AbstractDataStrcture");
+    assertEquals(2, typeHierarchy.subclassesOf(abstractNamespace).size());
+
+    // adding a type invalidates the precomputed hierarchy
+    addType();
+    ClassType addedType = factory.getClassType("adummytype.Type");
+    assertEquals(3, typeHierarchy.subclassesOf(abstractNamespace).size());
+    assertTrue(typeHierarchy.isSubtype(abstractNamespace, addedType));
+    assertTrue(typeHierarchy.isSubtype(factory.getClassType("ds.Employee"), addedType));
+    assertFalse(typeHierarchy.isSubtype(addedType, factory.getClassType("ds.Employee")));
+  }
 }